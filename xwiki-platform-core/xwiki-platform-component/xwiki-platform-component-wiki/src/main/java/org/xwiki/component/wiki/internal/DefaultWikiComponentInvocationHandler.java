@@ -34,9 +34,15 @@
 import org.xwiki.component.util.ReflectionUtils;
 import org.xwiki.component.wiki.WikiComponent;
 import org.xwiki.component.wiki.WikiComponentRuntimeException;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.job.JobContext;
+import org.xwiki.job.event.status.JobProgressManager;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.security.authorization.AuthorExecutor;
 
+import com.xpn.xwiki.web.XWikiAction;
+
 /**
  * Method invocation handler for wiki component proxy instances. Has a reference on a map of name/body wiki code of
  * supported methods.
@@ -68,6 +74,26 @@ public class DefaultWikiComponentInvocationHandler implements InvocationHandler
 
     private final AuthorExecutor authorExecutor;
 
+    /**
+     * The executor of the methods, resolved on the first call instead of on each call.
+     */
+    private volatile WikiComponentMethodExecutor methodExecutor;
+
+    /**
+     * Used to measure the time spent in each method call (e.g. in the debug mode).
+     */
+    private volatile JobProgressManager progress;
+
+    /**
+     * Used to know if the current thread is running a job, whose progress is followed.
+     */
+    private volatile JobContext jobContext;
+
+    /**
+     * Used to know if the progress of the current request is followed (debug mode).
+     */
+    private volatile Execution execution;
+
     /**
      * Constructor of this invocation handler.
      * 
@@ -130,6 +156,45 @@ private void injectComponentDependencies(Map<String, Object> methodContext)
         }
     }
 
+    private WikiComponentMethodExecutor getMethodExecutor() throws ComponentLookupException
+    {
+        if (this.methodExecutor == null) {
+            this.methodExecutor = this.componentManager.getInstance(WikiComponentMethodExecutor.class);
+        }
+
+        return this.methodExecutor;
+    }
+
+    private JobProgressManager getProgress() throws ComponentLookupException
+    {
+        if (this.progress == null) {
+            this.progress = this.componentManager.getInstance(JobProgressManager.class);
+        }
+
+        return this.progress;
+    }
+
+    /**
+     * Sending progress events is not free so it's only done when someone is actually following the progress: in a job
+     * or in a request executed in debug mode.
+     */
+    private boolean isProgressFollowed() throws ComponentLookupException
+    {
+        if (this.jobContext == null) {
+            this.jobContext = this.componentManager.getInstance(JobContext.class);
+        }
+        if (this.jobContext.getCurrentJob() != null) {
+            return true;
+        }
+
+        if (this.execution == null) {
+            this.execution = this.componentManager.getInstance(Execution.class);
+        }
+        ExecutionContext context = this.execution.getContext();
+
+        return context != null && context.getProperty(XWikiAction.ACTION_PROGRESS) != null;
+    }
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Exception
     {
@@ -150,17 +215,30 @@ public Object invoke(Object proxy, Method method, Object[] args) throws Exceptio
                         method.getName()));
             }
         } else {
-            WikiComponentMethodExecutor methodExecutor =
-                componentManager.getInstance(WikiComponentMethodExecutor.class);
-            Map<String, Object> methodContext = new HashMap<String, Object>();
-            XDOM xdom = this.wikiComponent.getHandledMethods().get(method.getName());
-            methodContext.put(METHOD_CONTEXT_COMPONENT_KEY, proxy);
-            this.injectComponentDependencies(methodContext);
-
-            return this.authorExecutor.call(
-                () -> methodExecutor.execute(method, args, wikiComponent.getDocumentReference(), xdom,
-                    wikiComponent.getSyntax(), methodContext),
-                this.wikiComponent.getAuthorReference(), this.wikiComponent.getDocumentReference());
+            WikiComponentMethodExecutor executor = getMethodExecutor();
+            JobProgressManager jobProgress = isProgressFollowed() ? getProgress() : null;
+
+            if (jobProgress != null) {
+                jobProgress.startStep(this, "wikicomponent.progress.invoke",
+                    "Invoke method [{}] of wiki component [{}]", method.getName(),
+                    this.wikiComponent.getDocumentReference());
+            }
+
+            try {
+                Map<String, Object> methodContext = new HashMap<String, Object>();
+                XDOM xdom = this.wikiComponent.getHandledMethods().get(method.getName());
+                methodContext.put(METHOD_CONTEXT_COMPONENT_KEY, proxy);
+                this.injectComponentDependencies(methodContext);
+
+                return this.authorExecutor.call(
+                    () -> executor.execute(method, args, wikiComponent.getDocumentReference(), xdom,
+                        wikiComponent.getSyntax(), methodContext),
+                    this.wikiComponent.getAuthorReference(), this.wikiComponent.getDocumentReference());
+            } finally {
+                if (jobProgress != null) {
+                    jobProgress.endStep(this);
+                }
+            }
         }
     }
 }
@@ -25,6 +25,10 @@
 
 import org.junit.jupiter.api.Test;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.Execution;
+import org.xwiki.job.Job;
+import org.xwiki.job.JobContext;
+import org.xwiki.job.event.status.JobProgressManager;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.security.authorization.AuthorExecutor;
@@ -33,8 +37,13 @@
 import org.xwiki.test.junit5.mockito.MockComponent;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 /**
  * Validate {@link DefaultWikiComponentInvocationHandler}.
@@ -50,6 +59,15 @@
     @MockComponent
     WikiComponentMethodExecutor methodExecutor;
 
+    @MockComponent
+    JobProgressManager progress;
+
+    @MockComponent
+    JobContext jobContext;
+
+    @MockComponent
+    Execution execution;
+
     @InjectComponentManager
     ComponentManager componentManager;
 
@@ -81,4 +99,48 @@ void invokeWithTheRightAuthor() throws Exception
 
         verify(this.authorExecutor).call(any(), same(authorReference), same(documentReference));
     }
+
+    @Test
+    void invokeIsInstrumentedPerComponentAndMethod() throws Exception
+    {
+        when(this.jobContext.getCurrentJob()).thenReturn(mock(Job.class));
+
+        DocumentReference documentReference = new DocumentReference("wiki", "space", "document");
+
+        DefaultWikiComponent component = new DefaultWikiComponent(documentReference, null, null, null, null);
+        Map<String, XDOM> methods = new HashMap<>();
+        methods.put("foo", null);
+        component.setHandledMethods(methods);
+
+        DefaultWikiComponentInvocationHandler handler =
+            new DefaultWikiComponentInvocationHandler(component, this.authorExecutor, this.componentManager);
+
+        Method method = TestComponent.class.getMethod("foo");
+
+        handler.invoke(null, method, null);
+        handler.invoke(null, method, null);
+
+        verify(this.progress, times(2)).startStep(same(handler), eq("wikicomponent.progress.invoke"), any(),
+            eq("foo"), same(documentReference));
+        verify(this.progress, times(2)).endStep(handler);
+    }
+
+    @Test
+    void invokeIsNotInstrumentedWhenProgressIsNotFollowed() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "space", "document");
+
+        DefaultWikiComponent component = new DefaultWikiComponent(documentReference, null, null, null, null);
+        Map<String, XDOM> methods = new HashMap<>();
+        methods.put("foo", null);
+        component.setHandledMethods(methods);
+
+        DefaultWikiComponentInvocationHandler handler =
+            new DefaultWikiComponentInvocationHandler(component, this.authorExecutor, this.componentManager);
+
+        handler.invoke(null, TestComponent.class.getMethod("foo"), null);
+
+        verifyNoInteractions(this.progress);
+        verify(this.authorExecutor).call(any(), any(), same(documentReference));
+    }
 }
@@ -0,0 +1,268 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.dashboard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.job.GroupedJobInitializer;
+import org.xwiki.job.JobGroupPath;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.rendering.RenderingException;
+import org.xwiki.rendering.async.AsyncContext;
+import org.xwiki.rendering.async.internal.AsyncRendererExecutor;
+import org.xwiki.rendering.async.internal.AsyncRendererExecutorResponse;
+import org.xwiki.rendering.async.internal.AsyncRendererWrapper;
+import org.xwiki.rendering.async.internal.block.BlockAsyncRenderer;
+import org.xwiki.rendering.async.internal.block.BlockAsyncRendererConfiguration;
+import org.xwiki.rendering.async.internal.block.BlockAsyncRendererResult;
+import org.xwiki.rendering.async.internal.block.DefaultBlockAsyncRenderer;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.GroupBlock;
+import org.xwiki.rendering.block.MetaDataBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ContentParser;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.rendering.transformation.RenderingContext;
+import org.xwiki.rendering.util.ParserUtils;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.context.XWikiContextContextStore;
+
+/**
+ * Execute the content of the gadgets of a dashboard concurrently, as asynchronous renderer jobs.
+ * <p>
+ * All the gadgets of the dashboard are started before waiting for the first one so that the time needed to display the
+ * dashboard is the time needed by the slowest gadget instead of the sum of all of them. The number of gadgets executed
+ * at the same time is limited by the pool associated to {@link GadgetsJobInitializer}. When a timeout is configured, a
+ * gadget still running when it's reached is displayed as a placeholder which is filled by the client once the gadget
+ * is ready.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = AsyncGadgetContentExecutor.class)
+@Singleton
+public class AsyncGadgetContentExecutor
+{
+    private static final Set<String> CONTEXT_ENTRIES = new HashSet<>(Arrays.asList(XWikiContextContextStore.PROP_WIKI,
+        XWikiContextContextStore.PROP_USER, XWikiContextContextStore.PROP_LOCALE, XWikiContextContextStore.PROP_ACTION,
+        XWikiContextContextStore.PROP_DOCUMENT_REFERENCE, XWikiContextContextStore.PROP_REQUEST_BASE,
+        XWikiContextContextStore.PROP_REQUEST_URL, XWikiContextContextStore.PROP_REQUEST_PARAMETERS,
+        XWikiContextContextStore.PROP_REQUEST_WIKI));
+
+    /**
+     * The running execution of the content of a gadget.
+     *
+     * @version $Id$
+     */
+    public static final class GadgetExecution
+    {
+        private final AsyncRendererExecutorResponse response;
+
+        GadgetExecution(AsyncRendererExecutorResponse response)
+        {
+            this.response = response;
+        }
+    }
+
+    /**
+     * Run the block renderer in the gadgets thread pool.
+     *
+     * @version $Id$
+     */
+    private static final class GadgetAsyncRenderer extends AsyncRendererWrapper implements BlockAsyncRenderer
+    {
+        private final JobGroupPath jobGroupPath;
+
+        GadgetAsyncRenderer(BlockAsyncRenderer renderer, JobGroupPath jobGroupPath)
+        {
+            super(renderer);
+
+            this.jobGroupPath = jobGroupPath;
+        }
+
+        @Override
+        public BlockAsyncRendererResult render(boolean async, boolean cached) throws RenderingException
+        {
+            return ((BlockAsyncRenderer) this.renderer).render(async, cached);
+        }
+
+        @Override
+        public boolean isInline()
+        {
+            return ((BlockAsyncRenderer) this.renderer).isInline();
+        }
+
+        @Override
+        public Syntax getTargetSyntax()
+        {
+            return ((BlockAsyncRenderer) this.renderer).getTargetSyntax();
+        }
+
+        @Override
+        public JobGroupPath getJobGroupPath()
+        {
+            return this.jobGroupPath;
+        }
+    }
+
+    @Inject
+    private AsyncRendererExecutor executor;
+
+    @Inject
+    private Provider<DefaultBlockAsyncRenderer> rendererProvider;
+
+    @Inject
+    @Named(GadgetsJobInitializer.HINT)
+    private GroupedJobInitializer jobInitializer;
+
+    @Inject
+    private AsyncContext asyncContext;
+
+    @Inject
+    private ContentParser parser;
+
+    @Inject
+    private RenderingContext renderingContext;
+
+    @Inject
+    private DashboardConfiguration configuration;
+
+    private ParserUtils parserUtils = new ParserUtils();
+
+    /**
+     * @return true if the gadgets should be executed concurrently in the current context
+     */
+    public boolean isEnabled()
+    {
+        return this.configuration.isParallelGadgetsEnabled() && this.asyncContext.isEnabled();
+    }
+
+    /**
+     * @return the time (in milliseconds) after which the gadgets started now should be displayed as placeholders, 0
+     *         to wait for all of them
+     */
+    public long getDeadline()
+    {
+        long timeout = this.configuration.getGadgetsTimeout();
+
+        return timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+    }
+
+    /**
+     * Start the execution of the content of a gadget.
+     *
+     * @param id the identifier of the gadget
+     * @param content the content of the gadget
+     * @param sourceSyntax the syntax of the content
+     * @param sourceReference the reference of the gadget object
+     * @param ownerDocument the document holding the gadget object, used as the author of the content
+     * @param context the macro transformation context, where the dashboard macro is being executed
+     * @return the execution to pass to {@link #getContent(GadgetExecution, long)}
+     * @throws Exception when failing to start the execution
+     */
+    public GadgetExecution start(String id, String content, Syntax sourceSyntax, EntityReference sourceReference,
+        XWikiDocument ownerDocument, MacroTransformationContext context) throws Exception
+    {
+        XDOM xdom = this.parser.parse(content, sourceSyntax, sourceReference);
+
+        BlockAsyncRendererConfiguration rendererConfiguration =
+            new BlockAsyncRendererConfiguration(Arrays.asList("dashboard", "gadget", sourceReference, id), xdom);
+        // Ensure that the gadget is executed with the proper rights
+        rendererConfiguration.setSecureReference(ownerDocument.getDocumentReference(),
+            ownerDocument.getAuthorReference());
+        // The result depends on the current request, it cannot be reused
+        rendererConfiguration.setCacheAllowed(false);
+        rendererConfiguration.setContextEntries(CONTEXT_ENTRIES);
+        rendererConfiguration.setDefaultSyntax(sourceSyntax);
+        rendererConfiguration.setTargetSyntax(this.renderingContext.getTargetSyntax());
+        rendererConfiguration.setTransformationId(context.getTransformationContext().getId());
+
+        DefaultBlockAsyncRenderer renderer = this.rendererProvider.get();
+        renderer.initialize(rendererConfiguration);
+
+        return new GadgetExecution(this.executor
+            .render(new GadgetAsyncRenderer(renderer, this.jobInitializer.getId()), rendererConfiguration));
+    }
+
+    /**
+     * Wait for the execution of the content of a gadget.
+     *
+     * @param execution the execution returned by
+     *            {@link #start(String, String, Syntax, EntityReference, XWikiDocument, MacroTransformationContext)}
+     * @param deadline the time (in milliseconds) after which the content should not be waited for, 0 to wait until
+     *            it's available
+     * @return the executed content of the gadget or a placeholder if it's not available before the deadline
+     */
+    public List<Block> getContent(GadgetExecution execution, long deadline)
+    {
+        AsyncRendererExecutorResponse response = execution.response;
+
+        if (response.getStatus().getResult() == null && response.getAsyncClientId() != null) {
+            long time = deadline > 0 ? deadline - System.currentTimeMillis() : Long.MAX_VALUE;
+
+            if (time > 0) {
+                try {
+                    this.executor.getAsyncStatus(response.getStatus().getRequest().getId(),
+                        response.getAsyncClientId(), time, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        BlockAsyncRendererResult result = (BlockAsyncRendererResult) response.getStatus().getResult();
+
+        if (result != null) {
+            Block block = result.getBlock();
+
+            List<Block> blocks;
+            if (block instanceof MetaDataBlock) {
+                blocks = new ArrayList<>(block.getChildren());
+            } else {
+                blocks = new ArrayList<>(Collections.singletonList(block));
+            }
+            this.parserUtils.removeTopLevelParagraph(blocks);
+
+            return blocks;
+        }
+
+        // Return a placeholder waiting for the result
+        GroupBlock placeholder = new GroupBlock();
+        placeholder.setParameter("class", "xwiki-async");
+        placeholder.setParameter("data-xwiki-async-id", response.getJobIdHTTPPath());
+        placeholder.setParameter("data-xwiki-async-client-id", response.getAsyncClientId());
+
+        return Collections.singletonList(placeholder);
+    }
+}
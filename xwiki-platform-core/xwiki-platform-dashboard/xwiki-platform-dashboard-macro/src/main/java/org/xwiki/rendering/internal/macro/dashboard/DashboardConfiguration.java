@@ -0,0 +1,70 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.dashboard;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+
+/**
+ * The configuration of the dashboard macro, stored in {@code xwiki.properties}.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = DashboardConfiguration.class)
+@Singleton
+public class DashboardConfiguration
+{
+    private static final String PREFIX = "dashboard.";
+
+    @Inject
+    @Named("xwikiproperties")
+    private Provider<ConfigurationSource> configuration;
+
+    /**
+     * @return true if the content of the gadgets should be executed concurrently
+     */
+    public boolean isParallelGadgetsEnabled()
+    {
+        return this.configuration.get().getProperty(PREFIX + "gadgets.parallel", false);
+    }
+
+    /**
+     * @return the number of threads used to execute the content of the gadgets concurrently
+     */
+    public int getGadgetsPoolSize()
+    {
+        return this.configuration.get().getProperty(PREFIX + "gadgets.poolSize", 4);
+    }
+
+    /**
+     * @return the maximum time in milliseconds to wait for the gadgets content before falling back on an asynchronous
+     *         placeholder, 0 or less to wait for all the gadgets
+     */
+    public long getGadgetsTimeout()
+    {
+        return this.configuration.get().getProperty(PREFIX + "gadgets.timeout", 0L);
+    }
+}
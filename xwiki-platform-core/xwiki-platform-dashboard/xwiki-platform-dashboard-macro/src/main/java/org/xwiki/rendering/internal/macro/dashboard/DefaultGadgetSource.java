@@ -22,7 +22,9 @@
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -44,6 +46,7 @@
 import org.xwiki.rendering.block.WordBlock;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.executor.ContentExecutor;
+import org.xwiki.rendering.internal.macro.dashboard.AsyncGadgetContentExecutor.GadgetExecution;
 import org.xwiki.rendering.listener.reference.ResourceReference;
 import org.xwiki.rendering.listener.reference.ResourceType;
 import org.xwiki.rendering.macro.dashboard.Gadget;
@@ -122,6 +125,9 @@ public class DefaultGadgetSource implements GadgetSource
     @Inject
     private AuthorizationManager authorizationManager;
 
+    @Inject
+    private AsyncGadgetContentExecutor asyncContentExecutor;
+
     /**
      * Prepare the parser to parse the title and content of the gadget into blocks.
      */
@@ -174,6 +180,12 @@ private List<Gadget> prepareGadgets(List<BaseObject> objects, Syntax sourceSynta
     {
         List<Gadget> gadgets = new ArrayList<>();
 
+        // Execute the content of the gadgets concurrently when possible (the placeholders are not supported by the
+        // dashboard editor)
+        Map<Gadget, GadgetExecution> executions = new LinkedHashMap<>();
+        boolean parallel = !isEditing() && this.asyncContentExecutor.isEnabled();
+        long deadline = parallel ? this.asyncContentExecutor.getDeadline() : 0;
+
         // prepare velocity tools to render title
         VelocityContext velocityContext = velocityManager.getVelocityContext();
         // Use the Transformation id as the name passed to the Velocity Engine. This name is used internally
@@ -210,12 +222,20 @@ private List<Gadget> prepareGadgets(List<BaseObject> objects, Syntax sourceSynta
                 List<Block> titleBlocks =
                     renderGadgetProperty(gadgetTitle, sourceSyntax, xObject.getDocumentReference(),
                         ownerDocument, context);
-                List<Block> contentBlocks =
-                    renderGadgetProperty(content, sourceSyntax, xObject.getDocumentReference(),
-                        ownerDocument, context);
+                Gadget gadget;
+                if (parallel) {
+                    // the content is set once the execution is finished
+                    gadget = new Gadget(id, titleBlocks, Collections.emptyList(), position);
+                    executions.put(gadget, this.asyncContentExecutor.start(id, content, sourceSyntax,
+                        xObject.getDocumentReference(), ownerDocument, context));
+                } else {
+                    List<Block> contentBlocks =
+                        renderGadgetProperty(content, sourceSyntax, xObject.getDocumentReference(),
+                            ownerDocument, context);
 
-                // create a gadget will all these and add the gadget to the container of gadgets
-                Gadget gadget = new Gadget(id, titleBlocks, contentBlocks, position);
+                    // create a gadget will all these and add the gadget to the container of gadgets
+                    gadget = new Gadget(id, titleBlocks, contentBlocks, position);
+                }
                 gadget.setTitleSource(title);
                 gadgets.add(gadget);
             } else {
@@ -225,6 +245,10 @@ private List<Gadget> prepareGadgets(List<BaseObject> objects, Syntax sourceSynta
             this.progress.endStep(this);
         }
 
+        for (Map.Entry<Gadget, GadgetExecution> execution : executions.entrySet()) {
+            execution.getKey().setContent(this.asyncContentExecutor.getContent(execution.getValue(), deadline));
+        }
+
         return gadgets;
     }
 
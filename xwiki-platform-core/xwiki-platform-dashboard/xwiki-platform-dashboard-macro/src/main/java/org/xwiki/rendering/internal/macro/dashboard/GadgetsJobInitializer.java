@@ -0,0 +1,71 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.dashboard;
+
+import java.util.Arrays;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.job.GroupedJobInitializer;
+import org.xwiki.job.JobGroupPath;
+
+/**
+ * {@link GroupedJobInitializer} for the jobs executing the content of the dashboard gadgets, to limit the number of
+ * gadgets executed at the same time.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component
+@Named(GadgetsJobInitializer.HINT)
+@Singleton
+public class GadgetsJobInitializer implements GroupedJobInitializer
+{
+    /**
+     * The hint of the component.
+     */
+    public static final String HINT = "DashboardGadgets";
+
+    private static final JobGroupPath GADGETS_JOBGROUPPATH = new JobGroupPath(Arrays.asList("dashboard", "gadgets"));
+
+    @Inject
+    private DashboardConfiguration configuration;
+
+    @Override
+    public JobGroupPath getId()
+    {
+        return GADGETS_JOBGROUPPATH;
+    }
+
+    @Override
+    public int getPoolSize()
+    {
+        return this.configuration.getGadgetsPoolSize();
+    }
+
+    @Override
+    public int getDefaultPriority()
+    {
+        return Thread.NORM_PRIORITY;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.dashboard;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.job.GroupedJobInitializer;
+import org.xwiki.job.JobGroupPath;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.async.internal.AsyncRendererConfiguration;
+import org.xwiki.rendering.async.internal.AsyncRendererExecutor;
+import org.xwiki.rendering.async.internal.AsyncRendererExecutorResponse;
+import org.xwiki.rendering.async.internal.AsyncRendererJobRequest;
+import org.xwiki.rendering.async.internal.AsyncRendererJobStatus;
+import org.xwiki.rendering.async.internal.block.BlockAsyncRenderer;
+import org.xwiki.rendering.async.internal.block.BlockAsyncRendererConfiguration;
+import org.xwiki.rendering.async.internal.block.BlockAsyncRendererResult;
+import org.xwiki.rendering.async.internal.block.DefaultBlockAsyncRenderer;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MetaDataBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.internal.macro.dashboard.AsyncGadgetContentExecutor.GadgetExecution;
+import org.xwiki.rendering.parser.ContentParser;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.rendering.transformation.RenderingContext;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AsyncGadgetContentExecutor}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class AsyncGadgetContentExecutorTest
+{
+    private static final DocumentReference SOURCE_REFERENCE = new DocumentReference("wiki", "Space", "Dashboard");
+
+    private static final DocumentReference AUTHOR_REFERENCE = new DocumentReference("wiki", "XWiki", "Author");
+
+    private static final JobGroupPath GROUP_PATH = new JobGroupPath(Arrays.asList("dashboard", "gadgets"));
+
+    @InjectMockComponents
+    private AsyncGadgetContentExecutor executor;
+
+    @MockComponent
+    private AsyncRendererExecutor asyncExecutor;
+
+    @MockComponent
+    private DefaultBlockAsyncRenderer renderer;
+
+    @MockComponent
+    @Named(GadgetsJobInitializer.HINT)
+    private GroupedJobInitializer jobInitializer;
+
+    @MockComponent
+    private ContentParser parser;
+
+    @MockComponent
+    private RenderingContext renderingContext;
+
+    private AsyncRendererJobStatus status = mock(AsyncRendererJobStatus.class);
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.jobInitializer.getId()).thenReturn(GROUP_PATH);
+        when(this.renderingContext.getTargetSyntax()).thenReturn(Syntax.XHTML_1_0);
+
+        AsyncRendererJobRequest request = new AsyncRendererJobRequest();
+        request.setId(Arrays.asList("job", "id"));
+        when(this.status.getRequest()).thenReturn(request);
+        when(this.asyncExecutor.render(any(), any()))
+            .thenReturn(new AsyncRendererExecutorResponse(this.status, "client"));
+    }
+
+    private GadgetExecution start() throws Exception
+    {
+        XDOM xdom = new XDOM(Collections.singletonList(new WordBlock("content")));
+        when(this.parser.parse("content", Syntax.XWIKI_2_1, SOURCE_REFERENCE)).thenReturn(xdom);
+
+        XWikiDocument ownerDocument = mock(XWikiDocument.class);
+        when(ownerDocument.getDocumentReference()).thenReturn(SOURCE_REFERENCE);
+        when(ownerDocument.getAuthorReference()).thenReturn(AUTHOR_REFERENCE);
+
+        MacroTransformationContext context = mock(MacroTransformationContext.class);
+        TransformationContext transformationContext = mock(TransformationContext.class);
+        when(context.getTransformationContext()).thenReturn(transformationContext);
+        when(transformationContext.getId()).thenReturn("transformationId");
+
+        return this.executor.start("42", "content", Syntax.XWIKI_2_1, SOURCE_REFERENCE, ownerDocument, context);
+    }
+
+    @Test
+    void start() throws Exception
+    {
+        start();
+
+        ArgumentCaptor<BlockAsyncRenderer> rendererCaptor = ArgumentCaptor.forClass(BlockAsyncRenderer.class);
+        ArgumentCaptor<AsyncRendererConfiguration> configurationCaptor =
+            ArgumentCaptor.forClass(AsyncRendererConfiguration.class);
+        verify(this.asyncExecutor).render(rendererCaptor.capture(), configurationCaptor.capture());
+
+        assertSame(GROUP_PATH, rendererCaptor.getValue().getJobGroupPath());
+
+        BlockAsyncRendererConfiguration configuration =
+            (BlockAsyncRendererConfiguration) configurationCaptor.getValue();
+        verify(this.renderer).initialize(configuration);
+        assertEquals(SOURCE_REFERENCE, configuration.getSecureDocumentReference());
+        assertEquals(AUTHOR_REFERENCE, configuration.getSecureAuthorReference());
+        assertFalse(configuration.isCacheAllowed());
+        assertEquals(Syntax.XWIKI_2_1, configuration.getDefaultSyntax());
+        assertEquals(Syntax.XHTML_1_0, configuration.getTargetSyntax());
+        assertEquals("transformationId", configuration.getTransformationId());
+    }
+
+    @Test
+    void getContentWaitsForTheResult() throws Exception
+    {
+        GadgetExecution execution = start();
+
+        WordBlock word = new WordBlock("result");
+        MetaDataBlock resultBlock =
+            new MetaDataBlock(Collections.singletonList(new ParagraphBlock(Collections.singletonList(word))));
+        when(this.status.getResult()).thenReturn(null, new BlockAsyncRendererResult("result", resultBlock));
+
+        List<Block> content = this.executor.getContent(execution, 0);
+
+        verify(this.asyncExecutor).getAsyncStatus(Arrays.asList("job", "id"), "client", Long.MAX_VALUE,
+            TimeUnit.MILLISECONDS);
+        // The top level paragraph is removed
+        assertEquals(1, content.size());
+        assertSame(word, content.get(0));
+    }
+
+    @Test
+    void getContentAfterTheDeadline() throws Exception
+    {
+        GadgetExecution execution = start();
+
+        List<Block> content = this.executor.getContent(execution, System.currentTimeMillis() - 1);
+
+        verify(this.asyncExecutor, never()).getAsyncStatus(any(), any(), anyLong(), any());
+        assertEquals(1, content.size());
+        Block placeholder = content.get(0);
+        assertEquals("xwiki-async", placeholder.getParameter("class"));
+        assertEquals("job/id", placeholder.getParameter("data-xwiki-async-id"));
+        assertEquals("client", placeholder.getParameter("data-xwiki-async-client-id"));
+    }
+}
@@ -37,6 +37,7 @@
 import org.xwiki.rendering.block.WordBlock;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.executor.ContentExecutor;
+import org.xwiki.rendering.internal.macro.dashboard.AsyncGadgetContentExecutor.GadgetExecution;
 import org.xwiki.rendering.macro.dashboard.Gadget;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
 import org.xwiki.rendering.transformation.TransformationContext;
@@ -59,6 +60,7 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -78,6 +80,9 @@
     @MockComponent
     private AuthorizationManager authorizationManager;
 
+    @MockComponent
+    private AsyncGadgetContentExecutor asyncContentExecutor;
+
     @Mock
     private DocumentReference documentReference;
 
@@ -210,4 +215,35 @@ void getGadgetWithoutScriptRight() throws Exception
         verify(this.contentExecutor)
             .execute(eq("Some other content"), any(), any(), any());
     }
+
+    @Test
+    void getGadgetsInParallel() throws Exception
+    {
+        when(this.asyncContentExecutor.isEnabled()).thenReturn(true);
+        when(this.asyncContentExecutor.getDeadline()).thenReturn(42L);
+
+        BaseObject gadgetObject1 = mock(BaseObject.class);
+        when(xWikiDocument.getXObjects(gadgetClassReference)).thenReturn(Collections.singletonList(gadgetObject1));
+        when(gadgetObject1.getOwnerDocument()).thenReturn(ownerDocument);
+        when(gadgetObject1.getDocumentReference()).thenReturn(documentReference);
+        when(gadgetObject1.getStringValue("title")).thenReturn("Gadget 3");
+        when(gadgetObject1.getLargeStringValue("content")).thenReturn("Slow content");
+        when(gadgetObject1.getStringValue("position")).thenReturn("3");
+        when(gadgetObject1.getNumber()).thenReturn(7);
+
+        GadgetExecution execution = new GadgetExecution(null);
+        when(this.asyncContentExecutor.start("7", "Slow content", null, documentReference, ownerDocument,
+            macroTransformationContext)).thenReturn(execution);
+        when(this.asyncContentExecutor.getContent(execution, 42L))
+            .thenReturn(Collections.singletonList(new WordBlock("Slow content result")));
+
+        List<Gadget> gadgets = this.defaultGadgetSource.getGadgets(testSource, macroTransformationContext);
+        assertEquals(1, gadgets.size());
+        Gadget gadget = gadgets.get(0);
+        assertEquals("Gadget 3", gadget.getTitle().get(0).toString());
+        assertEquals("Slow content result", gadget.getContent().get(0).toString());
+        // Only the title is executed synchronously
+        verify(this.contentExecutor).execute(eq("Gadget 3"), any(), any(), any());
+        verify(this.contentExecutor, never()).execute(eq("Slow content"), any(), any(), any());
+    }
 }
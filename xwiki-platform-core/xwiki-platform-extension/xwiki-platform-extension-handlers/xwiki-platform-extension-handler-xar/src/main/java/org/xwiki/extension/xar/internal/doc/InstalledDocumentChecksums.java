@@ -0,0 +1,234 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.xar.internal.doc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+/**
+ * Remember, for each document installed from a XAR extension, the checksum of the XAR entry it was installed from and
+ * the version and date of the document produced by the installation. As long as the document still has this version
+ * and date in the database it's identical to the XAR entry and there is no need to load and compare both to know it
+ * has not been customized.
+ * <p>
+ * The information is stored in the permanent directory. It's only a hint: a document is considered unmodified only if
+ * its current version and date in the database are the ones which were recorded. The date is needed because a document
+ * which is deleted and created again starts again from the first version.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = InstalledDocumentChecksums.class)
+@Singleton
+public class InstalledDocumentChecksums
+{
+    private static final String SEPARATOR = ":";
+
+    private static final String LOCALE_SEPARATOR = ";";
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localEntityReferenceSerializer;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<String, Properties> wikis = new ConcurrentHashMap<>();
+
+    /**
+     * @param documentReference the reference of the document (with the locale)
+     * @param version the version of the document in the database
+     * @param date the date of the document in the database
+     * @return the checksum of the XAR entry from which this version of the document was installed or -1 if unknown
+     */
+    public long getChecksum(DocumentReference documentReference, String version, Date date)
+    {
+        String value = getWiki(documentReference.getWikiReference().getName()).getProperty(getKey(documentReference));
+
+        if (value != null && version != null && date != null) {
+            String[] elements = StringUtils.split(value, SEPARATOR);
+            if (elements.length == 3 && elements[1].equals(version) && elements[2].equals(getTime(date))) {
+                try {
+                    return Long.parseLong(elements[0]);
+                } catch (NumberFormatException e) {
+                    // Invalid value, should never happen
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private String getTime(Date date)
+    {
+        // Same precision as the document date, which drops the milliseconds
+        return String.valueOf(date.getTime() / 1000);
+    }
+
+    /**
+     * @param documentReference the reference of the document (with the locale)
+     * @param checksum the checksum of the XAR entry
+     * @return true if the document in the database has not been modified since it was installed from a XAR entry
+     *         with the passed checksum
+     */
+    public boolean isUnmodified(DocumentReference documentReference, long checksum)
+    {
+        if (checksum == -1) {
+            return false;
+        }
+
+        Object[] versionAndDate = getDatabaseVersion(documentReference);
+
+        return versionAndDate != null
+            && getChecksum(documentReference, (String) versionAndDate[0], (Date) versionAndDate[1]) == checksum;
+    }
+
+    private Object[] getDatabaseVersion(DocumentReference documentReference)
+    {
+        Locale locale = documentReference.getLocale();
+
+        try {
+            Query query = this.queryManager.createQuery("select doc.version, doc.date from XWikiDocument doc"
+                + " where doc.fullName = :fullName and doc.language = :language", Query.HQL);
+            query.setWiki(documentReference.getWikiReference().getName());
+            query.bindValue("fullName", this.localEntityReferenceSerializer.serialize(documentReference));
+            query.bindValue("language", locale != null ? locale.toString() : "");
+            query.setLimit(1);
+
+            List<Object[]> result = query.execute();
+
+            return result.isEmpty() ? null : result.get(0);
+        } catch (QueryException e) {
+            this.logger.warn("Failed to get the version of document [{}]", documentReference, e);
+
+            return null;
+        }
+    }
+
+    /**
+     * @param documentReference the reference of the document (with the locale)
+     * @param checksum the checksum of the XAR entry from which the document was installed
+     * @param version the version of the document produced by the installation
+     * @param date the date of the document produced by the installation
+     */
+    public void set(DocumentReference documentReference, long checksum, String version, Date date)
+    {
+        getWiki(documentReference.getWikiReference().getName()).setProperty(getKey(documentReference),
+            checksum + SEPARATOR + version + SEPARATOR + getTime(date));
+    }
+
+    /**
+     * @param documentReference the reference of the document (with the locale)
+     * @return true if a checksum was associated to the document
+     */
+    public boolean remove(DocumentReference documentReference)
+    {
+        return getWiki(documentReference.getWikiReference().getName()).remove(getKey(documentReference)) != null;
+    }
+
+    /**
+     * Store the checksums of the passed wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void save(String wiki)
+    {
+        Properties properties = this.wikis.get(wiki);
+
+        if (properties != null) {
+            File file = getFile(wiki);
+            file.getParentFile().mkdirs();
+
+            try (OutputStream stream = new FileOutputStream(file)) {
+                properties.store(stream, null);
+            } catch (IOException e) {
+                this.logger.warn("Failed to store the checksums of the installed documents in [{}]", file, e);
+            }
+        }
+    }
+
+    private Properties getWiki(String wiki)
+    {
+        return this.wikis.computeIfAbsent(wiki, this::load);
+    }
+
+    private Properties load(String wiki)
+    {
+        Properties properties = new Properties();
+
+        File file = getFile(wiki);
+        if (file.exists()) {
+            try (InputStream stream = new FileInputStream(file)) {
+                properties.load(stream);
+            } catch (IOException e) {
+                this.logger.warn("Failed to load the checksums of the installed documents from [{}]", file, e);
+            }
+        }
+
+        return properties;
+    }
+
+    private File getFile(String wiki)
+    {
+        return new File(this.environment.getPermanentDirectory(), "extension/xar/checksums/" + wiki + ".properties");
+    }
+
+    private String getKey(DocumentReference documentReference)
+    {
+        String key = this.localEntityReferenceSerializer.serialize(documentReference);
+
+        Locale locale = documentReference.getLocale();
+        if (locale != null && !StringUtils.isEmpty(locale.toString())) {
+            key += LOCALE_SEPARATOR + locale;
+        }
+
+        return key;
+    }
+}
@@ -40,8 +40,10 @@
 import org.xwiki.extension.ExtensionId;
 import org.xwiki.extension.repository.InstalledExtensionRepository;
 import org.xwiki.extension.xar.XarExtensionException;
+import org.xwiki.extension.xar.internal.doc.InstalledDocumentChecksums;
 import org.xwiki.extension.xar.internal.handler.XarExtensionHandler;
 import org.xwiki.extension.xar.internal.handler.XarExtensionPlan;
+import org.xwiki.extension.xar.internal.handler.XarExtensionPlanEntry;
 import org.xwiki.extension.xar.internal.repository.XarInstalledExtension;
 import org.xwiki.extension.xar.internal.repository.XarInstalledExtensionRepository;
 import org.xwiki.extension.xar.job.diff.DocumentVersionReference;
@@ -126,6 +128,9 @@
     @Inject
     private WikiDescriptorManager wikiDescriptors;
 
+    @Inject
+    private InstalledDocumentChecksums checksums;
+
     @Inject
     @Named(XarExtensionHandler.TYPE)
     private InstalledExtensionRepository installedXARs;
@@ -190,6 +195,8 @@ private void importXARToWiki(String comment, InputStream xarInputStream, WikiRef
                 }
             }
         } finally {
+            this.checksums.save(wikiReference.getName());
+
             this.observation.notify(new XARImportedEvent(), null, xcontext);
 
             xcontext.setWikiId(currentWiki);
@@ -226,9 +233,17 @@ private void importDocumentToWiki(String comment, WikiReference wikiReference, I
                 nextDocument.getDocumentReferenceWithLocale());
         }
 
+        // Check if the document currently in the database is the one installed from the previous XAR entry
+        String currentVersion = currentDocument.isNew() ? null : currentDocument.getVersion();
+        long previousChecksum = getPreviousChecksum(reference, xarExtensionPlan);
+        boolean pristine = currentVersion == null || (previousChecksum != -1
+            && this.checksums.getChecksum(reference, currentVersion, currentDocument.getDate()) == previousChecksum);
+
         try {
             this.importer.importDocument(comment, previousDocument, currentDocument, nextDocument, configuration);
 
+            updateChecksum(reference, pristine, currentVersion, previousChecksum, configuration);
+
             if (configuration.isVerbose()) {
                 this.logger.info(LOG_INSTALLDOCUMENT_SUCCESS_END, "Done installing document [{}]",
                     nextDocument.getDocumentReferenceWithLocale());
@@ -241,6 +256,44 @@ private void importDocumentToWiki(String comment, WikiReference wikiReference, I
         }
     }
 
+    private long getPreviousChecksum(DocumentReference reference, XarExtensionPlan xarExtensionPlan)
+    {
+        if (xarExtensionPlan != null) {
+            XarExtensionPlanEntry xarPlanEntry = xarExtensionPlan.getPreviousXarExtensionPlanEntry(reference);
+            if (xarPlanEntry != null) {
+                XarEntry xarEntry = xarPlanEntry.xarFile.getEntry(new LocalDocumentReference(reference));
+                if (xarEntry != null) {
+                    return xarEntry.getChecksum();
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private void updateChecksum(DocumentReference reference, boolean pristine, String previousVersion,
+        long previousChecksum, PackageConfiguration configuration) throws XWikiException
+    {
+        long nextChecksum = configuration.getXarEntry() != null ? configuration.getXarEntry().getChecksum() : -1;
+
+        if (pristine && nextChecksum != -1) {
+            XWikiContext xcontext = this.xcontextProvider.get();
+
+            XWikiDocument document = xcontext.getWiki().getDocument(reference, xcontext);
+
+            // The document was identical to the previous XAR entry so it's now identical to the new one, unless it was
+            // not saved (for example because it's not supposed to be upgraded)
+            if (!document.isNew()
+                && (!document.getVersion().equals(previousVersion) || previousChecksum == nextChecksum)) {
+                this.checksums.set(reference, nextChecksum, document.getVersion(), document.getDate());
+
+                return;
+            }
+        }
+
+        this.checksums.remove(reference);
+    }
+
     public void unimportPages(Collection<XarEntry> pages, PackageConfiguration configuration)
         throws WikiManagerException
     {
@@ -288,6 +341,10 @@ public void deleteDocument(DocumentReference documentReference, PackageConfigura
             if (!document.isNew()) {
                 xcontext.getWiki().deleteDocument(document, xcontext);
 
+                if (this.checksums.remove(document.getDocumentReferenceWithLocale())) {
+                    this.checksums.save(document.getDocumentReference().getWikiReference().getName());
+                }
+
                 if (configuration.isVerbose()) {
                     this.logger.info(LOG_DELETEDDOCUMENT, "Deleted document [{}]",
                         document.getDocumentReferenceWithLocale());
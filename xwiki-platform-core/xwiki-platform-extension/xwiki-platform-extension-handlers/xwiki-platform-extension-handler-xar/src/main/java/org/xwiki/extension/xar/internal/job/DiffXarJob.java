@@ -35,6 +35,7 @@
 import org.xwiki.extension.InstalledExtension;
 import org.xwiki.extension.job.InstallRequest;
 import org.xwiki.extension.job.internal.AbstractExtensionJob;
+import org.xwiki.extension.xar.internal.doc.InstalledDocumentChecksums;
 import org.xwiki.extension.xar.internal.handler.UnsupportedNamespaceException;
 import org.xwiki.extension.xar.internal.handler.XarExtensionHandler;
 import org.xwiki.extension.xar.internal.handler.XarHandlerUtils;
@@ -43,6 +44,7 @@
 import org.xwiki.extension.xar.job.diff.DiffXarJobStatus;
 import org.xwiki.extension.xar.job.diff.DocumentUnifiedDiff;
 import org.xwiki.extension.xar.job.diff.DocumentVersionReference;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.xar.XarEntry;
@@ -86,6 +88,12 @@ public class DiffXarJob extends AbstractExtensionJob<InstallRequest, DiffXarJobS
     @Inject
     private DocumentUnifiedDiffBuilder documentDiffBuilder;
 
+    /**
+     * Used to skip the documents which were not modified since they were installed.
+     */
+    @Inject
+    private InstalledDocumentChecksums checksums;
+
     /**
      * The set of features that have been compared. We try to avoid comparing the same feature twice. We assume all the
      * features are compared on the same namespace.
@@ -204,12 +212,14 @@ private void diff(XarFile xarFile, WikiReference wikiReference, ExtensionId exte
                 this.progressManager.startStep(this);
 
                 if (!alreadydone.contains(xarEntry)) {
-                    try {
-                        diff(this.packager.getXWikiDocument(xarFile.getInputStream(xarEntry), wikiReference),
-                            extensionId);
-                    } catch (Exception e) {
-                        // Skip this document and continue.
-                        this.logger.error("Failed to parse document [{}] from XAR.", xarEntry.getDocumentName(), e);
+                    DocumentReference documentReference = new DocumentReference(xarEntry, wikiReference);
+                    if (this.checksums.isUnmodified(documentReference, xarEntry.getChecksum())) {
+                        // No need to parse and compare the document, it did not change since it was installed
+                        if (getRequest().isVerbose()) {
+                            this.logger.info("The document [{}] has no changes", documentReference);
+                        }
+                    } else {
+                        diff(xarFile, xarEntry, wikiReference, extensionId);
                     }
 
                     alreadydone.add(xarEntry);
@@ -225,6 +235,16 @@ private void diff(XarFile xarFile, WikiReference wikiReference, ExtensionId exte
         }
     }
 
+    private void diff(XarFile xarFile, XarEntry xarEntry, WikiReference wikiReference, ExtensionId extensionId)
+    {
+        try {
+            diff(this.packager.getXWikiDocument(xarFile.getInputStream(xarEntry), wikiReference), extensionId);
+        } catch (Exception e) {
+            // Skip this document and continue.
+            this.logger.error("Failed to parse document [{}] from XAR.", xarEntry.getDocumentName(), e);
+        }
+    }
+
     private void diff(XWikiDocument document, ExtensionId extensionId)
     {
         if (getRequest().isVerbose()) {
@@ -20,11 +20,20 @@
 package org.xwiki.extension.xar.internal.job;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.context.concurrent.ExecutionContextRunnable;
 import org.xwiki.extension.Extension;
 import org.xwiki.extension.ExtensionDependency;
 import org.xwiki.extension.ExtensionId;
@@ -65,6 +74,16 @@ public class RepairXarJob extends AbstractExtensionJob<InstallRequest, DefaultJo
      */
     public static final String JOBTYPE = "repairxar";
 
+    /**
+     * The name of the request property indicating how many threads should be used to resolve and download the
+     * extensions before repairing them.
+     *
+     * @since 13.4RC1
+     */
+    public static final String PROPERTY_THREADS = "extension.xar.repair.threads";
+
+    private static final int DEFAULT_THREADS = 4;
+
     private static final BeginTranslationMarker LOG_REPAIR_BEGIN =
         new BeginTranslationMarker("extension.xar.log.repair.begin");
 
@@ -100,6 +119,13 @@ public class RepairXarJob extends AbstractExtensionJob<InstallRequest, DefaultJo
     @Inject
     private ExtensionManagerConfiguration configuration;
 
+    /**
+     * The extensions resolved and stored in the local repository ahead of their repair.
+     */
+    private final Map<ExtensionId, Future<Extension>> prefetchedExtensions = new ConcurrentHashMap<>();
+
+    private ExecutorService prefetchExecutor;
+
     @Override
     public String getType()
     {
@@ -121,6 +147,29 @@ protected InstallRequest castRequest(Request request)
 
     @Override
     protected void runInternal() throws Exception
+    {
+        int threads = getRequest().getProperty(PROPERTY_THREADS, DEFAULT_THREADS);
+        if (threads > 0) {
+            this.prefetchExecutor = Executors.newFixedThreadPool(threads,
+                new BasicThreadFactory.Builder().namingPattern("XAR repair prefetch thread %d").daemon(true).build());
+
+            for (ExtensionId extensionId : getRequest().getExtensions()) {
+                if (isRepairNeeded(extensionId)) {
+                    prefetch(extensionId);
+                }
+            }
+        }
+
+        try {
+            repair();
+        } finally {
+            if (this.prefetchExecutor != null) {
+                this.prefetchExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private void repair() throws InstallException
     {
         this.progressManager.pushLevelProgress(getRequest().getExtensions().size(), this);
 
@@ -153,6 +202,74 @@ protected void runInternal() throws Exception
         }
     }
 
+    /**
+     * @param extensionId the extension unique identifier
+     * @return true if the extension is not installed on at least one of the namespaces to repair
+     */
+    private boolean isRepairNeeded(ExtensionId extensionId)
+    {
+        if (getRequest().getNamespaces() != null) {
+            for (String namespace : getRequest().getNamespaces()) {
+                if (this.installedRepository.getInstalledExtension(extensionId.getId(), namespace) == null) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        return this.installedRepository.getInstalledExtension(extensionId.getId(), null) == null;
+    }
+
+    /**
+     * Resolve and store the passed extension in a background thread so that the extensions selected for repair are
+     * downloaded concurrently. The repair itself (which has to follow the dependency order) then finds them in the
+     * local repository. The dependencies are not prefetched since they might not need to be repaired.
+     * 
+     * @param extensionId the extension unique identifier
+     */
+    private void prefetch(ExtensionId extensionId)
+    {
+        if (this.localRepository.getLocalExtension(extensionId) == null) {
+            this.prefetchedExtensions.computeIfAbsent(extensionId, key -> {
+                FutureTask<Extension> task = new FutureTask<>(() -> prefetchExtension(key));
+                // Resolving and storing the extension requires an execution context (repositories, authentication)
+                this.prefetchExecutor.execute(new ExecutionContextRunnable(task, this.componentManager));
+
+                return task;
+            });
+        }
+    }
+
+    private Extension prefetchExtension(ExtensionId extensionId) throws Exception
+    {
+        Extension extension = this.repositoryManager.resolve(extensionId);
+
+        if (!XarExtensionHandler.TYPE.equals(extension.getType())) {
+            return extension;
+        }
+
+        return this.localExtensionRepository.storeExtension(extension);
+    }
+
+    private Extension getPrefetchedExtension(ExtensionId extensionId)
+    {
+        Future<Extension> future = this.prefetchedExtensions.get(extensionId);
+
+        if (future != null) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Resolve it again in the job thread to get a proper error
+                this.logger.debug("Failed to prefetch extension [{}]", extensionId, e);
+            }
+        }
+
+        return null;
+    }
+
     /**
      * @param extensionId the extension unique identifier
      * @return the stored local extension
@@ -162,6 +279,16 @@ private LocalExtension getLocalXARExtension(ExtensionId extensionId) throws Inst
     {
         LocalExtension localExtension = this.localRepository.getLocalExtension(extensionId);
 
+        if (localExtension == null) {
+            Extension extension = getPrefetchedExtension(extensionId);
+
+            if (extension != null) {
+                // Only XAR extensions are stored in the local repository
+                return extension instanceof LocalExtension && XarExtensionHandler.TYPE.equals(extension.getType())
+                    ? (LocalExtension) extension : null;
+            }
+        }
+
         if (localExtension == null) {
             this.progressManager.pushLevelProgress(2, this);
 
@@ -27,6 +27,7 @@
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -89,6 +90,8 @@ public class ExtensionIndexStore implements Initializable
 {
     private static final String ROOT_NAMESPACE = "{root}";
 
+    private static final String LOCAL_REPOSITORY = "local";
+
     private static final int COMMIT_BATCH_SIZE = 100;
 
     private static final Map<String, SearchFieldMapping> SEARCH_FIELD_MAPPING = new HashMap<>();
@@ -230,7 +233,7 @@ public boolean exists(ExtensionId extensionId, Boolean local) throws SolrServerE
             + this.utils.toFilterQueryString(toSolrId(extensionId)));
 
         if (local != null) {
-            solrQuery.addFilterQuery(Extension.FIELD_REPOSITORY + ":local");
+            solrQuery.addFilterQuery(Extension.FIELD_REPOSITORY + ':' + LOCAL_REPOSITORY);
         }
 
         // We don't want to actually get the document, we just want to know if one exist
@@ -380,28 +383,66 @@ public Boolean isCompatible(ExtensionId extensionId, String namespace) throws So
 
         SolrDocumentList documents = response.getResults();
         if (!documents.isEmpty()) {
-            SolrDocument document = documents.get(0);
+            return isCompatible(documents.get(0), namespace);
+        }
+
+        return null;
+    }
 
-            String solrNamespace = toStoredNamespace(namespace);
+    /**
+     * @param document the Solr document holding the extension (with at least the compatibility fields)
+     * @param namespace the namespace
+     * @return true if the extension is known to be compatible with the passed namespace, false if it's known to be
+     *         incompatible and null if it was not validated yet
+     * @since 13.4RC1
+     */
+    public Boolean isCompatible(SolrDocument document, String namespace)
+    {
+        String solrNamespace = toStoredNamespace(namespace);
 
-            List<String> compatibleNamespaces = this.utils
-                .<List<String>>get(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_COMPATIBLE_NAMESPACES, document);
+        List<String> compatibleNamespaces =
+            this.utils.<List<String>>get(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_COMPATIBLE_NAMESPACES, document);
 
-            if (compatibleNamespaces != null && compatibleNamespaces.contains(solrNamespace)) {
-                return true;
-            }
+        if (compatibleNamespaces != null && compatibleNamespaces.contains(solrNamespace)) {
+            return true;
+        }
 
-            List<String> incompatibleNamespaces = this.utils
-                .<List<String>>get(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_INCOMPATIBLE_NAMESPACES, document);
+        List<String> incompatibleNamespaces = this.utils
+            .<List<String>>get(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_INCOMPATIBLE_NAMESPACES, document);
 
-            if (incompatibleNamespaces != null && incompatibleNamespaces.contains(solrNamespace)) {
-                return false;
-            }
+        if (incompatibleNamespaces != null && incompatibleNamespaces.contains(solrNamespace)) {
+            return false;
         }
 
         return null;
     }
 
+    /**
+     * @param document the Solr document holding the extension (with at least the variable information fields)
+     * @param remoteExtension the remote extension from which to extract variable information
+     * @return true if the variable informations (recommended tag, ratings, etc.) of the indexed extension are the same
+     *         as the ones of the passed remote extension
+     * @since 13.4RC1
+     */
+    public boolean isUpToDate(SolrDocument document, RemoteExtension remoteExtension)
+    {
+        if (!Objects.equals(this.utils.get(RemoteExtension.FIELD_RECOMMENDED, document),
+            remoteExtension.isRecommended())) {
+            return false;
+        }
+
+        if (remoteExtension instanceof RatingExtension) {
+            RatingExtension ratingExtension = (RatingExtension) remoteExtension;
+
+            return Objects.equals(this.utils.get(RatingExtension.FIELD_TOTAL_VOTES, document),
+                ratingExtension.getRating().getTotalVotes())
+                && Objects.equals(this.utils.get(RatingExtension.FIELD_AVERAGE_VOTE, document),
+                    ratingExtension.getRating().getAverageVote());
+        }
+
+        return true;
+    }
+
     private String toStoredNamespace(Namespace namespace)
     {
         return namespace != null ? toStoredNamespace(namespace.toString()) : ROOT_NAMESPACE;
@@ -758,6 +799,45 @@ public Set<ExtensionId> searchExtensionIds(SolrQuery solrQuery) throws SolrServe
         return extensionId;
     }
 
+    /**
+     * Get in one request all the information needed to know what changed since the last time the index was updated:
+     * the repository, the variable informations (recommended tag, ratings, etc.) and the compatibility of each indexed
+     * extension.
+     * 
+     * @return the indexed extensions documents
+     * @throws IOException If there is a low-level I/O error.
+     * @throws SolrServerException if there is an error on the server
+     * @since 13.4RC1
+     */
+    public Map<ExtensionId, SolrDocument> getIndexedDocuments() throws SolrServerException, IOException
+    {
+        SolrQuery solrQuery = new SolrQuery();
+        solrQuery.setRows(Integer.MAX_VALUE);
+        solrQuery.setFields(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_ID, Extension.FIELD_REPOSITORY,
+            RemoteExtension.FIELD_RECOMMENDED, RatingExtension.FIELD_TOTAL_VOTES, RatingExtension.FIELD_AVERAGE_VOTE,
+            ExtensionIndexSolrCoreInitializer.SOLR_FIELD_COMPATIBLE_NAMESPACES,
+            ExtensionIndexSolrCoreInitializer.SOLR_FIELD_INCOMPATIBLE_NAMESPACES);
+
+        SolrDocumentList documents = search(solrQuery).getResults();
+
+        Map<ExtensionId, SolrDocument> indexedDocuments = new HashMap<>(documents.size());
+        for (SolrDocument document : documents) {
+            indexedDocuments.put(fromSolrId(this.utils.getId(document)), document);
+        }
+
+        return indexedDocuments;
+    }
+
+    /**
+     * @param document the Solr document holding the extension
+     * @return true if the document was indexed from the local repository
+     * @since 13.4RC1
+     */
+    public boolean isLocal(SolrDocument document)
+    {
+        return LOCAL_REPOSITORY.equals(this.utils.get(Extension.FIELD_REPOSITORY, document));
+    }
+
     /**
      * Performs a query to the Solr server.
      *
@@ -40,6 +40,7 @@
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrDocument;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.namespace.Namespace;
 import org.xwiki.extension.Extension;
@@ -142,6 +143,12 @@ public class ExtensionIndexJob extends AbstractJob<ExtensionIndexRequest, Defaul
 
     private Collection<String> invalidFlavors;
 
+    /**
+     * The state of the index when the job started, used to find out what changed without querying the index for each
+     * extension.
+     */
+    private Map<ExtensionId, SolrDocument> indexedDocuments;
+
     @Override
     public JobGroupPath getGroupPath()
     {
@@ -255,10 +262,11 @@ private void add(ExtensionId extension, Map<String, SortedSet<Version>> extensio
 
     private Map<String, SortedSet<Version>> getIndexedExtensions() throws SolrServerException, IOException
     {
-        SolrQuery solrQuery = new SolrQuery();
-        Set<ExtensionId> extensoinIds = this.indexStore.searchExtensionIds(solrQuery);
-        Map<String, SortedSet<Version>> extensions = new HashMap<>(extensoinIds.size());
-        for (ExtensionId extensionId : extensoinIds) {
+        // Load everything we need to know about the indexed extensions in one request
+        this.indexedDocuments = this.indexStore.getIndexedDocuments();
+
+        Map<String, SortedSet<Version>> extensions = new HashMap<>(this.indexedDocuments.size());
+        for (ExtensionId extensionId : this.indexedDocuments.keySet()) {
             add(extensionId, extensions);
         }
 
@@ -358,7 +366,7 @@ private boolean validateExtension(String extensionId, Namespace namespace, Sorte
             missingExtensions.computeIfAbsent(extensionId, key -> new HashSet<>()).add(namespace);
 
             // Explicitly mark the extension as invalid (if this extension exist in the index)
-            this.indexStore.updateCompatible(tryId, namespace.serialize(), null, true);
+            updateCompatible(tryId, namespace, null, true);
 
             return true;
         }
@@ -397,9 +405,23 @@ private boolean isAllowRootModications(Namespace namespace)
 
     private boolean isValidated(ExtensionId extensionId, String namespace) throws SolrServerException, IOException
     {
+        SolrDocument document = this.indexedDocuments.get(extensionId);
+        if (document != null) {
+            return this.indexStore.isCompatible(document, namespace) != null;
+        }
+
         return this.indexStore.isCompatible(extensionId, namespace) != null;
     }
 
+    private void updateCompatible(ExtensionId extensionId, Namespace namespace, Boolean compatible,
+        Boolean incompatible) throws SolrServerException, IOException
+    {
+        this.indexStore.updateCompatible(extensionId, namespace.serialize(), compatible, incompatible);
+
+        // The loaded state of this extension is not accurate anymore
+        this.indexedDocuments.remove(extensionId);
+    }
+
     private boolean validateOldExtension(String extensionId, Namespace namespace, Collection<Version> versions,
         Version stopVersion, SortedSet<Version> indexedVersions) throws SolrServerException, IOException
     {
@@ -448,7 +470,7 @@ private boolean validate(ExtensionId extensionId, Namespace namespace, SortedSet
         if (this.indexStore.exists(extensionId)) {
             // Explicitly mark the extension as invalid (if this extension exist in the index)
             // TODO: index it if it does not exist ?
-            this.indexStore.updateCompatible(extensionId, namespace.serialize(), null, true);
+            updateCompatible(extensionId, namespace, null, true);
 
             return true;
         }
@@ -509,8 +531,8 @@ private void addSearchableCompatibleExtension(Extension validExtension, Namespac
         }
 
         for (Version version : indexedVersions) {
-            this.indexStore.updateCompatible(new ExtensionId(validExtension.getId().getId(), version),
-                namespace.serialize(), version.equals(validExtension.getId().getVersion()), null);
+            updateCompatible(new ExtensionId(validExtension.getId().getId(), version), namespace,
+                version.equals(validExtension.getId().getVersion()), null);
         }
     }
 
@@ -576,8 +598,7 @@ private void addLocalExtensions(Map<String, SortedSet<Version>> indexedExtension
         for (Extension extension : extensions) {
             if (!this.invalidFlavors.contains(extension.getId().getId())) {
                 // TODO: support beta and snapshots versions too ?
-                if (extension.getId().getVersion().getType() == Type.STABLE
-                    && !this.indexStore.exists(extension.getId(), true)) {
+                if (extension.getId().getVersion().getType() == Type.STABLE && !isIndexedLocal(extension.getId())) {
                     this.indexStore.add(extension, true);
 
                     updated = true;
@@ -593,6 +614,40 @@ private void addLocalExtensions(Map<String, SortedSet<Version>> indexedExtension
         }
     }
 
+    private boolean isIndexedLocal(ExtensionId extensionId)
+    {
+        SolrDocument document = this.indexedDocuments.get(extensionId);
+
+        return document != null && this.indexStore.isLocal(document);
+    }
+
+    private boolean isIndexed(ExtensionId extensionId, Map<String, SortedSet<Version>> indexedExtensions)
+    {
+        SortedSet<Version> versions = indexedExtensions.get(extensionId.getId());
+
+        return versions != null && versions.contains(extensionId.getVersion());
+    }
+
+    private boolean updateRemoteExtension(RemoteExtension extension, SortedSet<Version> versions)
+        throws SolrServerException, IOException
+    {
+        boolean updated = false;
+
+        for (Version version : versions) {
+            ExtensionId extensionId = new ExtensionId(extension.getId().getId(), version);
+
+            // Skip the extensions which were already indexed with the same variable informations
+            SolrDocument document = this.indexedDocuments.get(extensionId);
+            if (document == null || !this.indexStore.isUpToDate(document, extension)) {
+                this.indexStore.update(extensionId, extension);
+
+                updated = true;
+            }
+        }
+
+        return updated;
+    }
+
     private void addRemoteExtensions(Map<String, SortedSet<Version>> indexedExtensions)
         throws SolrServerException, IOException
     {
@@ -630,7 +685,7 @@ private boolean addRemoteExtensions(Searchable searchableRepository,
             for (Extension extension : result) {
                 if (!this.invalidFlavors.contains(extension.getId().getId())
                     && !this.coreExtensions.exists(extension.getId()) && !this.localExtensions.exists(extension.getId())
-                    && !this.indexStore.exists(extension.getId())) {
+                    && !isIndexed(extension.getId(), indexedExtensions)) {
                     // TODO: Resolve the complete extension but it very expensive...
 
                     // Add the extension to the index
@@ -665,12 +720,7 @@ private boolean addRemoteExtensions(Searchable searchableRepository,
                 if (extension instanceof RemoteExtension) {
                     SortedSet<Version> versions = indexedExtensions.get(extension.getId().getId());
                     if (versions != null) {
-                        for (Version version : versions) {
-                            this.indexStore.update(new ExtensionId(extension.getId().getId(), version),
-                                (RemoteExtension) extension);
-
-                            updated = true;
-                        }
+                        updated |= updateRemoteExtension((RemoteExtension) extension, versions);
                     }
                 }
             }
@@ -24,9 +24,11 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrDocument;
 import org.junit.jupiter.api.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -68,6 +70,9 @@
 import com.xpn.xwiki.test.reference.ReferenceComponentList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -276,4 +281,35 @@ void search() throws SolrServerException, IOException, SearchException
 
         assertSimpleSearch("Name1", extensionId);
     }
+
+    @Test
+    void getIndexedDocuments() throws SolrServerException, IOException
+    {
+        ExtensionId extensionId = new ExtensionId("id", "version");
+
+        TestExtension extension = new TestExtension(this.testRepository, extensionId, "type");
+        extension.setRecommended(true);
+
+        this.indexStore.add(extension, true);
+        this.indexStore.updateCompatible(extensionId, "namespace1", true, null);
+        this.indexStore.updateCompatible(extensionId, "namespace2", null, true);
+        this.indexStore.commit();
+
+        Map<ExtensionId, SolrDocument> documents = this.indexStore.getIndexedDocuments();
+
+        assertEquals(1, documents.size());
+
+        SolrDocument document = documents.get(extensionId);
+
+        assertFalse(this.indexStore.isLocal(document));
+        assertTrue(this.indexStore.isCompatible(document, "namespace1"));
+        assertFalse(this.indexStore.isCompatible(document, "namespace2"));
+        assertNull(this.indexStore.isCompatible(document, "namespace3"));
+
+        assertTrue(this.indexStore.isUpToDate(document, extension));
+
+        extension.setRecommended(false);
+
+        assertFalse(this.indexStore.isUpToDate(document, extension));
+    }
 }
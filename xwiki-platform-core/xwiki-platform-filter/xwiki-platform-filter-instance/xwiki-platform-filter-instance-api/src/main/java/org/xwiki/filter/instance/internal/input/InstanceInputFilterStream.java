@@ -19,6 +19,7 @@
  */
 package org.xwiki.filter.instance.internal.input;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 
@@ -106,11 +107,36 @@ private boolean isDocumentEnabled(DocumentReference documentReference)
     @Override
     public void close() throws IOException
     {
-        // Nothing do close
+        closeEventGenerators();
+    }
+
+    private void closeEventGenerators()
+    {
+        if (this.eventGenerators != null) {
+            for (InstanceInputEventGenerator generator : this.eventGenerators) {
+                if (generator instanceof Closeable) {
+                    try {
+                        ((Closeable) generator).close();
+                    } catch (IOException e) {
+                        this.logger.error("Failed to close the event generator [{}]", generator, e);
+                    }
+                }
+            }
+        }
     }
 
     @Override
     protected void read(Object filter, InstanceFilter proxyFilter) throws FilterException
+    {
+        try {
+            readWikiFarm(filter, proxyFilter);
+        } finally {
+            // Make sure the resources held by the generators (threads, etc.) are released even when the read fails
+            closeEventGenerators();
+        }
+    }
+
+    private void readWikiFarm(Object filter, InstanceFilter proxyFilter) throws FilterException
     {
         FilterEventParameters parameters = new FilterEventParameters();
 
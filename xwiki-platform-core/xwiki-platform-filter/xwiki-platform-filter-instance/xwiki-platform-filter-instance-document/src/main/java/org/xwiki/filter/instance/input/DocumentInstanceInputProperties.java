@@ -73,6 +73,11 @@ public class DocumentInstanceInputProperties extends InstanceInputProperties
      */
     private boolean withWikiDocumentContentHTML;
 
+    /**
+     * @see #getLoadingThreads()
+     */
+    private int loadingThreads;
+
     /**
      * @return Indicates if events should be generated for history
      */
@@ -242,4 +247,27 @@ public void setWithWikiDocumentContentHTML(boolean withWikiDocumentContentHTML)
     {
         this.withWikiDocumentContentHTML = withWikiDocumentContentHTML;
     }
+
+    /**
+     * @return the number of threads loading the documents ahead of their serialization, 0 to load each document when
+     *         it's serialized
+     * @since 13.4RC1
+     */
+    @PropertyName("Loading threads")
+    @PropertyDescription("The number of threads loading the documents ahead of their serialization (bypassing the"
+        + " document cache), 0 to load each document when it's serialized")
+    public int getLoadingThreads()
+    {
+        return this.loadingThreads;
+    }
+
+    /**
+     * @param loadingThreads the number of threads loading the documents ahead of their serialization, 0 to load each
+     *            document when it's serialized
+     * @since 13.4RC1
+     */
+    public void setLoadingThreads(int loadingThreads)
+    {
+        this.loadingThreads = loadingThreads;
+    }
 }
@@ -76,6 +76,11 @@ public class DocumentInstanceOutputProperties extends InstanceOutputProperties
      */
     private boolean stoppedWhenSaveFail = true;
 
+    /**
+     * @see #getBatchSize()
+     */
+    private int batchSize;
+
     /**
      * @return The base reference to use to resolve reference from events
      */
@@ -237,4 +242,28 @@ public void setStoppedWhenSaveFail(boolean stoppedWhenSaveFail)
     {
         this.stoppedWhenSaveFail = stoppedWhenSaveFail;
     }
+
+    /**
+     * @return the number of documents to save in the same database transaction, 0 or 1 to save each document in its
+     *         own transaction
+     * @since 13.4RC1
+     */
+    @PropertyName("Batch size")
+    @PropertyDescription("The number of documents to save in the same database transaction (0 or 1 to save each"
+        + " document in its own transaction). When greater than 1 the heavy listeners (indexing, activity stream, etc.)"
+        + " are notified once at the end of the import instead of for each document.")
+    public int getBatchSize()
+    {
+        return this.batchSize;
+    }
+
+    /**
+     * @param batchSize the number of documents to save in the same database transaction, 0 or 1 to save each document
+     *            in its own transaction
+     * @since 13.4RC1
+     */
+    public void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
 }
@@ -23,10 +23,21 @@
 import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xwiki.cache.Cache;
@@ -34,11 +45,21 @@
 import org.xwiki.cache.CacheManager;
 import org.xwiki.cache.config.CacheConfiguration;
 import org.xwiki.cache.eviction.LRUEvictionConfiguration;
+import org.xwiki.context.concurrent.ExecutionContextRunnable;
+import org.xwiki.model.reference.AttachmentReference;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.Event;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.api.Api;
 import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.AbstractAttachmentEvent;
+import com.xpn.xwiki.internal.event.AttachmentAddedEvent;
+import com.xpn.xwiki.internal.event.AttachmentUpdatedEvent;
 import com.xpn.xwiki.plugin.XWikiDefaultPlugin;
 import com.xpn.xwiki.plugin.XWikiPluginInterface;
 import com.xpn.xwiki.web.Utils;
@@ -48,7 +69,7 @@
  * @deprecated the plugin technology is deprecated, consider rewriting as components
  */
 @Deprecated
-public class ImagePlugin extends XWikiDefaultPlugin
+public class ImagePlugin extends XWikiDefaultPlugin implements EventListener
 {
     /**
      * Logging helper object.
@@ -62,6 +83,14 @@ public class ImagePlugin extends XWikiDefaultPlugin
      */
     private static final String PLUGIN_NAME = "image";
 
+    private static final List<Event> EVENTS = Arrays.asList(new AttachmentAddedEvent(), new AttachmentUpdatedEvent());
+
+    /**
+     * The maximum number of images waiting for their thumbnails to be generated. The thumbnails of the images attached
+     * while the queue is full are generated when they are requested.
+     */
+    private static final int THUMBNAILS_QUEUE_CAPACITY = 100;
+
     /**
      * Cache for already served images.
      */
@@ -72,6 +101,18 @@ public class ImagePlugin extends XWikiDefaultPlugin
      */
     private int capacity = 50;
 
+    /**
+     * Cache for the thumbnails generated in the background, separated from the image cache so that attaching many
+     * images doesn't evict the images being viewed, and the other way around.
+     */
+    private Cache<XWikiAttachment> thumbnailCache;
+
+    /**
+     * The size of the thumbnail cache. This parameter can be configured using the key
+     * {@code xwiki.plugin.image.thumbnails.cache.capacity}.
+     */
+    private int thumbnailCapacity = 1000;
+
     /**
      * Default JPEG image quality.
      */
@@ -82,6 +123,22 @@ public class ImagePlugin extends XWikiDefaultPlugin
      */
     private ImageProcessor imageProcessor;
 
+    /**
+     * The widths of the thumbnails generated in the background when an image is attached. This parameter can be
+     * configured using the key {@code xwiki.plugin.image.thumbnails.widths}.
+     */
+    private List<Integer> thumbnailWidths = new ArrayList<>();
+
+    /**
+     * The executor used to generate the thumbnails in the background, {@code null} when stopped.
+     */
+    private volatile ThreadPoolExecutor thumbnailExecutor;
+
+    /**
+     * The images being transformed, to not transform the same image several times when it's requested concurrently.
+     */
+    private final Map<String, CompletableFuture<XWikiAttachment>> pendingImages = new ConcurrentHashMap<>();
+
     /**
      * Creates a new instance of this plugin.
      *
@@ -114,6 +171,8 @@ public void init(XWikiContext context)
     {
         super.init(context);
 
+        initThumbnails(context);
+
         initCache(context);
 
         String imageProcessorHint = context.getWiki().Param("xwiki.plugin.image.processorHint", "thumbnailator");
@@ -131,48 +190,195 @@ public void init(XWikiContext context)
     }
 
     /**
-     * Tries to initializes the image cache. If the initialization fails the image cache remains {@code null}.
+     * Start listening to the image attachments modifications if some thumbnails should be generated in advance.
      *
      * @param context the XWiki context
      */
-    private void initCache(XWikiContext context)
+    private void initThumbnails(XWikiContext context)
     {
-        if (this.imageCache == null) {
-            CacheConfiguration configuration = new CacheConfiguration();
-
-            configuration.setConfigurationId("xwiki.plugin.image");
-
-            // Set cache constraints.
-            LRUEvictionConfiguration lru = new LRUEvictionConfiguration();
-            configuration.put(LRUEvictionConfiguration.CONFIGURATIONID, lru);
-
-            String capacityParam = context.getWiki().Param("xwiki.plugin.image.cache.capacity");
-            if (!StringUtils.isBlank(capacityParam) && StringUtils.isNumeric(capacityParam.trim())) {
-                try {
-                    this.capacity = Integer.parseInt(capacityParam.trim());
-                } catch (NumberFormatException e) {
-                    LOG.warn(String.format(
-                        "Failed to parse xwiki.plugin.image.cache.capacity configuration parameter. "
-                            + "Using %s as the cache capacity.", this.capacity), e);
+        String widthsParam = context.getWiki().Param("xwiki.plugin.image.thumbnails.widths");
+        if (StringUtils.isBlank(widthsParam) || !this.thumbnailWidths.isEmpty()) {
+            return;
+        }
+
+        for (String width : StringUtils.split(widthsParam, ", ")) {
+            if (StringUtils.isNumeric(width) && Integer.parseInt(width) > 0) {
+                this.thumbnailWidths.add(Integer.valueOf(width));
+            } else {
+                LOG.warn("Ignoring invalid thumbnail width [{}] in xwiki.plugin.image.thumbnails.widths "
+                    + "configuration parameter.", width);
+            }
+        }
+
+        startThumbnails();
+    }
+
+    /**
+     * Start generating the thumbnails of the attached images, if needed.
+     */
+    private synchronized void startThumbnails()
+    {
+        if (!this.thumbnailWidths.isEmpty() && this.thumbnailExecutor == null) {
+            this.thumbnailExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(THUMBNAILS_QUEUE_CAPACITY),
+                new BasicThreadFactory.Builder().namingPattern("XWiki image thumbnails thread").daemon(true).build(),
+                (task, executor) -> LOG.debug("Skipping the generation of thumbnails in the background."));
+
+            Utils.getComponent(ObservationManager.class).addListener(this);
+        }
+    }
+
+    /**
+     * Stop generating the thumbnails of the attached images, dropping the images waiting for their thumbnails.
+     */
+    private synchronized void stopThumbnails()
+    {
+        if (this.thumbnailExecutor != null) {
+            Utils.getComponent(ObservationManager.class).removeListener(getName());
+
+            this.thumbnailExecutor.shutdownNow();
+            this.thumbnailExecutor = null;
+        }
+    }
+
+    @Override
+    public List<Event> getEvents()
+    {
+        return EVENTS;
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        // The node where the image has been attached generates the thumbnails, and each node caches its own
+        if (Utils.getComponent(RemoteObservationManagerContext.class).isRemoteState()) {
+            return;
+        }
+
+        XWikiDocument document = (XWikiDocument) source;
+        XWikiContext context = (XWikiContext) data;
+
+        XWikiAttachment attachment = document.getAttachment(((AbstractAttachmentEvent) event).getName());
+        ThreadPoolExecutor executor = this.thumbnailExecutor;
+        if (attachment == null || executor == null
+            || !this.imageProcessor.isMimeTypeSupported(attachment.getMimeType(context))) {
+            return;
+        }
+
+        // Only remember the reference of the image, its content is loaded by the background thread
+        AttachmentReference reference = attachment.getReference();
+        executor.execute(
+            new ExecutionContextRunnable(() -> generateThumbnails(reference), Utils.getComponentManager()));
+    }
+
+    /**
+     * Generate the configured thumbnails of the passed image and put them in the thumbnail cache, as if they had been
+     * requested with the {@code width} parameter.
+     *
+     * @param reference the reference of the image
+     */
+    private void generateThumbnails(AttachmentReference reference)
+    {
+        XWikiContext context = Utils.getComponent(XWikiContext.TYPE_PROVIDER).get();
+        context.setWikiId(reference.getDocumentReference().getWikiReference().getName());
+
+        initCache(context);
+
+        Cache<XWikiAttachment> cache = this.thumbnailCache;
+        if (cache != null) {
+            XWikiAttachment image;
+            try {
+                image = context.getWiki().getDocument(reference.getDocumentReference(), context)
+                    .getAttachment(reference.getName());
+            } catch (XWikiException e) {
+                LOG.warn("Failed to load the image [{}] to generate its thumbnails: {}", reference,
+                    ExceptionUtils.getRootCauseMessage(e));
+
+                return;
+            }
+
+            // The image might have been deleted in the meantime
+            if (image != null) {
+                for (int width : this.thumbnailWidths) {
+                    try {
+                        downloadImageFromCache(cache, image, width, -1, false, -1, context);
+                    } catch (Exception e) {
+                        LOG.warn("Failed to generate the thumbnail of [{}] with width [{}]: {}", reference, width,
+                            ExceptionUtils.getRootCauseMessage(e));
+                    }
                 }
             }
-            lru.setMaxEntries(this.capacity);
+        }
+    }
 
+    /**
+     * Tries to initializes the image and thumbnail caches. If the initialization fails the caches remain {@code null}.
+     *
+     * @param context the XWiki context
+     */
+    private void initCache(XWikiContext context)
+    {
+        if (this.imageCache == null) {
+            this.capacity = getCapacity("xwiki.plugin.image.cache.capacity", this.capacity, context);
+            this.imageCache = createCache("xwiki.plugin.image", this.capacity);
+        }
+
+        if (this.thumbnailCache == null && !this.thumbnailWidths.isEmpty()) {
+            this.thumbnailCapacity =
+                getCapacity("xwiki.plugin.image.thumbnails.cache.capacity", this.thumbnailCapacity, context);
+            this.thumbnailCache = createCache("xwiki.plugin.image.thumbnails", this.thumbnailCapacity);
+        }
+    }
+
+    private int getCapacity(String parameter, int defaultCapacity, XWikiContext context)
+    {
+        String capacityParam = context.getWiki().Param(parameter);
+        if (!StringUtils.isBlank(capacityParam) && StringUtils.isNumeric(capacityParam.trim())) {
             try {
-                this.imageCache = Utils.getComponent(CacheManager.class).createNewLocalCache(configuration);
-            } catch (CacheException e) {
-                LOG.error("Error initializing the image cache.", e);
+                return Integer.parseInt(capacityParam.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn(String.format("Failed to parse %s configuration parameter. Using %s as the cache capacity.",
+                    parameter, defaultCapacity), e);
             }
         }
+
+        return defaultCapacity;
+    }
+
+    private Cache<XWikiAttachment> createCache(String configurationId, int maxEntries)
+    {
+        CacheConfiguration configuration = new CacheConfiguration();
+
+        configuration.setConfigurationId(configurationId);
+
+        // Set cache constraints.
+        LRUEvictionConfiguration lru = new LRUEvictionConfiguration();
+        configuration.put(LRUEvictionConfiguration.CONFIGURATIONID, lru);
+        lru.setMaxEntries(maxEntries);
+
+        try {
+            return Utils.getComponent(CacheManager.class).createNewLocalCache(configuration);
+        } catch (CacheException e) {
+            LOG.error("Error initializing the [{}] cache.", configurationId, e);
+
+            return null;
+        }
     }
 
     @Override
     public void flushCache()
     {
+        stopThumbnails();
+
         if (this.imageCache != null) {
             this.imageCache.dispose();
         }
         this.imageCache = null;
+
+        if (this.thumbnailCache != null) {
+            this.thumbnailCache.dispose();
+        }
+        this.thumbnailCache = null;
     }
 
     /**
@@ -192,6 +398,11 @@ public XWikiAttachment downloadAttachment(XWikiAttachment attachment, XWikiConte
             return attachment;
         }
 
+        // Restart the generation of the thumbnails after a flush, like the cache
+        if (this.thumbnailExecutor == null && !this.thumbnailWidths.isEmpty()) {
+            startThumbnails();
+        }
+
         int height = -1;
         try {
             height = Integer.parseInt(context.getRequest().getParameter("height"));
@@ -249,9 +460,10 @@ private XWikiAttachment downloadImage(XWikiAttachment image, int width, int heig
 
         boolean keepAspectRatio = Boolean.valueOf(context.getRequest().getParameter("keepAspectRatio"));
 
-        XWikiAttachment thumbnail = (this.imageCache == null)
+        Cache<XWikiAttachment> cache = getCache(width, height, keepAspectRatio, quality);
+        XWikiAttachment thumbnail = (cache == null)
             ? shrinkImage(image, width, height, keepAspectRatio, quality, context)
-            : downloadImageFromCache(image, width, height, keepAspectRatio, quality, context);
+            : downloadImageFromCache(cache, image, width, height, keepAspectRatio, quality, context);
 
         // If the image has been transformed, update the file name extension to match the image format.
         String fileName = thumbnail.getFilename();
@@ -263,9 +475,22 @@ private XWikiAttachment downloadImage(XWikiAttachment image, int width, int heig
         return thumbnail;
     }
 
+    private Cache<XWikiAttachment> getCache(int width, int height, boolean keepAspectRatio, float quality)
+    {
+        // The thumbnails generated in the background are looked for where they have been put
+        Cache<XWikiAttachment> cache = this.thumbnailCache;
+        if (cache != null && height <= 0 && !keepAspectRatio && quality < 0
+            && this.thumbnailWidths.contains(width)) {
+            return cache;
+        }
+
+        return this.imageCache;
+    }
+
     /**
      * Downloads the given image from cache.
      *
+     * @param cache the cache where to look for the transformed image
      * @param image the image to be downloaded
      * @param width the desired image width; this value is taken into account only if it is greater than zero and less
      *            than the current image width
@@ -277,20 +502,49 @@ private XWikiAttachment downloadImage(XWikiAttachment image, int width, int heig
      * @return the transformed image
      * @throws Exception if transforming the image fails
      */
-    private XWikiAttachment downloadImageFromCache(XWikiAttachment image, int width, int height,
-        boolean keepAspectRatio, float quality, XWikiContext context) throws Exception
+    private XWikiAttachment downloadImageFromCache(Cache<XWikiAttachment> cache, XWikiAttachment image, int width,
+        int height, boolean keepAspectRatio, float quality, XWikiContext context) throws Exception
     {
         String key = String.format("%s;%s;%s;%s;%s;%s;%s", image.getId(), image.getVersion(), image.getDate().getTime(),
             width, height, keepAspectRatio, quality);
 
-        XWikiAttachment thumbnail = this.imageCache.get(key);
+        XWikiAttachment thumbnail = cache.get(key);
         if (thumbnail == null) {
-            thumbnail = shrinkImage(image, width, height, keepAspectRatio, quality, context);
-            this.imageCache.set(key, thumbnail);
+            CompletableFuture<XWikiAttachment> future = new CompletableFuture<>();
+            CompletableFuture<XWikiAttachment> pendingFuture = this.pendingImages.putIfAbsent(key, future);
+            if (pendingFuture != null) {
+                // The same image is already being transformed, wait for the result.
+                return waitForImage(pendingFuture);
+            }
+
+            try {
+                thumbnail = shrinkImage(image, width, height, keepAspectRatio, quality, context);
+                cache.set(key, thumbnail);
+                future.complete(thumbnail);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+
+                throw e;
+            } finally {
+                this.pendingImages.remove(key);
+            }
         }
         return thumbnail;
     }
 
+    private XWikiAttachment waitForImage(CompletableFuture<XWikiAttachment> future) throws Exception
+    {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
     /**
      * Reduces the size (i.e. the number of bytes) of an image by scaling its width and height and by reducing its
      * compression quality. This helps decreasing the time needed to download the image attachment.
@@ -24,6 +24,7 @@
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Date;
 
 import org.apache.commons.codec.binary.Base64;
@@ -32,11 +33,19 @@
 import org.mockito.ArgumentMatchers;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheManager;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.model.reference.AttachmentReference;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
 
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiAttachmentContent;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.AttachmentAddedEvent;
 import com.xpn.xwiki.test.MockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
@@ -45,6 +54,8 @@
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -173,4 +184,85 @@ public void testCacheOfScaledAttachment() throws Exception
         verify(imageProcessor, times(1)).writeImage(renderedImage, "image/png", .5F, attachmentOutputStream);
         verify(imageCache, times(1)).set(cacheKey, attachment);
     }
+
+    @Test
+    public void testThumbnailsGeneratedWhenImageIsAttached() throws Exception
+    {
+        doReturn("30").when(this.oldCore.getSpyXWiki()).Param("xwiki.plugin.image.thumbnails.widths");
+        for (Class<?> role : Arrays.asList(ObservationManager.class, Execution.class,
+            ExecutionContextManager.class, RemoteObservationManagerContext.class)) {
+            if (!this.oldCore.getMocker().hasComponent(role)) {
+                this.oldCore.getMocker().registerMockComponent(role);
+            }
+        }
+
+        CacheManager cacheManager = this.oldCore.getMocker().getInstance(CacheManager.class);
+        Cache<Object> imageCache = mock(Cache.class);
+        when(cacheManager.createNewLocalCache(ArgumentMatchers.any())).thenReturn(imageCache);
+
+        ImagePlugin thumbnailsPlugin =
+            new ImagePlugin("image", ImagePlugin.class.getName(), this.oldCore.getXWikiContext());
+
+        XWikiAttachment attachment = mock(XWikiAttachment.class);
+        when(attachment.getMimeType(ArgumentMatchers.any())).thenReturn("image/png");
+        InputStream attachmentInputStream = new ByteArrayInputStream(IMAGE_CONTENT);
+        when(attachment.getContentInputStream(ArgumentMatchers.any())).thenReturn(attachmentInputStream);
+        when(attachment.clone()).thenReturn(attachment);
+        when(attachment.getDate()).thenReturn(new Date(0));
+
+        XWikiAttachmentContent attachmentContent = mock(XWikiAttachmentContent.class);
+        when(attachment.getAttachment_content()).thenReturn(attachmentContent);
+        OutputStream attachmentOutputStream = mock(OutputStream.class);
+        when(attachmentContent.getContentOutputStream()).thenReturn(attachmentOutputStream);
+
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        when(attachment.getReference()).thenReturn(new AttachmentReference("image.png", documentReference));
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getAttachment("image.png")).thenReturn(attachment);
+        // The image is loaded by the background thread
+        doReturn(document).when(this.oldCore.getSpyXWiki()).getDocument(ArgumentMatchers.eq(documentReference),
+            ArgumentMatchers.any(XWikiContext.class));
+
+        Image image = mock(Image.class);
+        when(image.getWidth(null)).thenReturn(400);
+        when(image.getHeight(null)).thenReturn(300);
+        when(this.imageProcessor.readImage(attachmentInputStream)).thenReturn(image);
+        RenderedImage renderedImage = mock(RenderedImage.class);
+        when(this.imageProcessor.scaleImage(image, 30, 22)).thenReturn(renderedImage);
+
+        thumbnailsPlugin.onEvent(new AttachmentAddedEvent("Space.Page", "image.png"), document,
+            this.oldCore.getXWikiContext());
+
+        // The thumbnail is generated in the background with the same key as a request with the width parameter.
+        verify(imageCache, timeout(5000)).set("0;null;0;30;-1;false;-1.0", attachment);
+
+        thumbnailsPlugin.flushCache();
+
+        verify(this.oldCore.getMocker().<ObservationManager>getInstance(ObservationManager.class))
+            .removeListener("image");
+    }
+
+    @Test
+    public void testThumbnailsNotGeneratedForRemoteEvents() throws Exception
+    {
+        doReturn("30").when(this.oldCore.getSpyXWiki()).Param("xwiki.plugin.image.thumbnails.widths");
+        for (Class<?> role : Arrays.asList(ObservationManager.class, RemoteObservationManagerContext.class)) {
+            if (!this.oldCore.getMocker().hasComponent(role)) {
+                this.oldCore.getMocker().registerMockComponent(role);
+            }
+        }
+        RemoteObservationManagerContext remoteContext =
+            this.oldCore.getMocker().getInstance(RemoteObservationManagerContext.class);
+        when(remoteContext.isRemoteState()).thenReturn(true);
+
+        ImagePlugin thumbnailsPlugin =
+            new ImagePlugin("image", ImagePlugin.class.getName(), this.oldCore.getXWikiContext());
+
+        XWikiDocument document = mock(XWikiDocument.class);
+        thumbnailsPlugin.onEvent(new AttachmentAddedEvent("Space.Page", "image.png"), document,
+            this.oldCore.getXWikiContext());
+
+        // The node where the image has been attached is in charge of the thumbnails.
+        verify(document, never()).getAttachment("image.png");
+    }
 }
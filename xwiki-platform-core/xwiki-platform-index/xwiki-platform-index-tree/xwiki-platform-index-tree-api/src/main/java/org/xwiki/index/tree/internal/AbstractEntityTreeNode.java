@@ -25,6 +25,7 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -67,6 +68,9 @@ public abstract class AbstractEntityTreeNode extends AbstractTreeNode
     @Inject
     protected QueryManager queryManager;
 
+    @Inject
+    protected ChildCountCache childCountCache;
+
     @Inject
     private UserPropertiesResolver userPropertiesResolver;
 
@@ -112,13 +116,16 @@ protected int getChildSpacesCount(EntityReference parentReference) throws QueryE
         Map<String, Object> parameters = new HashMap<String, Object>();
 
         EntityReference parentSpaceReference = parentReference.extractReference(EntityType.SPACE);
+        String parent = null;
         if (parentSpaceReference != null) {
+            parent = this.localEntityReferenceSerializer.serialize(parentSpaceReference);
             constraints.add("parent = :parent");
-            parameters.put("parent", this.localEntityReferenceSerializer.serialize(parentSpaceReference));
+            parameters.put("parent", parent);
         } else {
             constraints.add("parent is null");
         }
-        if (!areHiddenEntitiesShown()) {
+        boolean hiddenEntitiesShown = areHiddenEntitiesShown();
+        if (!hiddenEntitiesShown) {
             constraints.add("hidden <> true");
         }
         EntityReference wikiReference = parentReference.extractReference(EntityType.WIKI);
@@ -129,14 +136,30 @@ protected int getChildSpacesCount(EntityReference parentReference) throws QueryE
             parameters.put("excludedSpaces", excludedSpaces);
         }
 
-        String statement = "select count(*) from XWikiSpace " + whereClause(constraints);
-        Query query = this.queryManager.createQuery(statement, Query.HQL);
-        query.setWiki(wikiReference.getName());
-        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-            query.bindValue(entry.getKey(), entry.getValue());
-        }
+        String variant = getChildCountVariant("spaces", hiddenEntitiesShown, excludedSpaces);
 
-        return ((Long) query.execute().get(0)).intValue();
+        return this.childCountCache.getCount(wikiReference.getName(), parent, variant, () -> {
+            String statement = "select count(*) from XWikiSpace " + whereClause(constraints);
+            Query query = this.queryManager.createQuery(statement, Query.HQL);
+            query.setWiki(wikiReference.getName());
+            for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+                query.bindValue(entry.getKey(), entry.getValue());
+            }
+
+            return ((Long) query.execute().get(0)).intValue();
+        });
+    }
+
+    /**
+     * @param childType the type of children which are counted
+     * @param hiddenEntitiesShown true if the hidden children are counted
+     * @param exclusions the excluded children
+     * @return the identifier of the count in the {@link ChildCountCache}
+     * @since 13.4RC1
+     */
+    protected String getChildCountVariant(String childType, boolean hiddenEntitiesShown, Set<String> exclusions)
+    {
+        return childType + '/' + hiddenEntitiesShown + '/' + new TreeSet<>(exclusions);
     }
 
     protected String getDefaultDocumentName()
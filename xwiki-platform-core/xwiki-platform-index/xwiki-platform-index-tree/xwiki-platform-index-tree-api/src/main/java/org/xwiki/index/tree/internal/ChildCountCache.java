@@ -0,0 +1,138 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.query.QueryException;
+
+/**
+ * Remember the number of child pages of the tree nodes so that expanding a node under a big space does not require
+ * counting again and again the same rows. The counts are forgotten by {@link ChildCountCacheListener} when a page is
+ * added, removed or hidden below the corresponding parent.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = ChildCountCache.class)
+@Singleton
+public class ChildCountCache
+{
+    /**
+     * Compute a count when it's not in the cache.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface Counter
+    {
+        /**
+         * @return the number of children
+         * @throws QueryException when failing to count the children
+         */
+        int count() throws QueryException;
+    }
+
+    /**
+     * The maximum number of parents remembered per wiki, to not fill the memory when browsing very large wikis.
+     */
+    private static final int MAX_PARENTS = 10000;
+
+    /**
+     * The key used for the wiki itself since the concurrent maps don't support null keys.
+     */
+    private static final String WIKI_PARENT = "";
+
+    /**
+     * The counts indexed by wiki, then by parent space and finally by variant (type of children, filters, etc.).
+     */
+    private final Map<String, Map<String, Map<String, Integer>>> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented each time some counts are invalidated, to avoid storing a count computed before the invalidation.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * @param wiki the wiki where the children are located
+     * @param parent the local reference of the parent space or null for the top level children of the wiki
+     * @param variant identify the type of counted children and the filters applied to them
+     * @param counter used to count the children when the count is not in the cache
+     * @return the number of children
+     * @throws QueryException when failing to count the children
+     */
+    public int getCount(String wiki, String parent, String variant, Counter counter) throws QueryException
+    {
+        Map<String, Map<String, Integer>> wikiCounts =
+            this.counts.computeIfAbsent(wiki, k -> new ConcurrentHashMap<>());
+        String parentKey = parent != null ? parent : WIKI_PARENT;
+
+        Map<String, Integer> parentCounts = wikiCounts.get(parentKey);
+        Integer count = parentCounts != null ? parentCounts.get(variant) : null;
+
+        if (count == null) {
+            long currentVersion = this.version.get();
+
+            count = counter.count();
+
+            if (currentVersion == this.version.get()) {
+                if (parentCounts == null && wikiCounts.size() >= MAX_PARENTS) {
+                    wikiCounts.clear();
+                }
+                wikiCounts.computeIfAbsent(parentKey, k -> new ConcurrentHashMap<>()).put(variant, count);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Forget the counts of the children of the passed parent.
+     *
+     * @param wiki the wiki where the children are located
+     * @param parent the local reference of the parent space or null for the top level children of the wiki
+     */
+    public void invalidate(String wiki, String parent)
+    {
+        this.version.incrementAndGet();
+
+        Map<String, Map<String, Integer>> wikiCounts = this.counts.get(wiki);
+        if (wikiCounts != null) {
+            wikiCounts.remove(parent != null ? parent : WIKI_PARENT);
+        }
+    }
+
+    /**
+     * Forget all the counts of the passed wiki.
+     *
+     * @param wiki the wiki
+     */
+    public void invalidate(String wiki)
+    {
+        this.version.incrementAndGet();
+
+        this.counts.remove(wiki);
+    }
+}
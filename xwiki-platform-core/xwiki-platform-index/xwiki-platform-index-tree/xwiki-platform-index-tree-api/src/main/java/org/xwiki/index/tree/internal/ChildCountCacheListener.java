@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal;
+
+import java.util.Arrays;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Invalidate the {@link ChildCountCache} entries impacted by the creation, deletion or (un)hiding of a page.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component
+@Named(ChildCountCacheListener.NAME)
+@Singleton
+public class ChildCountCacheListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "org.xwiki.index.tree.internal.ChildCountCacheListener";
+
+    @Inject
+    private ChildCountCache cache;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localEntityReferenceSerializer;
+
+    /**
+     * Default constructor.
+     */
+    public ChildCountCacheListener()
+    {
+        super(NAME, Arrays.asList(new DocumentCreatedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent(),
+            new WikiDeletedEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof WikiDeletedEvent) {
+            this.cache.invalidate(((WikiDeletedEvent) event).getWikiId());
+        } else {
+            XWikiDocument document = (XWikiDocument) source;
+
+            // Updating a page only impacts the counts when it's hidden or made visible
+            if (event instanceof DocumentUpdatedEvent && document.getOriginalDocument() != null
+                && document.isHidden() == document.getOriginalDocument().isHidden()) {
+                return;
+            }
+
+            invalidate(document.getDocumentReference());
+        }
+    }
+
+    private void invalidate(DocumentReference documentReference)
+    {
+        String wiki = documentReference.getWikiReference().getName();
+
+        // The page can impact the terminal pages of its space but also the child spaces of each of its ancestors
+        // (when the spaces are created or deleted with the page)
+        for (EntityReference space = documentReference.getParent(); space != null
+            && space.getType() == EntityType.SPACE; space = space.getParent()) {
+            this.cache.invalidate(wiki, this.localEntityReferenceSerializer.serialize(space));
+        }
+        this.cache.invalidate(wiki, null);
+    }
+}
@@ -272,8 +272,9 @@ private int getChildTerminalPagesCount(DocumentReference documentReference) thro
         constraints.add("doc.translation = 0");
 
         // Include only the child pages.
+        String space = this.localEntityReferenceSerializer.serialize(documentReference.getParent());
         constraints.add("doc.space = :space");
-        parameters.put("space", this.localEntityReferenceSerializer.serialize(documentReference.getParent()));
+        parameters.put("space", space);
 
         // Include only the terminal pages.
         constraints.add("doc.name <> :defaultDocName");
@@ -286,18 +287,24 @@ private int getChildTerminalPagesCount(DocumentReference documentReference) thro
             parameters.put(PARAMETER_EXCLUDED_DOCUMENTS, excludedDocuments);
         }
 
-        Query query = this.queryManager.createQuery(whereClause(constraints), Query.HQL);
-        query.setWiki(documentReference.getWikiReference().getName());
-        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-            query.bindValue(entry.getKey(), entry.getValue());
-        }
+        boolean filterHiddenDocuments = Boolean.TRUE.equals(getProperties().get("filterHiddenDocuments"));
+        String variant = getChildCountVariant("terminalPages", areHiddenEntitiesShown(), excludedDocuments);
 
-        query.addFilter(this.countQueryFilter);
-        if (Boolean.TRUE.equals(getProperties().get("filterHiddenDocuments"))) {
-            query.addFilter(this.hiddenDocumentQueryFilterProvider.get());
-        }
+        String wiki = documentReference.getWikiReference().getName();
+        return this.childCountCache.getCount(wiki, space, variant, () -> {
+            Query query = this.queryManager.createQuery(whereClause(constraints), Query.HQL);
+            query.setWiki(wiki);
+            for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+                query.bindValue(entry.getKey(), entry.getValue());
+            }
+
+            query.addFilter(this.countQueryFilter);
+            if (filterHiddenDocuments) {
+                query.addFilter(this.hiddenDocumentQueryFilterProvider.get());
+            }
 
-        return ((Long) query.execute().get(0)).intValue();
+            return ((Long) query.execute().get(0)).intValue();
+        });
     }
 
     @Override
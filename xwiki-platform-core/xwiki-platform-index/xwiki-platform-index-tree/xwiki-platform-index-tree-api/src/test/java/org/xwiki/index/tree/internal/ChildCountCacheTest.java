@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.index.tree.internal.ChildCountCache.Counter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link ChildCountCache}.
+ *
+ * @version $Id$
+ */
+class ChildCountCacheTest
+{
+    private final ChildCountCache cache = new ChildCountCache();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final Counter counter = () -> this.calls.incrementAndGet();
+
+    @Test
+    void getCount() throws Exception
+    {
+        assertEquals(1, this.cache.getCount("wiki", "A.B", "spaces", this.counter));
+        assertEquals(1, this.cache.getCount("wiki", "A.B", "spaces", this.counter));
+        assertEquals(2, this.cache.getCount("wiki", "A.B", "pages", this.counter));
+        assertEquals(3, this.cache.getCount("wiki", null, "spaces", this.counter));
+        assertEquals(3, this.cache.getCount("wiki", null, "spaces", this.counter));
+        assertEquals(4, this.cache.getCount("other", null, "spaces", this.counter));
+
+        assertEquals(4, this.calls.get());
+    }
+
+    @Test
+    void invalidate() throws Exception
+    {
+        this.cache.getCount("wiki", "A.B", "spaces", this.counter);
+        this.cache.getCount("wiki", "A", "spaces", this.counter);
+        this.cache.getCount("wiki", null, "spaces", this.counter);
+        this.cache.getCount("other", null, "spaces", this.counter);
+
+        this.cache.invalidate("wiki", "A.B");
+
+        assertEquals(5, this.cache.getCount("wiki", "A.B", "spaces", this.counter));
+        assertEquals(2, this.cache.getCount("wiki", "A", "spaces", this.counter));
+
+        this.cache.invalidate("wiki", null);
+
+        assertEquals(6, this.cache.getCount("wiki", null, "spaces", this.counter));
+
+        this.cache.invalidate("wiki");
+
+        assertEquals(7, this.cache.getCount("wiki", "A", "spaces", this.counter));
+        assertEquals(4, this.cache.getCount("other", null, "spaces", this.counter));
+    }
+
+    @Test
+    void getCountWhenInvalidatedDuringCount() throws Exception
+    {
+        assertEquals(1, this.cache.getCount("wiki", "A", "spaces", () -> {
+            this.cache.invalidate("wiki", "A");
+
+            return 1;
+        }));
+
+        // The count computed during the invalidation should not have been stored
+        assertEquals(1, this.cache.getCount("wiki", "A", "spaces", this.counter));
+    }
+}
@@ -22,6 +22,8 @@
 import java.util.Locale;
 
 import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
 
 /**
  * A translation is a specific {@link Locale} and {@link TranslationBundle}.
@@ -74,4 +76,30 @@
      * @return the result translation
      */
     Block render(Locale locale, Object... parameters);
+
+    /**
+     * @param syntax the syntax in which the translation was rendered
+     * @return the result of a previous rendering without parameters of this translation in the passed syntax, or
+     *         {@code null} if none is available
+     * @since 13.4RC1
+     */
+    @Unstable
+    default String getRendered(Syntax syntax)
+    {
+        return null;
+    }
+
+    /**
+     * Remember the result of the rendering without parameters of this translation in the passed syntax, so that it can
+     * be reused through {@link #getRendered(Syntax)}. Implementations are free to ignore it.
+     * 
+     * @param syntax the syntax in which the translation was rendered
+     * @param rendered the result of the rendering
+     * @since 13.4RC1
+     */
+    @Unstable
+    default void setRendered(Syntax syntax, String rendered)
+    {
+        // Not remembered by default
+    }
 }
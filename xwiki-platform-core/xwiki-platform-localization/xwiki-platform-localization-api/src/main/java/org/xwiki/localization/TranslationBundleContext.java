@@ -20,8 +20,11 @@
 package org.xwiki.localization;
 
 import java.util.Collection;
+import java.util.Locale;
 
+import org.slf4j.LoggerFactory;
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * The Bundles applying to the current context ordered by priority.
@@ -43,4 +46,49 @@
      * @param bundle the bundle
      */
     void addBundle(TranslationBundle bundle);
+
+    /**
+     * Indicate that the translations provided by the passed bundle changed so that any cached resolution involving
+     * this bundle can be forgotten.
+     * 
+     * @param bundle the bundle which changed
+     * @since 13.4RC1
+     */
+    @Unstable
+    default void bundleUpdated(TranslationBundle bundle)
+    {
+        // Nothing to do by default
+    }
+
+    /**
+     * Find the translation of the passed key in the bundles applying to the current context, in priority order, and
+     * fallback on the parent locale when none of the bundles provides it in the passed locale.
+     * 
+     * @param key the key to translate
+     * @param locale the locale to translate into
+     * @return the {@link Translation} or null if none can be found
+     * @since 13.4RC1
+     */
+    @Unstable
+    default Translation getTranslation(String key, Locale locale)
+    {
+        for (TranslationBundle bundle : getBundles()) {
+            try {
+                Translation translation = bundle.getTranslation(key, locale);
+                if (translation != null && translation.getLocale().equals(locale)) {
+                    return translation;
+                }
+            } catch (Exception e) {
+                LoggerFactory.getLogger(TranslationBundleContext.class).error("Failed to get translation", e);
+            }
+        }
+
+        // Try parent locale
+        Locale parentLocale = LocaleUtils.getParentLocale(locale);
+        if (parentLocale != null) {
+            return getTranslation(key, parentLocale);
+        }
+
+        return null;
+    }
 }
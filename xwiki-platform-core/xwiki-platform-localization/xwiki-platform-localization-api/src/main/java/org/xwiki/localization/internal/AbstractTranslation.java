@@ -19,6 +19,7 @@
  */
 package org.xwiki.localization.internal;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Locale;
 
@@ -27,6 +28,7 @@
 import org.xwiki.localization.Translation;
 import org.xwiki.localization.message.TranslationMessage;
 import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.syntax.Syntax;
 
 /**
  * Base class for all {@link Translation} implementations.
@@ -36,6 +38,8 @@
  */
 public abstract class AbstractTranslation implements Translation
 {
+    private static final Object[] EMPTY_RENDERED = new Object[0];
+
     /**
      * Used to resolve variables.
      */
@@ -56,6 +60,12 @@ public abstract class AbstractTranslation implements Translation
      */
     private TranslationMessage message;
 
+    /**
+     * The syntaxes and the corresponding rendering of the message without parameters (alternating). Copied on write so
+     * that reading it does not require any allocation or lock.
+     */
+    private volatile Object[] renderedCache = EMPTY_RENDERED;
+
     /**
      * @param context used to resolve variables
      * @param localeBundle the bundle containing the translation
@@ -117,6 +127,51 @@ public Block render(Object... parameters)
         return render(null, parameters);
     }
 
+    @Override
+    public String getRendered(Syntax syntax)
+    {
+        Object[] cache = this.renderedCache;
+
+        // Syntaxes are generally constants so start with a cheap identity check
+        for (int i = 0; i < cache.length; i += 2) {
+            if (cache[i] == syntax) {
+                return (String) cache[i + 1];
+            }
+        }
+        for (int i = 0; i < cache.length; i += 2) {
+            if (cache[i].equals(syntax)) {
+                return (String) cache[i + 1];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Ignored if the rendering of the message is not reusable.
+     * 
+     * @since 13.4RC1
+     */
+    @Override
+    public void setRendered(Syntax syntax, String rendered)
+    {
+        if (rendered != null && this.message.isStatic()) {
+            synchronized (this) {
+                if (getRendered(syntax) != null) {
+                    return;
+                }
+
+                Object[] cache = this.renderedCache;
+                Object[] newCache = Arrays.copyOf(cache, cache.length + 2);
+                newCache[cache.length] = syntax;
+                newCache[cache.length + 1] = rendered;
+                this.renderedCache = newCache;
+            }
+        }
+    }
+
     @Override
     public String toString()
     {
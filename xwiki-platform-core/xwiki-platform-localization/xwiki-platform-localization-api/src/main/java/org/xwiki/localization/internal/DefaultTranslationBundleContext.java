@@ -19,12 +19,16 @@
  */
 package org.xwiki.localization.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -37,6 +41,7 @@
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.localization.Translation;
 import org.xwiki.localization.TranslationBundle;
 import org.xwiki.localization.TranslationBundleContext;
 import org.xwiki.model.EntityType;
@@ -54,10 +59,16 @@
 public class DefaultTranslationBundleContext implements TranslationBundleContext
 {
     /**
-     * The key associated to the list of bundles in the {@link ExecutionContext}.
+     * The key associated to the indexes of bundles (one per wiki) in the {@link ExecutionContext}.
      */
     public static final String CKEY_BUNDLES = "localization.bundles";
 
+    /**
+     * The maximum number of shared indexes per wiki, to not keep forever the indexes of bundles which are not
+     * registered anymore.
+     */
+    private static final int MAX_SHARED_INDEXES = 100;
+
     /**
      * Used to access the current context.
      */
@@ -80,7 +91,26 @@ public class DefaultTranslationBundleContext implements TranslationBundleContext
     @Inject
     private ModelContext modelContext;
 
-    private SortedSet<TranslationBundle> initializeCurrentBundles()
+    /**
+     * The indexes built from the bundles registered as components, shared between all the contexts of a wiki in which
+     * the same bundles are registered (the bundles may depend on the current user or document). The wiki is part of the
+     * key because some bundles (like the wiki preferences one) are shared by all the wikis but return translations
+     * which depend on the current wiki.
+     */
+    private final Map<String, Map<List<TranslationBundle>, TranslationIndex>> sharedIndexes =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Incremented each time the content of a bundle changes.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private Map<List<TranslationBundle>, TranslationIndex> getSharedIndexes(String wiki)
+    {
+        return this.sharedIndexes.computeIfAbsent(wiki, key -> new ConcurrentHashMap<>());
+    }
+
+    private TranslationIndex initializeCurrentIndex(String currentWiki)
     {
         SortedSet<TranslationBundle> currentBundles = new TreeSet<>();
 
@@ -93,51 +123,72 @@ private SortedSet<TranslationBundle> initializeCurrentBundles()
             this.logger.error("Failed to lookup Bundle components", e);
         }
 
-        return currentBundles;
+        List<TranslationBundle> bundles = new ArrayList<>(currentBundles);
+
+        // Reuse the translations already resolved in the same wiki with the same bundles
+        Map<List<TranslationBundle>, TranslationIndex> wikiIndexes = getSharedIndexes(currentWiki);
+        TranslationIndex index = wikiIndexes.get(bundles);
+        if (index == null) {
+            if (wikiIndexes.size() >= MAX_SHARED_INDEXES) {
+                wikiIndexes.clear();
+            }
+            index = wikiIndexes.computeIfAbsent(bundles,
+                key -> new TranslationIndex(key, this.generation.get()));
+        }
+
+        return index;
     }
 
     /**
-     * @return the current bundles
+     * @return the current indexes
      */
-    private Map<String, SortedSet<TranslationBundle>> getBundlesInternal()
+    private Map<String, TranslationIndex> getIndexesInternal()
     {
-        Map<String, SortedSet<TranslationBundle>> bundles;
+        Map<String, TranslationIndex> indexes;
 
         ExecutionContext context = this.execution.getContext();
         if (context != null) {
-            bundles = (Map<String, SortedSet<TranslationBundle>>) context.getProperty(CKEY_BUNDLES);
+            indexes = (Map<String, TranslationIndex>) context.getProperty(CKEY_BUNDLES);
 
-            if (bundles == null) {
+            if (indexes == null) {
                 // Register the Execution Context property with an empty map that will be populated for each wiki.
-                bundles = new HashMap<>();
-                context.newProperty(CKEY_BUNDLES).inherited().cloneValue().initial(bundles).declare();
+                indexes = new HashMap<>();
+                context.newProperty(CKEY_BUNDLES).inherited().cloneValue().initial(indexes).declare();
             }
         } else {
-            bundles = new HashMap<>();
+            indexes = new HashMap<>();
         }
 
-        return bundles;
+        return indexes;
     }
 
-    private SortedSet<TranslationBundle> getCurrentBundlesInternal()
+    /**
+     * @return the index of the bundles applying to the current context
+     */
+    private TranslationIndex getCurrentIndex()
     {
         String currentWiki = getCurrentWiki();
-        Map<String, SortedSet<TranslationBundle>> bundlesMap = getBundlesInternal();
-        SortedSet<TranslationBundle> currentBundles = bundlesMap.get(currentWiki);
+        Map<String, TranslationIndex> indexesMap = getIndexesInternal();
+        TranslationIndex currentIndex = indexesMap.get(currentWiki);
 
-        if (currentBundles == null) {
+        if (currentIndex == null) {
             // The context wiki has changed, initialize the bundles for the new current wiki.
-            currentBundles = initializeCurrentBundles();
-            bundlesMap.put(currentWiki, currentBundles);
+            currentIndex = initializeCurrentIndex(currentWiki);
+            indexesMap.put(currentWiki, currentIndex);
+        } else if (currentIndex.getGeneration() != this.generation.get()
+            && currentIndex != getSharedIndexes(currentWiki).get(currentIndex.getBundles())) {
+            // Indexes specific to this context (because of on demand bundles) are not invalidated in place
+            currentIndex = new TranslationIndex(currentIndex.getBundles(), this.generation.get());
+            indexesMap.put(currentWiki, currentIndex);
         }
 
-        return currentBundles;
+        return currentIndex;
     }
 
     @Override
     public Collection<TranslationBundle> getBundles()
     {
-        return getCurrentBundlesInternal();
+        return getCurrentIndex().getBundles();
     }
 
     @Override
@@ -147,7 +198,28 @@ public void addBundle(TranslationBundle bundle)
         // the wiki they were demanded from (i.e. displaying a document from another wiki that includes an onDemand
         // bundle will not affect the bundles of the wiki of the calling document, when the display finishes, so they
         // will be properly isolated. This is valid the other way around as well.)
-        getCurrentBundlesInternal().add(bundle);
+        TranslationIndex currentIndex = getCurrentIndex();
+        if (!currentIndex.contains(bundle)) {
+            getIndexesInternal().put(getCurrentWiki(), currentIndex.withBundle(bundle));
+        }
+    }
+
+    @Override
+    public Translation getTranslation(String key, Locale locale)
+    {
+        return getCurrentIndex().getTranslation(key, locale);
+    }
+
+    @Override
+    public void bundleUpdated(TranslationBundle bundle)
+    {
+        this.generation.incrementAndGet();
+
+        for (Map<List<TranslationBundle>, TranslationIndex> wikiIndexes : this.sharedIndexes.values()) {
+            for (TranslationIndex index : wikiIndexes.values()) {
+                index.invalidate(bundle);
+            }
+        }
     }
 
     private String getCurrentWiki()
@@ -0,0 +1,232 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.localization.LocaleUtils;
+import org.xwiki.localization.Translation;
+import org.xwiki.localization.TranslationBundle;
+
+/**
+ * A flattened view of an ordered list of {@link TranslationBundle}s: the result of the resolution of a key in a given
+ * {@link Locale} is remembered so that the next lookup of the same key is a single hash probe instead of asking each
+ * bundle in priority order.
+ * <p>
+ * The list of bundles is immutable. Adding a bundle produces a new index (see {@link #withBundle(TranslationBundle)})
+ * which keeps the resolutions that cannot be affected by the new bundle. When the content of a bundle changes,
+ * {@link #invalidate(TranslationBundle)} only forgets the resolutions which might have changed.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public class TranslationIndex
+{
+    /**
+     * The maximum number of unknown keys remembered per index, to not allow filling the memory with random keys.
+     */
+    private static final int MAX_MISSES = 10000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TranslationIndex.class);
+
+    /**
+     * The resolution of a key in a specific locale.
+     *
+     * @version $Id$
+     */
+    private static final class Entry
+    {
+        /**
+         * The position of the bundle which provided the translation in the exact index locale or -1 if the
+         * translation was not found in the exact locale (either missing or coming from a parent locale).
+         */
+        private final int position;
+
+        private final Translation translation;
+
+        Entry(int position, Translation translation)
+        {
+            this.position = position;
+            this.translation = translation;
+        }
+    }
+
+    private final List<TranslationBundle> bundles;
+
+    private final long generation;
+
+    private final Map<Locale, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Incremented each time some entries are invalidated, to avoid storing a resolution computed before the
+     * invalidation.
+     */
+    private final AtomicInteger version = new AtomicInteger();
+
+    /**
+     * @param bundles the bundles ordered by priority
+     * @param generation the generation of the bundles content at the time the index is created
+     */
+    public TranslationIndex(List<TranslationBundle> bundles, long generation)
+    {
+        this.bundles = Collections.unmodifiableList(new ArrayList<>(bundles));
+        this.generation = generation;
+    }
+
+    /**
+     * @return the bundles ordered by priority
+     */
+    public List<TranslationBundle> getBundles()
+    {
+        return this.bundles;
+    }
+
+    /**
+     * @return the generation of the bundles content at the time the index was created
+     */
+    public long getGeneration()
+    {
+        return this.generation;
+    }
+
+    /**
+     * @param bundle the bundle
+     * @return true if the passed bundle is part of the index
+     */
+    public boolean contains(TranslationBundle bundle)
+    {
+        return Collections.binarySearch(this.bundles, bundle) >= 0;
+    }
+
+    /**
+     * @param bundle the bundle to add
+     * @return a new index containing the current bundles and the passed one
+     */
+    public TranslationIndex withBundle(TranslationBundle bundle)
+    {
+        int insertion = Collections.binarySearch(this.bundles, bundle);
+        if (insertion >= 0) {
+            return this;
+        }
+        int position = -insertion - 1;
+
+        List<TranslationBundle> newBundles = new ArrayList<>(this.bundles.size() + 1);
+        newBundles.addAll(this.bundles);
+        newBundles.add(position, bundle);
+
+        TranslationIndex index = new TranslationIndex(newBundles, this.generation);
+
+        // Translations found in a bundle located before the new one cannot be affected by it
+        for (Map.Entry<Locale, Map<String, Entry>> localeEntries : this.entries.entrySet()) {
+            Map<String, Entry> newLocaleEntries = index.getLocaleEntries(localeEntries.getKey());
+            for (Map.Entry<String, Entry> entry : localeEntries.getValue().entrySet()) {
+                if (entry.getValue().position >= 0 && entry.getValue().position < position) {
+                    newLocaleEntries.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Forget the resolutions which might be impacted by a change in the passed bundle.
+     *
+     * @param bundle the bundle which changed
+     */
+    public void invalidate(TranslationBundle bundle)
+    {
+        int position = this.bundles.indexOf(bundle);
+
+        this.version.incrementAndGet();
+
+        if (position < 0) {
+            // Probably a bundle aggregated by one of the index bundles, we don't know which one
+            this.entries.clear();
+            this.misses.set(0);
+        } else {
+            for (Map<String, Entry> localeEntries : this.entries.values()) {
+                localeEntries.values().removeIf(entry -> entry.position < 0 || entry.position >= position);
+            }
+            this.misses.set(0);
+        }
+    }
+
+    /**
+     * @param key the key to translate
+     * @param locale the locale to translate into
+     * @return the {@link Translation} or null if none can be found
+     */
+    public Translation getTranslation(String key, Locale locale)
+    {
+        Map<String, Entry> localeEntries = getLocaleEntries(locale);
+
+        Entry entry = localeEntries.get(key);
+        if (entry == null) {
+            int currentVersion = this.version.get();
+
+            entry = resolve(key, locale);
+
+            if (currentVersion == this.version.get()
+                && (entry.translation != null || this.misses.incrementAndGet() <= MAX_MISSES)) {
+                localeEntries.put(key, entry);
+            }
+        }
+
+        return entry.translation;
+    }
+
+    private Map<String, Entry> getLocaleEntries(Locale locale)
+    {
+        return this.entries.computeIfAbsent(locale, k -> new ConcurrentHashMap<>());
+    }
+
+    private Entry resolve(String key, Locale locale)
+    {
+        for (int i = 0; i < this.bundles.size(); ++i) {
+            try {
+                Translation translation = this.bundles.get(i).getTranslation(key, locale);
+                if (translation != null && translation.getLocale().equals(locale)) {
+                    return new Entry(i, translation);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Failed to get translation", e);
+            }
+        }
+
+        // Try parent locale
+        Locale parentLocale = LocaleUtils.getParentLocale(locale);
+        if (parentLocale != null) {
+            return new Entry(-1, getTranslation(key, parentLocale));
+        }
+
+        return new Entry(-1, null);
+    }
+}
@@ -52,6 +52,12 @@ public String getRawSource()
         return this.rawSource;
     }
 
+    @Override
+    public boolean isStatic()
+    {
+        return true;
+    }
+
     @Override
     public String toString()
     {
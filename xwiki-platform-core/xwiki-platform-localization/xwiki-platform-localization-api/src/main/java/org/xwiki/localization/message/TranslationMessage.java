@@ -25,6 +25,7 @@
 import org.xwiki.localization.TranslationBundle;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.CompositeBlock;
+import org.xwiki.stability.Unstable;
 
 /**
  * Generate the final translation based or variables informations (parameters, etc.).
@@ -51,6 +52,12 @@ public String getRawSource()
             return "";
         }
 
+        @Override
+        public boolean isStatic()
+        {
+            return true;
+        }
+
         @Override
         public String toString()
         {
@@ -62,4 +69,15 @@ public String toString()
      * @return the raw source of the translation as it is stored
      */
     String getRawSource();
+
+    /**
+     * @return true if the result of the rendering without parameters only depends on the message itself (and not on
+     *         the locale or the bundles) and can be reused
+     * @since 13.4RC1
+     */
+    @Unstable
+    default boolean isStatic()
+    {
+        return false;
+    }
 }
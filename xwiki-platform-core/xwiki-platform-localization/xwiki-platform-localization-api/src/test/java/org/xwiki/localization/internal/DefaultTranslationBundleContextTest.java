@@ -22,6 +22,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 import javax.inject.Provider;
 
@@ -32,6 +33,7 @@
 import org.xwiki.component.util.DefaultParameterizedType;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.localization.Translation;
 import org.xwiki.localization.TranslationBundle;
 import org.xwiki.localization.TranslationBundleContext;
 import org.xwiki.model.ModelContext;
@@ -41,6 +43,7 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -166,4 +169,73 @@ public void addBundlesToCurrentContext() throws Exception
         assertEquals(1, bundles.size());
         assertTrue(bundles.contains(mockBundleToAdd));
     }
+
+    @Test
+    public void getTranslationWithOtherBundlesOnSameWiki() throws Exception
+    {
+        ComponentManager mockComponentManager1 = mock(ComponentManager.class);
+        TranslationBundle mockBundle1 = mock(TranslationBundle.class);
+        Translation translation1 = mock(Translation.class);
+        when(translation1.getLocale()).thenReturn(Locale.ENGLISH);
+        when(mockBundle1.getTranslation("key", Locale.ENGLISH)).thenReturn(translation1);
+        when(mockComponentManager1.<TranslationBundle>getInstanceList(TranslationBundle.class))
+            .thenReturn(Arrays.asList(mockBundle1));
+
+        ComponentManager mockComponentManager2 = mock(ComponentManager.class);
+        TranslationBundle mockBundle2 = mock(TranslationBundle.class);
+        Translation translation2 = mock(Translation.class);
+        when(translation2.getLocale()).thenReturn(Locale.ENGLISH);
+        when(mockBundle2.getTranslation("key", Locale.ENGLISH)).thenReturn(translation2);
+        when(mockComponentManager2.<TranslationBundle>getInstanceList(TranslationBundle.class))
+            .thenReturn(Arrays.asList(mockBundle2));
+
+        // First context
+        when(this.mockContextComponentManagerProvider.get()).thenReturn(mockComponentManager1);
+
+        assertSame(translation1, this.mocker.getComponentUnderTest().getTranslation("key", Locale.ENGLISH));
+
+        // Second context on the same wiki but with other bundles (for example registered for another user)
+        this.mockExecutionContext.removeProperty(DefaultTranslationBundleContext.CKEY_BUNDLES);
+        when(this.mockContextComponentManagerProvider.get()).thenReturn(mockComponentManager2);
+
+        assertSame(translation2, this.mocker.getComponentUnderTest().getTranslation("key", Locale.ENGLISH));
+
+        // Back to the first bundles
+        this.mockExecutionContext.removeProperty(DefaultTranslationBundleContext.CKEY_BUNDLES);
+        when(this.mockContextComponentManagerProvider.get()).thenReturn(mockComponentManager1);
+
+        assertSame(translation1, this.mocker.getComponentUnderTest().getTranslation("key", Locale.ENGLISH));
+    }
+
+    @Test
+    public void getTranslationWithWikiDependentBundleOnOtherWiki() throws Exception
+    {
+        ComponentManager mockComponentManager = mock(ComponentManager.class);
+        when(this.mockContextComponentManagerProvider.get()).thenReturn(mockComponentManager);
+
+        // Same bundle for all the wikis (like the wiki preferences bundle) but with different translations per wiki
+        Translation translation1 = mock(Translation.class);
+        when(translation1.getLocale()).thenReturn(Locale.ENGLISH);
+        Translation translation2 = mock(Translation.class);
+        when(translation2.getLocale()).thenReturn(Locale.ENGLISH);
+        TranslationBundle mockBundle = mock(TranslationBundle.class);
+        when(mockBundle.getTranslation("key", Locale.ENGLISH)).then(invocation -> "currentWiki"
+            .equals(this.mockModelContext.getCurrentEntityReference().getName()) ? translation1 : translation2);
+        when(mockComponentManager.<TranslationBundle>getInstanceList(TranslationBundle.class))
+            .thenReturn(Arrays.asList(mockBundle));
+
+        assertSame(translation1, this.mocker.getComponentUnderTest().getTranslation("key", Locale.ENGLISH));
+
+        // Another request on another wiki
+        this.mockExecutionContext.removeProperty(DefaultTranslationBundleContext.CKEY_BUNDLES);
+        when(this.mockModelContext.getCurrentEntityReference()).thenReturn(new WikiReference("otherWiki"));
+
+        assertSame(translation2, this.mocker.getComponentUnderTest().getTranslation("key", Locale.ENGLISH));
+
+        // Back to the first wiki
+        this.mockExecutionContext.removeProperty(DefaultTranslationBundleContext.CKEY_BUNDLES);
+        when(this.mockModelContext.getCurrentEntityReference()).thenReturn(new WikiReference("currentWiki"));
+
+        assertSame(translation1, this.mocker.getComponentUnderTest().getTranslation("key", Locale.ENGLISH));
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.localization.Translation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link TranslationIndex}.
+ *
+ * @version $Id$
+ */
+class TranslationIndexTest
+{
+    private static class TestBundle extends AbstractTranslationBundle
+    {
+        private final Map<String, Translation> translations = new HashMap<>();
+
+        private int calls;
+
+        TestBundle(String id, int priority)
+        {
+            super(id, priority);
+        }
+
+        Translation put(String key, Locale locale)
+        {
+            Translation translation = mock(Translation.class);
+            when(translation.getLocale()).thenReturn(locale);
+            this.translations.put(key + locale, translation);
+
+            return translation;
+        }
+
+        @Override
+        public Translation getTranslation(String key, Locale locale)
+        {
+            this.calls++;
+
+            return this.translations.get(key + locale);
+        }
+    }
+
+    @Test
+    void getTranslation()
+    {
+        TestBundle bundle1 = new TestBundle("bundle1", 1);
+        TestBundle bundle2 = new TestBundle("bundle2", 2);
+        Translation translation1 = bundle1.put("key", Locale.ENGLISH);
+        bundle2.put("key", Locale.ENGLISH);
+        Translation translation2 = bundle2.put("other", Locale.ROOT);
+
+        TranslationIndex index = new TranslationIndex(Arrays.asList(bundle1, bundle2), 0);
+
+        assertSame(translation1, index.getTranslation("key", Locale.ENGLISH));
+        assertSame(translation2, index.getTranslation("other", Locale.ENGLISH));
+        assertNull(index.getTranslation("missing", Locale.ENGLISH));
+
+        int calls = bundle1.calls + bundle2.calls;
+
+        assertSame(translation1, index.getTranslation("key", Locale.ENGLISH));
+        assertSame(translation2, index.getTranslation("other", Locale.ENGLISH));
+        assertNull(index.getTranslation("missing", Locale.ENGLISH));
+
+        // Everything should be resolved from the index
+        assertEquals(calls, bundle1.calls + bundle2.calls);
+    }
+
+    @Test
+    void withBundle()
+    {
+        TestBundle bundle1 = new TestBundle("bundle1", 1);
+        TestBundle bundle3 = new TestBundle("bundle3", 3);
+        Translation translation1 = bundle1.put("key1", Locale.ROOT);
+        bundle3.put("key3", Locale.ROOT);
+
+        TranslationIndex index = new TranslationIndex(Arrays.asList(bundle1, bundle3), 0);
+        index.getTranslation("key1", Locale.ROOT);
+        index.getTranslation("key3", Locale.ROOT);
+
+        TestBundle bundle2 = new TestBundle("bundle2", 2);
+        bundle2.put("key1", Locale.ROOT);
+        Translation translation3 = bundle2.put("key3", Locale.ROOT);
+
+        TranslationIndex newIndex = index.withBundle(bundle2);
+
+        assertEquals(Arrays.asList(bundle1, bundle2, bundle3), newIndex.getBundles());
+        assertSame(translation1, newIndex.getTranslation("key1", Locale.ROOT));
+        assertSame(translation3, newIndex.getTranslation("key3", Locale.ROOT));
+        // The bundle 2 does not need to be asked for key1
+        assertEquals(1, bundle2.calls);
+    }
+
+    @Test
+    void invalidate()
+    {
+        TestBundle bundle = new TestBundle("bundle", 1);
+
+        TranslationIndex index = new TranslationIndex(Arrays.asList(bundle), 0);
+
+        assertNull(index.getTranslation("key", Locale.ROOT));
+
+        Translation translation = bundle.put("key", Locale.ROOT);
+
+        assertNull(index.getTranslation("key", Locale.ROOT));
+
+        index.invalidate(bundle);
+
+        assertSame(translation, index.getTranslation("key", Locale.ROOT));
+    }
+}
@@ -23,7 +23,6 @@
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
@@ -338,7 +337,13 @@ public String render(Collection<String> keys, Syntax syntax, Collection<?> param
      */
     public String render(String key, Syntax syntax, Collection<?> parameters, Locale locale)
     {
-        return render(Collections.singletonList(key), syntax, parameters, locale);
+        if (key == null) {
+            return null;
+        }
+
+        Translation translation = this.localization.getTranslation(key, locale);
+
+        return translation != null ? render(translation, syntax, parameters, locale) : key;
     }
 
     /**
@@ -372,23 +377,7 @@ public String render(Collection<String> keys, Syntax syntax, Collection<?> param
         String result;
 
         if (translation != null) {
-            Block block =
-                parameters != null ? translation.render(locale, parameters.toArray()) : translation.render(locale);
-
-            // Render the block
-
-            try {
-                BlockRenderer renderer =
-                    this.componentManager.get().getInstance(BlockRenderer.class, syntax.toIdString());
-
-                DefaultWikiPrinter wikiPrinter = new DefaultWikiPrinter();
-                renderer.render(block, wikiPrinter);
-
-                result = wikiPrinter.toString();
-            } catch (ComponentLookupException e) {
-                // TODO set current error
-                result = null;
-            }
+            result = render(translation, syntax, parameters, locale);
         } else {
             result = null;
 
@@ -402,6 +391,42 @@ public String render(Collection<String> keys, Syntax syntax, Collection<?> param
         return result;
     }
 
+    private String render(Translation translation, Syntax syntax, Collection<?> parameters, Locale locale)
+    {
+        boolean noParameters = CollectionUtils.isEmpty(parameters);
+
+        // Reuse the result of the previous rendering of the translation when possible
+        if (noParameters) {
+            String result = translation.getRendered(syntax);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        Block block = noParameters ? translation.render(locale) : translation.render(locale, parameters.toArray());
+
+        // Render the block
+
+        String result;
+        try {
+            BlockRenderer renderer = this.componentManager.get().getInstance(BlockRenderer.class, syntax.toIdString());
+
+            DefaultWikiPrinter wikiPrinter = new DefaultWikiPrinter();
+            renderer.render(block, wikiPrinter);
+
+            result = wikiPrinter.toString();
+        } catch (ComponentLookupException e) {
+            // TODO set current error
+            result = null;
+        }
+
+        if (noParameters) {
+            translation.setRendered(syntax, result);
+        }
+
+        return result;
+    }
+
     /**
      * @return the list of available locales for XWiki translations
      * @since 9.7RC1
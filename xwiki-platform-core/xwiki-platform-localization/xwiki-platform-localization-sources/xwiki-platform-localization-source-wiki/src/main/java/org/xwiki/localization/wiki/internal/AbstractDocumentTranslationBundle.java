@@ -239,6 +239,8 @@ public void onEvent(Event event, Object source, Object data)
                 this.bundleCache.remove(document.getDefaultLocale());
             }
         }
+
+        this.bundleContext.bundleUpdated(this);
     }
 
     @Override
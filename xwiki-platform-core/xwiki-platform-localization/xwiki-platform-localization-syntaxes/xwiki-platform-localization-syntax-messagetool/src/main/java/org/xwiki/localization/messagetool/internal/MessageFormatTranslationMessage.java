@@ -49,17 +49,28 @@ public class MessageFormatTranslationMessage implements TranslationMessage
     /**
      * The message.
      */
-    private String message;
+    private final String message;
+
+    /**
+     * True if the message contains {@link MessageFormat} syntax which need to be interpreted when parameters are
+     * passed.
+     */
+    private final boolean formatted;
 
     /**
      * The plain text parser.
      */
-    private Parser plainParser;
+    private final Parser plainParser;
+
+    /**
+     * Keep a cache of parsed version of the message without parameters. Never modified, only clones are returned.
+     */
+    private volatile Block noParamCache;
 
     /**
-     * Keep a cache of parsed version of the message without parameters.
+     * The parsed version of the message format, cloned for each use since {@link MessageFormat} is not thread safe.
      */
-    private Block noParamCache;
+    private volatile MessageFormat messageFormat;
 
     /**
      * @param message the message
@@ -69,29 +80,53 @@ public MessageFormatTranslationMessage(String message, Parser plainParser)
     {
         this.message = message;
         this.plainParser = plainParser;
+
+        this.formatted = message.indexOf('{') >= 0 || message.indexOf('\'') >= 0;
     }
 
     @Override
     public Block render(Locale locale, Collection<TranslationBundle> bundles, Object... parameters)
     {
+        boolean noParameter = parameters.length == 0;
+
         // Directly return cache if any available
-        if (parameters.length == 0 && this.noParamCache != null) {
-            return this.noParamCache.clone();
+        if (noParameter || !this.formatted) {
+            Block block = this.noParamCache;
+            if (block == null) {
+                block = parse(this.message);
+                this.noParamCache = block;
+            }
+
+            return block != null ? block.clone() : null;
         }
 
-        // Format the message
-        String result;
-        if (parameters.length > 0) {
-            try {
-                result = MessageFormat.format(this.message, parameters);
-            } catch (IllegalArgumentException e) {
-                // TODO: log the error ?
-                result = this.message;
+        return parse(format(parameters));
+    }
+
+    @Override
+    public boolean isStatic()
+    {
+        return true;
+    }
+
+    private String format(Object... parameters)
+    {
+        try {
+            MessageFormat format = this.messageFormat;
+            if (format == null) {
+                format = new MessageFormat(this.message);
+                this.messageFormat = format;
             }
-        } else {
-            result = this.message;
+
+            return ((MessageFormat) format.clone()).format(parameters);
+        } catch (IllegalArgumentException e) {
+            // TODO: log the error ?
+            return this.message;
         }
+    }
 
+    private Block parse(String result)
+    {
         // Parse it to rendering blocks
         Block block;
         try {
@@ -106,11 +141,6 @@ public Block render(Locale locale, Collection<TranslationBundle> bundles, Object
             } else {
                 block = new CompositeBlock(blocks);
             }
-
-            // Store cache of the message if there is no parameters
-            if (parameters.length == 0) {
-                this.noParamCache = block.clone();
-            }
         } catch (ParseException e) {
             // Should never happen since plain text parser cannot fail
             block = null;
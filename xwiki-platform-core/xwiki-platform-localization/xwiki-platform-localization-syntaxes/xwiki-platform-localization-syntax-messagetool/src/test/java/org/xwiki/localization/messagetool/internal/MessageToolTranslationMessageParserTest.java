@@ -59,6 +59,20 @@ public void messageSimple() throws ComponentLookupException
         Assert.assertEquals(new WordBlock("word"), translationMessage.render(null, null));
     }
 
+    @Test
+    public void messageSimpleRenderedTwice() throws ComponentLookupException
+    {
+        TranslationMessage translationMessage = getMockedComponent().parse("word");
+
+        Block block = translationMessage.render(null, null);
+        block.addChild(new WordBlock("modified"));
+
+        // The cached version must not be impacted by modifications of a previous result
+        Assert.assertEquals(new WordBlock("word"), translationMessage.render(null, null));
+        Assert.assertNotSame(translationMessage.render(null, null), translationMessage.render(null, null));
+        Assert.assertTrue(translationMessage.isStatic());
+    }
+
     @Test
     public void messageWithOneParameter() throws ComponentLookupException
     {
@@ -0,0 +1,101 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.messagetool.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.component.embed.EmbeddableComponentManager;
+import org.xwiki.localization.message.TranslationMessage;
+import org.xwiki.localization.message.TranslationMessageParser;
+
+/**
+ * Measure the number of translations rendered per second for messages typically found in UI templates (menus, forms
+ * labels, hints). Not executed as part of the build, run it manually with the test classpath. The results are logged
+ * at the info level.
+ *
+ * @version $Id$
+ */
+public final class TranslationMessageBenchmark
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(TranslationMessageBenchmark.class);
+
+    private static final String[] NO_PARAMETER_MESSAGES = {"Edit", "Delete", "Save & View", "Cancel",
+        "Administer Wiki", "Page Index", "Recent changes", "Log-out", "You are not allowed to view this page.",
+        "The document could not be saved because it's locked by another user."};
+
+    private static final String[] PARAMETER_MESSAGES = {"Welcome {0}", "Last modified by {0} on {1}",
+        "{0} comments", "Showing {0} - {1} of {2}", "Are you sure you want to delete ''{0}''?"};
+
+    private static final int WARMUP = 100000;
+
+    private static final int ITERATIONS = 1000000;
+
+    private TranslationMessageBenchmark()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param args not used
+     * @throws Exception when failing to initialize the components
+     */
+    public static void main(String[] args) throws Exception
+    {
+        EmbeddableComponentManager componentManager = new EmbeddableComponentManager();
+        componentManager.initialize(TranslationMessageBenchmark.class.getClassLoader());
+
+        TranslationMessageParser parser =
+            componentManager.getInstance(TranslationMessageParser.class, MessageToolTranslationMessageParser.HINT);
+
+        List<TranslationMessage> noParameterMessages = new ArrayList<>();
+        for (String message : NO_PARAMETER_MESSAGES) {
+            noParameterMessages.add(parser.parse(message));
+        }
+        List<TranslationMessage> parameterMessages = new ArrayList<>();
+        for (String message : PARAMETER_MESSAGES) {
+            parameterMessages.add(parser.parse(message));
+        }
+
+        run(noParameterMessages, WARMUP);
+        LOGGER.info("No parameter: {} translations/s", run(noParameterMessages, ITERATIONS));
+
+        run(parameterMessages, WARMUP, "Admin", "2021/05/10", 3);
+        LOGGER.info("Parameters: {} translations/s", run(parameterMessages, ITERATIONS, "Admin", "2021/05/10", 3));
+
+        componentManager.dispose();
+    }
+
+    private static long run(List<TranslationMessage> messages, int iterations, Object... parameters)
+    {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; ++i) {
+            messages.get(i % messages.size()).render(Locale.ENGLISH, null, parameters);
+        }
+
+        long duration = System.nanoTime() - start;
+
+        return iterations * 1000000000L / Math.max(duration, 1);
+    }
+}
@@ -215,6 +215,7 @@
 import com.xpn.xwiki.internal.event.XObjectPropertyEvent;
 import com.xpn.xwiki.internal.event.XObjectPropertyUpdatedEvent;
 import com.xpn.xwiki.internal.mandatory.XWikiPreferencesDocumentInitializer;
+import com.xpn.xwiki.internal.objects.classes.XClassCache;
 import com.xpn.xwiki.internal.render.OldRendering;
 import com.xpn.xwiki.internal.render.groovy.ParseGroovyFromString;
 import com.xpn.xwiki.internal.skin.InternalSkinConfiguration;
@@ -297,6 +298,17 @@ public class XWiki implements EventListener
      */
     public static final String CACHE_VERSION = "cache-version";
 
+    /**
+     * Name of the {@link XWikiContext} property holding a {@code List<Runnable>} in which
+     * {@link #saveDocument(XWikiDocument, String, boolean, XWikiContext)} queues the document created/updated
+     * notifications instead of sending them right away. Used when saving several documents in the same transaction so
+     * that the notifications are only sent once the transaction is committed (and not at all if it's rolled back).
+     *
+     * @since 13.4RC1
+     */
+    @Unstable
+    public static final String CKEY_DEFERRED_SAVE_NOTIFICATIONS = "deferredSaveNotifications";
+
     /** Logging helper object. */
     protected static final Logger LOGGER = LoggerFactory.getLogger(XWiki.class);
 
@@ -481,6 +493,8 @@ public class XWiki implements EventListener
 
     private AsyncContext asyncContext;
 
+    private XClassCache xclassCache;
+
     private ConfigurationSource getConfiguration()
     {
         if (this.xwikicfg == null) {
@@ -777,6 +791,15 @@ private WikiSkinUtils getWikiSkinUtils()
         return this.wikiSkinUtils;
     }
 
+    private XClassCache getXClassCache()
+    {
+        if (this.xclassCache == null && Utils.getComponentManager().hasComponent(XClassCache.class)) {
+            this.xclassCache = Utils.getComponent(XClassCache.class);
+        }
+
+        return this.xclassCache;
+    }
+
     private DocumentRevisionProvider getDocumentRevisionProvider()
     {
         if (this.documentRevisionProvider == null) {
@@ -2054,29 +2077,43 @@ public void saveDocument(XWikiDocument document, String comment, boolean isMinor
             // Actually save the document.
             getStore().saveXWikiDoc(document, context);
 
-            // Since the store#saveXWikiDoc resets originalDocument, we need to temporarily put it
-            // back to send notifications.
-            XWikiDocument newOriginal = document.getOriginalDocument();
+            List<Runnable> deferredNotifications = (List<Runnable>) context.get(CKEY_DEFERRED_SAVE_NOTIFICATIONS);
+            if (deferredNotifications != null) {
+                // The document was saved in a transaction which is not yet committed
+                deferredNotifications.add(() -> notifySaved(document, originalDocument, context));
+            } else {
+                notifySaved(document, originalDocument, context);
+            }
+        } finally {
+            context.setWikiId(currentWiki);
+        }
+    }
 
-            try {
-                document.setOriginalDocument(originalDocument);
+    private void notifySaved(XWikiDocument document, XWikiDocument originalDocument, XWikiContext context)
+    {
+        // Since the store#saveXWikiDoc resets originalDocument, we need to temporarily put it
+        // back to send notifications.
+        XWikiDocument newOriginal = document.getOriginalDocument();
 
-                // Notify listeners about the document having been created or updated
+        String currentWiki = context.getWikiId();
+        try {
+            context.setWikiId(document.getDocumentReference().getWikiReference().getName());
+            document.setOriginalDocument(originalDocument);
 
-                // First the legacy notification mechanism
+            // Notify listeners about the document having been created or updated
 
-                // Then the new observation module
-                // Note that for the moment the event being send is a bridge event, as we are still passing around
-                // an XWikiDocument as source and an XWikiContext as data.
-                // The old version is made available using doc.getOriginalDocument()
-                afterSave(document, context);
-            } catch (Exception ex) {
-                LOGGER.error("Failed to send document save notification for document ["
-                    + getDefaultEntityReferenceSerializer().serialize(document.getDocumentReference()) + "]", ex);
-            } finally {
-                document.setOriginalDocument(newOriginal);
-            }
+            // First the legacy notification mechanism
+
+            // Then the new observation module
+            // Note that for the moment the event being send is a bridge event, as we are still passing around
+            // an XWikiDocument as source and an XWikiContext as data.
+            // The old version is made available using doc.getOriginalDocument()
+            afterSave(document, context);
+        } catch (Exception ex) {
+            LOGGER.error("Failed to send document save notification for document ["
+                + getDefaultEntityReferenceSerializer().serialize(document.getDocumentReference()) + "]", ex);
         } finally {
+            document.setOriginalDocument(newOriginal);
             context.setWikiId(currentWiki);
         }
     }
@@ -3578,6 +3615,12 @@ public void flushCache(XWikiContext context)
         if ((store != null) && (store instanceof XWikiCacheStoreInterface)) {
             ((XWikiCacheStoreInterface) getStore()).flushCache();
         }
+        // Flush the shared classes
+        XClassCache xclassCache = getXClassCache();
+        if (xclassCache != null) {
+            xclassCache.removeAll();
+        }
+
         // Flush renderers.. Groovy renderer has a cache
         getOldRendering().flushCache();
         getParseGroovyFromString().flushCache();
@@ -7072,6 +7115,12 @@ public BaseClass getXClass(DocumentReference documentReference, XWikiContext con
             return bclass;
         }
 
+        // Avoid getting the class document each time a class is needed
+        XClassCache xclassCache = getXClassCache();
+        if (xclassCache != null) {
+            return xclassCache.get(documentReference, context);
+        }
+
         return getDocument(documentReference, context).getXClass();
     }
 
@@ -7860,6 +7909,12 @@ private void onJobFinished(JobFinishedEvent event)
     private void onWikiDeletedEvent(WikiDeletedEvent event)
     {
         this.initializedWikis.remove(event.getWikiId());
+
+        // The classes of the deleted wiki don't exist anymore
+        XClassCache xclassCache = getXClassCache();
+        if (xclassCache != null) {
+            xclassCache.removeAll();
+        }
     }
 
     private void onMandatoryDocumentInitializerAdded(ComponentDescriptorAddedEvent event,
@@ -170,7 +170,9 @@
 import com.xpn.xwiki.doc.merge.MergeConfiguration;
 import com.xpn.xwiki.doc.merge.MergeResult;
 import com.xpn.xwiki.doc.rcs.XWikiRCSNodeInfo;
+import com.xpn.xwiki.internal.cache.XDOMCache;
 import com.xpn.xwiki.internal.cache.rendering.RenderingCache;
+import com.xpn.xwiki.internal.doc.DocumentOutline;
 import com.xpn.xwiki.internal.doc.XWikiAttachmentList;
 import com.xpn.xwiki.internal.filter.XWikiDocumentFilterUtils;
 import com.xpn.xwiki.internal.render.OldRendering;
@@ -584,10 +586,16 @@ private static SyntaxRegistry getSyntaxRegistry()
 
     /**
      * The document structure expressed as a tree of Block objects. We store it for performance reasons since parsing is
-     * a costly operation that we don't want to repeat whenever some code ask for the XDOM information.
+     * a costly operation that we don't want to repeat whenever some code ask for the XDOM information. It can be shared
+     * with other instances of the same document version (see {@link XDOMCache}) so it must never be modified.
      */
     private XDOM xdomCache;
 
+    /**
+     * The headings of the sections of {@link #xdomCache}, extracted only when needed.
+     */
+    private DocumentOutline outlineCache;
+
     /**
      * Use to store rendered documents in #getRenderedContent(). Do not inject the component here to avoid any simple
      * new XWikiDocument to cause many useless initialization, in particular, during initialization of the stub context
@@ -1134,6 +1142,7 @@ public void setContent(String content)
         if (notEqual) {
             // invalidate parsed xdom
             this.xdomCache = null;
+            this.outlineCache = null;
             setContentDirty(true);
             setWikiNode(null);
         }
@@ -7374,6 +7383,7 @@ public void setSyntax(Syntax syntax)
             this.syntax = syntax;
             // invalidate parsed xdom
             this.xdomCache = null;
+            this.outlineCache = null;
         }
     }
 
@@ -7948,7 +7958,8 @@ public List<DocumentSection> getSections() throws XWikiException
             return getSections10();
         } else {
             List<DocumentSection> splitSections = new ArrayList<DocumentSection>();
-            List<HeaderBlock> headers = getFilteredHeaders();
+            // The headers come from the shared parsed content so they must not be modified
+            List<HeaderBlock> headers = getDocumentOutline().getHeaders(getSectionDepth());
 
             int sectionNumber = 1;
             for (HeaderBlock header : headers) {
@@ -7959,7 +7970,7 @@ public List<DocumentSection> getSections() throws XWikiException
                 String documentSectionLevel = StringUtils.repeat("1.", header.getLevel().getAsInt() - 1) + "1";
 
                 DocumentSection docSection = new DocumentSection(sectionNumber++, documentSectionIndex,
-                    documentSectionLevel, renderXDOM(new XDOM(header.getChildren()), getSyntax()));
+                    documentSectionLevel, renderXDOM(new XDOM(header.clone().getChildren()), getSyntax()));
                 splitSections.add(docSection);
             }
 
@@ -7986,79 +7997,50 @@ private XWikiContext getXWikiContext()
     /**
      * Filter the headers from a document XDOM based on xwiki.section.depth property from xwiki.cfg file.
      *
-     * @return the filtered headers
+     * @return the filtered headers, coming from a copy of the document XDOM which can be modified
      */
     private List<HeaderBlock> getFilteredHeaders()
     {
-        List<HeaderBlock> filteredHeaders = new ArrayList<HeaderBlock>();
+        return new DocumentOutline(getXDOM()).getHeaders(getSectionDepth());
+    }
 
-        // Get the maximum header level
+    /**
+     * @return the maximum level of the editable sections
+     */
+    private int getSectionDepth()
+    {
         int sectionDepth = 2;
         XWikiContext context = getXWikiContext();
         if (context != null) {
             sectionDepth = (int) context.getWiki().getSectionEditingDepth();
         }
 
-        // Get the headers.
-        //
-        // Note that we need to only take into account SectionBlock that are children of other SectionBlocks so that
-        // we are in sync with the section editing buttons added in xwiki.js. Being able to section edit any heading is
-        // too complex. For example if you have (in XWiki Syntax 2.0):
-        // = Heading1 =
-        // para1
-        // == Heading2 ==
-        // para2
-        // (((
-        // == Heading3 ==
-        // para3
-        // (((
-        // == Heading4 ==
-        // para4
-        // )))
-        // )))
-        // == Heading5 ==
-        // para5
-        //
-        // Then if we were to support editing "Heading4", its content would be:
-        // para4
-        // )))
-        // )))
-        //
-        // Which obviously is not correct...
-
-        final XDOM xdom = getXDOM();
-        if (!xdom.getChildren().isEmpty()) {
-            Block currentBlock = xdom.getChildren().get(0);
-            while (currentBlock != null) {
-                if (currentBlock instanceof SectionBlock) {
-                    // The next children block is a HeaderBlock but we check to be on the safe side...
-                    Block nextChildrenBlock = currentBlock.getChildren().get(0);
-                    if (nextChildrenBlock instanceof HeaderBlock) {
-                        HeaderBlock headerBlock = (HeaderBlock) nextChildrenBlock;
-                        if (headerBlock.getLevel().getAsInt() <= sectionDepth) {
-                            filteredHeaders.add(headerBlock);
-                        }
-                    }
-                    currentBlock = nextChildrenBlock;
-                } else {
-                    Block nextSibling = currentBlock.getNextSibling();
-                    if (nextSibling == null) {
-                        currentBlock = currentBlock.getParent();
-                        while (currentBlock != null) {
-                            if (currentBlock.getNextSibling() != null) {
-                                currentBlock = currentBlock.getNextSibling();
-                                break;
-                            }
-                            currentBlock = currentBlock.getParent();
-                        }
-                    } else {
-                        currentBlock = nextSibling;
-                    }
+        return sectionDepth;
+    }
+
+    /**
+     * @return the outline of the document content, possibly shared with other instances of the same document version
+     *         (the headers must not be modified)
+     */
+    private DocumentOutline getDocumentOutline()
+    {
+        if (this.outlineCache == null) {
+            if (this.xdomCache == null) {
+                try {
+                    this.xdomCache = parseDocumentContent();
+                } catch (XWikiException e) {
+                    return DocumentOutline.EMPTY;
                 }
             }
+
+            if (Utils.getComponentManager().hasComponent(XDOMCache.class)) {
+                this.outlineCache = Utils.getComponent(XDOMCache.class).getOutline(this, this.xdomCache);
+            } else {
+                this.outlineCache = new DocumentOutline(this.xdomCache);
+            }
         }
 
-        return filteredHeaders;
+        return this.outlineCache;
     }
 
     /**
@@ -8679,7 +8661,7 @@ public XDOM getXDOM()
     {
         if (this.xdomCache == null) {
             try {
-                this.xdomCache = parseContent(getContent());
+                this.xdomCache = parseDocumentContent();
             } catch (XWikiException e) {
                 ErrorBlockGenerator errorBlockGenerator = Utils.getComponent(ErrorBlockGenerator.class);
                 return new XDOM(errorBlockGenerator.generateErrorBlocks("Failed to render content", e, false));
@@ -8840,6 +8822,27 @@ private XDOM parseContent(String content) throws XWikiException
         return parseContent(getSyntax(), content, getDocumentReference());
     }
 
+    /**
+     * @return the parsed content of the document, possibly shared with other instances of the same document version
+     *         (it must not be modified)
+     */
+    private XDOM parseDocumentContent() throws XWikiException
+    {
+        if (!Utils.getComponentManager().hasComponent(XDOMCache.class)) {
+            return parseContent(getContent());
+        }
+
+        try {
+            return Utils.getComponent(XDOMCache.class).get(this);
+        } catch (MissingParserException e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_RENDERING, XWikiException.ERROR_XWIKI_UNKNOWN,
+                "Failed to find a parser for syntax [" + getSyntax().toIdString() + "]", e);
+        } catch (ParseException e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_RENDERING, XWikiException.ERROR_XWIKI_UNKNOWN,
+                "Failed to parse content of syntax [" + getSyntax().toIdString() + "]", e);
+        }
+    }
+
     /**
      * @param source the reference to where the content comes from (eg document reference)
      */
@@ -48,6 +48,13 @@
  */
 public class XWikiDocumentArchive
 {
+    /**
+     * The name of the configuration property indicating the distance between two full versions.
+     */
+    private static final String NODES_PER_FULL_PROPERTY = "xwiki.store.rcs.nodesPerFull";
+
+    private static final int DEFAULT_NODES_PER_FULL = 5;
+
     /** =docId. */
     private long id;
 
@@ -128,11 +135,10 @@ protected XWikiRCSNodeContent makePatch(XWikiRCSNodeInfo newnode, XWikiDocument
         newnode.setContent(result);
         XWikiRCSNodeInfo latestNode = getLatestNode();
         if (latestNode != null) {
-            int nodesCount = getNodes().size();
-            int nodesPerFull =
-                context.getWiki() == null ? 5 : Integer.parseInt(context.getWiki().getConfig()
-                    .getProperty("xwiki.store.rcs.nodesPerFull", "5"));
-            if (nodesPerFull <= 0 || (nodesCount % nodesPerFull) != 0) {
+            int nodesPerFull = getNodesPerFull(context);
+            // Keep the previous latest version full when it's needed to limit the number of patches to apply to
+            // rebuild an old version
+            if (nodesPerFull <= 0 || getDiffCountBefore(latestNode.getVersion()) < nodesPerFull - 1) {
                 XWikiRCSNodeContent latestContent = latestNode.getContent(context);
                 latestContent.getPatch().setDiffVersion(latestContent.getPatch().getContent(),
                     doc, context);
@@ -144,6 +150,86 @@ protected XWikiRCSNodeContent makePatch(XWikiRCSNodeInfo newnode, XWikiDocument
         return result;
     }
 
+    /**
+     * @param context the XWiki context
+     * @return the maximum number of consecutive versions stored as a diff plus one (i.e. the distance between two
+     *         full versions), 0 or less to only store the latest version as a full version
+     * @since 13.4RC1
+     */
+    public static int getNodesPerFull(XWikiContext context)
+    {
+        if (context == null || context.getWiki() == null) {
+            return DEFAULT_NODES_PER_FULL;
+        }
+
+        return Integer.parseInt(context.getWiki().getConfig().getProperty(NODES_PER_FULL_PROPERTY,
+            String.valueOf(DEFAULT_NODES_PER_FULL)));
+    }
+
+    /**
+     * @param version the version
+     * @return the number of consecutive diff versions right before the passed version
+     */
+    private int getDiffCountBefore(Version version)
+    {
+        int count = 0;
+
+        // tailMap is inclusive and goes from the passed version to the oldest one
+        Iterator<XWikiRCSNodeInfo> it = this.versionToNode.tailMap(version).values().iterator();
+        if (it.hasNext()) {
+            it.next();
+        }
+        while (it.hasNext() && it.next().isDiff()) {
+            ++count;
+        }
+
+        return count;
+    }
+
+    /**
+     * Make sure there is a full version every {@link #getNodesPerFull(XWikiContext)} versions so that rebuilding any
+     * version never requires applying more than {@link #getNodesPerFull(XWikiContext)} - 1 patches. This is mostly
+     * useful for histories which were created before the limit was enforced or imported from a JRCS archive (where only
+     * the latest version is full). Modified nodes need be saved after.
+     *
+     * @param context used for loading nodes content
+     * @return true if some versions have been converted to full versions
+     * @throws XWikiException if any error
+     * @since 13.4RC1
+     */
+    public boolean updateFullVersions(XWikiContext context) throws XWikiException
+    {
+        int nodesPerFull = getNodesPerFull(context);
+        if (nodesPerFull <= 0) {
+            return false;
+        }
+
+        boolean updated = false;
+
+        // From the most recent to the oldest version
+        int diffCount = 0;
+        for (XWikiRCSNodeInfo node : getNodes()) {
+            if (!node.isDiff()) {
+                diffCount = 0;
+            } else if (diffCount < nodesPerFull - 1) {
+                ++diffCount;
+            } else {
+                // The older patches are computed from this version content so they are not impacted
+                String xml = getVersionXml(node.getVersion(), context);
+                XWikiRCSNodeContent content = node.getContent(context);
+                content.getPatch().setFullVersion(xml);
+                node.setContent(content);
+                updateNode(node);
+                getUpdatedNodeContents().add(content);
+
+                diffCount = 0;
+                updated = true;
+            }
+        }
+
+        return updated;
+    }
+
     /** @return {@link XWikiDocument#getId()} - primary key */
     public long getId()
     {
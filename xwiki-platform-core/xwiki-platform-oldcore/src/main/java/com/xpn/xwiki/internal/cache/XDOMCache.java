@@ -0,0 +1,260 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ContentParser;
+import org.xwiki.rendering.parser.MissingParserException;
+import org.xwiki.rendering.parser.ParseException;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.doc.DocumentOutline;
+
+/**
+ * Share the result of the parsing of a document content between all the {@link XWikiDocument} instances of the same
+ * document version (clones, instances loaded by different requests, etc.).
+ * <p>
+ * The entries are identified by the document reference, locale, version and syntax. The content is also compared
+ * before reusing an entry so that a modified (but not saved yet) document never gets a stale result. The cached
+ * {@link XDOM} instances are shared and must never be modified: callers are expected to clone them before giving them
+ * to code that might modify them. The outline of each cached content is also extracted only once.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = XDOMCache.class)
+@Singleton
+public class XDOMCache implements Initializable, Disposable
+{
+    private static final String PROPNAME_SIZE = "core.xdomcache.size";
+
+    private static final int PROPVALUE_SIZE = 500;
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * A parsed content.
+     *
+     * @version $Id$
+     */
+    private static final class Entry
+    {
+        private final String content;
+
+        private final XDOM xdom;
+
+        /**
+         * Extracted from the parsed content the first time it's needed.
+         */
+        private volatile DocumentOutline outline;
+
+        Entry(String content, XDOM xdom)
+        {
+            this.content = content;
+            this.xdom = xdom;
+        }
+    }
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private ContentParser parser;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    private Cache<Entry> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong parses = new AtomicLong();
+
+    private final AtomicLong parseTime = new AtomicLong();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        Integer size = this.configuration.getProperty(PROPNAME_SIZE, PROPVALUE_SIZE);
+        if (size != null && size > 0) {
+            try {
+                this.cache = this.cacheManager.createNewCache(new LRUCacheConfiguration("xwiki.xdomcache", size));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to create the XDOM cache", e);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+    }
+
+    /**
+     * @param document the document whose content to parse
+     * @return the parsed content of the document, shared with other instances of the same document version (it must
+     *         not be modified)
+     * @throws MissingParserException when no parser is available for the document syntax
+     * @throws ParseException when failing to parse the document content
+     */
+    public XDOM get(XWikiDocument document) throws MissingParserException, ParseException
+    {
+        // Documents which have never been saved cannot be shared
+        if (this.cache == null || document.isNew()) {
+            return parse(document);
+        }
+
+        String key = getKey(document);
+        String content = document.getContent();
+
+        Entry entry = this.cache.get(key);
+        if (entry != null && entry.content.equals(content)) {
+            this.hits.incrementAndGet();
+
+            return entry.xdom;
+        }
+
+        this.misses.incrementAndGet();
+
+        XDOM xdom = parse(document);
+
+        this.cache.set(key, new Entry(content, xdom));
+
+        return xdom;
+    }
+
+    /**
+     * @param document the document
+     * @param xdom the parsed content of the document, as returned by {@link #get(XWikiDocument)}
+     * @return the outline of the parsed content, shared with other instances of the same document version
+     */
+    public DocumentOutline getOutline(XWikiDocument document, XDOM xdom)
+    {
+        if (this.cache != null && !document.isNew()) {
+            Entry entry = this.cache.get(getKey(document));
+            if (entry != null && entry.xdom == xdom) {
+                if (entry.outline == null) {
+                    entry.outline = new DocumentOutline(xdom);
+                }
+
+                return entry.outline;
+            }
+        }
+
+        return new DocumentOutline(xdom);
+    }
+
+    private String getKey(XWikiDocument document)
+    {
+        StringBuilder key = new StringBuilder();
+
+        key.append(this.serializer.serialize(document.getDocumentReference()));
+        key.append(SEPARATOR);
+        key.append(document.getLocale());
+        key.append(SEPARATOR);
+        key.append(document.getVersion());
+        key.append(SEPARATOR);
+        key.append(document.getSyntax().toIdString());
+
+        return key.toString();
+    }
+
+    private XDOM parse(XWikiDocument document) throws MissingParserException, ParseException
+    {
+        this.parses.incrementAndGet();
+
+        long start = System.nanoTime();
+
+        try {
+            return this.parser.parse(document.getContent(), document.getSyntax(), document.getDocumentReference());
+        } finally {
+            this.parseTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return the number of times a parsed content was reused
+     */
+    public long getHits()
+    {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of times a shareable content had to be parsed
+     */
+    public long getMisses()
+    {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of parsed contents (shareable or not)
+     */
+    public long getParses()
+    {
+        return this.parses.get();
+    }
+
+    /**
+     * @return the total time spent parsing document contents, in nanoseconds. Divided by {@link #getParses()} it gives
+     *         the average time saved by each hit.
+     */
+    public long getParseTime()
+    {
+        return this.parseTime.get();
+    }
+
+    /**
+     * Remove all the parsed contents.
+     */
+    public void removeAll()
+    {
+        if (this.cache != null) {
+            this.cache.removeAll();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.SectionBlock;
+import org.xwiki.rendering.block.XDOM;
+
+/**
+ * The headings of the sections of a document content, extracted once per parsed content instead of walking the whole
+ * {@link XDOM} each time the sections of the document are needed.
+ * <p>
+ * Only the {@link SectionBlock}s which are children of other {@link SectionBlock}s (or of the root) are taken into
+ * account, to be in sync with the section editing buttons. The {@link HeaderBlock}s are the ones of the passed
+ * {@link XDOM} so they must not be modified when the {@link XDOM} is shared.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public class DocumentOutline
+{
+    /**
+     * An outline without any heading.
+     */
+    public static final DocumentOutline EMPTY = new DocumentOutline(Collections.emptyList());
+
+    private final List<HeaderBlock> headers;
+
+    /**
+     * @param xdom the parsed content
+     */
+    public DocumentOutline(XDOM xdom)
+    {
+        this(extractHeaders(xdom));
+    }
+
+    private DocumentOutline(List<HeaderBlock> headers)
+    {
+        this.headers = Collections.unmodifiableList(headers);
+    }
+
+    private static List<HeaderBlock> extractHeaders(XDOM xdom)
+    {
+        List<HeaderBlock> headers = new ArrayList<>();
+
+        // Note that being able to section edit any heading is too complex. For example if you have (in XWiki Syntax
+        // 2.0):
+        // = Heading1 =
+        // para1
+        // == Heading2 ==
+        // para2
+        // (((
+        // == Heading3 ==
+        // para3
+        // (((
+        // == Heading4 ==
+        // para4
+        // )))
+        // )))
+        // == Heading5 ==
+        // para5
+        //
+        // Then if we were to support editing "Heading4", its content would be:
+        // para4
+        // )))
+        // )))
+        //
+        // Which obviously is not correct...
+
+        if (!xdom.getChildren().isEmpty()) {
+            Block currentBlock = xdom.getChildren().get(0);
+            while (currentBlock != null) {
+                if (currentBlock instanceof SectionBlock) {
+                    // The next children block is a HeaderBlock but we check to be on the safe side...
+                    Block nextChildrenBlock = currentBlock.getChildren().get(0);
+                    if (nextChildrenBlock instanceof HeaderBlock) {
+                        headers.add((HeaderBlock) nextChildrenBlock);
+                    }
+                    currentBlock = nextChildrenBlock;
+                } else {
+                    currentBlock = getNextBlock(currentBlock);
+                }
+            }
+        }
+
+        return headers;
+    }
+
+    private static Block getNextBlock(Block block)
+    {
+        Block currentBlock = block;
+        while (currentBlock != null) {
+            if (currentBlock.getNextSibling() != null) {
+                return currentBlock.getNextSibling();
+            }
+            currentBlock = currentBlock.getParent();
+        }
+
+        return null;
+    }
+
+    /**
+     * @return all the section headings, in document order
+     */
+    public List<HeaderBlock> getHeaders()
+    {
+        return this.headers;
+    }
+
+    /**
+     * @param maxLevel the maximum level of the headings to return
+     * @return the section headings with a level lower or equal to the passed one, in document order
+     */
+    public List<HeaderBlock> getHeaders(int maxLevel)
+    {
+        List<HeaderBlock> filteredHeaders = new ArrayList<>(this.headers.size());
+        for (HeaderBlock header : this.headers) {
+            if (header.getLevel().getAsInt() <= maxLevel) {
+                filteredHeaders.add(header);
+            }
+        }
+
+        return filteredHeaders;
+    }
+}
@@ -19,8 +19,11 @@
  */
 package com.xpn.xwiki.internal.filter.input;
 
+import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -34,20 +37,27 @@
 import org.xwiki.filter.descriptor.FilterStreamDescriptor;
 import org.xwiki.filter.event.model.WikiDocumentFilter;
 import org.xwiki.filter.instance.input.AbstractInstanceInputEventGenerator;
+import org.xwiki.filter.instance.input.DocumentInstanceInputProperties;
 import org.xwiki.filter.instance.input.EntityEventGenerator;
+import org.xwiki.filter.instance.input.InstanceInputProperties;
+import org.xwiki.filter.instance.internal.InstanceModel;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSet;
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.properties.BeanManager;
+import org.xwiki.properties.PropertyException;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.internal.filter.XWikiDocumentFilter;
+import com.xpn.xwiki.internal.filter.input.DocumentPrefetcher.LoadedDocument;
 
 @Component
 @Named("documents")
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
 public class DocumentInstanceInputEventGenerator extends AbstractInstanceInputEventGenerator<XWikiDocumentFilter>
+    implements Closeable
 {
     /**
      * The {@link BeanManager} component.
@@ -61,24 +71,131 @@ public class DocumentInstanceInputEventGenerator extends AbstractInstanceInputEv
     @Inject
     private Provider<XWikiContext> xcontextProvider;
 
+    @Inject
+    private InstanceModel instanceModel;
+
+    @Inject
+    private Provider<DocumentPrefetcher> prefetcherProvider;
+
+    private DocumentInstanceInputProperties documentProperties;
+
+    private DocumentPrefetcher prefetcher;
+
     @Override
     public FilterStreamDescriptor getDescriptor()
     {
         return this.documentLocaleParser.getDescriptor();
     }
 
+    @Override
+    public void setProperties(Map<String, Object> properties)
+    {
+        super.setProperties(properties);
+
+        this.documentProperties = null;
+    }
+
+    private DocumentInstanceInputProperties getDocumentProperties() throws FilterException
+    {
+        if (this.documentProperties == null) {
+            if (this.properties instanceof DocumentInstanceInputProperties) {
+                this.documentProperties = (DocumentInstanceInputProperties) this.properties;
+            } else {
+                this.documentProperties = new DocumentInstanceInputProperties();
+                if (this.properties != null) {
+                    try {
+                        this.beanManager.populate(this.documentProperties, this.properties);
+                    } catch (PropertyException e) {
+                        throw new FilterException("Failed to convert properties to Java bean", e);
+                    }
+                }
+            }
+        }
+
+        return this.documentProperties;
+    }
+
+    @Override
+    public void beginWikiSpace(String name, FilterEventParameters parameters) throws FilterException
+    {
+        super.beginWikiSpace(name, parameters);
+
+        closePrefetcher();
+
+        int threads = getDocumentProperties().getLoadingThreads();
+        if (threads > 0) {
+            SpaceReference spaceReference = new SpaceReference(this.currentReference);
+
+            // Same documents, in the same order, as the ones which are going to be serialized
+            EntityReferenceSet entities = this.properties instanceof InstanceInputProperties
+                ? ((InstanceInputProperties) this.properties).getEntities() : null;
+            List<DocumentReference> references = new ArrayList<>();
+            for (DocumentReference reference : this.instanceModel.getDocumentReferences(spaceReference)) {
+                if (entities == null || entities.matches(reference)) {
+                    references.add(reference);
+                }
+            }
+
+            if (!references.isEmpty()) {
+                this.prefetcher = this.prefetcherProvider.get();
+                this.prefetcher.start(references, threads);
+            }
+        }
+    }
+
+    @Override
+    public void endWikiSpace(String name, FilterEventParameters parameters) throws FilterException
+    {
+        closePrefetcher();
+
+        super.endWikiSpace(name, parameters);
+    }
+
+    @Override
+    public void endWikiFarm(FilterEventParameters parameters) throws FilterException
+    {
+        closePrefetcher();
+
+        super.endWikiFarm(parameters);
+    }
+
+    @Override
+    public void close()
+    {
+        closePrefetcher();
+    }
+
+    private void closePrefetcher()
+    {
+        if (this.prefetcher != null) {
+            this.prefetcher.close();
+            this.prefetcher = null;
+        }
+    }
+
+    private LoadedDocument getPrefetchedDocument(DocumentReference reference) throws FilterException
+    {
+        return this.prefetcher != null ? this.prefetcher.get(reference) : null;
+    }
+
     @Override
     public void setWikiDocumentParameters(String name, FilterEventParameters documentParameters) throws FilterException
     {
         DocumentReference reference = new DocumentReference(name, new SpaceReference(this.currentReference));
 
-        XWikiContext xcontext = this.xcontextProvider.get();
+        LoadedDocument loadedDocument = getPrefetchedDocument(reference);
 
         XWikiDocument defaultDocument;
-        try {
-            defaultDocument = xcontext.getWiki().getDocument(reference, xcontext);
-        } catch (XWikiException e) {
-            throw new FilterException("Failed to get document [" + reference + "]", e);
+        if (loadedDocument != null) {
+            defaultDocument = loadedDocument.getDocument();
+        } else {
+            XWikiContext xcontext = this.xcontextProvider.get();
+
+            try {
+                defaultDocument = xcontext.getWiki().getDocument(reference, xcontext);
+            } catch (XWikiException e) {
+                throw new FilterException("Failed to get document [" + reference + "]", e);
+            }
         }
 
         documentParameters.put(WikiDocumentFilter.PARAMETER_LOCALE, defaultDocument.getDefaultLocale());
@@ -91,6 +208,19 @@ public void beginWikiDocument(String name, FilterEventParameters parameters) thr
 
         DocumentReference reference = new DocumentReference(this.currentReference);
 
+        LoadedDocument loadedDocument = getPrefetchedDocument(reference);
+        if (loadedDocument != null) {
+            // Default document locale
+            this.documentLocaleParser.write(loadedDocument.getDocument(), this.filter, this.properties);
+
+            // Translations
+            for (XWikiDocument translationDocument : loadedDocument.getTranslations()) {
+                this.documentLocaleParser.write(translationDocument, this.filter, this.properties);
+            }
+
+            return;
+        }
+
         XWikiContext xcontext = this.xcontextProvider.get();
 
         XWikiDocument defaultDocument;
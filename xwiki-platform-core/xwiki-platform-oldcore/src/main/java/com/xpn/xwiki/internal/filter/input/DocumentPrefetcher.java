@@ -0,0 +1,221 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.filter.input;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.filter.FilterException;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.store.XWikiStoreInterface;
+
+/**
+ * Load documents in background threads ahead of their serialization so that the time spent in the database overlaps
+ * with the time spent writing the previous documents. The documents are loaded directly from the store (bypassing the
+ * document cache) and at most a fixed number of them are kept in memory at the same time, so exporting a big wiki does
+ * not fill the heap nor evict the documents actually used by the other requests.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = DocumentPrefetcher.class)
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+public class DocumentPrefetcher implements AutoCloseable
+{
+    /**
+     * A document and its translations.
+     *
+     * @version $Id$
+     */
+    public static final class LoadedDocument
+    {
+        private final XWikiDocument document;
+
+        private final List<XWikiDocument> translations;
+
+        LoadedDocument(XWikiDocument document, List<XWikiDocument> translations)
+        {
+            this.document = document;
+            this.translations = translations;
+        }
+
+        /**
+         * @return the default document
+         */
+        public XWikiDocument getDocument()
+        {
+            return this.document;
+        }
+
+        /**
+         * @return the translations of the document
+         */
+        public List<XWikiDocument> getTranslations()
+        {
+            return this.translations;
+        }
+    }
+
+    private static final class Pending
+    {
+        private final DocumentReference reference;
+
+        private final Future<LoadedDocument> future;
+
+        Pending(DocumentReference reference, Future<LoadedDocument> future)
+        {
+            this.reference = reference;
+            this.future = future;
+        }
+    }
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    private ExecutorService executor;
+
+    private Iterator<DocumentReference> references = Collections.emptyIterator();
+
+    private final Deque<Pending> pending = new ArrayDeque<>();
+
+    private int window;
+
+    private Pending current;
+
+    /**
+     * Start loading the passed documents.
+     *
+     * @param documentReferences the references of the documents to load, in the order they will be asked
+     * @param threads the number of threads loading the documents
+     */
+    public void start(List<DocumentReference> documentReferences, int threads)
+    {
+        this.executor = Executors.newFixedThreadPool(threads,
+            new BasicThreadFactory.Builder().namingPattern("XWiki document prefetch thread %d").daemon(true).build());
+        this.references = documentReferences.iterator();
+        // Keep all the threads busy while the oldest document is being serialized
+        this.window = threads * 2;
+
+        fill();
+    }
+
+    private void fill()
+    {
+        while (this.pending.size() < this.window && this.references.hasNext()) {
+            DocumentReference reference = this.references.next();
+            this.pending.add(new Pending(reference, this.executor.submit(() -> load(reference))));
+        }
+    }
+
+    private LoadedDocument load(DocumentReference reference) throws Exception
+    {
+        this.executionContextManager.initialize(new ExecutionContext());
+
+        try {
+            XWikiContext xcontext = this.xcontextProvider.get();
+            xcontext.setWikiId(reference.getWikiReference().getName());
+
+            XWikiStoreInterface store = xcontext.getWiki().getNotCacheStore();
+
+            XWikiDocument document = store.loadXWikiDoc(new XWikiDocument(reference), xcontext);
+
+            List<Locale> locales = document.getTranslationLocales(xcontext);
+            List<XWikiDocument> translations = new ArrayList<>(locales.size());
+            for (Locale locale : locales) {
+                XWikiDocument translation = store.loadXWikiDoc(new XWikiDocument(reference, locale), xcontext);
+                if (!translation.isNew()) {
+                    translations.add(translation);
+                }
+            }
+
+            return new LoadedDocument(document, translations);
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
+    /**
+     * @param reference the reference of the document
+     * @return the loaded document or null if the passed document is not the next one to be loaded
+     * @throws FilterException when failing to load the document
+     */
+    public LoadedDocument get(DocumentReference reference) throws FilterException
+    {
+        if (this.current == null || !this.current.reference.equals(reference)) {
+            this.current = this.pending.poll();
+            fill();
+        }
+
+        if (this.current == null || !this.current.reference.equals(reference)) {
+            return null;
+        }
+
+        try {
+            return this.current.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new FilterException("Interrupted while loading document [" + reference + "]", e);
+        } catch (ExecutionException e) {
+            throw new FilterException("Failed to load document [" + reference + "]", e.getCause());
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+
+        this.pending.clear();
+        this.references = Collections.emptyIterator();
+        this.current = null;
+    }
+}
@@ -20,6 +20,9 @@
 package com.xpn.xwiki.internal.filter.output;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 import javax.inject.Inject;
@@ -42,11 +45,19 @@
 import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.ObservationManager;
 
+import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.internal.event.BulkImportedEvent;
+import com.xpn.xwiki.internal.event.BulkImportingEvent;
+import com.xpn.xwiki.store.XWikiCacheStoreInterface;
+import com.xpn.xwiki.store.XWikiStoreInterface;
 import com.xpn.xwiki.store.XWikiVersioningStoreInterface;
 
 /**
@@ -68,6 +79,12 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
     private static final TranslationMarker LOG_DOCUMENT_FAILSAVE =
         new TranslationMarker("filter.instance.log.document.failsave", WikiDocumentFilter.LOG_DOCUMENT_ERROR);
 
+    private static final TranslationMarker LOG_DOCUMENT_ROLLBACK =
+        new TranslationMarker("filter.instance.log.document.rollback", WikiDocumentFilter.LOG_DOCUMENT_ERROR);
+
+    private static final TranslationMarker LOG_BATCH_COMMITTED =
+        new TranslationMarker("filter.instance.log.batch.committed");
+
     @Inject
     private FilterDescriptorManager filterManager;
 
@@ -89,11 +106,41 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
     @Inject
     private EntityOutputFilterStream<XWikiDocument> documentListener;
 
+    @Inject
+    private ObservationManager observation;
+
     @Inject
     private Logger logger;
 
     private boolean firstVersion;
 
+    /**
+     * The documents saved in bulk mode since the beginning of the import, null if the bulk mode did not start.
+     */
+    private List<DocumentReference> bulkDocuments;
+
+    private long bulkStartTime;
+
+    /**
+     * The documents saved in the current (not yet committed) batch.
+     */
+    private final List<DocumentReference> batchDocuments = new ArrayList<>();
+
+    /**
+     * The created/updated notifications of the documents saved in the current batch, sent once the batch is committed.
+     */
+    private final List<Runnable> batchNotifications = new ArrayList<>();
+
+    /**
+     * The wiki of the current batch, null if no batch is in progress.
+     */
+    private String batchWiki;
+
+    /**
+     * True if the current batch transaction was started by this stream (and should thus be committed by it).
+     */
+    private boolean batchTransaction;
+
     private FilterEventParameters currentLocaleParameters;
 
     private FilterEventParameters currentRevisionParameters;
@@ -112,7 +159,28 @@ protected Object createFilter() throws FilterException
     @Override
     public void close() throws IOException
     {
-        // Nothing to close
+        if (this.bulkDocuments != null) {
+            XWikiContext xcontext = this.xcontextProvider.get();
+
+            try {
+                commitBatch(xcontext);
+            } catch (Exception e) {
+                throw new IOException("Failed to commit the last batch of documents", e);
+            } finally {
+                endBulk(xcontext);
+            }
+        }
+    }
+
+    private void endBulk(XWikiContext xcontext)
+    {
+        if (this.bulkDocuments != null) {
+            List<DocumentReference> documents = this.bulkDocuments;
+            this.bulkDocuments = null;
+
+            // Send a single notification for all the documents saved in bulk
+            this.observation.notify(BulkImportedEvent.EVENT, Collections.unmodifiableList(documents), xcontext);
+        }
     }
 
     @Override
@@ -197,6 +265,10 @@ private void maybeSaveDocument() throws FilterException
         XWikiContext xcontext = this.xcontextProvider.get();
 
         try {
+            if (isBulk(xcontext)) {
+                beginBatch(inputDocument.getDocumentReference().getWikiReference(), xcontext);
+            }
+
             XWikiDocument databaseDocument =
                 xcontext.getWiki().getDocument(inputDocument.getDocumentReferenceWithLocale(), xcontext);
 
@@ -291,16 +363,160 @@ private void maybeSaveDocument() throws FilterException
                         document.getDocumentReferenceWithLocale());
                 }
             }
+
+            if (this.batchWiki != null) {
+                this.batchDocuments.add(document.getDocumentReferenceWithLocale());
+
+                if (this.batchDocuments.size() >= this.properties.getBatchSize()) {
+                    commitBatch(xcontext);
+                }
+            }
         } catch (Exception e) {
             this.logger.error(LOG_DOCUMENT_FAILSAVE, "Failed to save document [{}]",
                 inputDocument.getDocumentReferenceWithLocale(), e);
 
+            if (this.batchWiki != null) {
+                rollbackBatch(inputDocument.getDocumentReferenceWithLocale(), xcontext);
+            }
+
             if (this.properties.isStoppedWhenSaveFail()) {
+                // The import stops here so make sure the listeners waiting for the end of the bulk import are released
+                endBulk(xcontext);
+
                 throw new FilterException("Failed to save document", e);
             }
         }
     }
 
+    private boolean isBulk(XWikiContext xcontext)
+    {
+        return this.properties.getBatchSize() > 1 && xcontext.getWiki().getHibernateStore() != null;
+    }
+
+    private void beginBatch(WikiReference wikiReference, XWikiContext xcontext) throws XWikiException
+    {
+        if (this.bulkDocuments == null) {
+            this.bulkDocuments = new ArrayList<>();
+            this.bulkStartTime = System.currentTimeMillis();
+
+            // Let the heavy listeners know that they should wait for the end of the import
+            this.observation.notify(BulkImportingEvent.EVENT, null, xcontext);
+        }
+
+        // A transaction is bound to a single wiki (database)
+        if (this.batchWiki != null && !this.batchWiki.equals(wikiReference.getName())) {
+            commitBatch(xcontext);
+        }
+
+        if (this.batchWiki == null) {
+            WikiReference currentWiki = xcontext.getWikiReference();
+            try {
+                xcontext.setWikiReference(wikiReference);
+
+                // Following saves reuse the transaction of the context instead of creating their own
+                this.batchTransaction = xcontext.getWiki().getHibernateStore().beginTransaction(xcontext);
+            } finally {
+                xcontext.setWikiReference(currentWiki);
+            }
+
+            // Listeners (and other cluster members) must not see the documents before they are committed
+            xcontext.put(XWiki.CKEY_DEFERRED_SAVE_NOTIFICATIONS, this.batchNotifications);
+
+            this.batchWiki = wikiReference.getName();
+        }
+    }
+
+    private void commitBatch(XWikiContext xcontext)
+    {
+        if (this.batchWiki != null) {
+            xcontext.remove(XWiki.CKEY_DEFERRED_SAVE_NOTIFICATIONS);
+
+            try {
+                if (this.batchTransaction) {
+                    xcontext.getWiki().getHibernateStore().endTransaction(xcontext, true);
+                }
+            } catch (Exception e) {
+                // The whole batch is lost
+                this.batchNotifications.clear();
+                flushDocumentCache(this.batchDocuments, xcontext);
+                logRollback(e);
+
+                throw e;
+            } finally {
+                this.batchWiki = null;
+                this.batchTransaction = false;
+            }
+
+            // Now that the documents are in the database, tell the world about them
+            for (Runnable notification : this.batchNotifications) {
+                notification.run();
+            }
+            this.batchNotifications.clear();
+
+            this.bulkDocuments.addAll(this.batchDocuments);
+            this.batchDocuments.clear();
+
+            long time = System.currentTimeMillis() - this.bulkStartTime;
+            if (this.properties.isVerbose()) {
+                this.logger.info(LOG_BATCH_COMMITTED, "Saved [{}] documents in [{}] ms ([{}] documents per second)",
+                    this.bulkDocuments.size(), time, getThroughput(this.bulkDocuments.size(), time));
+            } else {
+                this.logger.debug("Saved [{}] documents in [{}] ms ([{}] documents per second)",
+                    this.bulkDocuments.size(), time, getThroughput(this.bulkDocuments.size(), time));
+            }
+        }
+    }
+
+    private void rollbackBatch(DocumentReference failedDocument, XWikiContext xcontext)
+    {
+        xcontext.remove(XWiki.CKEY_DEFERRED_SAVE_NOTIFICATIONS);
+        this.batchNotifications.clear();
+
+        try {
+            if (this.batchTransaction) {
+                xcontext.getWiki().getHibernateStore().endTransaction(xcontext, false);
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to rollback the current batch of documents", e);
+        } finally {
+            this.batchWiki = null;
+            this.batchTransaction = false;
+        }
+
+        flushDocumentCache(this.batchDocuments, xcontext);
+        // The failed document might have been partially saved in the rolled back transaction
+        flushDocumentCache(Collections.singletonList(failedDocument), xcontext);
+
+        logRollback(null);
+    }
+
+    private void logRollback(Exception cause)
+    {
+        for (DocumentReference documentReference : this.batchDocuments) {
+            this.logger.error(LOG_DOCUMENT_ROLLBACK,
+                "Document [{}] was not saved because the transaction it was part of has been rolled back",
+                documentReference, cause);
+        }
+
+        this.batchDocuments.clear();
+    }
+
+    private void flushDocumentCache(List<DocumentReference> documents, XWikiContext xcontext)
+    {
+        // The document cache might contain documents of the batch loaded from the rolled back transaction
+        XWikiStoreInterface store = xcontext.getWiki().getStore();
+        if (store instanceof XWikiCacheStoreInterface) {
+            for (DocumentReference documentReference : documents) {
+                ((XWikiCacheStoreInterface) store).flushCache(documentReference);
+            }
+        }
+    }
+
+    private long getThroughput(int documents, long time)
+    {
+        return time > 0 ? documents * 1000L / time : documents;
+    }
+
     private void setAuthorReference(XWikiDocument document, DocumentReference authorReference)
     {
         // Document author
@@ -0,0 +1,151 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.objects.classes;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.cache.DocumentCache;
+import com.xpn.xwiki.objects.classes.BaseClass;
+
+/**
+ * Process-wide cache of the XWiki classes definitions, so that creating objects of a class does not require getting
+ * the class document each time.
+ * <p>
+ * An entry is removed as soon as the corresponding class document is created, updated or deleted, and also when the
+ * document is written to (or evicted from) the document cache store since some writes (e.g. migrations) don't send any
+ * event. The cached {@link BaseClass} instances are the ones of the cached class documents so, exactly like those
+ * documents, they must never be modified: callers are expected to clone the class document before modifying its
+ * class.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = XClassCache.class)
+@Singleton
+public class XClassCache implements Initializable
+{
+    private static final String PROPNAME_SIZE = "core.xclasscache.size";
+
+    private static final int PROPVALUE_SIZE = 1000;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private DocumentCache<BaseClass> cache;
+
+    private boolean enabled;
+
+    /**
+     * Incremented on each invalidation, to not keep a class which was invalidated while it was being loaded.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        Integer size = this.configuration.getProperty(PROPNAME_SIZE, PROPVALUE_SIZE);
+        if (size != null && size > 0) {
+            try {
+                this.cache.create(new LRUCacheConfiguration("xwiki.xclasscache", size));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to create the XWiki classes cache", e);
+            }
+
+            this.enabled = true;
+        }
+    }
+
+    /**
+     * @param classReference the reference of the class document
+     * @param xcontext the XWiki context
+     * @return the class defined in the passed document
+     * @throws XWikiException when failing to load the class document
+     */
+    public BaseClass get(DocumentReference classReference, XWikiContext xcontext) throws XWikiException
+    {
+        if (!this.enabled) {
+            return xcontext.getWiki().getDocument(classReference, xcontext).getXClass();
+        }
+
+        BaseClass xclass = this.cache.get(classReference);
+
+        if (xclass == null) {
+            long invalidation = this.invalidations.get();
+
+            XWikiDocument document = xcontext.getWiki().getDocument(classReference, xcontext);
+
+            xclass = document.getXClass();
+
+            // The class of a document which does not exist yet is generally about to be filled
+            if (!document.isNew()) {
+                this.cache.set(xclass, classReference);
+
+                // The class document might have been modified while it was being loaded, in which case the loaded
+                // class may be outdated. Checking after the put makes sure the entry can't outlive the invalidation.
+                if (invalidation != this.invalidations.get()) {
+                    this.cache.remove(xclass, classReference);
+                }
+            }
+        }
+
+        return xclass;
+    }
+
+    /**
+     * Remove the class defined in the passed document from the cache.
+     *
+     * @param documentReference the reference of the document which was modified
+     */
+    public void remove(DocumentReference documentReference)
+    {
+        if (this.enabled) {
+            this.invalidations.incrementAndGet();
+            this.cache.removeAll(documentReference);
+        }
+    }
+
+    /**
+     * Remove all the classes from the cache.
+     */
+    public void removeAll()
+    {
+        if (this.enabled) {
+            this.invalidations.incrementAndGet();
+            this.cache.removeAll();
+        }
+    }
+}
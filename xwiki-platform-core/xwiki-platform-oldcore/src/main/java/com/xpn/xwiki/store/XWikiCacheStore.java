@@ -55,6 +55,7 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.XWikiLink;
 import com.xpn.xwiki.doc.XWikiLock;
+import com.xpn.xwiki.internal.objects.classes.XClassCache;
 import com.xpn.xwiki.internal.store.AbstractXWikiStore;
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.web.Utils;
@@ -108,6 +109,11 @@ public class XWikiCacheStore extends AbstractXWikiStore
      */
     private Cache<Integer> limitSizePropertyCache;
 
+    /**
+     * The classes are cached from the cached documents so they are evicted at the same time.
+     */
+    private XClassCache xclassCache;
+
     /**
      * Default constructor generally used by the Component Manager.
      */
@@ -230,6 +236,7 @@ public void renameXWikiDoc(XWikiDocument doc, DocumentReference newReference, XW
             String key = getKey(doc, context);
             getCache().remove(key);
             getPageExistCache().remove(key);
+            flushXClass(doc.getDocumentReference());
 
             WikiReference originalWikiReference = doc.getDocumentReference().getWikiReference();
             // Flushing the cache for new document
@@ -240,6 +247,7 @@ public void renameXWikiDoc(XWikiDocument doc, DocumentReference newReference, XW
             key = getKey(newDoc, context);
             getCache().remove(key);
             getPageExistCache().remove(key);
+            flushXClass(newReference);
             context.setWikiReference(originalWikiReference);
 
             // Restore the previous XWikiContext
@@ -262,6 +270,7 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
             String key = getKey(doc, context);
             getCache().remove(key);
             getPageExistCache().remove(key);
+            flushXClass(doc.getDocumentReference());
 
             /*
              * We do not want to save the document in the cache at this time. If we did, this would introduce the
@@ -279,6 +288,38 @@ public void flushCache()
         getCache().removeAll();
         getPageExistCache().removeAll();
         getLimitSizePropertyCache().removeAll();
+
+        XClassCache classCache = getXClassCache();
+        if (classCache != null) {
+            classCache.removeAll();
+        }
+    }
+
+    @Override
+    public void flushCache(DocumentReference documentReference)
+    {
+        String key = this.uidStringEntityReferenceSerializer.serialize(documentReference, documentReference);
+
+        getCache().remove(key);
+        getPageExistCache().remove(key);
+        flushXClass(documentReference);
+    }
+
+    private XClassCache getXClassCache()
+    {
+        if (this.xclassCache == null && Utils.getComponentManager().hasComponent(XClassCache.class)) {
+            this.xclassCache = Utils.getComponent(XClassCache.class);
+        }
+
+        return this.xclassCache;
+    }
+
+    private void flushXClass(DocumentReference documentReference)
+    {
+        XClassCache classCache = getXClassCache();
+        if (classCache != null) {
+            classCache.remove(documentReference);
+        }
     }
 
     @Override
@@ -299,6 +340,7 @@ public void onEvent(Event event, Object source, Object data)
                 if (getPageExistCache() != null) {
                     getPageExistCache().remove(key);
                 }
+                flushXClass(doc.getDocumentReference());
             }
         }
     }
@@ -431,6 +473,7 @@ public void deleteXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext) throws
             getCache().remove(key);
             getPageExistCache().remove(key);
             getPageExistCache().set(key, Boolean.FALSE);
+            flushXClass(doc.getDocumentReference());
         } finally {
             restoreExecutionXContext();
         }
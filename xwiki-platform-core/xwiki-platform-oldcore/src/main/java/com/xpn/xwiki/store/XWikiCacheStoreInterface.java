@@ -19,6 +19,9 @@
  */
 package com.xpn.xwiki.store;
 
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.stability.Unstable;
+
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 
@@ -30,6 +33,18 @@ public interface XWikiCacheStoreInterface extends XWikiStoreInterface
 
     void flushCache();
 
+    /**
+     * Remove a single document from the cache.
+     *
+     * @param documentReference the reference of the document, including its locale
+     * @since 13.4RC1
+     */
+    @Unstable
+    default void flushCache(DocumentReference documentReference)
+    {
+        flushCache();
+    }
+
     /**
      * @deprecated since 8.3. It does not make much sense to make this method public and it was not really doing
      *             anything for a very long time in practice (since Infinispan is the default cache inmplementation)
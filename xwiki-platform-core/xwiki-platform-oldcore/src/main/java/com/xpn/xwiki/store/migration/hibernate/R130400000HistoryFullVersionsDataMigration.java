@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.store.migration.hibernate;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore;
+import com.xpn.xwiki.store.XWikiHibernateVersioningStore;
+import com.xpn.xwiki.store.XWikiVersioningStoreInterface;
+import com.xpn.xwiki.store.migration.DataMigrationException;
+import com.xpn.xwiki.store.migration.XWikiDBVersion;
+
+/**
+ * Make sure the document histories contain a full version every {@code xwiki.store.rcs.nodesPerFull} versions so that
+ * loading an old version of a document never requires applying a long list of patches. Histories created before this
+ * limit was enforced (or imported from a JRCS archive) might only contain the latest version as a full version.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component
+@Named("R130400000HistoryFullVersions")
+@Singleton
+public class R130400000HistoryFullVersionsDataMigration extends AbstractHibernateDataMigration
+{
+    @Inject
+    private Logger logger;
+
+    @Override
+    public String getDescription()
+    {
+        return "Add full versions to the documents history to speed up the loading of old versions.";
+    }
+
+    @Override
+    public XWikiDBVersion getVersion()
+    {
+        return new XWikiDBVersion(130400000);
+    }
+
+    /**
+     * @return version store system for execute store-specific actions.
+     * @throws XWikiException if the store could not be reached
+     */
+    private XWikiHibernateVersioningStore getVersioningStore() throws XWikiException
+    {
+        try {
+            return (XWikiHibernateVersioningStore) this.componentManager
+                .getInstance(XWikiVersioningStoreInterface.class, XWikiHibernateBaseStore.HINT);
+        } catch (ComponentLookupException e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE, XWikiException.ERROR_XWIKI_STORE_MIGRATION,
+                String.format("Unable to reach the versioning store for database %s", getXWikiContext().getWikiId()),
+                e);
+        }
+    }
+
+    @Override
+    protected void hibernateMigrate() throws DataMigrationException, XWikiException
+    {
+        XWikiContext context = getXWikiContext();
+
+        int nodesPerFull = XWikiDocumentArchive.getNodesPerFull(context);
+        if (nodesPerFull <= 0) {
+            // Only the latest version is expected to be full
+            return;
+        }
+
+        // Only the histories with more versions than the distance between two full versions can be impacted
+        List<Long> docIds = getStore().executeRead(context,
+            session -> session
+                .createQuery("select rcs.id.docId from XWikiRCSNodeInfo rcs group by rcs.id.docId"
+                    + " having count(*) > :nodesPerFull", Long.class)
+                .setParameter("nodesPerFull", Long.valueOf(nodesPerFull)).getResultList());
+
+        XWikiHibernateVersioningStore versioningStore = getVersioningStore();
+        for (Long docId : docIds) {
+            XWikiDocumentArchive archive = new XWikiDocumentArchive(docId);
+            try {
+                versioningStore.loadXWikiDocArchive(archive, true, context);
+                if (archive.updateFullVersions(context)) {
+                    this.logger.debug("Added full versions to the history of document with id [{}]", docId);
+
+                    versioningStore.saveXWikiDocArchive(archive, true, context);
+                }
+            } catch (XWikiException e) {
+                // Don't block the migration because of a broken history, it will just stay slow to load
+                this.logger.warn("Failed to add full versions to the history of document with id [{}]: {}", docId,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+}
@@ -254,6 +254,10 @@ private String exportXAR(XWikiContext context) throws XWikiException, IOExceptio
                 inputProperties.setWithWikiAttachmentJRCSRevisions(attachmentJRCS);
             }
 
+            // Load the documents ahead of their serialization
+            inputProperties
+                .setLoadingThreads((int) context.getWiki().ParamAsLong("xwiki.action.export.xar.loadingThreads", 2));
+
             EntityReferenceSet entities = new EntityReferenceSet();
 
             if (all) {
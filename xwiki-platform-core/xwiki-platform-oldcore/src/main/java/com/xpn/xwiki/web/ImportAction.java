@@ -28,6 +28,7 @@
 import javax.inject.Singleton;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.tika.mime.MediaType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -293,6 +294,9 @@ private void importPackageFilterStream(XWikiAttachment packFile, XWikiRequest re
             instanceProperties.setAuthorPreserved(false);
         }
 
+        // Save several documents in the same transaction (bulk mode)
+        instanceProperties.setBatchSize(NumberUtils.toInt(request.getParameter("batchSize"), 0));
+
         BeanInputFilterStreamFactory<XARInputProperties> xarFilterStreamFactory =
             Utils.getComponent((Type) InputFilterStreamFactory.class, FilterStreamType.XWIKI_XAR_CURRENT.serialize());
         BeanInputFilterStream<XARInputProperties> xarFilterStream =
@@ -326,8 +330,10 @@ private void importPackageFilterStream(XWikiAttachment packFile, XWikiRequest re
             xarFilterStream.read(instanceFilterStream.getFilter());
 
             xarFilterStream.close();
-            instanceFilterStream.close();
         } finally {
+            // Commit the last batch of documents (if any) even when the import failed in the middle
+            instanceFilterStream.close();
+
             if (loggerManager != null) {
                 // Stop isolating log
                 loggerManager.popLogListener();
@@ -21,9 +21,11 @@
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -251,6 +253,35 @@ public void rollbackFiresEvents() throws Exception
         verify(observationManager).notify(new DocumentRolledBackEvent(documentReference, revision), document, context);
     }
 
+    @Test
+    public void saveDocumentWithDeferredNotifications() throws Exception
+    {
+        ObservationManager observationManager = this.componentManager.getInstance(ObservationManager.class);
+
+        XWikiDocument originalDocument = mock(XWikiDocument.class);
+        when(originalDocument.isNew()).thenReturn(false);
+
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getOriginalDocument()).thenReturn(originalDocument);
+
+        List<Runnable> notifications = new ArrayList<>();
+        this.context.put(XWiki.CKEY_DEFERRED_SAVE_NOTIFICATIONS, notifications);
+
+        this.xwiki.saveDocument(document, "comment", false, this.context);
+
+        verify(xwiki.getStore()).saveXWikiDoc(document, this.context);
+        verify(observationManager).notify(new DocumentUpdatingEvent(documentReference), document, this.context);
+        verify(observationManager, never()).notify(new DocumentUpdatedEvent(documentReference), document,
+            this.context);
+        assertEquals(1, notifications.size());
+
+        notifications.get(0).run();
+
+        verify(observationManager).notify(new DocumentUpdatedEvent(documentReference), document, this.context);
+    }
+
     @Test
     public void deleteAllDocumentsAndWithoutSendingToTrash() throws Exception
     {
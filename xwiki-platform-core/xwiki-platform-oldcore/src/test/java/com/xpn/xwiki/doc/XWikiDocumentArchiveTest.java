@@ -43,6 +43,8 @@ public class XWikiDocumentArchiveTest extends AbstractBridgedXWikiComponentTestC
 
     private Mock mockXWiki;
 
+    private XWikiConfig config;
+
     @Override
     protected void setUp() throws Exception
     {
@@ -50,7 +52,8 @@ protected void setUp() throws Exception
 
         this.mockXWiki = mock(XWiki.class);
         this.mockXWiki.stubs().method("getEncoding").will(returnValue("iso-8859-1"));
-        this.mockXWiki.stubs().method("getConfig").will(returnValue(new XWikiConfig()));
+        this.config = new XWikiConfig();
+        this.mockXWiki.stubs().method("getConfig").will(returnValue(this.config));
 
         this.context = new XWikiContext();
         this.context.setWiki((XWiki) this.mockXWiki.proxy());
@@ -326,6 +329,42 @@ public void testVerifyDiffAndFullRevisionAlgorithm() throws Exception
         assertFalse(archive.getNode(new Version(6, 1)).isDiff());
     }
 
+    public void testUpdateFullVersions() throws Exception
+    {
+        XWikiDocument doc = new XWikiDocument(new DocumentReference("Test", "Test", "Test"));
+        XWikiDocumentArchive archive = new XWikiDocumentArchive(doc.getId());
+        doc.setDocumentArchive(archive);
+        String author = "XWiki.some author";
+
+        // Only keep the latest version as full version
+        this.config.setProperty("xwiki.store.rcs.nodesPerFull", "0");
+        for (int i = 1; i <= 7; ++i) {
+            addRevisionToHistory(archive, doc, "content " + i + ".1", author, i + ".1");
+        }
+        for (int i = 1; i < 7; ++i) {
+            assertTrue(archive.getNode(new Version(i, 1)).isDiff());
+        }
+
+        this.config.setProperty("xwiki.store.rcs.nodesPerFull", "3");
+        assertTrue(archive.updateFullVersions(this.context));
+
+        assertFalse(archive.getNode(new Version(7, 1)).isDiff());
+        assertTrue(archive.getNode(new Version(6, 1)).isDiff());
+        assertTrue(archive.getNode(new Version(5, 1)).isDiff());
+        assertFalse(archive.getNode(new Version(4, 1)).isDiff());
+        assertTrue(archive.getNode(new Version(3, 1)).isDiff());
+        assertTrue(archive.getNode(new Version(2, 1)).isDiff());
+        assertFalse(archive.getNode(new Version(1, 1)).isDiff());
+
+        // The content of each version did not change
+        for (int i = 1; i <= 7; ++i) {
+            assertEquals("content " + i + ".1", archive.loadDocument(new Version(i, 1), this.context).getContent());
+        }
+
+        // Nothing else to do
+        assertFalse(archive.updateFullVersions(this.context));
+    }
+
     private void addRevisionToHistory(XWikiDocumentArchive archive, XWikiDocument document, String content,
         String author, String comment) throws XWikiException
     {
@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ContentParser;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.doc.DocumentOutline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XDOMCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XDOMCacheTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private XDOMCache xdomCache;
+
+    @MockComponent
+    private ContentParser parser;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> serializer;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.getProperty("core.xdomcache.size", 500)).thenReturn(500);
+
+        Map<String, Object> entries = new HashMap<>();
+        Cache<Object> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> entries.get(invocation.getArgument(0)));
+        doAnswer(invocation -> entries.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(anyString(), any());
+        when(this.cacheManager.createNewCache(any(CacheConfiguration.class))).thenReturn(cache);
+
+        when(this.serializer.serialize(DOCUMENT_REFERENCE)).thenReturn("wiki:Space.Page");
+        when(this.parser.parse(anyString(), any(), any())).then(invocation -> new XDOM(Collections.emptyList()));
+    }
+
+    private XWikiDocument mockDocument(String version, String content, boolean isNew)
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(DOCUMENT_REFERENCE);
+        when(document.getLocale()).thenReturn(Locale.ROOT);
+        when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+        when(document.getVersion()).thenReturn(version);
+        when(document.getContent()).thenReturn(content);
+        when(document.isNew()).thenReturn(isNew);
+
+        return document;
+    }
+
+    @Test
+    void get() throws Exception
+    {
+        XDOM xdom = this.xdomCache.get(mockDocument("1.1", "content", false));
+
+        // Another instance of the same document version
+        assertSame(xdom, this.xdomCache.get(mockDocument("1.1", "content", false)));
+
+        assertEquals(1, this.xdomCache.getHits());
+        assertEquals(1, this.xdomCache.getMisses());
+        assertEquals(1, this.xdomCache.getParses());
+    }
+
+    @Test
+    void getWithDifferentVersionOrContent() throws Exception
+    {
+        XDOM xdom = this.xdomCache.get(mockDocument("1.1", "content", false));
+
+        assertNotSame(xdom, this.xdomCache.get(mockDocument("2.1", "content", false)));
+        // Modified but not saved yet
+        assertNotSame(xdom, this.xdomCache.get(mockDocument("1.1", "modified content", false)));
+
+        assertEquals(0, this.xdomCache.getHits());
+        assertEquals(3, this.xdomCache.getParses());
+    }
+
+    @Test
+    void getWithNewDocument() throws Exception
+    {
+        XDOM xdom = this.xdomCache.get(mockDocument("1.1", "content", true));
+
+        assertNotSame(xdom, this.xdomCache.get(mockDocument("1.1", "content", true)));
+
+        assertEquals(0, this.xdomCache.getHits());
+        assertEquals(0, this.xdomCache.getMisses());
+        assertEquals(2, this.xdomCache.getParses());
+    }
+
+    @Test
+    void getOutline() throws Exception
+    {
+        XWikiDocument document = mockDocument("1.1", "content", false);
+        XDOM xdom = this.xdomCache.get(document);
+
+        DocumentOutline outline = this.xdomCache.getOutline(document, xdom);
+
+        // Another instance of the same document version
+        assertSame(outline, this.xdomCache.getOutline(mockDocument("1.1", "content", false), xdom));
+
+        // Another parsed content
+        assertNotSame(outline, this.xdomCache.getOutline(document, new XDOM(Collections.emptyList())));
+    }
+}
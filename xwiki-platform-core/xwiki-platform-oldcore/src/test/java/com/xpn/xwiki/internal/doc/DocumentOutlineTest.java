@@ -0,0 +1,85 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.GroupBlock;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.SectionBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.HeaderLevel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link DocumentOutline}.
+ *
+ * @version $Id$
+ */
+class DocumentOutlineTest
+{
+    private HeaderBlock header(String title, HeaderLevel level)
+    {
+        return new HeaderBlock(Collections.<Block>singletonList(new WordBlock(title)), level);
+    }
+
+    private SectionBlock section(HeaderBlock header, Block... children)
+    {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(header);
+        blocks.addAll(Arrays.asList(children));
+
+        return new SectionBlock(blocks);
+    }
+
+    @Test
+    void getHeaders()
+    {
+        HeaderBlock heading1 = header("Heading1", HeaderLevel.LEVEL1);
+        HeaderBlock heading2 = header("Heading2", HeaderLevel.LEVEL2);
+        HeaderBlock heading3 = header("Heading3", HeaderLevel.LEVEL2);
+        HeaderBlock heading4 = header("Heading4", HeaderLevel.LEVEL3);
+
+        XDOM xdom = new XDOM(Arrays.<Block>asList(section(heading1, section(heading2,
+            // Sections located in a group are not taken into account
+            new GroupBlock(Arrays.<Block>asList(section(heading3))))), section(heading4)));
+
+        DocumentOutline outline = new DocumentOutline(xdom);
+
+        assertEquals(Arrays.asList(heading1, heading2, heading4), outline.getHeaders());
+        assertEquals(Arrays.asList(heading1, heading2), outline.getHeaders(2));
+        assertEquals(Arrays.asList(heading1), outline.getHeaders(1));
+    }
+
+    @Test
+    void getHeadersWithEmptyContent()
+    {
+        assertTrue(new DocumentOutline(new XDOM(Collections.emptyList())).getHeaders().isEmpty());
+        assertTrue(DocumentOutline.EMPTY.getHeaders(6).isEmpty());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.objects.classes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.cache.DocumentCache;
+import com.xpn.xwiki.objects.classes.BaseClass;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XClassCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XClassCacheTest
+{
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference("wiki", "Space", "Class");
+
+    @InjectMockComponents
+    private XClassCache xclassCache;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private DocumentCache<BaseClass> cache;
+
+    private XWikiContext xcontext;
+
+    private XWiki xwiki;
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.getProperty("core.xclasscache.size", 1000)).thenReturn(1000);
+
+        Map<DocumentReference, BaseClass> entries = new HashMap<>();
+        when(this.cache.get(any(DocumentReference.class)))
+            .then(invocation -> entries.get(invocation.getArgument(0)));
+        doAnswer(invocation -> entries.put(invocation.getArgument(1), invocation.getArgument(0))).when(this.cache)
+            .set(any(), any(DocumentReference.class));
+        doAnswer(invocation -> {
+            entries.clear();
+            return null;
+        }).when(this.cache).removeAll();
+        doAnswer(invocation -> entries.remove(invocation.getArgument(0))).when(this.cache)
+            .removeAll(any(DocumentReference.class));
+        doAnswer(invocation -> entries.remove(invocation.getArgument(1))).when(this.cache)
+            .remove(any(), any(DocumentReference.class));
+    }
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.xcontext = mock(XWikiContext.class);
+        this.xwiki = mock(XWiki.class);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+    }
+
+    private XWikiDocument mockDocument(boolean isNew) throws Exception
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.isNew()).thenReturn(isNew);
+        when(document.getXClass()).then(invocation -> new BaseClass());
+        when(this.xwiki.getDocument(CLASS_REFERENCE, this.xcontext)).thenReturn(document);
+
+        return document;
+    }
+
+    @Test
+    void get() throws Exception
+    {
+        mockDocument(false);
+
+        BaseClass xclass = this.xclassCache.get(CLASS_REFERENCE, this.xcontext);
+
+        assertSame(xclass, this.xclassCache.get(CLASS_REFERENCE, this.xcontext));
+
+        // The class document is loaded only once
+        verify(this.xwiki, times(1)).getDocument(CLASS_REFERENCE, this.xcontext);
+
+        verify(this.cache).create(any(CacheConfiguration.class));
+    }
+
+    @Test
+    void getWithNewDocument() throws Exception
+    {
+        mockDocument(true);
+
+        BaseClass xclass = this.xclassCache.get(CLASS_REFERENCE, this.xcontext);
+
+        assertNotSame(xclass, this.xclassCache.get(CLASS_REFERENCE, this.xcontext));
+    }
+
+    @Test
+    void remove() throws Exception
+    {
+        mockDocument(false);
+
+        BaseClass xclass = this.xclassCache.get(CLASS_REFERENCE, this.xcontext);
+
+        this.xclassCache.remove(CLASS_REFERENCE);
+
+        assertNotSame(xclass, this.xclassCache.get(CLASS_REFERENCE, this.xcontext));
+    }
+
+    @Test
+    void getWhenRemovedDuringLoad() throws Exception
+    {
+        XWikiDocument document = mockDocument(false);
+        // Simulate a modification of the class document while it's being loaded
+        when(document.getXClass()).then(invocation -> {
+            this.xclassCache.remove(CLASS_REFERENCE);
+            return new BaseClass();
+        }).then(invocation -> new BaseClass());
+
+        BaseClass xclass = this.xclassCache.get(CLASS_REFERENCE, this.xcontext);
+
+        // The possibly outdated class is not kept
+        verify(this.cache).remove(xclass, CLASS_REFERENCE);
+        assertNotSame(xclass, this.xclassCache.get(CLASS_REFERENCE, this.xcontext));
+    }
+
+    @Test
+    void removeAll() throws Exception
+    {
+        mockDocument(false);
+
+        BaseClass xclass = this.xclassCache.get(CLASS_REFERENCE, this.xcontext);
+
+        this.xclassCache.removeAll();
+
+        assertNotSame(xclass, this.xclassCache.get(CLASS_REFERENCE, this.xcontext));
+    }
+}
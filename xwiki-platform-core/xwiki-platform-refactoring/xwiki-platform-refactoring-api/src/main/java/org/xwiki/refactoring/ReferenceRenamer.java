@@ -19,6 +19,8 @@
  */
 package org.xwiki.refactoring;
 
+import java.util.Map;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rendering.block.Block;
@@ -47,4 +49,26 @@
      */
     boolean renameReferences(Block block, DocumentReference currentDocumentReference, DocumentReference oldTarget,
         DocumentReference newTarget, boolean relative);
+
+    /**
+     * Change references of the given block so that the references pointing to any of the old targets point to the
+     * corresponding new target. The block is traversed only once whatever the number of renamed documents.
+     *
+     * @param block the {@link Block} to modify
+     * @param currentDocumentReference the current document reference
+     * @param updatedReferences the new references of the renamed documents indexed by their previous reference
+     * @param relative {@code true} if the link should be serialized relatively to the current document
+     * @return {@code true} if the given {@link Block} was modified
+     * @since 13.4RC1
+     */
+    default boolean renameReferences(Block block, DocumentReference currentDocumentReference,
+        Map<DocumentReference, DocumentReference> updatedReferences, boolean relative)
+    {
+        boolean modified = false;
+        for (Map.Entry<DocumentReference, DocumentReference> entry : updatedReferences.entrySet()) {
+            modified |= renameReferences(block, currentDocumentReference, entry.getKey(), entry.getValue(), relative);
+        }
+
+        return modified;
+    }
 }
@@ -19,6 +19,8 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.Map;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 
@@ -41,6 +43,16 @@
     void renameLinks(DocumentReference documentReference, DocumentReference oldLinkTarget,
         DocumentReference newLinkTarget);
 
+    /**
+     * Renames the links targeting any of the specified documents from the content of the specified document. The
+     * document is parsed and saved only once whatever the number of renamed documents.
+     * 
+     * @param documentReference the document whose content needs to be updated
+     * @param updatedReferences the new link targets indexed by the link targets that need to be replaced
+     * @since 13.4RC1
+     */
+    void renameLinks(DocumentReference documentReference, Map<DocumentReference, DocumentReference> updatedReferences);
+
     /**
      * Updates the relative links from the content of a document after it has been renamed or moved. This ensures that
      * the links from the content of the renamed/moved document are relative to the new reference.
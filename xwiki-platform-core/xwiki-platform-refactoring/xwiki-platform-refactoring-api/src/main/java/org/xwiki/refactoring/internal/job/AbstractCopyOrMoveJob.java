@@ -46,7 +46,8 @@
     /**
      * Specifies whether all entities with the same name are to be overwritten on not. When {@code true} all entities
      * with the same name are overwritten. When {@code false} all entities with the same name are skipped. If
-     * {@code null} then a question is asked for each entity.
+     * {@code null} then a question is asked for each entity. The questions are asked one at a time, even when the
+     * documents are processed in parallel.
      */
     private Boolean overwriteAll;
 
@@ -173,7 +174,7 @@ && isSpaceHomeReference(new DocumentReference(destination))) {
 
     protected void process(final SpaceReference source, final SpaceReference destination)
     {
-        visitDocuments(source, new Visitor<DocumentReference>()
+        processDocuments(source, new Visitor<DocumentReference>()
         {
             @Override
             public void visit(DocumentReference oldChildReference)
@@ -265,7 +266,7 @@ protected boolean copyOrMove(DocumentReference oldReference, DocumentReference n
         }
     }
 
-    private boolean confirmOverwrite(EntityReference source, EntityReference destination)
+    private synchronized boolean confirmOverwrite(EntityReference source, EntityReference destination)
     {
         if (this.overwriteAll == null) {
             OverwriteQuestion question = new OverwriteQuestion(source, destination);
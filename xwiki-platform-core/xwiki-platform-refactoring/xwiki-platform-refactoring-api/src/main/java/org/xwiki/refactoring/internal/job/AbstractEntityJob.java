@@ -19,15 +19,35 @@
  */
 package org.xwiki.refactoring.internal.job;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.context.concurrent.ContextStoreManager;
 import org.xwiki.job.AbstractJob;
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.JobGroupPath;
 import org.xwiki.job.Request;
+import org.xwiki.logging.LogQueue;
+import org.xwiki.logging.event.LoggerListener;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
@@ -35,6 +55,7 @@
 import org.xwiki.model.reference.EntityReferenceTree;
 import org.xwiki.model.reference.EntityReferenceTreeNode;
 import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.observation.event.BeginEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.job.EntityJobStatus;
 import org.xwiki.refactoring.job.EntityRequest;
@@ -103,6 +124,40 @@
     @Inject
     private EntityReferenceProvider defaultEntityReferenceProvider;
 
+    /**
+     * Used to initialize the execution context of the worker threads.
+     * 
+     * @see #processDocuments(SpaceReference, Visitor)
+     */
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    /**
+     * Used to transmit the context of the job (wiki, user, locale, etc.) to the worker threads.
+     */
+    @Inject
+    private ContextStoreManager contextStore;
+
+    /**
+     * The worker threads used to process the documents in parallel, {@code null} when the documents are processed on
+     * the job thread.
+     */
+    private ExecutorService workers;
+
+    /**
+     * The begin events the job is in (e.g. {@link org.xwiki.refactoring.event.EntitiesRenamingEvent}), indexed by the
+     * execution context property holding them, copied in the execution context of each worker thread.
+     */
+    private Map<String, Collection<?>> workerBeginEvents;
+
+    /**
+     * The entries of the job context (wiki, user, locale, etc.) restored in the worker threads.
+     */
+    private Map<String, Serializable> workerContextEntries;
+
     @Override
     public JobGroupPath getGroupPath()
     {
@@ -272,6 +327,94 @@ protected void visitDocuments(SpaceReference spaceReference, Visitor<DocumentRef
         visitDocumentNodes(getDocumentReferenceTree(spaceReference), visitor);
     }
 
+    /**
+     * Process the documents from the specified space. When the request asks for it (see
+     * {@link EntityRequest#getThreads()}) the documents of each space are processed in parallel by a bounded pool of
+     * worker threads. The space preferences document is still processed once all the other documents of the space have
+     * been processed and the progress is still reported by the job thread.
+     * 
+     * @param spaceReference the space whose documents to process
+     * @param visitor the visitor called for each document, possibly from a worker thread
+     * @since 13.4RC1
+     */
+    protected void processDocuments(SpaceReference spaceReference, Visitor<DocumentReference> visitor)
+    {
+        int threads = this.request.getThreads();
+        if (threads <= 1 || this.workers != null || !saveWorkerContext()) {
+            visitDocuments(spaceReference, visitor);
+        } else {
+            this.workers = Executors.newFixedThreadPool(threads, new BasicThreadFactory.Builder()
+                .namingPattern("XWiki refactoring worker %d").daemon(true).build());
+
+            try {
+                visitDocuments(spaceReference, visitor);
+            } finally {
+                this.workers.shutdownNow();
+                this.workers = null;
+                this.workerBeginEvents = null;
+                this.workerContextEntries = null;
+            }
+        }
+    }
+
+    private boolean saveWorkerContext()
+    {
+        try {
+            this.workerContextEntries = this.contextStore.save(this.contextStore.getSupportedEntries());
+        } catch (ComponentLookupException e) {
+            this.logger.warn("Failed to save the job context, the documents won't be processed in parallel: {}",
+                ExceptionUtils.getRootCauseMessage(e));
+
+            return false;
+        }
+
+        // The workers must know the events being processed by the job, as exposed by the observation context. The rest
+        // of the job execution context is per thread state which is not safe to share with the workers.
+        this.workerBeginEvents = new HashMap<>();
+        for (Map.Entry<String, Object> property : this.execution.getContext().getProperties().entrySet()) {
+            if (isBeginEvents(property.getValue())) {
+                Collection<?> events = copyCollection((Collection<?>) property.getValue());
+                if (events != null) {
+                    this.workerBeginEvents.put(property.getKey(), events);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isBeginEvents(Object value)
+    {
+        if (value instanceof Collection && !((Collection<?>) value).isEmpty()) {
+            for (Object element : (Collection<?>) value) {
+                if (!(element instanceof BeginEvent)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private Collection<?> copyCollection(Collection<?> collection)
+    {
+        // Keep the same type of collection (e.g. a stack) as the one expected by the code reading it
+        try {
+            @SuppressWarnings("unchecked")
+            Collection<Object> copy = (Collection<Object>) collection.getClass().getConstructor().newInstance();
+            copy.addAll(collection);
+
+            return copy;
+        } catch (ReflectiveOperationException e) {
+            this.logger.warn("Failed to copy the events [{}] in the worker context: {}", collection,
+                ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+    }
+
     private EntityReferenceTreeNode getDocumentReferenceTree(SpaceReference spaceReference)
     {
         return new EntityReferenceTree(this.modelBridge.getDocumentReferences(spaceReference)).get(spaceReference);
@@ -299,14 +442,22 @@ private void visitDocumentAncestor(EntityReferenceTreeNode node, Visitor<Documen
         try {
             // Visit the space preferences document at the end as otherwise we may loose the space access rights.
             EntityReferenceTreeNode spacePreferencesNode = null;
+            List<Future<LogQueue>> documentTasks = new ArrayList<>();
             for (EntityReferenceTreeNode child : children) {
                 if (isSpacePreferencesReference(child.getReference())) {
                     spacePreferencesNode = child;
                     continue;
                 }
-                visitDocumentAncestorStep(child, visitor);
+                if (this.workers != null && child.getReference().getType() == EntityType.DOCUMENT) {
+                    DocumentReference documentReference = (DocumentReference) child.getReference();
+                    documentTasks.add(this.workers.submit(() -> visitDocumentInWorker(documentReference, visitor)));
+                } else {
+                    visitDocumentAncestorStep(child, visitor);
+                }
             }
 
+            waitForDocuments(documentTasks);
+
             if (spacePreferencesNode != null) {
                 visitDocumentAncestorStep(spacePreferencesNode, visitor);
             }
@@ -315,6 +466,66 @@ private void visitDocumentAncestor(EntityReferenceTreeNode node, Visitor<Documen
         }
     }
 
+    private LogQueue visitDocumentInWorker(DocumentReference documentReference, Visitor<DocumentReference> visitor)
+        throws ExecutionContextException, ComponentLookupException
+    {
+        // The log listener of the job is associated with the job thread so we collect the logs of the worker and
+        // replay them on the job thread.
+        LogQueue logs = new LogQueue();
+        this.loggerManager.pushLogListener(new LoggerListener(UUID.randomUUID().toString(), logs));
+
+        try {
+            // A failure to set up the context fails the task (and thus the job) since the document could otherwise be
+            // processed with the wrong wiki or user
+            initializeWorkerContext();
+            setContextUser();
+
+            if (!this.status.isCanceled()) {
+                visitor.visit(documentReference);
+            }
+        } finally {
+            this.execution.removeContext();
+            this.loggerManager.popLogListener();
+        }
+
+        return logs;
+    }
+
+    private void initializeWorkerContext() throws ExecutionContextException, ComponentLookupException
+    {
+        ExecutionContext context = new ExecutionContext();
+        this.executionContextManager.initialize(context);
+
+        // Each worker gets its own copy of the begin events since the observation context is not thread safe
+        for (Map.Entry<String, Collection<?>> beginEvents : this.workerBeginEvents.entrySet()) {
+            if (!isBeginEvents(context.getProperty(beginEvents.getKey()))) {
+                context.setProperty(beginEvents.getKey(), copyCollection(beginEvents.getValue()));
+            }
+        }
+
+        this.contextStore.restore(this.workerContextEntries);
+    }
+
+    private void waitForDocuments(List<Future<LogQueue>> documentTasks)
+    {
+        try {
+            for (Future<LogQueue> documentTask : documentTasks) {
+                this.progressManager.startStep(this);
+                documentTask.get().log(this.logger);
+                this.progressManager.endStep(this);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.status.cancel();
+        } catch (ExecutionException e) {
+            // Fail the same way as when the documents are processed on the job thread
+            ExceptionUtils.rethrow(e.getCause());
+        } finally {
+            // Don't start processing the remaining documents after a failure
+            documentTasks.forEach(documentTask -> documentTask.cancel(false));
+        }
+    }
+
     private void visitDocumentAncestorStep(EntityReferenceTreeNode node, Visitor<DocumentReference> visitor)
     {
         this.progressManager.startStep(this);
@@ -114,12 +114,15 @@ private void process(DocumentReference documentReference)
 
     private void process(SpaceReference spaceReference)
     {
-        visitDocuments(spaceReference, new Visitor<DocumentReference>()
+        // Make sure the documents deleted by the worker threads are part of the same batch.
+        String batchId = this.batchOperationExecutor.getCurrentBatchId();
+
+        processDocuments(spaceReference, new Visitor<DocumentReference>()
         {
             @Override
             public void visit(DocumentReference documentReference)
             {
-                maybeDelete(documentReference);
+                batchOperationExecutor.execute(() -> maybeDelete(documentReference), batchId);
             }
         });
     }
@@ -21,7 +21,10 @@
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import javax.inject.Inject;
@@ -30,12 +33,15 @@
 
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.job.event.JobFinishedEvent;
 import org.xwiki.job.event.status.JobProgressManager;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.observation.AbstractEventListener;
 import org.xwiki.observation.event.Event;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamingEvent;
 import org.xwiki.refactoring.internal.LinkRefactoring;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.job.MoveJob;
@@ -47,6 +53,9 @@
 
 /**
  * Updates the back-links after a document has been renamed.
+ * <p>
+ * When several entities are renamed at once (e.g. when moving a space) the renames are collected until the end of the
+ * operation so that each document linking to the renamed documents is updated (parsed and saved) only once.
  * 
  * @version $Id$
  * @since 11.1RC1
@@ -61,6 +70,27 @@ public class BackLinkUpdaterListener extends AbstractEventListener
      */
     public static final String NAME = "refactoring.backLinksUpdater";
 
+    /**
+     * The renames collected during a multiple entities rename.
+     * 
+     * @version $Id$
+     */
+    private static final class PendingRenames
+    {
+        private final Predicate<EntityReference> canEdit;
+
+        private final boolean updateLinksOnFarm;
+
+        private final Map<DocumentReference, DocumentReference> references =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+
+        PendingRenames(Predicate<EntityReference> canEdit, boolean updateLinksOnFarm)
+        {
+            this.canEdit = canEdit;
+            this.updateLinksOnFarm = updateLinksOnFarm;
+        }
+    }
+
     @Inject
     private Logger logger;
 
@@ -79,41 +109,74 @@ public class BackLinkUpdaterListener extends AbstractEventListener
     @Inject
     private JobProgressManager progressManager;
 
+    /**
+     * The renames collected for each running move job. The job is used as key (rather than the execution context)
+     * because the documents can be renamed by worker threads when the job is executed in parallel.
+     */
+    private final Map<Object, PendingRenames> pendingRenames = new ConcurrentHashMap<>();
+
     /**
      * Default constructor.
      */
     public BackLinkUpdaterListener()
     {
-        super(NAME, new DocumentRenamedEvent());
+        super(NAME, new DocumentRenamedEvent(), new EntitiesRenamingEvent(), new EntitiesRenamedEvent(),
+            new JobFinishedEvent());
     }
 
     @Override
     public void onEvent(Event event, Object source, Object data)
     {
         if (event instanceof DocumentRenamedEvent) {
-            boolean updateLinks = true;
-            boolean updateLinksOnFarm = true;
-            Predicate<EntityReference> canEdit =
-                entityReference -> this.authorization.hasAccess(Right.EDIT, entityReference);
-
-            if (source instanceof MoveJob) {
+            PendingRenames pending = source != null ? this.pendingRenames.get(source) : null;
+            if (pending != null) {
+                // Wait for the end of the operation to update each back-link document only once
+                DocumentRenamedEvent renamedEvent = (DocumentRenamedEvent) event;
+                pending.references.put(renamedEvent.getSourceReference(), renamedEvent.getTargetReference());
+            } else {
+                onDocumentRenamed((DocumentRenamedEvent) event, source, data);
+            }
+        } else if (event instanceof EntitiesRenamingEvent) {
+            if (source instanceof MoveJob && ((MoveRequest) data).isUpdateLinks()) {
+                MoveJob job = (MoveJob) source;
                 MoveRequest request = (MoveRequest) data;
-                updateLinks = request.isUpdateLinks();
-                updateLinksOnFarm = request.isUpdateLinksOnFarm();
-                // Check access rights taking into account the move request.
-                canEdit = entityReference -> ((MoveJob) source).hasAccess(Right.EDIT, entityReference);
+                this.pendingRenames.put(job, new PendingRenames(
+                    entityReference -> job.hasAccess(Right.EDIT, entityReference), request.isUpdateLinksOnFarm()));
             }
-
-            if (updateLinks) {
-                updateBackLinks((DocumentRenamedEvent) event, canEdit, updateLinksOnFarm);
+        } else if (event instanceof EntitiesRenamedEvent && source != null) {
+            PendingRenames pending = this.pendingRenames.remove(source);
+            if (pending != null) {
+                updateBackLinks(pending);
             }
+        } else if (event instanceof JobFinishedEvent && source != null) {
+            // Forget the renames of a job which failed before the end of the operation
+            this.pendingRenames.remove(source);
         }
     }
 
-    private void updateBackLinks(DocumentRenamedEvent event, Predicate<EntityReference> canEdit,
-        boolean updateLinksOnFarm)
+    private void onDocumentRenamed(DocumentRenamedEvent event, Object source, Object data)
+    {
+        boolean updateLinks = true;
+        boolean updateLinksOnFarm = true;
+        Predicate<EntityReference> canEdit =
+            entityReference -> this.authorization.hasAccess(Right.EDIT, entityReference);
+
+        if (source instanceof MoveJob) {
+            MoveRequest request = (MoveRequest) data;
+            updateLinks = request.isUpdateLinks();
+            updateLinksOnFarm = request.isUpdateLinksOnFarm();
+            // Check access rights taking into account the move request.
+            canEdit = entityReference -> ((MoveJob) source).hasAccess(Right.EDIT, entityReference);
+        }
+
+        if (updateLinks) {
+            updateBackLinks(event, canEdit, updateLinksOnFarm);
+        }
+    }
+
+    private Collection<String> getWikiIds(DocumentReference sourceReference, boolean updateLinksOnFarm)
     {
-        Collection<String> wikiIds = Collections.singleton(event.getSourceReference().getWikiReference().getName());
+        Collection<String> wikiIds = Collections.singleton(sourceReference.getWikiReference().getName());
         if (updateLinksOnFarm) {
             try {
                 wikiIds = this.wikiDescriptorManager.getAllIds();
@@ -122,6 +185,47 @@ private void updateBackLinks(DocumentRenamedEvent event, Predicate<EntityReferen
             }
         }
 
+        return wikiIds;
+    }
+
+    private void updateBackLinks(PendingRenames pending)
+    {
+        // Gather the renamed documents targeted by each back-link document
+        Map<DocumentReference, Map<DocumentReference, DocumentReference>> backlinks = new LinkedHashMap<>();
+        for (Map.Entry<DocumentReference, DocumentReference> entry : pending.references.entrySet()) {
+            for (String wikiId : getWikiIds(entry.getKey(), pending.updateLinksOnFarm)) {
+                for (DocumentReference backlinkDocumentReference : this.modelBridge
+                    .getBackLinkedReferences(entry.getKey(), wikiId)) {
+                    backlinks.computeIfAbsent(backlinkDocumentReference, k -> new LinkedHashMap<>())
+                        .put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        this.logger.info("Updating the back-links of [{}] renamed documents in [{}] documents.",
+            pending.references.size(), backlinks.size());
+
+        this.progressManager.pushLevelProgress(backlinks.size(), this);
+
+        try {
+            for (Map.Entry<DocumentReference, Map<DocumentReference, DocumentReference>> entry : backlinks
+                .entrySet()) {
+                this.progressManager.startStep(this);
+                if (pending.canEdit.test(entry.getKey())) {
+                    this.linkRefactoring.renameLinks(entry.getKey(), entry.getValue());
+                }
+                this.progressManager.endStep(this);
+            }
+        } finally {
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    private void updateBackLinks(DocumentRenamedEvent event, Predicate<EntityReference> canEdit,
+        boolean updateLinksOnFarm)
+    {
+        Collection<String> wikiIds = getWikiIds(event.getSourceReference(), updateLinksOnFarm);
+
         if (!wikiIds.isEmpty()) {
             this.progressManager.pushLevelProgress(wikiIds.size(), this);
 
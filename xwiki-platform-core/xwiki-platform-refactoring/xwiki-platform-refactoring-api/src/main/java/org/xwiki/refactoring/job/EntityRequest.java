@@ -26,6 +26,7 @@
 
 import org.xwiki.job.api.AbstractCheckRightsRequest;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.stability.Unstable;
 
 /**
  * A generic job request that targets multiple entities.
@@ -60,6 +61,11 @@ public class EntityRequest extends AbstractCheckRightsRequest
      */
     private static final String PROPERTY_DEEP = "deep";
 
+    /**
+     * @see #getThreads()
+     */
+    private static final String PROPERTY_THREADS = "threads";
+
     /**
      * @return the type of job that should perform this request; this is useful when different jobs use the same type of
      *         request
@@ -121,6 +127,32 @@ public void setDeep(boolean deep)
         setProperty(PROPERTY_DEEP, deep);
     }
 
+    /**
+     * @return the number of threads used to process the documents of a space, {@code 1} (the default) to process
+     *         them one at a time on the job thread
+     * @since 13.4RC1
+     */
+    @Unstable
+    public int getThreads()
+    {
+        return getProperty(PROPERTY_THREADS, 1);
+    }
+
+    /**
+     * Sets the number of threads used to process the documents of a space. The documents of a space are independent
+     * so they can be processed in parallel, except the space preferences which are always processed last. The
+     * questions (e.g. to overwrite a document) are still asked one at a time and the progress is still reported by the
+     * job thread, but the document events are sent from the worker threads.
+     * 
+     * @param threads the number of threads, {@code 1} to process the documents one at a time on the job thread
+     * @since 13.4RC1
+     */
+    @Unstable
+    public void setThreads(int threads)
+    {
+        setProperty(PROPERTY_THREADS, threads);
+    }
+
     /**
      * @param entityReference one of the entity references that are the target of this request
      * @return the custom parameters associated to the specified target entity
@@ -19,16 +19,25 @@
  */
 package org.xwiki.refactoring.internal.job;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Stack;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.bridge.event.DocumentsDeletingEvent;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.context.concurrent.ContextStoreManager;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
@@ -36,9 +45,11 @@
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.BeginEvent;
 import org.xwiki.refactoring.RefactoringConfiguration;
 import org.xwiki.refactoring.batch.BatchOperation;
 import org.xwiki.refactoring.batch.BatchOperationExecutor;
+import org.xwiki.refactoring.event.EntitiesRenamingEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.job.EntityRequest;
 import org.xwiki.refactoring.job.question.EntitySelection;
@@ -54,12 +65,17 @@
 
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.AdditionalMatchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -101,6 +117,12 @@
     @MockComponent
     private BatchOperationExecutor batchOperationExecutor;
 
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private ContextStoreManager contextStore;
+
     @BeforeEach
     void beforeEach()
     {
@@ -257,6 +279,51 @@ void deleteSpace() throws Exception
         assertEquals("Skipping [wiki:Space.Bob] because it doesn't exist.", this.logCapture.getMessage(1));
     }
 
+    @Test
+    void deleteSpaceInParallel() throws Exception
+    {
+        SpaceReference spaceReference = new SpaceReference("Space", new WikiReference("wiki"));
+        DocumentReference aliceReference = new DocumentReference("wiki", "Space", "Alice");
+        DocumentReference bobReference = new DocumentReference("wiki", "Space", "Bob");
+        DocumentReference preferencesReference = new DocumentReference("wiki", "Space", "WebPreferences");
+        when(this.modelBridge.getDocumentReferences(spaceReference)).thenReturn(
+            Arrays.asList(preferencesReference, aliceReference, bobReference));
+        when(this.modelBridge.exists(any(DocumentReference.class))).thenReturn(true);
+
+        Map<String, Serializable> contextEntries = Collections.singletonMap("wiki", "wiki");
+        when(this.contextStore.save(any())).thenReturn(contextEntries);
+        Stack<BeginEvent> beginEvents = new Stack<>();
+        beginEvents.push(new EntitiesRenamingEvent());
+        Map<String, Object> jobProperties = new HashMap<>();
+        jobProperties.put("observation", beginEvents);
+        jobProperties.put("request", new ArrayList<>());
+        when(this.jobExecution.getContext().getProperties()).thenReturn(jobProperties);
+
+        EntityRequest request = createRequest(spaceReference);
+        request.setCheckRights(false);
+        request.setThreads(2);
+
+        run(request);
+
+        verify(this.modelBridge).delete(aliceReference);
+        verify(this.modelBridge).delete(bobReference);
+
+        // The workers get their own copy of the events the job is in, but not the rest of the job context.
+        ArgumentCaptor<ExecutionContext> workerContextCaptor = ArgumentCaptor.forClass(ExecutionContext.class);
+        verify(this.executionContextManager, times(2)).initialize(workerContextCaptor.capture());
+        workerContextCaptor.getAllValues().forEach(context -> {
+            assertEquals(beginEvents, context.getProperty("observation"));
+            assertNotSame(beginEvents, context.getProperty("observation"));
+            assertFalse(context.hasProperty("request"));
+        });
+        verify(this.contextStore, times(2)).restore(contextEntries);
+
+        // The space preferences are deleted once all the other documents of the space have been deleted.
+        InOrder inOrder = inOrder(this.modelBridge);
+        inOrder.verify(this.modelBridge, times(2)).delete(not(eq(preferencesReference)));
+        inOrder.verify(this.modelBridge).delete(preferencesReference);
+    }
+
     @Test
     void deleteUnsupportedEntity() throws Exception
     {
@@ -289,6 +356,10 @@ private EntityRequest createRequest(EntityReference entityReference)
             this.deleteJob.process(entityReference);
             return null;
         }).when(this.batchOperationExecutor).execute(any(BatchOperation.class));
+        doAnswer(it -> {
+            it.<BatchOperation<?>>getArgument(0).execute();
+            return null;
+        }).when(this.batchOperationExecutor).execute(any(BatchOperation.class), any());
         EntityRequest request = new EntityRequest();
         request.setEntityReferences(singletonList(entityReference));
         return request;
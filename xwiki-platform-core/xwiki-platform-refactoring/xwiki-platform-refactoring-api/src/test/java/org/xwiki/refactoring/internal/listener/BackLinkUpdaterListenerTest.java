@@ -20,6 +20,8 @@
 package org.xwiki.refactoring.internal.listener;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +29,8 @@
 import org.mockito.Mock;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamingEvent;
 import org.xwiki.refactoring.internal.LinkRefactoring;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.job.RenameJob;
@@ -42,6 +46,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -196,4 +201,35 @@ public void onOtherEvents()
 
         verify(this.linkRefactoring, never()).renameLinks(any(), any(), any());
     }
+
+    @Test
+    public void onEntitiesRenamed()
+    {
+        renameRequest.setUpdateLinks(true);
+        renameRequest.setUpdateLinksOnFarm(false);
+
+        when(this.renameJob.hasAccess(Right.EDIT, carolReference)).thenReturn(true);
+
+        DocumentReference aliceNewReference = new DocumentReference("foo", "Members", "Alice");
+        DocumentReference bobNewReference = new DocumentReference("foo", "Members", "Bob");
+        when(this.modelBridge.getBackLinkedReferences(bobReference, "foo")).thenReturn(Arrays.asList(carolReference));
+
+        this.listener.onEvent(new EntitiesRenamingEvent(), renameJob, renameRequest);
+        this.listener.onEvent(new DocumentRenamedEvent(aliceReference, aliceNewReference), renameJob, renameRequest);
+        this.listener.onEvent(new DocumentRenamedEvent(bobReference, bobNewReference), renameJob, renameRequest);
+
+        // Nothing is updated before the end of the operation
+        verify(this.linkRefactoring, never()).renameLinks(any(), anyMap());
+
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
+
+        Map<DocumentReference, DocumentReference> expected = new LinkedHashMap<>();
+        expected.put(aliceReference, aliceNewReference);
+        expected.put(bobReference, bobNewReference);
+        // Carol is updated only once for both renamed documents
+        verify(this.linkRefactoring).renameLinks(carolReference, expected);
+        verify(this.linkRefactoring, never()).renameLinks(any(), any(), any());
+
+        assertEquals("Updating the back-links of [2] renamed documents in [1] documents.", logCapture.getMessage(0));
+    }
 }
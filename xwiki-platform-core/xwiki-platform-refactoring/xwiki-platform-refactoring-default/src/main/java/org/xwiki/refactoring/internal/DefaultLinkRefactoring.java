@@ -19,8 +19,10 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -91,6 +93,13 @@ public class DefaultLinkRefactoring implements LinkRefactoring
     @Override
     public void renameLinks(DocumentReference documentReference, DocumentReference oldLinkTarget,
         DocumentReference newLinkTarget)
+    {
+        renameLinks(documentReference, Collections.singletonMap(oldLinkTarget, newLinkTarget));
+    }
+
+    @Override
+    public void renameLinks(DocumentReference documentReference,
+        Map<DocumentReference, DocumentReference> updatedReferences)
     {
         boolean popLevelProgress = false;
         XWikiContext xcontext = this.xcontextProvider.get();
@@ -105,19 +114,18 @@ public void renameLinks(DocumentReference documentReference, DocumentReference o
 
             // Update the default locale instance.
             this.progressManager.startStep(this);
-            renameLinks(document, oldLinkTarget, newLinkTarget, xcontext, false);
+            renameLinks(document, updatedReferences, xcontext, false);
             this.progressManager.endStep(this);
 
             // Update the translations.
             for (Locale locale : locales) {
                 this.progressManager.startStep(this);
-                renameLinks(document.getTranslatedDocument(locale, xcontext), oldLinkTarget, newLinkTarget, xcontext,
-                    false);
+                renameLinks(document.getTranslatedDocument(locale, xcontext), updatedReferences, xcontext, false);
                 this.progressManager.endStep(this);
             }
         } catch (XWikiException e) {
-            this.logger.error("Failed to rename the links that target [{}] from [{}].", oldLinkTarget,
-                documentReference, e);
+            this.logger.error("Failed to rename the links that target [{}] from [{}].",
+                getOldTargets(updatedReferences), documentReference, e);
         } finally {
             if (popLevelProgress) {
                 this.progressManager.popLevelProgress(this);
@@ -126,7 +134,13 @@ public void renameLinks(DocumentReference documentReference, DocumentReference o
         }
     }
 
-    private void renameLinks(XWikiDocument document, DocumentReference oldTarget, DocumentReference newTarget,
+    private Object getOldTargets(Map<DocumentReference, DocumentReference> updatedReferences)
+    {
+        return updatedReferences.size() == 1 ? updatedReferences.keySet().iterator().next()
+            : updatedReferences.keySet();
+    }
+
+    private void renameLinks(XWikiDocument document, Map<DocumentReference, DocumentReference> updatedReferences,
         XWikiContext xcontext, boolean relative) throws XWikiException
     {
         DocumentReference currentDocumentReference = document.getDocumentReference();
@@ -155,12 +169,12 @@ private void renameLinks(XWikiDocument document, DocumentReference oldTarget, Do
         }
 
         // Document content
-        boolean modified = renameLinks(document, oldTarget, newTarget, relative);
+        boolean modified = renameLinks(document, updatedReferences, relative);
 
         // XObjects properties
         for (List<BaseObject> xobjects : document.getXObjects().values()) {
             for (BaseObject xobject : xobjects) {
-                modified |= renameLinks(xobject, document, oldTarget, newTarget, renderer, xcontext, relative);
+                modified |= renameLinks(xobject, document, updatedReferences, renderer, xcontext, relative);
             }
         }
 
@@ -170,10 +184,18 @@ private void renameLinks(XWikiDocument document, DocumentReference oldTarget, Do
 
                 this.logger.info("Updated the relative links from [{}].", currentDocumentReference);
             } else {
+                // A single new revision whatever the number of renamed documents
                 saveDocumentPreservingContentAuthor(document, "Renamed back-links.", false);
 
-                this.logger.info("The links from [{}] that were targeting [{}] have been updated to target [{}].",
-                    document.getDocumentReferenceWithLocale(), oldTarget, newTarget);
+                if (updatedReferences.size() == 1) {
+                    Map.Entry<DocumentReference, DocumentReference> entry =
+                        updatedReferences.entrySet().iterator().next();
+                    this.logger.info("The links from [{}] that were targeting [{}] have been updated to target [{}].",
+                        document.getDocumentReferenceWithLocale(), entry.getKey(), entry.getValue());
+                } else {
+                    this.logger.info("The links from [{}] targeting [{}] renamed documents have been updated.",
+                        document.getDocumentReferenceWithLocale(), updatedReferences.size());
+                }
             }
         } else {
             if (relative) {
@@ -184,12 +206,12 @@ private void renameLinks(XWikiDocument document, DocumentReference oldTarget, Do
         }
     }
 
-    private boolean renameLinks(XWikiDocument document, DocumentReference oldTarget, DocumentReference newTarget,
+    private boolean renameLinks(XWikiDocument document, Map<DocumentReference, DocumentReference> updatedReferences,
         boolean relative) throws XWikiException
     {
         XDOM xdom = document.getXDOM();
 
-        if (renameLinks(xdom, document.getDocumentReference(), oldTarget, newTarget, relative)) {
+        if (renameLinks(xdom, document.getDocumentReference(), updatedReferences, relative)) {
             document.setContent(xdom);
 
             return true;
@@ -198,14 +220,15 @@ private boolean renameLinks(XWikiDocument document, DocumentReference oldTarget,
         return false;
     }
 
-    private boolean renameLinks(XDOM xdom, DocumentReference currentDocumentReference, DocumentReference oldTarget,
-        DocumentReference newTarget, boolean relative)
+    private boolean renameLinks(XDOM xdom, DocumentReference currentDocumentReference,
+        Map<DocumentReference, DocumentReference> updatedReferences, boolean relative)
     {
-        return this.renamer.renameReferences(xdom, currentDocumentReference, oldTarget, newTarget, relative);
+        return this.renamer.renameReferences(xdom, currentDocumentReference, updatedReferences, relative);
     }
 
-    private boolean renameLinks(BaseObject xobject, XWikiDocument document, DocumentReference oldTarget,
-        DocumentReference newTarget, BlockRenderer renderer, XWikiContext xcontext, boolean relative)
+    private boolean renameLinks(BaseObject xobject, XWikiDocument document,
+        Map<DocumentReference, DocumentReference> updatedReferences, BlockRenderer renderer, XWikiContext xcontext,
+        boolean relative)
     {
         boolean modified = false;
 
@@ -227,7 +250,7 @@ private boolean renameLinks(BaseObject xobject, XWikiDocument document, Document
                             document.getDocumentReference());
 
                         // Rename references
-                        if (renameLinks(xdom, document.getDocumentReference(), oldTarget, newTarget, relative)) {
+                        if (renameLinks(xdom, document.getDocumentReference(), updatedReferences, relative)) {
                             // Serialize property content
                             largeField.setValue(renderXDOM(xdom, renderer));
 
@@ -258,7 +281,8 @@ public void updateRelativeLinks(DocumentReference oldReference, DocumentReferenc
         XWikiContext xcontext = this.xcontextProvider.get();
         try {
             XWikiDocument document = xcontext.getWiki().getDocument(newReference, xcontext);
-            renameLinks(document, oldReference, document.getDocumentReference(), xcontext, true);
+            renameLinks(document, Collections.singletonMap(oldReference, document.getDocumentReference()), xcontext,
+                true);
         } catch (XWikiException e) {
             this.logger.error("Failed to update the relative links from [{}].", newReference, e);
         }
@@ -19,7 +19,9 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -118,6 +120,23 @@ private MacroBlock renderMacroBlock(MacroBlock originalBlock, XDOM newXDOMConten
     public Optional<MacroBlock> replaceReference(MacroBlock macroBlock, DocumentReference currentDocumentReference,
         DocumentReference sourceReference, DocumentReference targetReference, boolean relative)
         throws MacroRefactoringException
+    {
+        return replaceReferences(macroBlock, xdom -> this.referenceRenamerProvider.get()
+            .renameReferences(xdom, currentDocumentReference, sourceReference, targetReference, relative));
+    }
+
+    @Override
+    public Optional<MacroBlock> replaceReferences(MacroBlock macroBlock, DocumentReference currentDocumentReference,
+        Map<DocumentReference, DocumentReference> updatedReferences, boolean relative)
+        throws MacroRefactoringException
+    {
+        // Parse the macro content only once whatever the number of references to replace
+        return replaceReferences(macroBlock, xdom -> this.referenceRenamerProvider.get()
+            .renameReferences(xdom, currentDocumentReference, updatedReferences, relative));
+    }
+
+    private Optional<MacroBlock> replaceReferences(MacroBlock macroBlock, Predicate<XDOM> renamer)
+        throws MacroRefactoringException
     {
         MacroTransformationContext transformationContext = this.getTransformationContext(macroBlock);
         Syntax renderingSyntax = this.macroContentParser.getCurrentSyntax(transformationContext);
@@ -126,9 +145,7 @@ public Optional<MacroBlock> replaceReference(MacroBlock macroBlock, DocumentRefe
             try {
                 XDOM xdom = this.macroContentParser
                     .parse(macroBlock.getContent(), transformationContext, true, macroBlock.isInline());
-                boolean updated = this.referenceRenamerProvider.get().renameReferences(xdom, currentDocumentReference,
-                    sourceReference, targetReference, relative);
-                if (updated) {
+                if (renamer.test(xdom)) {
                     return Optional.of(this.renderMacroBlock(macroBlock, xdom, renderingSyntax));
                 }
             } catch (MacroExecutionException e) {
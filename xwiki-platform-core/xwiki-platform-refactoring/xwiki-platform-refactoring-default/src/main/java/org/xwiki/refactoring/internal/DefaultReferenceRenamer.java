@@ -20,8 +20,10 @@
 package org.xwiki.refactoring.internal;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -102,6 +104,14 @@ public class DefaultReferenceRenamer implements ReferenceRenamer
     @Override
     public boolean renameReferences(Block block, DocumentReference currentDocumentReference,
         DocumentReference oldTarget, DocumentReference newTarget, boolean relative)
+    {
+        return renameReferences(block, currentDocumentReference, Collections.singletonMap(oldTarget, newTarget),
+            relative);
+    }
+
+    @Override
+    public boolean renameReferences(Block block, DocumentReference currentDocumentReference,
+        Map<DocumentReference, DocumentReference> updatedReferences, boolean relative)
     {
         List<Block> blocks = block.getBlocks(new OrBlockMatcher(DEFAULT_BLOCK_MATCHERS), Block.Axes.DESCENDANT);
 
@@ -111,7 +121,7 @@ public boolean renameReferences(Block block, DocumentReference currentDocumentRe
             if (matchingBlock instanceof MacroBlock) {
                 MacroBlock macroBlock = (MacroBlock) matchingBlock;
                 Optional<MacroBlock> optionalMacroBlock = this.handleMacroBlock(macroBlock, currentDocumentReference,
-                    oldTarget, newTarget, relative);
+                    updatedReferences, relative);
                 if (optionalMacroBlock.isPresent()) {
                     block.replaceChild(optionalMacroBlock.get(), macroBlock);
                     modified = true;
@@ -130,8 +140,8 @@ public boolean renameReferences(Block block, DocumentReference currentDocumentRe
                         "Only LinkBlock and ImageBlock can be processed and given class was: [%s]",
                         matchingBlock.getClass().getName()));
                 }
-                modified |= this.renameResourceReference(reference, oldTarget, newTarget,
-                    currentDocumentReference, relative);
+                modified |= this.renameResourceReference(reference, updatedReferences, currentDocumentReference,
+                    relative);
             }
         }
 
@@ -139,7 +149,7 @@ public boolean renameReferences(Block block, DocumentReference currentDocumentRe
     }
 
     private Optional<MacroBlock> handleMacroBlock(MacroBlock macroBlock, DocumentReference currentDocumentReference,
-        DocumentReference oldTarget, DocumentReference newTarget, boolean relative)
+        Map<DocumentReference, DocumentReference> updatedReferences, boolean relative)
     {
         MacroRefactoring macroRefactoring = this.macroRefactoringProvider.get();
         if (this.componentManager.hasComponent(MacroRefactoring.class, macroBlock.getId())) {
@@ -170,11 +180,17 @@ private Optional<MacroBlock> handleMacroBlock(MacroBlock macroBlock, DocumentRef
                 this.renderingContext.isRestricted(), this.renderingContext.getTargetSyntax());
         }
         try {
-            return macroRefactoring
-                .replaceReference(macroBlock, currentDocumentReference, oldTarget, newTarget, relative);
+            if (updatedReferences.size() == 1) {
+                Map.Entry<DocumentReference, DocumentReference> entry = updatedReferences.entrySet().iterator().next();
+                return macroRefactoring
+                    .replaceReference(macroBlock, currentDocumentReference, entry.getKey(), entry.getValue(), relative);
+            } else {
+                return macroRefactoring
+                    .replaceReferences(macroBlock, currentDocumentReference, updatedReferences, relative);
+            }
         } catch (MacroRefactoringException e) {
-            logger.warn("Error while trying to refactor reference from [{}] to [{}] in macro [{}] of "
-                + "document [{}]", oldTarget, newTarget, macroBlock.getId(), currentDocumentReference);
+            logger.warn("Error while trying to refactor references [{}] in macro [{}] of document [{}]",
+                updatedReferences, macroBlock.getId(), currentDocumentReference);
         } finally {
             // don't forget to pop the rendering context.
             if (this.renderingContext instanceof MutableRenderingContext) {
@@ -184,17 +200,26 @@ private Optional<MacroBlock> handleMacroBlock(MacroBlock macroBlock, DocumentRef
         return Optional.empty();
     }
 
-    private boolean renameResourceReference(ResourceReference reference, DocumentReference oldReference,
-        DocumentReference newReference, DocumentReference currentDocumentReference, boolean relative)
+    private boolean renameResourceReference(ResourceReference reference,
+        Map<DocumentReference, DocumentReference> updatedReferences, DocumentReference currentDocumentReference,
+        boolean relative)
     {
         if (reference == null) {
             throw new IllegalArgumentException("The reference of  the block cannot be null.");
         } else if (!SUPPORTED_RESOURCE_TYPES.contains(reference.getType())) {
             // We are currently only interested in Document or Space references.
             return false;
+        } else if (relative) {
+            boolean modified = false;
+            for (Map.Entry<DocumentReference, DocumentReference> entry : updatedReferences.entrySet()) {
+                modified |= this.resourceReferenceRenamer.updateResourceReference(reference, entry.getKey(),
+                    entry.getValue(), currentDocumentReference, true);
+            }
+            return modified;
         } else {
-            return this.resourceReferenceRenamer.updateResourceReference(reference, oldReference, newReference,
-                currentDocumentReference, relative);
+            // Resolve the reference only once whatever the number of renamed documents
+            return this.resourceReferenceRenamer.updateResourceReference(reference, updatedReferences,
+                currentDocumentReference);
         }
     }
 }
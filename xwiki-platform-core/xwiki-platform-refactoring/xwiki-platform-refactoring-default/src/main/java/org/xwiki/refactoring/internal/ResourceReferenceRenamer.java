@@ -19,6 +19,9 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.Collections;
+import java.util.Map;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -80,56 +83,82 @@ public boolean updateResourceReference(ResourceReference resourceReference,
                 currentDocumentReference);
     }
 
-    private boolean updateAbsoluteResourceReference(ResourceReference resourceReference,
-        DocumentReference oldReference, DocumentReference newReference, DocumentReference currentDocumentReference)
+    /**
+     * Update the given resource reference so that if it targets one of the old references, the corresponding new
+     * reference is used instead.
+     *
+     * @param resourceReference the resource reference to be checked and updated.
+     * @param updatedReferences the new references indexed by the old references they replace.
+     * @param currentDocumentReference the current document where the resource reference is located.
+     * @return {@code true} if the resource reference has been updated.
+     * @since 13.4RC1
+     */
+    public boolean updateResourceReference(ResourceReference resourceReference,
+        Map<DocumentReference, DocumentReference> updatedReferences, DocumentReference currentDocumentReference)
     {
-        boolean result = false;
-
         // FIXME: the root cause of XWIKI-18634 is related to this call.
         EntityReference linkEntityReference =
-                this.entityReferenceResolver.resolve(resourceReference, null, currentDocumentReference);
+            this.entityReferenceResolver.resolve(resourceReference, null, currentDocumentReference);
 
         DocumentReference linkTargetDocumentReference =
             this.defaultReferenceDocumentReferenceResolver.resolve(linkEntityReference);
+
+        // If the link targets an old (renamed) document reference, we must update it.
+        DocumentReference newReference = updatedReferences.get(linkTargetDocumentReference);
+        if (newReference != null) {
+            updateAbsoluteResourceReference(resourceReference, linkEntityReference, newReference,
+                currentDocumentReference);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean updateAbsoluteResourceReference(ResourceReference resourceReference,
+        DocumentReference oldReference, DocumentReference newReference, DocumentReference currentDocumentReference)
+    {
+        return updateResourceReference(resourceReference, Collections.singletonMap(oldReference, newReference),
+            currentDocumentReference);
+    }
+
+    private void updateAbsoluteResourceReference(ResourceReference resourceReference,
+        EntityReference linkEntityReference, DocumentReference newReference, DocumentReference currentDocumentReference)
+    {
         EntityReference newTargetReference = newReference;
         ResourceType newResourceType = resourceReference.getType();
 
-        // If the link targets the old (renamed) document reference, we must update it.
-        if (linkTargetDocumentReference.equals(oldReference)) {
-            // If the link was resolved to a space...
-            if (EntityType.SPACE.equals(linkEntityReference.getType())) {
-                if (DEFAULT_SPACE_HOMEPAGE.equals(newReference.getName())) {
-                    // If the new document reference is also a space (non-terminal doc), be careful to keep it
-                    // serialized as a space still (i.e. without ".WebHome") and not serialize it as a doc by mistake
-                    // (i.e. with ".WebHome").
-                    newTargetReference = newReference.getLastSpaceReference();
-                } else {
-                    // If the new target is a non-terminal document, we can not use a "space:" resource type to access
-                    // it anymore. To fix it, we need to change the resource type of the link reference "doc:".
-                    newResourceType = ResourceType.DOCUMENT;
-                }
+        // If the link was resolved to a space...
+        if (EntityType.SPACE.equals(linkEntityReference.getType())) {
+            if (DEFAULT_SPACE_HOMEPAGE.equals(newReference.getName())) {
+                // If the new document reference is also a space (non-terminal doc), be careful to keep it
+                // serialized as a space still (i.e. without ".WebHome") and not serialize it as a doc by mistake
+                // (i.e. with ".WebHome").
+                newTargetReference = newReference.getLastSpaceReference();
+            } else {
+                // If the new target is a non-terminal document, we can not use a "space:" resource type to access
+                // it anymore. To fix it, we need to change the resource type of the link reference "doc:".
+                newResourceType = ResourceType.DOCUMENT;
             }
+        }
 
-            // If the link was resolved to a page...
-            if (EntityType.PAGE.equals(linkEntityReference.getType())) {
-                // Be careful to keep it serialized as a page still and not serialize it as a doc by mistake
-                newTargetReference = this.defaultReferencePageReferenceResolver.resolve(newReference);
-            }
+        // If the link was resolved to a page...
+        if (EntityType.PAGE.equals(linkEntityReference.getType())) {
+            // Be careful to keep it serialized as a page still and not serialize it as a doc by mistake
+            newTargetReference = this.defaultReferencePageReferenceResolver.resolve(newReference);
+        }
 
-            // If the link was resolved as an attachment
-            if (EntityType.ATTACHMENT.equals(linkEntityReference.getType())) {
-                // Make sure to serialize an attachment reference and not just the document
-                newTargetReference = new AttachmentReference(linkEntityReference.getName(), newReference);
-            }
+        // If the link was resolved as an attachment
+        if (EntityType.ATTACHMENT.equals(linkEntityReference.getType())) {
+            // Make sure to serialize an attachment reference and not just the document
+            newTargetReference = new AttachmentReference(linkEntityReference.getName(), newReference);
+        }
 
-            String newReferenceString =
-                this.compactEntityReferenceSerializer.serialize(newTargetReference, currentDocumentReference);
+        String newReferenceString =
+            this.compactEntityReferenceSerializer.serialize(newTargetReference, currentDocumentReference);
 
-            resourceReference.setReference(newReferenceString);
-            resourceReference.setType(newResourceType);
-            result = true;
-        }
-        return result;
+        resourceReference.setReference(newReferenceString);
+        resourceReference.setType(newResourceType);
     }
 
     private boolean updateRelativeResourceReference(ResourceReference resourceReference,
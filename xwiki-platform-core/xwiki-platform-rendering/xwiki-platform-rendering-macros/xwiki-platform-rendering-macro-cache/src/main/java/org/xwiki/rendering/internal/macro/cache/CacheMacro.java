@@ -20,18 +20,16 @@
 package org.xwiki.rendering.internal.macro.cache;
 
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheException;
-import org.xwiki.cache.CacheManager;
-import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.async.AsyncContext;
+import org.xwiki.rendering.async.internal.DefaultAsyncContext;
+import org.xwiki.rendering.async.internal.DefaultAsyncContext.ContextUse;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.macro.AbstractMacro;
 import org.xwiki.rendering.macro.MacroContentParser;
@@ -45,6 +43,9 @@
 
 /**
  * Provides Caching for the content of the macro.
+ * <p>
+ * The documents and components manipulated while executing the content are remembered so that the cached result is
+ * removed as soon as one of them is modified (see {@link CacheMacroListener}).
  * 
  * @version $Id$
  * @since 3.0M1
@@ -65,10 +66,16 @@ public class CacheMacro extends AbstractMacro<CacheMacroParameters>
     private static final String CONTENT_DESCRIPTION = "the content to cache.";
 
     /**
-     * Used to create the macro content cache.
+     * Used to get the macro content caches.
      */
     @Inject
-    private CacheManager cacheManager;
+    private ContentCacheManager caches;
+
+    /**
+     * Used to find out what is manipulated by the content.
+     */
+    @Inject
+    private AsyncContext asyncContext;
 
     /**
      * The parser used to parse the content (when not cached).
@@ -83,12 +90,6 @@ public class CacheMacro extends AbstractMacro<CacheMacroParameters>
     @Named("plain/1.0")
     private BlockRenderer plainTextBlockRenderer;
 
-    /**
-     * Map of all caches. There's one cache per timeToLive/maxEntry combination since currently we cannot set these
-     * configuration values at the cache entry level but only for the whole cache.
-     */
-    private Map<CacheKey, Cache<List<Block>>> contentCacheMap = new ConcurrentHashMap<>();
-
     /**
      * Create and initialize the descriptor of the macro.
      */
@@ -122,51 +123,60 @@ public List<Block> execute(CacheMacroParameters parameters, String content, Macr
             cacheKey = content;
         }
 
-        Cache<List<Block>> contentCache = getContentCache(parameters.getTimeToLive(), parameters.getMaxEntries());
-        List<Block> result = contentCache.get(cacheKey);
-        if (result == null) {
+        ContentCache contentCache = getContentCache(parameters.getTimeToLive(), parameters.getMaxEntries());
+        CachedContent cachedContent = contentCache.get(cacheKey);
+        if (cachedContent == null) {
+            long generation = contentCache.getGeneration();
+
             // Run the parser for the syntax on the content
             // We run the current transformation on the cache macro content. We need to do this since we want to cache
             // the XDOM resulting from the execution of Macros because that's where lengthy processing happens.
+            cachedContent = execute(content, context);
+
+            contentCache.set(cacheKey, cachedContent, generation);
+        }
+
+        // Make sure an enclosing cache (another cache macro, an asynchronous rendering, etc.) is also invalidated when
+        // an element used by the content is modified
+        cachedContent.use(this.asyncContext);
+
+        return cachedContent.getBlocks();
+    }
+
+    private CachedContent execute(String content, MacroTransformationContext context) throws MacroExecutionException
+    {
+        // Remember what is manipulated by the content
+        if (this.asyncContext instanceof DefaultAsyncContext) {
+            ((DefaultAsyncContext) this.asyncContext).pushContextUse();
+        }
+
+        List<Block> result;
+        ContextUse contextUse = null;
+        try {
             result = this.contentParser.parse(content, context, true, context.isInline()).getChildren();
-            contentCache.set(cacheKey, result);
+        } finally {
+            if (this.asyncContext instanceof DefaultAsyncContext) {
+                contextUse = ((DefaultAsyncContext) this.asyncContext).popContextUse();
+            }
         }
 
-        return result;
+        return new CachedContent(result, contextUse);
     }
 
     /**
      * Get a cache matching the passed time to live and max entries.
-     * <p>
-     * Note that whenever a new cache is created it currently means a new thread is used too (since the JBoss cache used
-     * underneath uses a thread for evicting entries from the cache). We need to modify our xwiki-cache module to allow
-     * setting time to live on cache items, see https://jira.xwiki.org/browse/XWIKI-5907
-     * </p>
      *
      * @param lifespan the number of seconds to cache the content
      * @param maxEntries the maximum number of entries in the cache (Least Recently Used entries are ejected)
      * @return the matching cache (a new cache is created if no existing one is found)
      * @throws MacroExecutionException in case we fail to create the new cache
      */
-    Cache<List<Block>> getContentCache(int lifespan, int maxEntries) throws MacroExecutionException
+    ContentCache getContentCache(int lifespan, int maxEntries) throws MacroExecutionException
     {
-        CacheKey cacheKey = new CacheKey(lifespan, maxEntries);
-        Cache<List<Block>> contentCache = this.contentCacheMap.get(cacheKey);
-        if (contentCache == null) {
-            // Create Cache
-            LRUCacheConfiguration configuration =
-                new LRUCacheConfiguration(String.format("cacheMacro.%s", cacheKey.toString()), maxEntries);
-            configuration.getLRUEvictionConfiguration().setLifespan(lifespan);
-
-            try {
-                contentCache = this.cacheManager.createNewLocalCache(configuration);
-            } catch (CacheException e) {
-                throw new MacroExecutionException("Failed to create content cache", e);
-            }
-
-            this.contentCacheMap.put(cacheKey, contentCache);
+        try {
+            return this.caches.getContentCache(lifespan, maxEntries);
+        } catch (CacheException e) {
+            throw new MacroExecutionException("Failed to create content cache", e);
         }
-
-        return contentCache;
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.cache;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.xwiki.component.descriptor.ComponentRole;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.rendering.async.AsyncContext;
+import org.xwiki.rendering.async.internal.DefaultAsyncContext.ContextUse;
+import org.xwiki.rendering.async.internal.DefaultAsyncContext.RightEntry;
+import org.xwiki.rendering.block.Block;
+
+/**
+ * The result of the execution of the cache macro content, with the elements it manipulated to produce it.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public class CachedContent
+{
+    private final List<Block> blocks;
+
+    private final ContextUse contextUse;
+
+    private final Set<EntityReference> references;
+
+    /**
+     * @param blocks the result of the execution of the content
+     * @param contextUse the elements manipulated during the execution of the content, null if unknown
+     */
+    public CachedContent(List<Block> blocks, ContextUse contextUse)
+    {
+        this.blocks = blocks;
+        this.contextUse = contextUse;
+
+        if (contextUse != null) {
+            this.references = new HashSet<>(contextUse.getReferences().size());
+            for (EntityReference reference : contextUse.getReferences()) {
+                this.references.add(toCacheReference(reference));
+            }
+        } else {
+            this.references = Collections.emptySet();
+        }
+    }
+
+    /**
+     * Modifications are notified on the document, whatever its locale.
+     */
+    private static EntityReference toCacheReference(EntityReference reference)
+    {
+        if (reference.getType() == EntityType.DOCUMENT) {
+            return new DocumentReference(reference, (Locale) null);
+        }
+
+        return reference;
+    }
+
+    /**
+     * @return the result of the execution of the content
+     */
+    public List<Block> getBlocks()
+    {
+        return this.blocks;
+    }
+
+    /**
+     * @return the entities manipulated during the execution of the content
+     */
+    public Set<EntityReference> getReferences()
+    {
+        return this.references;
+    }
+
+    /**
+     * @return the types of the components manipulated during the execution of the content
+     */
+    public Set<Type> getRoleTypes()
+    {
+        return this.contextUse != null ? this.contextUse.getRoleTypes() : Collections.emptySet();
+    }
+
+    /**
+     * @return the components manipulated during the execution of the content
+     */
+    public Set<ComponentRole<?>> getRoles()
+    {
+        return this.contextUse != null ? this.contextUse.getRoles() : Collections.emptySet();
+    }
+
+    /**
+     * Indicate to the current execution that it manipulated the same elements as the cached content (so that an
+     * enclosing cache knows when to invalidate its own result).
+     *
+     * @param asyncContext the context where to register the elements
+     */
+    public void use(AsyncContext asyncContext)
+    {
+        if (this.contextUse != null) {
+            this.contextUse.getReferences().forEach(asyncContext::useEntity);
+            this.contextUse.getRoleTypes().forEach(asyncContext::useComponent);
+            for (ComponentRole<?> role : this.contextUse.getRoles()) {
+                asyncContext.useComponent(role.getRoleType(), role.getRoleHint());
+            }
+            for (RightEntry right : this.contextUse.getRights()) {
+                asyncContext.useRight(right.getRight(), right.getUserReference(), right.getEntityReference(),
+                    right.isAllowed());
+            }
+            for (Map.Entry<String, Collection<Object>> entry : this.contextUse.getUses().entrySet()) {
+                for (Object value : entry.getValue()) {
+                    asyncContext.use(entry.getKey(), value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.cache;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheEntry;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+import org.xwiki.component.descriptor.ComponentRole;
+import org.xwiki.component.descriptor.DefaultComponentRole;
+import org.xwiki.model.reference.EntityReference;
+
+/**
+ * A cache of executed cache macro contents which remembers the elements each entry depends on, to be able to remove
+ * the entries impacted by a modification.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public class ContentCache implements CacheEntryListener<CachedContent>
+{
+    private final Cache<CachedContent> cache;
+
+    private final Map<EntityReference, Set<String>> referenceMapping = new ConcurrentHashMap<>();
+
+    private final Map<Type, Set<String>> roleTypeMapping = new ConcurrentHashMap<>();
+
+    private final Map<ComponentRole<?>, Set<String>> roleMapping = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented each time some entries are invalidated, to avoid storing a content produced before the invalidation.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param cache the actual cache
+     */
+    public ContentCache(Cache<CachedContent> cache)
+    {
+        this.cache = cache;
+
+        this.cache.addCacheEntryListener(this);
+    }
+
+    /**
+     * @return the current generation of the cache, to pass to {@link #set(String, CachedContent, long)}
+     */
+    public long getGeneration()
+    {
+        return this.generation.get();
+    }
+
+    /**
+     * @param key the key of the content
+     * @return the cached content or null if none could be found
+     */
+    public CachedContent get(String key)
+    {
+        return this.cache.get(key);
+    }
+
+    /**
+     * @param key the key of the content
+     * @param content the content to cache
+     * @param contentGeneration the generation of the cache when the execution of the content started
+     * @return true if the content was stored, false if some entries were invalidated since the execution of the content
+     *         started (the content might have been produced from outdated data)
+     */
+    public boolean set(String key, CachedContent content, long contentGeneration)
+    {
+        add(key, content.getReferences(), this.referenceMapping);
+        add(key, content.getRoleTypes(), this.roleTypeMapping);
+        add(key, content.getRoles(), this.roleMapping);
+
+        this.cache.set(key, content);
+
+        // Make sure we did not miss a modification which happened during the execution
+        if (contentGeneration != this.generation.get()) {
+            this.cache.remove(key);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private <T> void add(String key, Set<T> values, Map<T, Set<String>> mapping)
+    {
+        for (T value : values) {
+            mapping.computeIfAbsent(value, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private <T> void remove(String key, Set<T> values, Map<T, Set<String>> mapping)
+    {
+        for (T value : values) {
+            Set<String> keys = mapping.get(value);
+
+            if (keys != null) {
+                keys.remove(key);
+
+                if (keys.isEmpty()) {
+                    mapping.remove(value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void cacheEntryAdded(CacheEntryEvent<CachedContent> event)
+    {
+        // The mapping is updated when the entry is set
+    }
+
+    @Override
+    public void cacheEntryRemoved(CacheEntryEvent<CachedContent> event)
+    {
+        CacheEntry<CachedContent> entry = event.getEntry();
+        CachedContent content = entry.getValue();
+        String key = entry.getKey();
+
+        if (content != null) {
+            remove(key, content.getReferences(), this.referenceMapping);
+            remove(key, content.getRoleTypes(), this.roleTypeMapping);
+            remove(key, content.getRoles(), this.roleMapping);
+        }
+    }
+
+    @Override
+    public void cacheEntryModified(CacheEntryEvent<CachedContent> event)
+    {
+        // The mapping is updated when the entry is set
+    }
+
+    /**
+     * @param reference the reference of the modified entity
+     */
+    public void cleanCache(EntityReference reference)
+    {
+        this.generation.incrementAndGet();
+
+        for (EntityReference current = reference; current != null; current = current.getParent()) {
+            // Also clean entries associated to one of the reference parents
+            clean(this.referenceMapping.remove(current));
+        }
+    }
+
+    /**
+     * @param wiki the deleted wiki
+     */
+    public void cleanCache(String wiki)
+    {
+        this.generation.incrementAndGet();
+
+        for (EntityReference reference : this.referenceMapping.keySet()) {
+            if (reference.getRoot().getName().equals(wiki)) {
+                clean(this.referenceMapping.remove(reference));
+            }
+        }
+    }
+
+    /**
+     * @param roleType the type of the registered or unregistered component
+     * @param roleHint the hint of the registered or unregistered component
+     */
+    public void cleanCache(Type roleType, String roleHint)
+    {
+        this.generation.incrementAndGet();
+
+        clean(this.roleTypeMapping.remove(roleType));
+        clean(this.roleMapping.remove(new DefaultComponentRole<>(roleType, roleHint)));
+    }
+
+    private void clean(Set<String> keys)
+    {
+        if (keys != null) {
+            for (String key : keys) {
+                this.cache.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Release the resources used by the cache.
+     */
+    public void dispose()
+    {
+        this.cache.dispose();
+    }
+}
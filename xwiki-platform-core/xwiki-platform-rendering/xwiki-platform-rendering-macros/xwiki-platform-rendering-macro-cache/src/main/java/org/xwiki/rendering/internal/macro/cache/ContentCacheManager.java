@@ -0,0 +1,119 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.cache;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.model.reference.EntityReference;
+
+/**
+ * Manage the caches used by the cache macro and remove the entries impacted by a modification.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = ContentCacheManager.class)
+@Singleton
+public class ContentCacheManager implements Disposable
+{
+    /**
+     * Used to create the macro content cache.
+     */
+    @Inject
+    private CacheManager cacheManager;
+
+    /**
+     * Map of all caches. There's one cache per timeToLive/maxEntry combination since currently we cannot set these
+     * configuration values at the cache entry level but only for the whole cache.
+     */
+    private final Map<CacheKey, ContentCache> contentCacheMap = new ConcurrentHashMap<>();
+
+    /**
+     * Get a cache matching the passed time to live and max entries.
+     *
+     * @param lifespan the number of seconds to cache the content
+     * @param maxEntries the maximum number of entries in the cache (Least Recently Used entries are ejected)
+     * @return the matching cache (a new cache is created if no existing one is found)
+     * @throws CacheException in case we fail to create the new cache
+     */
+    public ContentCache getContentCache(int lifespan, int maxEntries) throws CacheException
+    {
+        CacheKey cacheKey = new CacheKey(lifespan, maxEntries);
+        ContentCache contentCache = this.contentCacheMap.get(cacheKey);
+        if (contentCache == null) {
+            synchronized (this.contentCacheMap) {
+                contentCache = this.contentCacheMap.get(cacheKey);
+                if (contentCache == null) {
+                    LRUCacheConfiguration configuration =
+                        new LRUCacheConfiguration(String.format("cacheMacro.%s", cacheKey.toString()), maxEntries);
+                    configuration.getLRUEvictionConfiguration().setLifespan(lifespan);
+
+                    contentCache = new ContentCache(this.cacheManager.createNewLocalCache(configuration));
+
+                    this.contentCacheMap.put(cacheKey, contentCache);
+                }
+            }
+        }
+
+        return contentCache;
+    }
+
+    /**
+     * @param reference the reference of the modified entity
+     */
+    public void cleanCache(EntityReference reference)
+    {
+        this.contentCacheMap.values().forEach(cache -> cache.cleanCache(reference));
+    }
+
+    /**
+     * @param wiki the deleted wiki
+     */
+    public void cleanCache(String wiki)
+    {
+        this.contentCacheMap.values().forEach(cache -> cache.cleanCache(wiki));
+    }
+
+    /**
+     * @param roleType the type of the registered or unregistered component
+     * @param roleHint the hint of the registered or unregistered component
+     */
+    public void cleanCache(Type roleType, String roleHint)
+    {
+        this.contentCacheMap.values().forEach(cache -> cache.cleanCache(roleType, roleHint));
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.contentCacheMap.values().forEach(ContentCache::dispose);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.async.internal.DefaultAsyncContext.ContextUse;
+import org.xwiki.rendering.macro.Macro;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ContentCache}.
+ *
+ * @version $Id$
+ */
+class ContentCacheTest
+{
+    private static final DocumentReference DOCUMENT = new DocumentReference("wiki", "Space", "Page");
+
+    private ContentCache contentCache;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        Map<String, CachedContent> entries = new HashMap<>();
+        Cache<CachedContent> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> entries.get(invocation.getArgument(0)));
+        doAnswer(invocation -> entries.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(anyString(), any());
+        doAnswer(invocation -> entries.remove(invocation.getArgument(0))).when(cache).remove(anyString());
+
+        this.contentCache = new ContentCache(cache);
+    }
+
+    private CachedContent set(String key, ContextUse contextUse)
+    {
+        CachedContent content = new CachedContent(Collections.emptyList(), contextUse);
+
+        assertTrue(this.contentCache.set(key, content, this.contentCache.getGeneration()));
+
+        return content;
+    }
+
+    @Test
+    void cleanCacheWithDocument()
+    {
+        ContextUse contextUse = new ContextUse();
+        contextUse.getReferences().add(new DocumentReference(DOCUMENT, Locale.FRENCH));
+        set("key", contextUse);
+        set("other", new ContextUse());
+
+        this.contentCache.cleanCache(new DocumentReference("wiki", "Space", "Other"));
+
+        assertNotNull(this.contentCache.get("key"));
+
+        // Any locale of the document
+        this.contentCache.cleanCache(DOCUMENT);
+
+        assertNull(this.contentCache.get("key"));
+        assertNotNull(this.contentCache.get("other"));
+    }
+
+    @Test
+    void cleanCacheWithParent()
+    {
+        ContextUse contextUse = new ContextUse();
+        contextUse.getReferences().add(DOCUMENT.getLastSpaceReference());
+        set("key", contextUse);
+
+        this.contentCache.cleanCache(new DocumentReference("Page2", DOCUMENT.getLastSpaceReference()));
+
+        assertNull(this.contentCache.get("key"));
+    }
+
+    @Test
+    void cleanCacheWithWiki()
+    {
+        ContextUse contextUse = new ContextUse();
+        contextUse.getReferences().add(DOCUMENT);
+        set("key", contextUse);
+
+        this.contentCache.cleanCache("otherwiki");
+
+        assertNotNull(this.contentCache.get("key"));
+
+        this.contentCache.cleanCache("wiki");
+
+        assertNull(this.contentCache.get("key"));
+    }
+
+    @Test
+    void cleanCacheWithComponent()
+    {
+        ContextUse contextUse = new ContextUse();
+        contextUse.getRoleTypes().add(Macro.class);
+        set("key", contextUse);
+
+        this.contentCache.cleanCache(Macro.class, "macro");
+
+        assertNull(this.contentCache.get("key"));
+    }
+
+    @Test
+    void setWhenModifiedDuringExecution()
+    {
+        ContextUse contextUse = new ContextUse();
+        contextUse.getReferences().add(DOCUMENT);
+
+        long generation = this.contentCache.getGeneration();
+
+        this.contentCache.cleanCache(DOCUMENT);
+
+        assertFalse(
+            this.contentCache.set("key", new CachedContent(Collections.emptyList(), contextUse), generation));
+        assertNull(this.contentCache.get("key"));
+    }
+}
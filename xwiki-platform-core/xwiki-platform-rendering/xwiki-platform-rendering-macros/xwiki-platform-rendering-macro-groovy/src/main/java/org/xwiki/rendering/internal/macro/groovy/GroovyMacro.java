@@ -22,8 +22,13 @@
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
 
+import org.codehaus.groovy.jsr223.GroovyCompiledScript;
+import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.rendering.macro.descriptor.DefaultContentDescriptor;
@@ -58,6 +63,12 @@ public class GroovyMacro extends AbstractJSR223ScriptMacro<JSR223ScriptMacroPara
     @Named("groovy")
     private ScriptEngineFactory groovyScriptEngineFactory;
 
+    /**
+     * Used to not compile the same script again on each execution.
+     */
+    @Inject
+    private GroovyScriptClassCache scriptClassCache;
+
     /**
      * Create and initialize the descriptor of the macro.
      */
@@ -75,4 +86,21 @@ public void initialize() throws InitializationException
         // the default Groovy Script Engine Factory and registers Compilation Customizers.
         this.scriptEngineManager.registerEngineName("groovy", this.groovyScriptEngineFactory);
     }
+
+    @Override
+    protected Object eval(String content, ScriptEngine engine, ScriptContext scriptContext) throws ScriptException
+    {
+        if (engine instanceof GroovyScriptEngineImpl) {
+            GroovyScriptEngineImpl groovyEngine = (GroovyScriptEngineImpl) engine;
+
+            Class<?> scriptClass = this.scriptClassCache.getScriptClass(content, groovyEngine.getClassLoader());
+            if (scriptClass != null) {
+                // Executed through the engine of the current execution so that the methods defined by the script are
+                // visible to the next scripts of this execution only
+                return new GroovyCompiledScript(groovyEngine, scriptClass).eval(scriptContext);
+            }
+        }
+
+        return super.eval(content, engine, scriptContext);
+    }
 }
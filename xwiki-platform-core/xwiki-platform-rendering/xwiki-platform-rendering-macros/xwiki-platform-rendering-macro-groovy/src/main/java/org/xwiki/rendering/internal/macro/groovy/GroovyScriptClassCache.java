@@ -0,0 +1,453 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.groovy;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.slf4j.Logger;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.groovy.GroovyConfiguration;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.internal.macro.groovy.jmx.JMXGroovyScriptClassCache;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+
+/**
+ * Bounded cache of the classes compiled from the content of the Groovy macros. The Groovy engine is dedicated to the
+ * current execution so without this cache a new class is compiled (and loaded in a new class loader) each time a
+ * macro is executed.
+ * <p>
+ * The compiled class depends on the script, its author, whether this author has programming right (the secure
+ * compilation customizer is only applied without programming right) and the class loader of the current namespace
+ * (the classes available to the script depend on the wiki and on the installed extensions). Each entry is compiled in
+ * its own class loader so that the class can be unloaded as soon as the entry is evicted. The namespace class loaders
+ * are only weakly referenced so that the cache doesn't keep the class loader of an uninstalled extension.
+ * <p>
+ * Only scripts which don't depend on the current execution are shared: scripts defining classes (which have to be
+ * visible to the next scripts of the execution), scripts declaring static fields (which would be shared by all the
+ * executions), scripts using classes defined by a previous script and scripts executed with additional jars are left
+ * to the engine.
+ * <p>
+ * The number of compilations avoided and performed are exposed through JMX.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = GroovyScriptClassCache.class)
+@Singleton
+public class GroovyScriptClassCache implements Initializable, Disposable
+{
+    /**
+     * The maximum number of compiled scripts kept in the cache.
+     */
+    public static final int DEFAULT_CAPACITY = 200;
+
+    /**
+     * The content bigger than this (in characters) is not cached to not keep huge scripts in memory.
+     */
+    public static final int MAX_CONTENT_LENGTH = 100000;
+
+    /**
+     * Marker of the scripts which cannot be shared, to not try to compile them again.
+     */
+    private static final Class<?> NOT_SHAREABLE = Void.class;
+
+    private static final String CODE_BASE = "/groovy/script";
+
+    private static final String MBEAN_NAME = "name=groovyScriptClassCache";
+
+    @Inject
+    private GroovyConfiguration configuration;
+
+    @Inject
+    private DocumentAccessBridge documentAccessBridge;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<ScriptKey, Class<?>> cache = new LinkedHashMap<ScriptKey, Class<?>>(16, 0.75F, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ScriptKey, Class<?>> eldest)
+        {
+            if (size() > DEFAULT_CAPACITY) {
+                unload(eldest.getValue());
+
+                return true;
+            }
+
+            return false;
+        }
+    };
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private static final class ScriptKey
+    {
+        private final String content;
+
+        private final DocumentReference author;
+
+        private final boolean programming;
+
+        private final WeakReference<ClassLoader> namespaceClassLoader;
+
+        private final int hashCode;
+
+        ScriptKey(String content, DocumentReference author, boolean programming, ClassLoader namespaceClassLoader)
+        {
+            this.content = content;
+            this.author = author;
+            this.programming = programming;
+            this.namespaceClassLoader = new WeakReference<>(namespaceClassLoader);
+            this.hashCode =
+                Objects.hash(content, author, programming, System.identityHashCode(namespaceClassLoader));
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+
+            if (obj instanceof ScriptKey) {
+                ScriptKey other = (ScriptKey) obj;
+
+                return this.programming == other.programming && Objects.equals(this.author, other.author)
+                    && this.namespaceClassLoader.get() == other.namespaceClassLoader.get()
+                    && this.content.equals(other.content);
+            }
+
+            return false;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+    }
+
+    /**
+     * Parent of the class loader of a compiled script, resolving the classes through the class loader of the namespace
+     * in which the script was compiled. The classes which are only available to the current execution (i.e. defined by
+     * previous scripts) are resolved through the engine class loader during the compilation, to find out if the
+     * script uses them.
+     */
+    private static final class ScriptParentClassLoader extends ClassLoader
+    {
+        /**
+         * Weak since the namespace class loader is kept alive by the executions using the compiled script (it's part
+         * of the key used to find the script).
+         */
+        private final WeakReference<ClassLoader> namespaceClassLoader;
+
+        private final ThreadLocal<ClassLoader> compilationClassLoader = new ThreadLocal<>();
+
+        private boolean executionClassUsed;
+
+        ScriptParentClassLoader(ClassLoader namespaceClassLoader)
+        {
+            super(null);
+
+            this.namespaceClassLoader = new WeakReference<>(namespaceClassLoader);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+        {
+            ClassLoader namespace = this.namespaceClassLoader.get();
+            if (namespace == null) {
+                throw new ClassNotFoundException(name);
+            }
+
+            try {
+                return namespace.loadClass(name);
+            } catch (ClassNotFoundException e) {
+                ClassLoader engineClassLoader = this.compilationClassLoader.get();
+                if (engineClassLoader == null) {
+                    throw e;
+                }
+
+                Class<?> loadedClass = engineClassLoader.loadClass(name);
+                this.executionClassUsed = true;
+
+                return loadedClass;
+            }
+        }
+
+        @Override
+        public URL getResource(String name)
+        {
+            ClassLoader namespace = this.namespaceClassLoader.get();
+
+            return namespace != null ? namespace.getResource(name) : null;
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException
+        {
+            ClassLoader namespace = this.namespaceClassLoader.get();
+
+            return namespace != null ? namespace.getResources(name) : Collections.emptyEnumeration();
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        this.jmxRegistration.registerMBean(
+            new JMXGroovyScriptClassCache(this::getHits, this::getMisses, this::getSize, this::clear), MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+
+        clear();
+    }
+
+    /**
+     * @param content the script to execute
+     * @param engineClassLoader the class loader of the engine of the current execution
+     * @return the compiled script or {@code null} if the script should be executed by the engine
+     */
+    public Class<?> getScriptClass(String content, ClassLoader engineClassLoader)
+    {
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            return null;
+        }
+
+        ClassLoader sharedClassLoader = getSharedClassLoader();
+        if (sharedClassLoader == null) {
+            return null;
+        }
+
+        ScriptKey key = new ScriptKey(content, this.documentAccessBridge.getCurrentAuthorReference(),
+            this.authorization.hasAccess(Right.PROGRAM), sharedClassLoader);
+
+        Class<?> scriptClass;
+        synchronized (this.cache) {
+            scriptClass = this.cache.get(key);
+        }
+
+        if (scriptClass == null) {
+            this.misses.incrementAndGet();
+
+            scriptClass = compile(content, engineClassLoader, sharedClassLoader);
+
+            Class<?> previousClass;
+            synchronized (this.cache) {
+                previousClass = this.cache.put(key, scriptClass);
+            }
+            // The same script was compiled concurrently
+            if (previousClass != null && previousClass != scriptClass) {
+                unload(previousClass);
+            }
+        } else if (scriptClass != NOT_SHAREABLE) {
+            this.hits.incrementAndGet();
+        }
+
+        return scriptClass != NOT_SHAREABLE ? scriptClass : null;
+    }
+
+    private ClassLoader getSharedClassLoader()
+    {
+        // The script macros are executed with a class loader dedicated to the current execution, which contains the
+        // jars passed to the macros. It's only equivalent to its parent when no jar was passed.
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        if (contextClassLoader instanceof URLClassLoader
+            && ((URLClassLoader) contextClassLoader).getURLs().length == 0) {
+            return contextClassLoader.getParent();
+        }
+
+        return null;
+    }
+
+    private Class<?> compile(String content, ClassLoader engineClassLoader, ClassLoader sharedClassLoader)
+    {
+        CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
+        compilerConfiguration.addCompilationCustomizers(
+            this.configuration.getCompilationCustomizers().toArray(new CompilationCustomizer[0]));
+
+        ScriptParentClassLoader parent = new ScriptParentClassLoader(sharedClassLoader);
+        GroovyClassLoader classLoader = new GroovyClassLoader(parent, compilerConfiguration);
+
+        Class<?> scriptClass;
+        // The class loader of the current execution is only used (and referenced) while compiling
+        parent.compilationClassLoader.set(engineClassLoader);
+        try {
+            String name = "SharedScript" + this.counter.incrementAndGet() + ".groovy";
+            scriptClass = classLoader.parseClass(new GroovyCodeSource(content, name, CODE_BASE));
+        } catch (CompilationFailedException e) {
+            // Let the engine report the error
+            this.logger.debug("Failed to compile the Groovy script: {}", ExceptionUtils.getRootCauseMessage(e));
+
+            return NOT_SHAREABLE;
+        } finally {
+            parent.compilationClassLoader.remove();
+        }
+
+        if (parent.executionClassUsed || !isSelfContained(scriptClass, classLoader)) {
+            unload(scriptClass);
+
+            return NOT_SHAREABLE;
+        }
+
+        return scriptClass;
+    }
+
+    private boolean isSelfContained(Class<?> scriptClass, GroovyClassLoader classLoader)
+    {
+        // The classes defined in the script must be loaded by the engine to be usable by the next scripts
+        if (!Script.class.isAssignableFrom(scriptClass)) {
+            return false;
+        }
+
+        String innerClassPrefix = scriptClass.getName() + '$';
+        for (Class<?> loadedClass : classLoader.getLoadedClasses()) {
+            if (loadedClass != scriptClass && !loadedClass.getName().startsWith(innerClassPrefix)) {
+                return false;
+            }
+
+            // The static state (@Field static, static @Memoized, etc.) would be shared by all the executions
+            if (hasStaticField(loadedClass)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean hasStaticField(Class<?> loadedClass)
+    {
+        for (Field field : loadedClass.getDeclaredFields()) {
+            // Ignore the fields generated by Groovy to cache the call sites and meta classes
+            String name = field.getName();
+            if (Modifier.isStatic(field.getModifiers()) && !name.startsWith("$") && !name.startsWith("__")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove the classes of a compiled script from the Groovy registries, which would otherwise keep them alive.
+     *
+     * @param scriptClass the class of the compiled script
+     */
+    private void unload(Class<?> scriptClass)
+    {
+        if (scriptClass != NOT_SHAREABLE) {
+            ClassLoader classLoader = scriptClass.getClassLoader();
+            if (classLoader instanceof GroovyClassLoader) {
+                // Including the closures of the script
+                for (Class<?> loadedClass : ((GroovyClassLoader) classLoader).getLoadedClasses()) {
+                    InvokerHelper.removeClass(loadedClass);
+                }
+            }
+            InvokerHelper.removeClass(scriptClass);
+        }
+    }
+
+    /**
+     * @return the number of compilations avoided thanks to the cache
+     */
+    public long getHits()
+    {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of scripts which had to be compiled
+     */
+    public long getMisses()
+    {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of entries in the cache
+     */
+    public int getSize()
+    {
+        synchronized (this.cache) {
+            return this.cache.size();
+        }
+    }
+
+    /**
+     * Remove all the entries from the cache, which allows the corresponding classes to be unloaded.
+     */
+    public void clear()
+    {
+        List<Class<?>> scriptClasses;
+        synchronized (this.cache) {
+            scriptClasses = new ArrayList<>(this.cache.values());
+            this.cache.clear();
+        }
+
+        scriptClasses.forEach(this::unload);
+    }
+}
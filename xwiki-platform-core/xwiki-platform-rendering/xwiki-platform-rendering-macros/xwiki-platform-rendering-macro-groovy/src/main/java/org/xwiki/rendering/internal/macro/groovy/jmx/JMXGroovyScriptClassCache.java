@@ -0,0 +1,76 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.groovy.jmx;
+
+import java.util.function.Supplier;
+
+/**
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public class JMXGroovyScriptClassCache implements JMXGroovyScriptClassCacheMBean
+{
+    private final Supplier<Long> hits;
+
+    private final Supplier<Long> misses;
+
+    private final Supplier<Integer> size;
+
+    private final Runnable clear;
+
+    /**
+     * @param hits the number of compilations avoided thanks to the cache
+     * @param misses the number of scripts which had to be compiled
+     * @param size the number of scripts in the cache
+     * @param clear the method to call to clear the cache
+     */
+    public JMXGroovyScriptClassCache(Supplier<Long> hits, Supplier<Long> misses, Supplier<Integer> size,
+        Runnable clear)
+    {
+        this.hits = hits;
+        this.misses = misses;
+        this.size = size;
+        this.clear = clear;
+    }
+
+    @Override
+    public long getHits()
+    {
+        return this.hits.get();
+    }
+
+    @Override
+    public long getMisses()
+    {
+        return this.misses.get();
+    }
+
+    @Override
+    public int getSize()
+    {
+        return this.size.get();
+    }
+
+    @Override
+    public void clear()
+    {
+        this.clear.run();
+    }
+}
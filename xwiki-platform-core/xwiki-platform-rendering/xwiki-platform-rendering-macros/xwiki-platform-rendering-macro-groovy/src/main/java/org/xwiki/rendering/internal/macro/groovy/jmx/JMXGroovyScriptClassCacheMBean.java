@@ -0,0 +1,49 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.groovy.jmx;
+
+/**
+ * Statistics of the cache of the classes compiled from the content of the Groovy macros.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public interface JMXGroovyScriptClassCacheMBean
+{
+    /**
+     * @return the number of compilations avoided thanks to the cache
+     */
+    long getHits();
+
+    /**
+     * @return the number of scripts which had to be compiled
+     */
+    long getMisses();
+
+    /**
+     * @return the number of scripts in the cache
+     */
+    int getSize();
+
+    /**
+     * Remove all the scripts from the cache.
+     */
+    void clear();
+}
@@ -0,0 +1,215 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.groovy;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.groovy.GroovyConfiguration;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.internal.macro.groovy.jmx.JMXGroovyScriptClassCacheMBean;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import groovy.lang.GroovyClassLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link GroovyScriptClassCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class GroovyScriptClassCacheTest
+{
+    private static final String SCRIPT = "println 'hello'";
+
+    @InjectMockComponents
+    private GroovyScriptClassCache cache;
+
+    @MockComponent
+    private GroovyConfiguration configuration;
+
+    @MockComponent
+    private DocumentAccessBridge documentAccessBridge;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorization;
+
+    @MockComponent
+    private JMXBeanRegistration jmxRegistration;
+
+    private ClassLoader originalClassLoader;
+
+    private GroovyClassLoader engineClassLoader;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.configuration.getCompilationCustomizers()).thenReturn(Collections.emptyList());
+        when(this.documentAccessBridge.getCurrentAuthorReference())
+            .thenReturn(new DocumentReference("wiki", "XWiki", "Author"));
+
+        this.originalClassLoader = Thread.currentThread().getContextClassLoader();
+        URLClassLoader executionClassLoader = new URLClassLoader(new URL[0], this.originalClassLoader);
+        Thread.currentThread().setContextClassLoader(executionClassLoader);
+
+        this.engineClassLoader = new GroovyClassLoader(executionClassLoader);
+    }
+
+    @AfterEach
+    void afterEach()
+    {
+        Thread.currentThread().setContextClassLoader(this.originalClassLoader);
+    }
+
+    @Test
+    void getScriptClassTwice()
+    {
+        Class<?> scriptClass = this.cache.getScriptClass(SCRIPT, this.engineClassLoader);
+
+        assertNotNull(scriptClass);
+        assertSame(scriptClass, this.cache.getScriptClass(SCRIPT, new GroovyClassLoader(this.originalClassLoader)));
+        assertEquals(1, this.cache.getHits());
+        assertEquals(1, this.cache.getMisses());
+    }
+
+    @Test
+    void getScriptClassWithDifferentRights()
+    {
+        Class<?> scriptClass = this.cache.getScriptClass(SCRIPT, this.engineClassLoader);
+
+        when(this.authorization.hasAccess(Right.PROGRAM)).thenReturn(true);
+
+        assertNotSame(scriptClass, this.cache.getScriptClass(SCRIPT, this.engineClassLoader));
+
+        when(this.documentAccessBridge.getCurrentAuthorReference())
+            .thenReturn(new DocumentReference("wiki", "XWiki", "OtherAuthor"));
+
+        assertNotSame(scriptClass, this.cache.getScriptClass(SCRIPT, this.engineClassLoader));
+        assertEquals(0, this.cache.getHits());
+        assertEquals(3, this.cache.getMisses());
+    }
+
+    @Test
+    void getScriptClassWithOtherNamespace()
+    {
+        Class<?> scriptClass = this.cache.getScriptClass(SCRIPT, this.engineClassLoader);
+
+        // The class loader of another wiki
+        ClassLoader namespaceClassLoader = new URLClassLoader(new URL[0], this.originalClassLoader);
+        URLClassLoader executionClassLoader = new URLClassLoader(new URL[0], namespaceClassLoader);
+        Thread.currentThread().setContextClassLoader(executionClassLoader);
+
+        Class<?> otherScriptClass = this.cache.getScriptClass(SCRIPT, new GroovyClassLoader(executionClassLoader));
+
+        assertNotSame(scriptClass, otherScriptClass);
+        assertEquals(0, this.cache.getHits());
+        assertEquals(2, this.cache.getMisses());
+    }
+
+    @Test
+    void getScriptClassWhenDefiningClasses()
+    {
+        assertNull(this.cache.getScriptClass("class MyClass {}", this.engineClassLoader));
+        assertNull(this.cache.getScriptClass("class MyClass {}\nprintln 'hello'", this.engineClassLoader));
+    }
+
+    @Test
+    void getScriptClassWhenUsingClassesOfTheExecution()
+    {
+        this.engineClassLoader.parseClass("class MyClass {}");
+
+        assertNull(this.cache.getScriptClass("def var = new MyClass()", this.engineClassLoader));
+    }
+
+    @Test
+    void getScriptClassWithJars() throws Exception
+    {
+        Thread.currentThread().setContextClassLoader(
+            new URLClassLoader(new URL[] { new URL("file:/dummy.jar") }, this.originalClassLoader));
+
+        assertNull(this.cache.getScriptClass(SCRIPT, this.engineClassLoader));
+    }
+
+    @Test
+    void getScriptClassWithClosures()
+    {
+        Class<?> scriptClass = this.cache.getScriptClass("[1, 2].each { println it }", this.engineClassLoader);
+
+        assertNotNull(scriptClass);
+        assertSame(scriptClass, this.cache.getScriptClass("[1, 2].each { println it }", this.engineClassLoader));
+    }
+
+    @Test
+    void getScriptClassWithStaticFields()
+    {
+        assertNull(this.cache.getScriptClass("import groovy.transform.Field\n@Field static int count = 0\ncount++",
+            this.engineClassLoader));
+        assertNull(this.cache.getScriptClass(
+            "@groovy.transform.Memoized\nstatic int square(int i) { i * i }\nsquare(2)", this.engineClassLoader));
+
+        // Instance fields are local to the execution
+        assertNotNull(this.cache.getScriptClass("import groovy.transform.Field\n@Field int count = 0\ncount++",
+            this.engineClassLoader));
+    }
+
+    @Test
+    void jmx()
+    {
+        ArgumentCaptor<JMXGroovyScriptClassCacheMBean> captor =
+            ArgumentCaptor.forClass(JMXGroovyScriptClassCacheMBean.class);
+        verify(this.jmxRegistration).registerMBean(captor.capture(), eq("name=groovyScriptClassCache"));
+        JMXGroovyScriptClassCacheMBean mbean = captor.getValue();
+
+        this.cache.getScriptClass(SCRIPT, this.engineClassLoader);
+        this.cache.getScriptClass(SCRIPT, this.engineClassLoader);
+
+        assertEquals(1, mbean.getHits());
+        assertEquals(1, mbean.getMisses());
+        assertEquals(1, mbean.getSize());
+
+        mbean.clear();
+
+        assertEquals(0, mbean.getSize());
+
+        this.cache.dispose();
+
+        verify(this.jmxRegistration).unregisterMBean("name=groovyScriptClassCache");
+    }
+}
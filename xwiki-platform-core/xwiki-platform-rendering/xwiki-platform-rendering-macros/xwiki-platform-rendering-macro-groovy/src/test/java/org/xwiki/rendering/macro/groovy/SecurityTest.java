@@ -49,6 +49,8 @@
  */
 public class SecurityTest extends AbstractComponentTestCase
 {
+    private DocumentAccessBridge documentAccessBridge;
+
     private ContextualAuthorizationManager cam;
 
     private ConfigurationSource configurationSource;
@@ -57,7 +59,7 @@ public class SecurityTest extends AbstractComponentTestCase
     public void setUpMocks() throws Exception
     {
         // Mock Model dependencies.
-        registerMockComponent(DocumentAccessBridge.class);
+        this.documentAccessBridge = registerMockComponent(DocumentAccessBridge.class);
 
         // Mock the authorization manager.
         this.cam = registerMockComponent(ContextualAuthorizationManager.class);
@@ -151,6 +153,9 @@ private void testExecution(final boolean hasCustomizer, final boolean isRestrict
         getMockery().checking(new Expectations()
         {
             {
+                allowing(documentAccessBridge).getCurrentAuthorReference();
+                will(returnValue(null));
+
                 // Programming Rights
                 allowing(cam).hasAccess(Right.PROGRAM);
                 will(returnValue(hasPR));
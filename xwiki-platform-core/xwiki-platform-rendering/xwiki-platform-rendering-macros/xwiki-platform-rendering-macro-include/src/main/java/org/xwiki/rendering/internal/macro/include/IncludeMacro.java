@@ -64,6 +64,9 @@ public class IncludeMacro extends AbstractIncludeMacro<IncludeMacroParameters>
     @Inject
     private BeanManager beans;
 
+    @Inject
+    private IncludedDocumentCache documentCache;
+
     /**
      * Default constructor.
      */
@@ -95,7 +98,7 @@ public List<Block> execute(IncludeMacroParameters parameters, String content, Ma
         // Step 2: Retrieve the included document.
         DocumentModelBridge documentBridge;
         try {
-            documentBridge = this.documentAccessBridge.getDocumentInstance(includedReference);
+            documentBridge = this.documentCache.getDocument(includedReference);
         } catch (Exception e) {
             throw new MacroExecutionException(
                 "Failed to load Document [" + this.defaultEntityReferenceSerializer.serialize(includedReference) + "]",
@@ -19,6 +19,8 @@
  */
 package org.xwiki.rendering.internal.macro.include;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -59,24 +61,32 @@ public class IncludeMacroRefactoring implements MacroRefactoring
     public Optional<MacroBlock> replaceReference(MacroBlock macroBlock, DocumentReference currentDocumentReference,
         DocumentReference sourceReference, DocumentReference targetReference, boolean relative)
         throws MacroRefactoringException
+    {
+        return replaceReferences(macroBlock, currentDocumentReference,
+            Collections.singletonMap(sourceReference, targetReference), relative);
+    }
+
+    @Override
+    public Optional<MacroBlock> replaceReferences(MacroBlock macroBlock, DocumentReference currentDocumentReference,
+        Map<DocumentReference, DocumentReference> updatedReferences, boolean relative)
+        throws MacroRefactoringException
     {
         String referenceParameter = macroBlock.getParameter(REFERENCE_MACRO_PARAMETER);
         String documentParameter = macroBlock.getParameter(DOCUMENT_MACRO_PARAMETER);
 
         String parameterName = null;
+        DocumentReference targetReference = null;
         if (!StringUtils.isEmpty(referenceParameter)) {
             DocumentReference reference = this.documentReferenceResolver.resolve(referenceParameter);
-            if (sourceReference.equals(reference)) {
-                parameterName = REFERENCE_MACRO_PARAMETER;
-            }
+            targetReference = updatedReferences.get(reference);
+            parameterName = REFERENCE_MACRO_PARAMETER;
         } else if (!StringUtils.isEmpty(documentParameter)) {
             DocumentReference reference = this.documentReferenceResolver.resolve(documentParameter);
-            if (sourceReference.equals(reference)) {
-                parameterName = DOCUMENT_MACRO_PARAMETER;
-            }
+            targetReference = updatedReferences.get(reference);
+            parameterName = DOCUMENT_MACRO_PARAMETER;
         }
 
-        if (parameterName != null) {
+        if (targetReference != null) {
             MacroBlock result = (MacroBlock) macroBlock.clone();
             String newReference =
                 this.stringEntityReferenceSerializer.serialize(targetReference, currentDocumentReference);
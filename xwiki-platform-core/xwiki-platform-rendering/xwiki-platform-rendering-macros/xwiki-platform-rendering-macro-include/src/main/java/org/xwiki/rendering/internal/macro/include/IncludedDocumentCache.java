@@ -0,0 +1,167 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.include;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.EntityReference;
+
+/**
+ * Remember, for the duration of the current request, the documents loaded by the include macro so that a page
+ * including the same sheet or snippet many times (for example from a loop) gets it only once.
+ * <p>
+ * The memo is stored in the execution context (and inherited by the isolated contexts created to display the included
+ * documents). A document is forgotten by the memos of all the current requests as soon as it's created, modified or
+ * deleted on this instance (see {@link IncludedDocumentCacheListener}) to never include an outdated version of a
+ * document saved during the request.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = IncludedDocumentCache.class)
+@Singleton
+public class IncludedDocumentCache
+{
+    private static final String PROPERTY = "rendering.macro.include.documents";
+
+    /**
+     * The documents loaded during the request.
+     *
+     * @version $Id$
+     */
+    private static final class Memo
+    {
+        private final Map<EntityReference, DocumentModelBridge> documents = new HashMap<>();
+
+        /**
+         * Incremented each time a document is modified, to not remember a document loaded before.
+         */
+        private long version;
+    }
+
+    @Inject
+    private DocumentAccessBridge documentAccessBridge;
+
+    @Inject
+    private Execution execution;
+
+    /**
+     * The memos of the current requests, forgotten with their execution context.
+     */
+    private final Set<Memo> memos = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * @param reference the reference of the document to include
+     * @return the document instance
+     * @throws Exception when failing to load the document
+     */
+    public DocumentModelBridge getDocument(EntityReference reference) throws Exception
+    {
+        Memo memo = getMemo();
+        if (memo == null) {
+            return this.documentAccessBridge.getDocumentInstance(reference);
+        }
+
+        long version;
+        synchronized (memo) {
+            DocumentModelBridge document = memo.documents.get(reference);
+            if (document != null) {
+                return document;
+            }
+
+            version = memo.version;
+        }
+
+        // Don't block the other threads of the request while the document is loaded
+        DocumentModelBridge document = this.documentAccessBridge.getDocumentInstance(reference);
+
+        synchronized (memo) {
+            if (version == memo.version) {
+                memo.documents.putIfAbsent(reference, document);
+            }
+        }
+
+        return document;
+    }
+
+    private Memo getMemo()
+    {
+        ExecutionContext context = this.execution.getContext();
+        if (context == null) {
+            return null;
+        }
+
+        Memo memo = (Memo) context.getProperty(PROPERTY);
+        if (memo == null) {
+            memo = new Memo();
+            context.newProperty(PROPERTY).inherited().initial(memo).declare();
+
+            synchronized (this.memos) {
+                this.memos.add(memo);
+            }
+        }
+
+        return memo;
+    }
+
+    /**
+     * Forget the passed document in the memos of the current requests.
+     *
+     * @param documentReference the reference of the document which has been modified
+     */
+    public void invalidate(EntityReference documentReference)
+    {
+        Memo[] currentMemos;
+        synchronized (this.memos) {
+            currentMemos = this.memos.toArray(new Memo[0]);
+        }
+
+        for (Memo memo : currentMemos) {
+            synchronized (memo) {
+                // Whatever the locale of the included document
+                memo.documents.keySet().removeIf(reference -> isSameDocument(reference, documentReference));
+                // The document might be being loaded
+                memo.version++;
+            }
+        }
+    }
+
+    private boolean isSameDocument(EntityReference reference, EntityReference documentReference)
+    {
+        EntityReference document = reference.extractReference(EntityType.DOCUMENT);
+
+        return document != null && document.getName().equals(documentReference.getName())
+            && Objects.equals(document.getParent(), documentReference.getParent());
+    }
+}
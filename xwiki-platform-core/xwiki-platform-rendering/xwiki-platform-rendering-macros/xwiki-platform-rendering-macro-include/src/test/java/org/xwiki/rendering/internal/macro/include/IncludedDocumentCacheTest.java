@@ -0,0 +1,146 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.include;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link IncludedDocumentCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class IncludedDocumentCacheTest
+{
+    private static final DocumentReference REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private IncludedDocumentCache cache;
+
+    @MockComponent
+    private DocumentAccessBridge documentAccessBridge;
+
+    @MockComponent
+    private Execution execution;
+
+    private ExecutionContext context;
+
+    private DocumentModelBridge document;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.context = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(this.context);
+
+        this.document = mock(DocumentModelBridge.class);
+        when(this.documentAccessBridge.getDocumentInstance((EntityReference) REFERENCE)).thenReturn(this.document);
+    }
+
+    @Test
+    void getDocument() throws Exception
+    {
+        assertSame(this.document, this.cache.getDocument(REFERENCE));
+        assertSame(this.document, this.cache.getDocument(REFERENCE));
+
+        verify(this.documentAccessBridge, times(1)).getDocumentInstance((EntityReference) REFERENCE);
+
+        // Another request
+        this.context = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(this.context);
+
+        assertSame(this.document, this.cache.getDocument(REFERENCE));
+
+        verify(this.documentAccessBridge, times(2)).getDocumentInstance((EntityReference) REFERENCE);
+    }
+
+    @Test
+    void getDocumentAfterInvalidate() throws Exception
+    {
+        this.cache.getDocument(REFERENCE);
+
+        this.cache.invalidate(REFERENCE);
+
+        DocumentModelBridge newDocument = mock(DocumentModelBridge.class);
+        when(this.documentAccessBridge.getDocumentInstance((EntityReference) REFERENCE)).thenReturn(newDocument);
+
+        assertSame(newDocument, this.cache.getDocument(REFERENCE));
+        assertSame(newDocument, this.cache.getDocument(REFERENCE));
+
+        verify(this.documentAccessBridge, times(2)).getDocumentInstance((EntityReference) REFERENCE);
+    }
+
+    @Test
+    void getDocumentAfterInvalidateOtherDocument() throws Exception
+    {
+        this.cache.getDocument(REFERENCE);
+
+        this.cache.invalidate(new DocumentReference("wiki", "Space", "OtherPage"));
+
+        assertSame(this.document, this.cache.getDocument(REFERENCE));
+
+        verify(this.documentAccessBridge, times(1)).getDocumentInstance((EntityReference) REFERENCE);
+    }
+
+    @Test
+    void getDocumentWithLocaleAfterInvalidate() throws Exception
+    {
+        DocumentReference frenchReference = new DocumentReference(REFERENCE, Locale.FRENCH);
+        when(this.documentAccessBridge.getDocumentInstance((EntityReference) frenchReference))
+            .thenReturn(this.document);
+
+        this.cache.getDocument(frenchReference);
+
+        this.cache.invalidate(REFERENCE);
+
+        this.cache.getDocument(frenchReference);
+
+        verify(this.documentAccessBridge, times(2)).getDocumentInstance((EntityReference) frenchReference);
+    }
+
+    @Test
+    void getDocumentWithoutContext() throws Exception
+    {
+        when(this.execution.getContext()).thenReturn(null);
+
+        this.cache.getDocument(REFERENCE);
+        this.cache.getDocument(REFERENCE);
+
+        verify(this.documentAccessBridge, times(2)).getDocumentInstance((EntityReference) REFERENCE);
+    }
+}
@@ -62,6 +62,7 @@ public ScriptMockSetup(Mockery mockery, MockingComponentManager cm) throws Excep
         this.bridge = cm.registerMockComponent(mockery, DocumentAccessBridge.class);
         mockery.checking(new Expectations() {{
             allowing(bridge).hasProgrammingRights(); will(returnValue(true));
+            allowing(bridge).getCurrentAuthorReference(); will(returnValue(null));
         }});
 
         // Contextual Authorization Manager Mock setup
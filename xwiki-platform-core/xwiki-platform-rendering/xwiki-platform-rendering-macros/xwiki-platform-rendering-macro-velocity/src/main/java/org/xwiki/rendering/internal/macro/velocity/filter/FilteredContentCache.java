@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.velocity.filter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded cache of the result of a {@link org.xwiki.rendering.macro.velocity.filter.VelocityMacroFilter} pre-processing
+ * of a Velocity script. The same Velocity macro content (sheets, wiki macros, etc.) is usually executed many times and
+ * its cleaning only depends on the content itself so it does not need to be done again each time.
+ * <p>
+ * The content itself is the key so a modified script (for example because the document defining it was saved) is
+ * automatically a miss, and the previous version is evicted once not used anymore. The cache is bounded by the total
+ * length of the contents and filtered contents it holds, since the scripts can be big.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public class FilteredContentCache
+{
+    /**
+     * The default maximum total number of characters (contents and filtered contents) kept in the cache.
+     */
+    public static final long DEFAULT_CAPACITY = 2000000;
+
+    /**
+     * The content bigger than this (in characters) is not cached to not keep huge scripts in memory.
+     */
+    public static final int MAX_CONTENT_LENGTH = 100000;
+
+    private final long capacity;
+
+    private final Map<String, String> cache = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * The total number of characters of the entries in the cache.
+     */
+    private long length;
+
+    /**
+     * Create a cache with the default capacity.
+     */
+    public FilteredContentCache()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the maximum total number of characters (contents and filtered contents) kept in the cache
+     */
+    public FilteredContentCache(long capacity)
+    {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param content the content to filter
+     * @param filter the filter to apply when the result is not already in the cache
+     * @return the filtered content
+     */
+    public String get(String content, UnaryOperator<String> filter)
+    {
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            return filter.apply(content);
+        }
+
+        String filtered;
+        synchronized (this.cache) {
+            filtered = this.cache.get(content);
+        }
+
+        if (filtered == null) {
+            filtered = filter.apply(content);
+
+            synchronized (this.cache) {
+                put(content, filtered);
+            }
+        }
+
+        return filtered;
+    }
+
+    private void put(String content, String filtered)
+    {
+        String previous = this.cache.put(content, filtered);
+        this.length += length(content, filtered) - (previous != null ? length(content, previous) : 0);
+
+        // Evict the least recently used entries
+        Iterator<Map.Entry<String, String>> iterator = this.cache.entrySet().iterator();
+        while (this.length > this.capacity && iterator.hasNext()) {
+            Map.Entry<String, String> eldest = iterator.next();
+            this.length -= length(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    private long length(String content, String filtered)
+    {
+        return (long) content.length() + filtered.length();
+    }
+
+    /**
+     * Remove all the entries from the cache.
+     */
+    public void clear()
+    {
+        synchronized (this.cache) {
+            this.cache.clear();
+            this.length = 0;
+        }
+    }
+}
@@ -85,6 +85,12 @@ public class HTMLVelocityMacroFilter implements VelocityMacroFilter, Initializab
      */
     private VelocityParser velocityParser;
 
+    /**
+     * Cleaning the content is costly and it's usually the same content (sheets, wiki macros, etc.) which is executed
+     * again and again.
+     */
+    private final FilteredContentCache cache = new FilteredContentCache();
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -98,7 +104,7 @@ public String before(String content, VelocityContext velocityContext)
         velocityContext.put(BINDING_NEWLINE, NEWLINE);
         velocityContext.put(BINDING_SPACE, SPACE);
 
-        return clean(content);
+        return this.cache.get(content, this::clean);
     }
 
     /**
@@ -0,0 +1,95 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro.velocity.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Validate the behavior of {@link FilteredContentCache}.
+ *
+ * @version $Id$
+ */
+class FilteredContentCacheTest
+{
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final UnaryOperator<String> filter = content -> {
+        this.calls.incrementAndGet();
+
+        return content.trim();
+    };
+
+    @Test
+    void get()
+    {
+        FilteredContentCache cache = new FilteredContentCache();
+
+        assertEquals("content", cache.get(" content ", this.filter));
+        assertEquals("content", cache.get(" content ", this.filter));
+        assertEquals("other", cache.get(" other ", this.filter));
+
+        assertEquals(2, this.calls.get());
+
+        cache.clear();
+
+        assertEquals("content", cache.get(" content ", this.filter));
+        assertEquals(3, this.calls.get());
+    }
+
+    @Test
+    void getWhenFull()
+    {
+        // Room for two entries of 2 characters (content and filtered content)
+        FilteredContentCache cache = new FilteredContentCache(4);
+
+        cache.get("1", this.filter);
+        cache.get("2", this.filter);
+        // Make 1 the most recently used
+        cache.get("1", this.filter);
+        cache.get("3", this.filter);
+
+        assertEquals(3, this.calls.get());
+
+        // 2 was evicted but not 3
+        cache.get("2", this.filter);
+        cache.get("3", this.filter);
+
+        assertEquals(4, this.calls.get());
+    }
+
+    @Test
+    void getWhenBiggerThanCapacity()
+    {
+        FilteredContentCache cache = new FilteredContentCache(4);
+
+        cache.get("1", this.filter);
+        // Too big for the cache, and evicts everything else
+        cache.get("123", this.filter);
+        cache.get("123", this.filter);
+        cache.get("1", this.filter);
+
+        assertEquals(4, this.calls.get());
+    }
+}
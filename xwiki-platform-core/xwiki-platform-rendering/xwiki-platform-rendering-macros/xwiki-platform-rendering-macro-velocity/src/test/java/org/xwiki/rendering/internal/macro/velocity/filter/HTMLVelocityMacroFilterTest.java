@@ -150,4 +150,19 @@ public void testInvalidOrPartial()
             "#${escapetool.H}${declaredRight}#${escapetool.H}");
         assertFilter("$ notvar", "$ notvar");
     }
+
+    @Test
+    public void testFilterSameContentWithOtherContext()
+    {
+        String input = "T  $nl  T";
+
+        assertFilter("T${nl}T", input);
+
+        // The cleaned content is reused but the bindings still need to be declared in the new context
+        this.context = new VelocityContext();
+
+        assertFilter("T${nl}T", input);
+        Assert.assertEquals("\n", this.context.get("nl"));
+        Assert.assertEquals(" ", this.context.get("sp"));
+    }
 }
@@ -19,6 +19,7 @@
  */
 package org.xwiki.rendering.macro;
 
+import java.util.Map;
 import java.util.Optional;
 
 import org.xwiki.component.annotation.Role;
@@ -54,4 +55,34 @@
     Optional<MacroBlock> replaceReference(MacroBlock macroBlock, DocumentReference currentDocumentReference,
         DocumentReference sourceReference, DocumentReference targetReference, boolean relative)
         throws MacroRefactoringException;
+
+    /**
+     * Replace all the given source references by the corresponding target references in the macro block. This is
+     * equivalent to calling {@link #replaceReference(MacroBlock, DocumentReference, DocumentReference,
+     * DocumentReference, boolean)} for each entry but implementations are encouraged to parse the macro only once.
+     *
+     * @param macroBlock the macro block in which to replace the references.
+     * @param currentDocumentReference the reference of the document in which the block is located
+     * @param updatedReferences the references to use as replacement indexed by the references to replace.
+     * @param relative if {@code true} indicate that the reference should be resolved relatively to the current document
+     * @return an optional containing the new macro block with proper information if it needs to be updated, else
+     *         an empty optional.
+     * @throws MacroRefactoringException in case of problem to parse or render the macro content.
+     * @since 13.4RC1
+     */
+    default Optional<MacroBlock> replaceReferences(MacroBlock macroBlock, DocumentReference currentDocumentReference,
+        Map<DocumentReference, DocumentReference> updatedReferences, boolean relative)
+        throws MacroRefactoringException
+    {
+        MacroBlock result = null;
+        for (Map.Entry<DocumentReference, DocumentReference> entry : updatedReferences.entrySet()) {
+            Optional<MacroBlock> updatedBlock = replaceReference(result != null ? result : macroBlock,
+                currentDocumentReference, entry.getKey(), entry.getValue(), relative);
+            if (updatedBlock.isPresent()) {
+                result = updatedBlock.get();
+            }
+        }
+
+        return Optional.ofNullable(result);
+    }
 }
@@ -0,0 +1,241 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.util.Date;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.restlet.Request;
+import org.restlet.data.Conditions;
+import org.restlet.data.Tag;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.api.Document;
+
+/**
+ * Support for conditional GET requests ({@code If-None-Match} and {@code If-Modified-Since} headers) on the resources
+ * whose representation is derived from a document.
+ * <p>
+ * The validators are derived from the version and the date of the document and of its translations, since the
+ * representations list the translations of the document. When the request is conditional, the versions and dates are
+ * retrieved with a query so that an unchanged resource can be answered with a 304 status without loading and
+ * serializing the document. The validators of the full responses are applied by {@link XWikiSetupCleanupFilter}.
+ * <p>
+ * Resources must not use this handler for representations which also contain data coming from other documents (e.g.
+ * the class definition or the pretty names), since the changes of these documents would not be detected.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = ConditionalRequestHandler.class)
+@Singleton
+public class ConditionalRequestHandler
+{
+    private static final String METADATA_QUERY = "select doc.language, doc.version, doc.date from XWikiDocument doc"
+        + " where doc.fullName = :fullName order by doc.language";
+
+    /**
+     * The validators of a response.
+     *
+     * @version $Id$
+     */
+    public static final class Validators
+    {
+        private final Tag tag;
+
+        private final Date modificationDate;
+
+        Validators(Tag tag, Date modificationDate)
+        {
+            this.tag = tag;
+            this.modificationDate = modificationDate;
+        }
+
+        /**
+         * @return the entity tag
+         */
+        public Tag getTag()
+        {
+            return this.tag;
+        }
+
+        /**
+         * @return the modification date
+         */
+        public Date getModificationDate()
+        {
+            return this.modificationDate;
+        }
+    }
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Answer the current request with a 304 (Not Modified) status if it's conditional and the passed document did not
+     * change since the version known by the client.
+     *
+     * @param documentReference the reference of the document from which the representation is derived
+     * @param weak {@code true} if the representation is serialized from the document (i.e. two responses are only
+     *            semantically equivalent), {@code false} if it's a content stored as is in the document (e.g. an
+     *            attachment)
+     * @throws WebApplicationException with a 304 response when the document was not modified
+     */
+    public void checkNotModified(DocumentReference documentReference, boolean weak)
+    {
+        Request request = Request.getCurrent();
+        if (request == null) {
+            return;
+        }
+
+        Conditions conditions = request.getConditions();
+        if (conditions.getNoneMatch().isEmpty() && conditions.getModifiedSince() == null) {
+            return;
+        }
+
+        // Let the resource take care of the access denied response
+        if (!this.authorization.hasAccess(Right.VIEW, documentReference)) {
+            return;
+        }
+
+        Validators validators = getValidators(request, documentReference, null, weak);
+        if (validators != null && isNotModified(conditions, validators)) {
+            Tag tag = validators.getTag();
+            throw new WebApplicationException(Response.notModified(new EntityTag(tag.getName(), tag.isWeak()))
+                .lastModified(validators.getModificationDate()).build());
+        }
+    }
+
+    /**
+     * Remember the validators to send with the current response.
+     *
+     * @param document the document from which the representation is derived
+     * @param weak {@code true} if the representation is serialized from the document (i.e. two responses are only
+     *            semantically equivalent), {@code false} if it's a content stored as is in the document (e.g. an
+     *            attachment)
+     */
+    public void setValidators(Document document, boolean weak)
+    {
+        Request request = Request.getCurrent();
+        if (request != null && !document.isNew()) {
+            // Make sure the validators match the loaded version, the document might have been saved in the meantime
+            Validators validators =
+                getValidators(request, document.getDocumentReferenceWithLocale(), document.getVersion(), weak);
+            if (validators != null) {
+                request.getAttributes().put(Constants.RESPONSE_VALIDATORS, validators);
+            }
+        }
+    }
+
+    private Validators getValidators(Request request, DocumentReference documentReference, String expectedVersion,
+        boolean weak)
+    {
+        try {
+            Query query = this.queryManager.createQuery(METADATA_QUERY, Query.HQL);
+            query.setWiki(documentReference.getWikiReference().getName());
+            query.bindValue("fullName", this.localSerializer.serialize(documentReference));
+
+            String language = documentReference.getLocale() != null ? documentReference.getLocale().toString() : "";
+            String version = null;
+            Date date = null;
+            StringBuilder translations = new StringBuilder();
+            for (Object[] result : query.<Object[]>execute()) {
+                String resultLanguage = Objects.toString(result[0], "");
+                if (resultLanguage.equals(language)) {
+                    version = (String) result[1];
+                }
+
+                // The representation lists the translations of the document
+                translations.append(resultLanguage).append(':').append(result[1]).append(';');
+                Date resultDate = (Date) result[2];
+                if (date == null || resultDate.after(date)) {
+                    date = resultDate;
+                }
+            }
+
+            if (version != null && (expectedVersion == null || expectedVersion.equals(version))) {
+                return createValidators(request, version, date, translations.toString(), weak);
+            }
+        } catch (Exception e) {
+            // Fallback on the standard behavior
+            this.logger.warn("Failed to get the version of document [{}]: {}", documentReference,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        return null;
+    }
+
+    private Validators createValidators(Request request, String version, Date date, String translations,
+        boolean weak)
+    {
+        // The representation also depends on the negotiated media type and on the current user
+        int variant = Objects.hash(translations, request.getClientInfo().getAcceptedMediaTypes().toString(),
+            this.xcontextProvider.get().getUserReference());
+
+        return new Validators(new Tag(String.format("%s-%d-%x", version, date.getTime(), variant), weak), date);
+    }
+
+    private boolean isNotModified(Conditions conditions, Validators validators)
+    {
+        // If-None-Match has precedence over If-Modified-Since
+        if (!conditions.getNoneMatch().isEmpty()) {
+            for (Tag tag : conditions.getNoneMatch()) {
+                if (tag.equals(Tag.ALL) || tag.getName().equals(validators.getTag().getName())) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        // HTTP dates have a precision of one second
+        return validators.getModificationDate().getTime() / 1000 <= conditions.getModifiedSince().getTime() / 1000;
+    }
+}
@@ -35,6 +35,14 @@ public class Constants extends org.xwiki.rest.Constants
      */
     public static final String RELEASABLE_COMPONENT_REFERENCES = "rest.releasableComponentReferences";
 
+    /**
+     * The key used to store the validators (entity tag and modification date) of the current response in the Restlet
+     * request attributes.
+     *
+     * @since 13.4RC1
+     */
+    public static final String RESPONSE_VALIDATORS = "rest.responseValidators";
+
     /**
      * The key used to store allowed values for an object property in an XWiki object representation.
      *
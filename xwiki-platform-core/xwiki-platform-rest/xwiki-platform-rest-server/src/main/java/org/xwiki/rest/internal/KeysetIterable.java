@@ -0,0 +1,178 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Lazily iterate over the result of a query, one batch at a time. Each batch starts right after the last row of the
+ * previous one (keyset pagination) instead of using an offset so that the cost of fetching a batch does not depend on
+ * its position in the result, and only one batch is kept in memory at any time.
+ * <p>
+ * The iteration generally happens after the resource method returned (when the representation is written) so the
+ * wiki of the context is switched while loading each batch.
+ *
+ * @param <R> the type of the rows returned by the query
+ * @param <E> the type of the elements produced from the rows
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public abstract class KeysetIterable<R, E> implements Iterable<E>
+{
+    /**
+     * The default number of rows loaded at the same time.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final XWikiContext xcontext;
+
+    private final String wiki;
+
+    private final int start;
+
+    private final int number;
+
+    private final int batchSize;
+
+    /**
+     * @param xcontext the XWiki context of the request
+     * @param wiki the wiki where to execute the queries
+     * @param start the offset of the first row
+     * @param number the maximum number of rows to iterate over, negative for all of them
+     */
+    protected KeysetIterable(XWikiContext xcontext, String wiki, int start, int number)
+    {
+        this(xcontext, wiki, start, number, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param xcontext the XWiki context of the request
+     * @param wiki the wiki where to execute the queries
+     * @param start the offset of the first row
+     * @param number the maximum number of rows to iterate over, negative for all of them
+     * @param batchSize the number of rows to load at the same time
+     */
+    protected KeysetIterable(XWikiContext xcontext, String wiki, int start, int number, int batchSize)
+    {
+        this.xcontext = xcontext;
+        this.wiki = wiki;
+        this.start = Math.max(start, 0);
+        this.number = number;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Load the next batch of rows. The rows are expected to be ordered on a unique key.
+     *
+     * @param last the last row of the previous batch or null for the first batch
+     * @param offset the number of rows to skip (only different from 0 for the first batch)
+     * @param limit the maximum number of rows to return
+     * @return the rows located after the passed one
+     * @throws Exception when failing to load the rows
+     */
+    protected abstract List<R> load(R last, int offset, int limit) throws Exception;
+
+    /**
+     * @param row the row to convert
+     * @return the element corresponding to the passed row or null if the row should be skipped
+     * @throws Exception when failing to convert the row
+     */
+    protected abstract E convert(R row) throws Exception;
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>()
+        {
+            private final Deque<E> buffer = new ArrayDeque<>();
+
+            private R last;
+
+            private int loaded;
+
+            private boolean done;
+
+            @Override
+            public boolean hasNext()
+            {
+                while (this.buffer.isEmpty() && !this.done) {
+                    loadNextBatch();
+                }
+
+                return !this.buffer.isEmpty();
+            }
+
+            @Override
+            public E next()
+            {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return this.buffer.poll();
+            }
+
+            private void loadNextBatch()
+            {
+                int limit = batchSize;
+                if (number >= 0) {
+                    limit = Math.min(limit, number - this.loaded);
+                }
+
+                if (limit <= 0) {
+                    this.done = true;
+
+                    return;
+                }
+
+                String currentWiki = xcontext.getWikiId();
+                try {
+                    xcontext.setWikiId(wiki);
+
+                    List<R> rows = load(this.last, this.last == null ? start : 0, limit);
+                    for (R row : rows) {
+                        this.last = row;
+
+                        E element = convert(row);
+                        if (element != null) {
+                            this.buffer.add(element);
+                        }
+                    }
+
+                    this.loaded += rows.size();
+                    this.done = rows.size() < limit;
+                } catch (Exception e) {
+                    throw new WebApplicationException(e, Status.INTERNAL_SERVER_ERROR);
+                } finally {
+                    xcontext.setWikiId(currentWiki);
+                }
+            }
+        };
+    }
+}
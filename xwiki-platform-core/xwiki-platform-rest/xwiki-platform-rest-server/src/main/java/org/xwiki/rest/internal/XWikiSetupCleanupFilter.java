@@ -92,6 +92,15 @@ protected void afterHandle(Request request, Response response)
                 response.setEntity(null);
             }
         }
+
+        // Send the validators of the representation to allow conditional requests
+        Object validators = request.getAttributes().get(Constants.RESPONSE_VALIDATORS);
+        if (validators instanceof ConditionalRequestHandler.Validators && response.getStatus().isSuccess()
+            && response.getEntity() != null) {
+            response.getEntity().setTag(((ConditionalRequestHandler.Validators) validators).getTag());
+            response.getEntity()
+                .setModificationDate(((ConditionalRequestHandler.Validators) validators).getModificationDate());
+        }
     }
 
     /**
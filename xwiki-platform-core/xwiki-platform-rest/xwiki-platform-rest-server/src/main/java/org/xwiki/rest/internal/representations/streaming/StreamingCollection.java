@@ -0,0 +1,51 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.representations.streaming;
+
+/**
+ * A collection representation whose items are produced while the representation is written instead of being stored
+ * in the model object. See {@link StreamingCollectionWriter}.
+ *
+ * @param <E> the type of the items
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public interface StreamingCollection<E>
+{
+    /**
+     * @return the name of the XML element of each item
+     */
+    String getItemElementName();
+
+    /**
+     * @return the name of the JSON property containing the items
+     */
+    String getItemsPropertyName();
+
+    /**
+     * @return the type of the items
+     */
+    Class<E> getItemType();
+
+    /**
+     * @return the items, iterated only once
+     */
+    Iterable<E> getItems();
+}
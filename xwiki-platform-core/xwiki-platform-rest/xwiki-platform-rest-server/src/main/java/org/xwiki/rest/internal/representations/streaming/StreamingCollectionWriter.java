@@ -0,0 +1,213 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.representations.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.rest.XWikiRestComponent;
+import org.xwiki.rest.model.jaxb.Link;
+import org.xwiki.rest.model.jaxb.LinkCollection;
+import org.xwiki.rest.model.jaxb.ObjectFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Write the {@link StreamingCollection} representations item by item so that the memory used does not depend on the
+ * number of items.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component
+@Named("org.xwiki.rest.internal.representations.streaming.StreamingCollectionWriter")
+@Provider
+@Produces({ MediaType.APPLICATION_XML, MediaType.TEXT_XML, MediaType.APPLICATION_JSON })
+@Singleton
+public class StreamingCollectionWriter implements MessageBodyWriter<LinkCollection>, XWikiRestComponent, Initializable
+{
+    private static final String NAMESPACE = "http://www.xwiki.org";
+
+    private static final String LINKS_PROPERTY = "links";
+
+    private static final QName LINK_ELEMENT = new QName(NAMESPACE, "link");
+
+    /**
+     * The number of items to write before flushing the output.
+     */
+    private static final int FLUSH_INTERVAL = 100;
+
+    private JAXBContext jaxbContext;
+
+    private ObjectMapper objectMapper;
+
+    private XMLOutputFactory xmlOutputFactory;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.jaxbContext = JAXBContext.newInstance(ObjectFactory.class);
+        } catch (JAXBException e) {
+            throw new InitializationException("Failed to create the JAXB context", e);
+        }
+
+        // Same configuration as the one used for the non streamed representations
+        JsonFactory jsonFactory = new JsonFactory();
+        jsonFactory.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        this.objectMapper = new ObjectMapper(jsonFactory);
+        // The output is flushed regularly by the writer
+        this.objectMapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        this.xmlOutputFactory = XMLOutputFactory.newInstance();
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+    {
+        return LinkCollection.class.isAssignableFrom(type) && StreamingCollection.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(LinkCollection collection, Class<?> type, Type genericType, Annotation[] annotations,
+        MediaType mediaType)
+    {
+        // Unknown
+        return -1;
+    }
+
+    @Override
+    public void writeTo(LinkCollection collection, Class<?> type, Type genericType, Annotation[] annotations,
+        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+        throws IOException, WebApplicationException
+    {
+        StreamingCollection<?> streamingCollection = (StreamingCollection<?>) collection;
+
+        if (mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+            writeJSON(collection, streamingCollection, entityStream);
+        } else {
+            try {
+                writeXML(collection, streamingCollection, entityStream);
+            } catch (XMLStreamException | JAXBException e) {
+                throw new IOException("Failed to write the XML representation", e);
+            }
+        }
+    }
+
+    private void writeJSON(LinkCollection collection, StreamingCollection<?> streamingCollection,
+        OutputStream entityStream) throws IOException
+    {
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(entityStream)) {
+            generator.writeStartObject();
+
+            generator.writeFieldName(LINKS_PROPERTY);
+            this.objectMapper.writeValue(generator, collection.getLinks());
+
+            generator.writeArrayFieldStart(streamingCollection.getItemsPropertyName());
+            int count = 0;
+            for (Object item : streamingCollection.getItems()) {
+                this.objectMapper.writeValue(generator, item);
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    private <E> void writeXML(LinkCollection collection, StreamingCollection<E> streamingCollection,
+        OutputStream entityStream) throws XMLStreamException, JAXBException
+    {
+        XMLStreamWriter writer =
+            this.xmlOutputFactory.createXMLStreamWriter(entityStream, StandardCharsets.UTF_8.name());
+
+        Marshaller marshaller = this.jaxbContext.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+
+        writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        writer.setDefaultNamespace(NAMESPACE);
+        writer.writeStartElement(NAMESPACE, getRootElementName(collection));
+        writer.writeDefaultNamespace(NAMESPACE);
+
+        for (Link link : collection.getLinks()) {
+            marshaller.marshal(new JAXBElement<>(LINK_ELEMENT, Link.class, link), writer);
+        }
+
+        QName itemElement = new QName(NAMESPACE, streamingCollection.getItemElementName());
+        Class<E> itemType = streamingCollection.getItemType();
+        int count = 0;
+        for (E item : streamingCollection.getItems()) {
+            marshaller.marshal(new JAXBElement<>(itemElement, itemType, item), writer);
+
+            if (++count % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+        writer.close();
+    }
+
+    private String getRootElementName(LinkCollection collection)
+    {
+        // The streaming representations extend the generated model classes
+        for (Class<?> type = collection.getClass(); type != null; type = type.getSuperclass()) {
+            XmlRootElement rootElement = type.getAnnotation(XmlRootElement.class);
+            if (rootElement != null) {
+                return rootElement.name();
+            }
+        }
+
+        throw new IllegalArgumentException(
+            String.format("No XML root element could be found for [%s]", collection.getClass()));
+    }
+}
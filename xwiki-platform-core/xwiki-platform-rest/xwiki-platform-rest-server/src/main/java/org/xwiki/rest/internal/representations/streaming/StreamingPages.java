@@ -0,0 +1,83 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.representations.streaming;
+
+import java.util.List;
+
+import org.xwiki.rest.model.jaxb.PageSummary;
+import org.xwiki.rest.model.jaxb.Pages;
+
+/**
+ * A {@link Pages} representation whose page summaries are streamed.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+public class StreamingPages extends Pages implements StreamingCollection<PageSummary>
+{
+    private Iterable<PageSummary> items;
+
+    /**
+     * @param items the page summaries
+     */
+    public StreamingPages(Iterable<PageSummary> items)
+    {
+        this.items = items;
+    }
+
+    @Override
+    public String getItemElementName()
+    {
+        return "pageSummary";
+    }
+
+    @Override
+    public String getItemsPropertyName()
+    {
+        return "pageSummaries";
+    }
+
+    @Override
+    public Class<PageSummary> getItemType()
+    {
+        return PageSummary.class;
+    }
+
+    @Override
+    public Iterable<PageSummary> getItems()
+    {
+        return this.items != null ? this.items : super.getPageSummaries();
+    }
+
+    @Override
+    public List<PageSummary> getPageSummaries()
+    {
+        // Someone needs the actual list: stop streaming
+        if (this.items != null) {
+            Iterable<PageSummary> streamedItems = this.items;
+            this.items = null;
+            for (PageSummary item : streamedItems) {
+                super.getPageSummaries().add(item);
+            }
+        }
+
+        return super.getPageSummaries();
+    }
+}
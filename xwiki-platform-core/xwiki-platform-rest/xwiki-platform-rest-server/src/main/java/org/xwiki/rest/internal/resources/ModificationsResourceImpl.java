@@ -31,7 +31,9 @@
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.KeysetIterable;
 import org.xwiki.rest.internal.Utils;
+import org.xwiki.rest.internal.representations.streaming.StreamingHistory;
 import org.xwiki.rest.model.jaxb.History;
 import org.xwiki.rest.model.jaxb.HistorySummary;
 import org.xwiki.rest.resources.ModificationsResource;
@@ -45,25 +47,27 @@
 @Named("org.xwiki.rest.internal.resources.ModificationsResourceImpl")
 public class ModificationsResourceImpl extends XWikiResource implements ModificationsResource
 {
+    private static final String ASC = "asc";
+
     @Override
     public History getModifications(String wikiName, Integer start, Integer number, String order, Long ts,
             Boolean withPrettyNames) throws XWikiRestException
     {
-        try {
-            History history = new History();
-
-            String query = String.format("select doc.space, doc.name, doc.language, rcs.id, rcs.date, rcs.author,"
-                + " rcs.comment from XWikiRCSNodeInfo as rcs, XWikiDocument as doc where rcs.id.docId = doc.id and"
-                + " rcs.date > :date order by rcs.date %s, rcs.id.version1 %s, rcs.id.version2 %s",
-                    order, order, order);
-
-            List<Object> queryResult = null;
-            queryResult = queryManager.createQuery(query, Query.XWQL).bindValue("date", new Date(ts)).setLimit(number)
-                    .setOffset(start).setWiki(wikiName).execute();
+        boolean ascending = ASC.equalsIgnoreCase(order);
 
-            for (Object object : queryResult) {
-                Object[] fields = (Object[]) object;
+        // The modifications are loaded and serialized one batch at a time while the response is written
+        return new StreamingHistory(new KeysetIterable<Object[], HistorySummary>(
+            Utils.getXWikiContext(componentManager), wikiName, start, number)
+        {
+            @Override
+            protected List<Object[]> load(Object[] last, int offset, int limit) throws Exception
+            {
+                return createQuery(wikiName, ts, ascending, last).setOffset(offset).setLimit(limit).execute();
+            }
 
+            @Override
+            protected HistorySummary convert(Object[] fields)
+            {
                 String spaceId = (String) fields[0];
                 List<String> spaces = Utils.getSpacesFromSpaceId(spaceId);
                 String pageName = (String) fields[1];
@@ -77,16 +81,41 @@ public History getModifications(String wikiName, Integer start, Integer number,
                 String modifier = (String) fields[5];
                 String comment = (String) fields[6];
 
-                HistorySummary historySummary = DomainObjectFactory.createHistorySummary(objectFactory,
-                        uriInfo.getBaseUri(), wikiName, spaces, pageName, language, nodeId.getVersion(), modifier,
-                        modified, comment, Utils.getXWikiApi(componentManager), withPrettyNames);
-
-                history.getHistorySummaries().add(historySummary);
+                return DomainObjectFactory.createHistorySummary(objectFactory, uriInfo.getBaseUri(), wikiName,
+                    spaces, pageName, language, nodeId.getVersion(), modifier, modified, comment,
+                    Utils.getXWikiApi(componentManager), withPrettyNames);
             }
+        });
+    }
 
-            return history;
-        } catch (QueryException e) {
-            throw new XWikiRestException(e);
+    private Query createQuery(String wikiName, Long ts, boolean ascending, Object[] last) throws QueryException
+    {
+        String order = ascending ? ASC : "desc";
+        String comparator = ascending ? ">" : "<";
+
+        StringBuilder statement = new StringBuilder("select doc.space, doc.name, doc.language, rcs.id, rcs.date,"
+            + " rcs.author, rcs.comment from XWikiRCSNodeInfo as rcs, XWikiDocument as doc where rcs.id.docId = doc.id"
+            + " and rcs.date > :date");
+        if (last != null) {
+            // Start right after the last modification of the previous batch
+            statement.append(String.format(" and (rcs.date %1$s :lastDate or (rcs.date = :lastDate"
+                + " and (rcs.id.docId %1$s :lastDocId or (rcs.id.docId = :lastDocId"
+                + " and (rcs.id.version1 %1$s :lastVersion1 or (rcs.id.version1 = :lastVersion1"
+                + " and rcs.id.version2 %1$s :lastVersion2))))))", comparator));
         }
+        statement.append(String.format(" order by rcs.date %1$s, rcs.id.docId %1$s, rcs.id.version1 %1$s,"
+            + " rcs.id.version2 %1$s", order));
+
+        Query query =
+            queryManager.createQuery(statement.toString(), Query.XWQL).bindValue("date", new Date(ts)).setWiki(wikiName);
+        if (last != null) {
+            XWikiRCSNodeId nodeId = (XWikiRCSNodeId) last[3];
+            query.bindValue("lastDate", last[4]);
+            query.bindValue("lastDocId", nodeId.getDocId());
+            query.bindValue("lastVersion1", nodeId.getVersion().at(0));
+            query.bindValue("lastVersion2", nodeId.getVersion().at(1));
+        }
+
+        return query;
     }
 }
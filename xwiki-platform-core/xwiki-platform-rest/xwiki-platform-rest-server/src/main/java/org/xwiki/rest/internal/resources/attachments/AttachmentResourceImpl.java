@@ -29,7 +29,9 @@
 import javax.ws.rs.core.Response.Status;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rest.XWikiRestException;
+import org.xwiki.rest.internal.ConditionalRequestHandler;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.internal.resources.BaseAttachmentsResource;
 import org.xwiki.rest.resources.attachments.AttachmentResource;
@@ -51,11 +53,17 @@ public class AttachmentResourceImpl extends BaseAttachmentsResource implements A
     @Inject
     private ContextualAuthorizationManager authorization;
 
+    @Inject
+    private ConditionalRequestHandler conditionalRequests;
+
     @Override
     public Response getAttachment(String wikiName, String spaceName, String pageName, String attachmentName)
         throws XWikiRestException
     {
         try {
+            this.conditionalRequests
+                .checkNotModified(new DocumentReference(wikiName, parseSpaceSegments(spaceName), pageName), false);
+
             DocumentInfo documentInfo = getDocumentInfo(wikiName, spaceName, pageName, null, null, true, false);
             Document doc = documentInfo.getDocument();
 
@@ -64,6 +72,8 @@ public Response getAttachment(String wikiName, String spaceName, String pageName
                 throw new WebApplicationException(Status.NOT_FOUND);
             }
 
+            this.conditionalRequests.setValidators(doc, false);
+
             return Response.ok().type(xwikiAttachment.getMimeType()).entity(xwikiAttachment.getContent()).build();
         } catch (XWikiException e) {
             throw new XWikiRestException(e);
@@ -21,11 +21,14 @@
 
 import java.net.URI;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.ws.rs.core.Response;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rest.XWikiRestException;
+import org.xwiki.rest.internal.ConditionalRequestHandler;
 import org.xwiki.rest.model.jaxb.Page;
 import org.xwiki.rest.resources.pages.PageResource;
 
@@ -39,15 +42,31 @@
 @Named("org.xwiki.rest.internal.resources.pages.PageResourceImpl")
 public class PageResourceImpl extends ModifiablePageResource implements PageResource
 {
+    @Inject
+    private ConditionalRequestHandler conditionalRequests;
+
     @Override
     public Page getPage(String wikiName, String spaceName, String pageName, Boolean withPrettyNames,
         Boolean withObjects, Boolean withXClass, Boolean withAttachments) throws XWikiRestException
     {
         try {
+            // The pretty names, the class definition and the object properties definition (serialized with the
+            // objects) are taken from other documents
+            boolean conditional = !Boolean.TRUE.equals(withPrettyNames) && !Boolean.TRUE.equals(withXClass)
+                && !Boolean.TRUE.equals(withObjects);
+            if (conditional) {
+                this.conditionalRequests
+                    .checkNotModified(new DocumentReference(wikiName, parseSpaceSegments(spaceName), pageName), true);
+            }
+
             DocumentInfo documentInfo = getDocumentInfo(wikiName, spaceName, pageName, null, null, true, false);
 
             Document doc = documentInfo.getDocument();
 
+            if (conditional) {
+                this.conditionalRequests.setValidators(doc, true);
+            }
+
             URI baseUri = uriInfo.getBaseUri();
 
             Page page =
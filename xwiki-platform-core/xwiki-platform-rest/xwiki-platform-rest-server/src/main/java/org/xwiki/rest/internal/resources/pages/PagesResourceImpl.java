@@ -25,15 +25,21 @@
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.KeysetIterable;
 import org.xwiki.rest.internal.Utils;
+import org.xwiki.rest.internal.representations.streaming.StreamingPages;
+import org.xwiki.rest.model.jaxb.PageSummary;
 import org.xwiki.rest.model.jaxb.Pages;
 import org.xwiki.rest.resources.pages.PagesResource;
 
+import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.api.Document;
 
 /**
@@ -43,74 +49,128 @@
 @Named("org.xwiki.rest.internal.resources.pages.PagesResourceImpl")
 public class PagesResourceImpl extends XWikiResource implements PagesResource
 {
+    private static final String SPACE = "space";
+
+    private static final String LAST_NAME = "lastName";
+
+    private static final String LAST_DATE = "lastDate";
+
     @Override
     public Pages getPages(String wikiName, String spaceName, Integer start, Integer number,
             String parentFilterExpression, String order, Boolean withPrettyNames)
             throws XWikiRestException
     {
-        String database = Utils.getXWikiContext(componentManager).getWikiId();
         List<String> spaces = parseSpaceSegments(spaceName);
         String spaceId = Utils.getLocalSpaceId(spaces);
+        boolean orderByDate = "date".equals(order);
+
+        Pattern parentFilter = null;
+        if (parentFilterExpression != null) {
+            if (parentFilterExpression.equals("null")) {
+                parentFilter = Pattern.compile("");
+            } else {
+                parentFilter = Pattern.compile(parentFilterExpression);
+            }
+        }
+        Pattern finalParentFilter = parentFilter;
 
-        Pages pages = objectFactory.createPages();
-
+        QueryFilter hiddenFilter;
         try {
-            Utils.getXWikiContext(componentManager).setWikiId(wikiName);
-
-            Query query = ("date".equals(order)) ? queryManager.createQuery(
-                    "select doc.name from Document doc where doc.space=:space and language='' order by doc.date desc",
-                    "xwql") : queryManager.getNamedQuery("getSpaceDocsName");
-
-            /* Use an explicit query to improve performance */
-            List<String> pageNames =
-                    query.addFilter(componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden"))
-                        .bindValue("space", spaceId).setOffset(start).setLimit(number).execute();
-
-            Pattern parentFilter = null;
-            if (parentFilterExpression != null) {
-                if (parentFilterExpression.equals("null")) {
-                    parentFilter = Pattern.compile("");
-                } else {
-                    parentFilter = Pattern.compile(parentFilterExpression);
-                }
+            hiddenFilter = componentManager.getInstance(QueryFilter.class, "hidden");
+        } catch (ComponentLookupException e) {
+            throw new XWikiRestException(e);
+        }
+
+        // The pages are loaded and serialized one batch at a time while the response is written
+        return new StreamingPages(new KeysetIterable<Object, PageSummary>(Utils.getXWikiContext(componentManager),
+            wikiName, start, number)
+        {
+            @Override
+            protected List<Object> load(Object last, int offset, int limit) throws Exception
+            {
+                Query query = orderByDate ? createDateQuery(spaceId, (Object[]) last)
+                    : createNameQuery(spaceId, (String) last);
+
+                return query.addFilter(hiddenFilter).setOffset(offset).setLimit(limit).execute();
             }
 
-            for (String pageName : pageNames) {
-                String pageFullName = Utils.getPageId(wikiName, spaces, pageName);
-
-                if (!Utils.getXWikiApi(componentManager).exists(pageFullName)) {
-                    getLogger().warn("Page [{}] appears to be in space [{}] but no information is available.", pageName,
-                        spaceId);
-                } else {
-                    Document doc = Utils.getXWikiApi(componentManager).getDocument(pageFullName);
-
-                    /* We only add pages we have the right to access */
-                    if (doc != null) {
-                        boolean add = true;
-
-                        Document parent = Utils.getParentDocument(doc, Utils.getXWikiApi(componentManager));
-
-                        if (parentFilter != null) {
-                            String parentId = "";
-                            if (parent != null && !parent.isNew()) {
-                                parentId = parent.getPrefixedFullName();
-                            }
-                            add = parentFilter.matcher(parentId).matches();
-                        }
-
-                        if (add) {
-                            pages.getPageSummaries().add(DomainObjectFactory.createPageSummary(objectFactory,
-                                    uriInfo.getBaseUri(), doc, Utils.getXWikiApi(componentManager), withPrettyNames));
-                        }
+            @Override
+            protected PageSummary convert(Object row) throws Exception
+            {
+                String pageName = orderByDate ? (String) ((Object[]) row)[0] : (String) row;
+
+                return getPageSummary(wikiName, spaces, pageName, finalParentFilter, withPrettyNames);
+            }
+        });
+    }
+
+    private Query createNameQuery(String spaceId, String lastName) throws QueryException
+    {
+        StringBuilder statement = new StringBuilder("select distinct doc.name from XWikiDocument doc"
+            + " where doc.space = :space");
+        if (lastName != null) {
+            statement.append(" and doc.name > :lastName");
+        }
+        statement.append(" order by doc.name asc");
+
+        Query query = queryManager.createQuery(statement.toString(), Query.HQL).bindValue(SPACE, spaceId);
+        if (lastName != null) {
+            query.bindValue(LAST_NAME, lastName);
+        }
+
+        return query;
+    }
+
+    private Query createDateQuery(String spaceId, Object[] last) throws QueryException
+    {
+        StringBuilder statement =
+            new StringBuilder("select doc.name, doc.date from Document doc where doc.space = :space and language = ''");
+        if (last != null) {
+            statement.append(" and (doc.date < :lastDate or (doc.date = :lastDate and doc.name > :lastName))");
+        }
+        statement.append(" order by doc.date desc, doc.name asc");
+
+        Query query = queryManager.createQuery(statement.toString(), Query.XWQL).bindValue(SPACE, spaceId);
+        if (last != null) {
+            query.bindValue(LAST_NAME, last[0]);
+            query.bindValue(LAST_DATE, last[1]);
+        }
+
+        return query;
+    }
+
+    private PageSummary getPageSummary(String wikiName, List<String> spaces, String pageName, Pattern parentFilter,
+        Boolean withPrettyNames) throws XWikiException
+    {
+        String pageFullName = Utils.getPageId(wikiName, spaces, pageName);
+
+        if (!Utils.getXWikiApi(componentManager).exists(pageFullName)) {
+            getLogger().warn("Page [{}] appears to be in space [{}] but no information is available.", pageName,
+                Utils.getLocalSpaceId(spaces));
+        } else {
+            Document doc = Utils.getXWikiApi(componentManager).getDocument(pageFullName);
+
+            /* We only add pages we have the right to access */
+            if (doc != null) {
+                boolean add = true;
+
+                Document parent = Utils.getParentDocument(doc, Utils.getXWikiApi(componentManager));
+
+                if (parentFilter != null) {
+                    String parentId = "";
+                    if (parent != null && !parent.isNew()) {
+                        parentId = parent.getPrefixedFullName();
                     }
+                    add = parentFilter.matcher(parentId).matches();
+                }
+
+                if (add) {
+                    return DomainObjectFactory.createPageSummary(objectFactory, uriInfo.getBaseUri(), doc,
+                        Utils.getXWikiApi(componentManager), withPrettyNames);
                 }
             }
-        } catch (Exception e) {
-            throw new XWikiRestException(e);
-        } finally {
-            Utils.getXWikiContext(componentManager).setWikiId(database);
         }
 
-        return pages;
+        return null;
     }
 }
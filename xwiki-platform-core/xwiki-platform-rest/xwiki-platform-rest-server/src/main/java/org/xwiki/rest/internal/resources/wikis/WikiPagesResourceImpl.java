@@ -20,6 +20,7 @@
 package org.xwiki.rest.internal.resources.wikis;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Formatter;
 import java.util.HashMap;
 import java.util.List;
@@ -27,13 +28,16 @@
 
 import javax.inject.Named;
 
+import org.apache.commons.lang3.StringUtils;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.rest.Relations;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
+import org.xwiki.rest.internal.KeysetIterable;
 import org.xwiki.rest.internal.Utils;
+import org.xwiki.rest.internal.representations.streaming.StreamingPages;
 import org.xwiki.rest.model.jaxb.Link;
 import org.xwiki.rest.model.jaxb.PageSummary;
 import org.xwiki.rest.model.jaxb.Pages;
@@ -50,113 +54,122 @@
 @Named("org.xwiki.rest.internal.resources.wikis.WikiPagesResourceImpl")
 public class WikiPagesResourceImpl extends XWikiResource implements WikiPagesResource
 {
+    private static final String LAST_FULL_NAME = "lastFullName";
+
+    private static final String LAST_LANGUAGE = "lastLanguage";
+
     @Override
     public Pages getPages(String wikiName, Integer start, String name, String space, String author, Integer number)
             throws XWikiRestException
     {
-        String database = Utils.getXWikiContext(componentManager).getWikiId();
-
-        Pages pages = objectFactory.createPages();
+        Map<String, String> filters = new HashMap<String, String>();
+        if (!name.equals("")) {
+            filters.put("name", name);
+        }
+        if (!space.equals("")) {
+            filters.put("space", Utils.getLocalSpaceId(parseSpaceSegments(space)));
+        }
+        if (!author.equals("")) {
+            filters.put("author", author);
+        }
 
-        /* This try is just needed for executing the finally clause. */
-        try {
-            Map<String, String> filters = new HashMap<String, String>();
-            if (!name.equals("")) {
-                filters.put("name", name);
-            }
-            if (!space.equals("")) {
-                filters.put("space", Utils.getLocalSpaceId(parseSpaceSegments(space)));
+        // The pages are loaded and serialized one batch at a time while the response is written
+        return new StreamingPages(new KeysetIterable<XWikiDocument, PageSummary>(
+            Utils.getXWikiContext(componentManager), wikiName, start, number)
+        {
+            @Override
+            protected List<XWikiDocument> load(XWikiDocument last, int offset, int limit) throws Exception
+            {
+                return createQuery(filters, last).setOffset(offset).setLimit(limit).execute();
             }
-            if (!author.equals("")) {
-                filters.put("author", author);
-            }
-
-            /* Build the query */
-            Formatter f = new Formatter();
-            f.format("select doc from XWikiDocument as doc");
-
-            if (filters.keySet().size() > 0) {
-                f.format(" where (");
 
-                int i = 0;
-                for (String param : filters.keySet()) {
-                    if (param.equals("name")) {
-                        f.format(" upper(doc.fullName) like :name ");
-                    }
-
-                    if (param.equals("space")) {
-                        f.format(" upper(doc.space) like :space ");
-                    }
-
-                    if (param.equals("author")) {
-                        f.format(" upper(doc.contentAuthor) like :author ");
-                    }
+            @Override
+            protected PageSummary convert(XWikiDocument xwikiDocument) throws Exception
+            {
+                return createPageSummary(wikiName, xwikiDocument);
+            }
+        });
+    }
 
-                    i++;
+    private Query createQuery(Map<String, String> filters, XWikiDocument last) throws QueryException
+    {
+        /* Build the query */
+        Formatter f = new Formatter();
+        f.format("select doc from XWikiDocument as doc");
+
+        List<String> conditions = new ArrayList<>();
+        for (String param : filters.keySet()) {
+            if (param.equals("name")) {
+                conditions.add("upper(doc.fullName) like :name");
+            }
 
-                    if (i < filters.keySet().size()) {
-                        f.format(" and ");
-                    }
-                }
+            if (param.equals("space")) {
+                conditions.add("upper(doc.space) like :space");
+            }
 
-                f.format(")");
+            if (param.equals("author")) {
+                conditions.add("upper(doc.contentAuthor) like :author");
             }
+        }
 
-            String queryString = f.toString();
+        if (last != null) {
+            // Start right after the last document of the previous batch
+            conditions.add("(doc.fullName > :lastFullName"
+                + " or (doc.fullName = :lastFullName and doc.language > :lastLanguage))");
+        }
 
-            /* Execute the query by filling the parameters */
-            List<Object> queryResult = null;
-            try {
-                Query query = queryManager.createQuery(queryString, Query.XWQL).setLimit(number).setOffset(start);
-                for (String param : filters.keySet()) {
-                    query.bindValue(param, String.format("%%%s%%", filters.get(param).toUpperCase()));
-                }
+        if (!conditions.isEmpty()) {
+            f.format(" where (%s)", StringUtils.join(conditions, " and "));
+        }
 
-                queryResult = query.execute();
-            } catch (QueryException e) {
-                throw new XWikiRestException(e);
-            }
+        f.format(" order by doc.fullName asc, doc.language asc");
 
-            /* Get the results and populate the returned representation */
-            for (Object object : queryResult) {
-                XWikiDocument xwikiDocument = (XWikiDocument) object;
-                xwikiDocument.setDatabase(wikiName);
-
-                Document doc = new Document(xwikiDocument, Utils.getXWikiContext(componentManager));
-
-                /*
-                 * We manufacture page summaries in place because we don't have all the data for calling the
-                 * DomainObjectFactory method (doing so would require to retrieve an actual Document)
-                 */
-                PageSummary pageSummary = objectFactory.createPageSummary();
-                pageSummary.setId(doc.getPrefixedFullName());
-                pageSummary.setFullName(doc.getFullName());
-                pageSummary.setWiki(wikiName);
-                pageSummary.setSpace(doc.getSpace());
-                pageSummary.setName(doc.getDocumentReference().getName());
-                pageSummary.setTitle(doc.getTitle());
-                pageSummary.setParent(doc.getParent());
-
-                URL absoluteUrl = Utils.getXWikiContext(componentManager).getURLFactory().createExternalURL(
-                    doc.getSpace(), doc.getDocumentReference().getName(), "view", null, null,
-                    Utils.getXWikiContext(componentManager));
-                pageSummary.setXwikiAbsoluteUrl(absoluteUrl.toString());
-                pageSummary.setXwikiRelativeUrl(Utils.getXWikiContext(componentManager).getURLFactory().getURL(
-                    absoluteUrl, Utils.getXWikiContext(componentManager)));
-
-                String pageUri = Utils.createURI(uriInfo.getBaseUri(), PageResource.class, doc.getWiki(),
-                    Utils.getSpacesFromSpaceId(doc.getSpace()), doc.getDocumentReference().getName()).toString();
-                Link pageLink = objectFactory.createLink();
-                pageLink.setHref(pageUri);
-                pageLink.setRel(Relations.PAGE);
-                pageSummary.getLinks().add(pageLink);
-
-                pages.getPageSummaries().add(pageSummary);
-            }
-        } finally {
-            Utils.getXWikiContext(componentManager).setWikiId(database);
+        /* Execute the query by filling the parameters */
+        Query query = queryManager.createQuery(f.toString(), Query.XWQL);
+        for (String param : filters.keySet()) {
+            query.bindValue(param, String.format("%%%s%%", filters.get(param).toUpperCase()));
+        }
+        if (last != null) {
+            query.bindValue(LAST_FULL_NAME, last.getFullName());
+            query.bindValue(LAST_LANGUAGE, last.getLanguage());
         }
 
-        return pages;
+        return query;
+    }
+
+    private PageSummary createPageSummary(String wikiName, XWikiDocument xwikiDocument) throws Exception
+    {
+        xwikiDocument.setDatabase(wikiName);
+
+        Document doc = new Document(xwikiDocument, Utils.getXWikiContext(componentManager));
+
+        /*
+         * We manufacture page summaries in place because we don't have all the data for calling the
+         * DomainObjectFactory method (doing so would require to retrieve an actual Document)
+         */
+        PageSummary pageSummary = objectFactory.createPageSummary();
+        pageSummary.setId(doc.getPrefixedFullName());
+        pageSummary.setFullName(doc.getFullName());
+        pageSummary.setWiki(wikiName);
+        pageSummary.setSpace(doc.getSpace());
+        pageSummary.setName(doc.getDocumentReference().getName());
+        pageSummary.setTitle(doc.getTitle());
+        pageSummary.setParent(doc.getParent());
+
+        URL absoluteUrl = Utils.getXWikiContext(componentManager).getURLFactory().createExternalURL(
+            doc.getSpace(), doc.getDocumentReference().getName(), "view", null, null,
+            Utils.getXWikiContext(componentManager));
+        pageSummary.setXwikiAbsoluteUrl(absoluteUrl.toString());
+        pageSummary.setXwikiRelativeUrl(Utils.getXWikiContext(componentManager).getURLFactory().getURL(
+            absoluteUrl, Utils.getXWikiContext(componentManager)));
+
+        String pageUri = Utils.createURI(uriInfo.getBaseUri(), PageResource.class, doc.getWiki(),
+            Utils.getSpacesFromSpaceId(doc.getSpace()), doc.getDocumentReference().getName()).toString();
+        Link pageLink = objectFactory.createLink();
+        pageLink.setHref(pageUri);
+        pageLink.setRel(Relations.PAGE);
+        pageSummary.getLinks().add(pageLink);
+
+        return pageSummary;
     }
 }
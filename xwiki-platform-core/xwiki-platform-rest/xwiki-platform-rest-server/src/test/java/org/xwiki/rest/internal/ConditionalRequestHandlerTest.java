@@ -0,0 +1,211 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Locale;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.restlet.Request;
+import org.restlet.data.Method;
+import org.restlet.data.Tag;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.api.Document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ConditionalRequestHandler}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class ConditionalRequestHandlerTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    private static final DocumentReference DOCUMENT_REFERENCE_WITH_LOCALE =
+        new DocumentReference(DOCUMENT_REFERENCE, Locale.ROOT);
+
+    @InjectMockComponents
+    private ConditionalRequestHandler handler;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorization;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    private Request request;
+
+    private Query query;
+
+    private Date date = new Date(1000000);
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.request = new Request(Method.GET, "http://localhost/xwiki/rest");
+        Request.setCurrent(this.request);
+
+        when(this.xcontextProvider.get()).thenReturn(mock(XWikiContext.class));
+        when(this.authorization.hasAccess(Right.VIEW, DOCUMENT_REFERENCE)).thenReturn(true);
+        when(this.localSerializer.serialize(DOCUMENT_REFERENCE)).thenReturn("Space.Page");
+
+        this.query = mock(Query.class);
+        when(this.queryManager.createQuery(anyString(), any())).thenReturn(this.query);
+        when(this.query.execute()).thenReturn(Collections.singletonList(new Object[] { "", "1.1", this.date }));
+    }
+
+    @AfterEach
+    void afterEach()
+    {
+        Request.setCurrent(null);
+    }
+
+    private Tag getTag()
+    {
+        Document document = mock(Document.class);
+        when(document.getDocumentReferenceWithLocale()).thenReturn(DOCUMENT_REFERENCE_WITH_LOCALE);
+        when(document.getVersion()).thenReturn("1.1");
+
+        this.handler.setValidators(document, true);
+
+        return ((ConditionalRequestHandler.Validators) this.request.getAttributes()
+            .get(Constants.RESPONSE_VALIDATORS)).getTag();
+    }
+
+    @Test
+    void checkNotModifiedWithoutConditions() throws Exception
+    {
+        this.handler.checkNotModified(DOCUMENT_REFERENCE, true);
+
+        verify(this.queryManager, never()).createQuery(anyString(), any());
+    }
+
+    @Test
+    void checkNotModifiedWithMatchingTag()
+    {
+        Tag tag = getTag();
+        assertTrue(tag.isWeak());
+        this.request.getConditions().setNoneMatch(Arrays.asList(tag));
+
+        WebApplicationException exception =
+            assertThrows(WebApplicationException.class, () -> this.handler.checkNotModified(DOCUMENT_REFERENCE, true));
+
+        assertEquals(304, exception.getResponse().getStatus());
+        EntityTag entityTag = (EntityTag) exception.getResponse().getMetadata().getFirst(HttpHeaders.ETAG);
+        assertEquals(tag.getName(), entityTag.getValue());
+        assertTrue(entityTag.isWeak());
+    }
+
+    @Test
+    void checkNotModifiedWhenTranslationAdded() throws Exception
+    {
+        this.request.getConditions().setNoneMatch(Arrays.asList(getTag()));
+
+        when(this.query.execute()).thenReturn(
+            Arrays.asList(new Object[] { "", "1.1", this.date }, new Object[] { "fr", "1.1", new Date(2000000) }));
+
+        this.handler.checkNotModified(DOCUMENT_REFERENCE, true);
+    }
+
+    @Test
+    void setValidatorsWhenDocumentSavedInTheMeantime()
+    {
+        Document document = mock(Document.class);
+        when(document.getDocumentReferenceWithLocale()).thenReturn(DOCUMENT_REFERENCE_WITH_LOCALE);
+        when(document.getVersion()).thenReturn("1.2");
+
+        this.handler.setValidators(document, true);
+
+        assertNull(this.request.getAttributes().get(Constants.RESPONSE_VALIDATORS));
+    }
+
+    @Test
+    void checkNotModifiedWithOtherTag()
+    {
+        this.request.getConditions().setNoneMatch(Arrays.asList(new Tag("1.1-0-0", false)));
+
+        this.handler.checkNotModified(DOCUMENT_REFERENCE, true);
+    }
+
+    @Test
+    void checkNotModifiedWithModifiedSince()
+    {
+        this.request.getConditions().setModifiedSince(new Date(this.date.getTime() + 500));
+
+        WebApplicationException exception =
+            assertThrows(WebApplicationException.class, () -> this.handler.checkNotModified(DOCUMENT_REFERENCE, false));
+
+        assertEquals(304, exception.getResponse().getStatus());
+
+        this.request.getConditions().setModifiedSince(new Date(this.date.getTime() - 1000));
+
+        this.handler.checkNotModified(DOCUMENT_REFERENCE, false);
+    }
+
+    @Test
+    void checkNotModifiedWithoutViewRight() throws Exception
+    {
+        this.request.getConditions().setNoneMatch(Arrays.asList(Tag.ALL));
+        when(this.authorization.hasAccess(Right.VIEW, DOCUMENT_REFERENCE)).thenReturn(false);
+
+        this.handler.checkNotModified(DOCUMENT_REFERENCE, true);
+
+        verify(this.queryManager, never()).createQuery(anyString(), any());
+    }
+}
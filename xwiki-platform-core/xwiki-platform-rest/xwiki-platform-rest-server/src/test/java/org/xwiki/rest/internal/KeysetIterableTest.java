@@ -0,0 +1,109 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KeysetIterable}.
+ *
+ * @version $Id$
+ */
+class KeysetIterableTest
+{
+    private static class IntegerIterable extends KeysetIterable<Integer, String>
+    {
+        private final int size;
+
+        private final List<String> calls = new ArrayList<>();
+
+        IntegerIterable(XWikiContext xcontext, int start, int number, int size)
+        {
+            super(xcontext, "wiki", start, number, 3);
+
+            this.size = size;
+        }
+
+        @Override
+        protected List<Integer> load(Integer last, int offset, int limit)
+        {
+            this.calls.add(last + ":" + offset + ":" + limit);
+
+            int first = last != null ? last + 1 : offset;
+            List<Integer> rows = new ArrayList<>();
+            for (int i = first; i < this.size && rows.size() < limit; ++i) {
+                rows.add(i);
+            }
+
+            return rows;
+        }
+
+        @Override
+        protected String convert(Integer row)
+        {
+            // Skip odd numbers
+            return row % 2 == 0 ? String.valueOf(row) : null;
+        }
+    }
+
+    private List<String> toList(Iterable<String> iterable)
+    {
+        List<String> list = new ArrayList<>();
+        iterable.forEach(list::add);
+
+        return list;
+    }
+
+    @Test
+    void iterateAll()
+    {
+        XWikiContext xcontext = mock(XWikiContext.class);
+        when(xcontext.getWikiId()).thenReturn("currentwiki");
+
+        IntegerIterable iterable = new IntegerIterable(xcontext, 0, -1, 7);
+
+        assertEquals(Arrays.asList("0", "2", "4", "6"), toList(iterable));
+        assertEquals(Arrays.asList("null:0:3", "2:0:3", "5:0:3"), iterable.calls);
+
+        verify(xcontext, times(3)).setWikiId("wiki");
+        verify(xcontext, times(3)).setWikiId("currentwiki");
+    }
+
+    @Test
+    void iterateRange()
+    {
+        IntegerIterable iterable = new IntegerIterable(mock(XWikiContext.class), 2, 4, 100);
+
+        assertEquals(Arrays.asList("2", "4"), toList(iterable));
+        assertEquals(Arrays.asList("null:2:3", "4:0:1"), iterable.calls);
+    }
+}
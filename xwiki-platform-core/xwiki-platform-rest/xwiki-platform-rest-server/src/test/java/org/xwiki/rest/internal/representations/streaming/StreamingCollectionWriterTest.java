@@ -0,0 +1,250 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.representations.streaming;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xwiki.rest.model.jaxb.Link;
+import org.xwiki.rest.model.jaxb.ObjectFactory;
+import org.xwiki.rest.model.jaxb.PageSummary;
+import org.xwiki.rest.model.jaxb.Pages;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link StreamingCollectionWriter}: the streamed representations must be the same as the ones
+ * produced by JAXB and Jackson for the equivalent non streamed representations.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class StreamingCollectionWriterTest
+{
+    @InjectMockComponents
+    private StreamingCollectionWriter writer;
+
+    private static Link link(String href, String rel)
+    {
+        Link link = new Link();
+        link.setHref(href);
+        link.setRel(rel);
+
+        return link;
+    }
+
+    private static PageSummary pageSummary(String name, String title)
+    {
+        PageSummary pageSummary = new PageSummary();
+        pageSummary.setId("wiki:Space." + name);
+        pageSummary.setFullName("Space." + name);
+        pageSummary.setWiki("wiki");
+        pageSummary.setSpace("Space");
+        pageSummary.setName(name);
+        pageSummary.setTitle(title);
+        pageSummary.setVersion("1.1");
+        pageSummary.getLinks().add(link("http://host/rest/wikis/wiki/spaces/Space/pages/" + name, "page"));
+
+        return pageSummary;
+    }
+
+    private static List<PageSummary> pageSummaries()
+    {
+        return Arrays.asList(pageSummary("Page1", "Simple title"),
+            pageSummary("Page2", "Escaped <title> & \"quotes\" 'apostrophes' \u00e9\u4e2d\ud83d\ude00"));
+    }
+
+    private static List<Link> links()
+    {
+        return Arrays.asList(link("http://host/rest/wikis/wiki?a=1&b=<2>", "wiki"));
+    }
+
+    private static Pages pages(List<Link> links, List<PageSummary> items)
+    {
+        Pages pages = new Pages();
+        pages.getLinks().addAll(links);
+        pages.getPageSummaries().addAll(items);
+
+        return pages;
+    }
+
+    private static StreamingPages streamingPages(List<Link> links, List<PageSummary> items)
+    {
+        StreamingPages pages = new StreamingPages(new ArrayList<>(items));
+        pages.getLinks().addAll(links);
+
+        return pages;
+    }
+
+    private byte[] write(StreamingPages pages, MediaType mediaType) throws Exception
+    {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        this.writer.writeTo(pages, pages.getClass(), pages.getClass(), null, mediaType, null, stream);
+
+        return stream.toByteArray();
+    }
+
+    private byte[] marshalXML(Pages pages) throws Exception
+    {
+        Marshaller marshaller = JAXBContext.newInstance(ObjectFactory.class).createMarshaller();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        marshaller.marshal(pages, stream);
+
+        return stream.toByteArray();
+    }
+
+    private byte[] marshalJSON(Pages pages) throws Exception
+    {
+        // Same configuration as the Restlet Jackson converter
+        JsonFactory jsonFactory = new JsonFactory();
+        jsonFactory.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+        return new ObjectMapper(jsonFactory).writeValueAsBytes(pages);
+    }
+
+    private Element parseXML(byte[] xml) throws Exception
+    {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml)).getDocumentElement();
+    }
+
+    /**
+     * Compare the elements, attributes and texts without taking into account the namespace prefixes and declarations.
+     */
+    private void assertXMLEquals(Element expected, Element actual)
+    {
+        assertEquals(expected.getNamespaceURI(), actual.getNamespaceURI());
+        assertEquals(expected.getLocalName(), actual.getLocalName());
+
+        assertEquals(getAttributes(expected), getAttributes(actual), "Attributes of " + expected.getLocalName());
+
+        List<Node> expectedChildren = getChildren(expected);
+        List<Node> actualChildren = getChildren(actual);
+        assertEquals(expectedChildren.size(), actualChildren.size(), "Children of " + expected.getLocalName());
+        for (int i = 0; i < expectedChildren.size(); ++i) {
+            Node expectedChild = expectedChildren.get(i);
+            Node actualChild = actualChildren.get(i);
+            assertEquals(expectedChild.getNodeType(), actualChild.getNodeType());
+            if (expectedChild instanceof Element) {
+                assertXMLEquals((Element) expectedChild, (Element) actualChild);
+            } else {
+                assertEquals(expectedChild.getNodeValue(), actualChild.getNodeValue());
+            }
+        }
+    }
+
+    private List<String> getAttributes(Element element)
+    {
+        List<String> attributes = new ArrayList<>();
+        NamedNodeMap map = element.getAttributes();
+        for (int i = 0; i < map.getLength(); ++i) {
+            Attr attribute = (Attr) map.item(i);
+            if (!"http://www.w3.org/2000/xmlns/".equals(attribute.getNamespaceURI())) {
+                attributes
+                    .add(attribute.getNamespaceURI() + ':' + attribute.getLocalName() + '=' + attribute.getValue());
+            }
+        }
+        Collections.sort(attributes);
+
+        return attributes;
+    }
+
+    private List<Node> getChildren(Element element)
+    {
+        element.normalize();
+
+        List<Node> children = new ArrayList<>();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() != Node.TEXT_NODE || !child.getNodeValue().trim().isEmpty()) {
+                children.add(child);
+            }
+        }
+
+        return children;
+    }
+
+    private void assertJSONEquals(byte[] expected, byte[] actual) throws Exception
+    {
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertEquals(mapper.readTree(expected), mapper.readTree(actual));
+    }
+
+    @Test
+    void writeXML() throws Exception
+    {
+        byte[] expected = marshalXML(pages(links(), pageSummaries()));
+        byte[] actual = write(streamingPages(links(), pageSummaries()), MediaType.APPLICATION_XML_TYPE);
+
+        assertXMLEquals(parseXML(expected), parseXML(actual));
+    }
+
+    @Test
+    void writeXMLWithEmptyCollection() throws Exception
+    {
+        byte[] expected = marshalXML(pages(Collections.emptyList(), Collections.emptyList()));
+        byte[] actual =
+            write(streamingPages(Collections.emptyList(), Collections.emptyList()), MediaType.APPLICATION_XML_TYPE);
+
+        assertXMLEquals(parseXML(expected), parseXML(actual));
+    }
+
+    @Test
+    void writeJSON() throws Exception
+    {
+        byte[] expected = marshalJSON(pages(links(), pageSummaries()));
+        byte[] actual = write(streamingPages(links(), pageSummaries()), MediaType.APPLICATION_JSON_TYPE);
+
+        assertJSONEquals(expected, actual);
+    }
+
+    @Test
+    void writeJSONWithEmptyCollection() throws Exception
+    {
+        byte[] expected = marshalJSON(pages(Collections.emptyList(), Collections.emptyList()));
+        byte[] actual =
+            write(streamingPages(Collections.emptyList(), Collections.emptyList()), MediaType.APPLICATION_JSON_TYPE);
+
+        assertJSONEquals(expected, actual);
+    }
+}
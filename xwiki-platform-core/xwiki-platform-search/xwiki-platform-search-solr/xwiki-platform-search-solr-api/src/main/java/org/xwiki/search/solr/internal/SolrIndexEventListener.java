@@ -20,8 +20,11 @@
 package org.xwiki.search.solr.internal;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -38,6 +41,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationContext;
 import org.xwiki.observation.event.Event;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 
@@ -49,6 +53,8 @@
 import com.xpn.xwiki.internal.event.AttachmentAddedEvent;
 import com.xpn.xwiki.internal.event.AttachmentDeletedEvent;
 import com.xpn.xwiki.internal.event.AttachmentUpdatedEvent;
+import com.xpn.xwiki.internal.event.BulkImportedEvent;
+import com.xpn.xwiki.internal.event.BulkImportingEvent;
 import com.xpn.xwiki.internal.event.EntityEvent;
 import com.xpn.xwiki.internal.event.XObjectAddedEvent;
 import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
@@ -75,7 +81,7 @@ public class SolrIndexEventListener implements EventListener
         new DocumentCreatedEvent(), new DocumentDeletedEvent(), new AttachmentAddedEvent(),
         new AttachmentDeletedEvent(), new AttachmentUpdatedEvent(), new XObjectAddedEvent(), new XObjectDeletedEvent(),
         new XObjectUpdatedEvent(), new XObjectPropertyAddedEvent(), new XObjectPropertyDeletedEvent(),
-        new XObjectPropertyUpdatedEvent(), new WikiDeletedEvent());
+        new XObjectPropertyUpdatedEvent(), new WikiDeletedEvent(), BulkImportedEvent.EVENT);
 
     /**
      * Logging framework.
@@ -91,6 +97,9 @@ public class SolrIndexEventListener implements EventListener
     @Inject
     private Provider<SolrIndexer> solrIndexer;
 
+    @Inject
+    private ObservationContext observationContext;
+
     @Override
     public List<Event> getEvents()
     {
@@ -107,7 +116,11 @@ public String getName()
     public void onEvent(Event event, Object source, Object data)
     {
         try {
-            if (event instanceof DocumentUpdatedEvent) {
+            if (event instanceof BulkImportedEvent) {
+                indexBulkImported(source);
+            } else if (!(event instanceof WikiDeletedEvent) && this.observationContext.isIn(BulkImportingEvent.EVENT)) {
+                // The saved documents are indexed all at once at the end of the import, when they are committed
+            } else if (event instanceof DocumentUpdatedEvent) {
                 XWikiDocument document = (XWikiDocument) source;
                 if (Locale.ROOT.equals(document.getLocale())) {
                     // Index all the translations of a document when its default translation has been updated because
@@ -181,6 +194,32 @@ public void onEvent(Event event, Object source, Object data)
         }
     }
 
+    private void indexBulkImported(Object source)
+    {
+        @SuppressWarnings("unchecked")
+        Collection<DocumentReference> documentReferences = (Collection<DocumentReference>) source;
+
+        SolrIndexer indexer = this.solrIndexer.get();
+
+        // Default translations are indexed recursively (translations, objects and attachments)
+        Set<DocumentReference> defaultTranslations = new HashSet<>();
+        for (DocumentReference documentReference : documentReferences) {
+            if (documentReference.getLocale() == null || Locale.ROOT.equals(documentReference.getLocale())) {
+                DocumentReference defaultTranslation = new DocumentReference(documentReference, (Locale) null);
+                if (defaultTranslations.add(defaultTranslation)) {
+                    indexer.index(defaultTranslation, true);
+                }
+            }
+        }
+
+        for (DocumentReference documentReference : documentReferences) {
+            if (documentReference.getLocale() != null && !Locale.ROOT.equals(documentReference.getLocale())
+                && !defaultTranslations.contains(new DocumentReference(documentReference, (Locale) null))) {
+                indexer.index(documentReference, false);
+            }
+        }
+    }
+
     /**
      * Helper method to index all the translations of a document. We don't rely on the {@code recurse} parameter of the
      * {@link SolrIndexer#index(org.xwiki.model.reference.EntityReference, boolean)} because we want to update only the
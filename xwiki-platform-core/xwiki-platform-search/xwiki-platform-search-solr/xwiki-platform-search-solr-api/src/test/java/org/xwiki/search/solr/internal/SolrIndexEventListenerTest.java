@@ -30,14 +30,18 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationContext;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.BulkImportedEvent;
+import com.xpn.xwiki.internal.event.BulkImportingEvent;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -107,4 +111,30 @@ public void onDocumentDefaultTranslationUpdated() throws Exception
         verify(this.indexer).index(new DocumentReference(documentReference, Locale.FRENCH), false);
         verify(this.indexer).index(new DocumentReference(documentReference, Locale.GERMAN), false);
     }
+
+    @Test
+    public void onBulkImport() throws Exception
+    {
+        ObservationContext observationContext = this.mocker.getInstance(ObservationContext.class);
+        when(observationContext.isIn(BulkImportingEvent.EVENT)).thenReturn(true);
+
+        XWikiDocument document = mock(XWikiDocument.class);
+        DocumentReference documentReference = new DocumentReference("wiki", "Path", "Page", Locale.ROOT);
+        when(document.getDocumentReferenceWithLocale()).thenReturn(documentReference);
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(), document, null);
+
+        // Nothing is indexed until the end of the import
+        verify(this.indexer, never()).index(any(EntityReference.class), any(Boolean.class));
+
+        DocumentReference frenchReference = new DocumentReference("wiki", "Path", "Page", Locale.FRENCH);
+        DocumentReference otherReference = new DocumentReference("wiki", "Path", "Other", Locale.FRENCH);
+
+        this.mocker.getComponentUnderTest().onEvent(BulkImportedEvent.EVENT,
+            Arrays.asList(documentReference, frenchReference, otherReference), null);
+
+        verify(this.indexer).index(new DocumentReference("wiki", "Path", "Page"), true);
+        verify(this.indexer).index(otherReference, false);
+        verify(this.indexer, times(2)).index(any(EntityReference.class), any(Boolean.class));
+    }
 }
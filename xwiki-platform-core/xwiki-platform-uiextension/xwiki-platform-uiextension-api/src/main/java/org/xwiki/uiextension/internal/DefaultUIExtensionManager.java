@@ -21,6 +21,8 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -28,9 +30,21 @@
 import javax.inject.Singleton;
 
 import org.slf4j.Logger;
+import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.component.internal.multi.ComponentManagerManager;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.namespace.DocumentNamespace;
+import org.xwiki.model.namespace.SpaceNamespace;
+import org.xwiki.model.namespace.UserNamespace;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.rendering.async.AsyncContext;
 import org.xwiki.uiextension.UIExtension;
 import org.xwiki.uiextension.UIExtensionManager;
@@ -62,26 +76,124 @@ public class DefaultUIExtensionManager implements UIExtensionManager
     @Inject
     private AsyncContext asyncContext;
 
+    @Inject
+    private UIExtensionCache cache;
+
+    /**
+     * Used to get the current user and document, since the extensions registered for a specific user, document or
+     * space are only visible to that user or in that document or space.
+     */
+    @Inject
+    private DocumentAccessBridge documentAccessBridge;
+
+    /**
+     * Used to get the current wiki, since the extensions registered for a specific wiki are only visible in it.
+     */
+    @Inject
+    private ModelContext modelContext;
+
+    /**
+     * Used to know if some components are registered for the current document, space or user.
+     */
+    @Inject
+    private ComponentManagerManager componentManagerManager;
+
+    /**
+     * Used to serialize the namespaces of the current document, space and user.
+     */
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
     @Override
     public List<UIExtension> get(String extensionPointId)
     {
         List<UIExtension> extensions = new ArrayList<>();
+        for (Supplier<UIExtension> extension : this.cache.get(getContextNamespaces(), extensionPointId,
+            () -> lookup(extensionPointId))) {
+            UIExtension instance = extension.get();
+            if (instance != null) {
+                extensions.add(instance);
+            }
+        }
+
+        // Indicate that any currently running asynchronous execution result should be removed from the cache as
+        // soon as a UIExtension component is modified
+        this.asyncContext.useComponent(UIExtension.class);
+
+        return extensions;
+    }
+
+    /**
+     * @return the current wiki, followed by the namespaces of the current document, space and user which have their
+     *         own components, since they are the only ones which can change the available extensions
+     */
+    private List<String> getContextNamespaces()
+    {
+        List<String> namespaces = new ArrayList<>();
+
+        EntityReference currentReference = this.modelContext.getCurrentEntityReference();
+        namespaces.add(currentReference != null ? currentReference.extractReference(EntityType.WIKI).getName() : null);
+
+        DocumentReference document = this.documentAccessBridge.getCurrentDocumentReference();
+        if (document != null) {
+            addNamespace(DocumentNamespace.TYPE, document, namespaces);
+            addNamespace(SpaceNamespace.TYPE, document.getLastSpaceReference(), namespaces);
+        }
+
+        DocumentReference user = this.documentAccessBridge.getCurrentUserReference();
+        if (user != null) {
+            addNamespace(UserNamespace.TYPE, user, namespaces);
+        }
+
+        return namespaces;
+    }
+
+    private void addNamespace(String type, EntityReference reference, List<String> namespaces)
+    {
+        // Same namespaces as the ones of the document, space and user component managers
+        String namespace = type + ':' + this.serializer.serialize(reference);
+        if (this.componentManagerManager.getComponentManager(namespace, false) != null) {
+            namespaces.add(namespace);
+        }
+    }
+
+    private List<Supplier<UIExtension>> lookup(String extensionPointId)
+    {
+        List<Supplier<UIExtension>> extensions = new ArrayList<>();
 
         try {
-            List<UIExtension> allExtensions = contextComponentManagerProvider.get().getInstanceList(UIExtension.class);
-            for (UIExtension extension : allExtensions) {
+            ComponentManager componentManager = this.contextComponentManagerProvider.get();
+            Map<String, UIExtension> allExtensions = componentManager.getInstanceMap(UIExtension.class);
+            for (Map.Entry<String, UIExtension> entry : allExtensions.entrySet()) {
+                UIExtension extension = entry.getValue();
                 if (extension.getExtensionPointId().equals(extensionPointId)) {
-                    extensions.add(extension);
+                    ComponentDescriptor<UIExtension> descriptor =
+                        componentManager.getComponentDescriptor(UIExtension.class, entry.getKey());
+                    if (descriptor != null
+                        && descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.PER_LOOKUP) {
+                        // Don't share the instances which are not meant to be shared
+                        String hint = entry.getKey();
+                        extensions.add(() -> getExtension(hint));
+                    } else {
+                        extensions.add(() -> extension);
+                    }
                 }
             }
-
-            // Indicate that any currently running asynchronous execution result should be removed from the cache as
-            // soon as a UIExtension component is modified
-            this.asyncContext.useComponent(UIExtension.class);
         } catch (ComponentLookupException e) {
             this.logger.error("Failed to lookup UIExtension instances, error: [{}]", e);
         }
 
         return extensions;
     }
+
+    private UIExtension getExtension(String hint)
+    {
+        try {
+            return this.contextComponentManagerProvider.get().getInstance(UIExtension.class, hint);
+        } catch (ComponentLookupException e) {
+            this.logger.error("Failed to lookup UIExtension with hint [{}]", hint, e);
+
+            return null;
+        }
+    }
 }
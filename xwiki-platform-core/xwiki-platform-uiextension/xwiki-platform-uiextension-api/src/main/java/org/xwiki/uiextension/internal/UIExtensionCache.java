@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.uiextension.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.uiextension.UIExtension;
+
+/**
+ * Remember the {@link UIExtension}s of each extension point so that the menus, panels, etc. displayed on each page
+ * don't need to lookup and filter all the {@link UIExtension} components again and again. Since the components
+ * available depend on the context (the extensions can be registered for a specific wiki, space, document or user), the
+ * lists are indexed by the namespaces of the context which have components and by extension point. The lists are
+ * forgotten by {@link UIExtensionCacheListener} as soon as a {@link UIExtension} component is registered or
+ * unregistered.
+ * <p>
+ * The extensions are remembered as suppliers so that the components which must be instantiated at each lookup are not
+ * shared between the callers.
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = UIExtensionCache.class)
+@Singleton
+public class UIExtensionCache
+{
+    /**
+     * The maximum number of lists remembered, to not fill the memory when many users and documents have their own
+     * components.
+     */
+    private static final int MAX_ENTRIES = 10000;
+
+    private static final class Entry
+    {
+        private final long version;
+
+        private final List<Supplier<UIExtension>> extensions;
+
+        Entry(long version, List<Supplier<UIExtension>> extensions)
+        {
+            this.version = version;
+            this.extensions = extensions;
+        }
+    }
+
+    /**
+     * The extensions indexed by context and extension point.
+     */
+    private final Map<List<String>, Entry> extensions = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented each time the cache is invalidated, to avoid storing a list computed before the invalidation.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * @param context the namespaces of the context which determine the available components (wiki, and document,
+     *            space or user when they have components)
+     * @param extensionPointId the identifier of the extension point
+     * @param loader used to find the extensions when they are not in the cache
+     * @return the suppliers of the extensions of the extension point
+     */
+    public List<Supplier<UIExtension>> get(List<String> context, String extensionPointId,
+        Supplier<List<Supplier<UIExtension>>> loader)
+    {
+        List<String> key = new ArrayList<>(context);
+        key.add(extensionPointId);
+
+        long currentVersion = this.version.get();
+
+        Entry entry = this.extensions.get(key);
+
+        // An entry computed before the last invalidation is never used, even if it was stored after it
+        if (entry == null || entry.version != currentVersion) {
+            entry = new Entry(currentVersion, Collections.unmodifiableList(loader.get()));
+
+            if (this.extensions.size() >= MAX_ENTRIES) {
+                this.extensions.clear();
+            }
+            this.extensions.put(key, entry);
+        }
+
+        return entry.extensions;
+    }
+
+    /**
+     * Forget all the extensions.
+     */
+    public void invalidate()
+    {
+        this.version.incrementAndGet();
+
+        this.extensions.clear();
+    }
+}
@@ -20,25 +20,58 @@
 package org.xwiki.uiextension;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.component.descriptor.DefaultComponentDescriptor;
 import org.xwiki.component.internal.ContextComponentManagerProvider;
+import org.xwiki.component.internal.StackingComponentEventManager;
+import org.xwiki.component.internal.multi.ComponentManagerManager;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.internal.DefaultObservationManager;
+import org.xwiki.rendering.block.Block;
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 import org.xwiki.uiextension.internal.DefaultUIExtensionManager;
+import org.xwiki.uiextension.internal.UIExtensionCache;
+import org.xwiki.uiextension.internal.UIExtensionCacheListener;
 
-@ComponentList(ContextComponentManagerProvider.class)
+@ComponentList({ ContextComponentManagerProvider.class, UIExtensionCache.class, UIExtensionCacheListener.class,
+    DefaultObservationManager.class })
 public class UIExtensionManagerTest
 {
     @Rule
     public MockitoComponentMockingRule<UIExtensionManager> mocker =
         new MockitoComponentMockingRule<UIExtensionManager>(DefaultUIExtensionManager.class);
 
+    @Before
+    public void setUp() throws Exception
+    {
+        // Send the component registration events, so that the cache is invalidated by UIExtensionCacheListener
+        StackingComponentEventManager eventManager = new StackingComponentEventManager();
+        eventManager.setObservationManager(this.mocker.<ObservationManager>getInstance(ObservationManager.class));
+        eventManager.shouldStack(false);
+        this.mocker.setComponentEventManager(eventManager);
+    }
+
     @Test
     public void testGet() throws Exception
     {
@@ -56,4 +89,99 @@ public void testGet() throws Exception
         assertEquals(new HashSet<UIExtension>(Arrays.asList(uix1, uix2)), new HashSet<UIExtension>(this.mocker
             .getComponentUnderTest().get("extensionpoint")));
     }
+
+    @Test
+    public void testGetIsCached() throws Exception
+    {
+        UIExtension uix = mocker.registerMockComponent(UIExtension.class, "uix");
+        when(uix.getExtensionPointId()).thenReturn("extensionpoint");
+
+        assertEquals(Arrays.asList(uix), this.mocker.getComponentUnderTest().get("extensionpoint"));
+        assertEquals(Arrays.asList(uix), this.mocker.getComponentUnderTest().get("extensionpoint"));
+
+        // The extensions have been looked up only once
+        verify(uix, times(1)).getExtensionPointId();
+
+        mocker.unregisterComponent(UIExtension.class, "uix");
+
+        assertEquals(Collections.emptyList(), this.mocker.getComponentUnderTest().get("extensionpoint"));
+    }
+
+    @Test
+    public void testGetIsCachedPerDocumentWithComponents() throws Exception
+    {
+        EntityReferenceSerializer<String> serializer = this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        when(serializer.serialize(any())).thenAnswer(invocation -> String.valueOf(invocation.<Object>getArgument(0)));
+
+        UIExtension uix = mocker.registerMockComponent(UIExtension.class, "uix");
+        when(uix.getExtensionPointId()).thenReturn("extensionpoint");
+
+        DocumentAccessBridge documentAccessBridge = this.mocker.getInstance(DocumentAccessBridge.class);
+        DocumentReference page1 = new DocumentReference("wiki", "Space", "Page1");
+        DocumentReference page2 = new DocumentReference("wiki", "Space", "Page2");
+        DocumentReference page3 = new DocumentReference("wiki", "Space", "Page3");
+
+        // Simulate components registered for the second document
+        ComponentManagerManager componentManagerManager = this.mocker.getInstance(ComponentManagerManager.class);
+        when(componentManagerManager.getComponentManager("document:" + page2, false))
+            .thenReturn(mock(ComponentManager.class));
+
+        when(documentAccessBridge.getCurrentDocumentReference()).thenReturn(page1);
+        assertEquals(Arrays.asList(uix), this.mocker.getComponentUnderTest().get("extensionpoint"));
+        verify(uix, times(1)).getExtensionPointId();
+
+        // The document has its own components so its extensions are looked up
+        when(documentAccessBridge.getCurrentDocumentReference()).thenReturn(page2);
+        assertEquals(Arrays.asList(uix), this.mocker.getComponentUnderTest().get("extensionpoint"));
+        verify(uix, times(2)).getExtensionPointId();
+
+        // The document doesn't have its own components so it shares the extensions of the wiki
+        when(documentAccessBridge.getCurrentDocumentReference()).thenReturn(page3);
+        assertEquals(Arrays.asList(uix), this.mocker.getComponentUnderTest().get("extensionpoint"));
+        verify(uix, times(2)).getExtensionPointId();
+    }
+
+    @Test
+    public void testGetWithPerLookupExtension() throws Exception
+    {
+        DefaultComponentDescriptor<UIExtension> descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleType(UIExtension.class);
+        descriptor.setRoleHint("perlookup");
+        descriptor.setImplementation(PerLookupUIExtension.class);
+        descriptor.setInstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP);
+        this.mocker.registerComponent(descriptor);
+
+        List<UIExtension> extensions = this.mocker.getComponentUnderTest().get("extensionpoint");
+        assertEquals(1, extensions.size());
+
+        // The cached list doesn't share the instances which are not meant to be shared
+        assertNotSame(extensions.get(0), this.mocker.getComponentUnderTest().get("extensionpoint").get(0));
+    }
+
+    public static class PerLookupUIExtension implements UIExtension
+    {
+        @Override
+        public String getId()
+        {
+            return "perlookup";
+        }
+
+        @Override
+        public String getExtensionPointId()
+        {
+            return "extensionpoint";
+        }
+
+        @Override
+        public Map<String, String> getParameters()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Block execute()
+        {
+            return null;
+        }
+    }
 }
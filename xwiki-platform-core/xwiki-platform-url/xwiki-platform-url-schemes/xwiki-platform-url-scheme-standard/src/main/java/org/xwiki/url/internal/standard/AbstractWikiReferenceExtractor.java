@@ -81,6 +81,28 @@ protected WikiDescriptor getWikiDescriptorByAlias(String alias)
         }
     }
 
+    /**
+     * @param alias the alias of the wiki
+     * @return the identifier of the wiki associated with the passed alias or null if none could be found
+     * @since 13.4RC1
+     */
+    protected String getWikiIdByAlias(String alias)
+    {
+        // Note: We also support not having an Execution Context available. This allows this code to work at request
+        // initialization time, when no Context has been set up yet. In the future, we need to move the Context init
+        // as the first thing along with Database initialization.
+        if (this.execution.getContext() == null) {
+            return null;
+        }
+
+        try {
+            // Resolving the identifier does not require to load the whole descriptor
+            return this.wikiDescriptorManager.getIdByAlias(alias);
+        } catch (WikiManagerException e) {
+            throw new RuntimeException(String.format("Failed to locate wiki descriptor for alias [%s]", alias), e);
+        }
+    }
+
     protected WikiDescriptor getWikiDescriptorById(String wikiId)
     {
         // Note: We also support not having an Execution Context available. This allows this code to work at request
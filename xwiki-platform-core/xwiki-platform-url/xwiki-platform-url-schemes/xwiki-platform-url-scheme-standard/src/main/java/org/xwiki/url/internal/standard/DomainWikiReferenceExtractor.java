@@ -26,7 +26,6 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.url.ExtendedURL;
-import org.xwiki.wiki.descriptor.WikiDescriptor;
 
 /**
  * Handles domain-based multiwiki configurations when extracting the wiki reference from the passed URL.
@@ -58,11 +57,8 @@ private String resolveDomainBasedWikiReference(String alias)
         String wikiId;
 
         // Look for a Wiki Descriptor
-        WikiDescriptor wikiDescriptor = getWikiDescriptorByAlias(alias);
-        if (wikiDescriptor != null) {
-            // Get the wiki id from the wiki descriptor
-            wikiId = wikiDescriptor.getId();
-        } else {
+        wikiId = getWikiIdByAlias(alias);
+        if (wikiId == null) {
             // Fallback: No definition found based on the full domain name, consider the alias as a
             // domain name and try to use the first part of the domain name as the wiki name.
             String domainAlias = StringUtils.substringBefore(alias, ".");
@@ -26,7 +26,6 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.url.ExtendedURL;
-import org.xwiki.wiki.descriptor.WikiDescriptor;
 
 /**
  * Handles path-based multiwiki configurations when extracting the wiki reference from the passed URL.
@@ -57,11 +56,8 @@ private String resolvePathBasedWikiReference(String alias)
         String wikiId;
 
         // Look for a Wiki Descriptor
-        WikiDescriptor wikiDescriptor = getWikiDescriptorByAlias(alias);
-        if (wikiDescriptor != null) {
-            // Get the wiki id from the wiki descriptor
-            wikiId = wikiDescriptor.getId();
-        } else {
+        wikiId = getWikiIdByAlias(alias);
+        if (wikiId == null) {
             wikiId = normalizeWikiIdForNonExistentWikiDescriptor(alias);
         }
 
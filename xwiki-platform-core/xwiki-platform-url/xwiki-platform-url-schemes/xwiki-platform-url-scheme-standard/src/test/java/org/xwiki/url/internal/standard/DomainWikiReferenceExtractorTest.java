@@ -69,7 +69,7 @@ public void extractWhenNoWikiDescriptorForFullDomainButDescriptorForSubdomain()
         setUpConfiguration(WikiNotFoundBehavior.REDIRECT_TO_MAIN_WIKI);
 
         WikiDescriptorManager wikiDescriptorManager = mocker.getInstance(WikiDescriptorManager.class);
-        when(wikiDescriptorManager.getByAlias("wiki.server.com")).thenReturn(null);
+        when(wikiDescriptorManager.getIdByAlias("wiki.server.com")).thenReturn(null);
         when(wikiDescriptorManager.getById("wiki")).thenReturn(new WikiDescriptor("dummy", "dummy"));
 
         testAndAssert("http://wiki.server.com/xwiki/bin/view/Main/WebHome", "wiki");
@@ -102,7 +102,7 @@ public void extractWhenWikiDescriptor() throws Exception
         setUpConfiguration(WikiNotFoundBehavior.REDIRECT_TO_MAIN_WIKI);
 
         WikiDescriptorManager wikiDescriptorManager = mocker.getInstance(WikiDescriptorManager.class);
-        when(wikiDescriptorManager.getByAlias("wiki.server.com")).thenReturn(new WikiDescriptor("wikiid", "wiki"));
+        when(wikiDescriptorManager.getIdByAlias("wiki.server.com")).thenReturn("wikiid");
 
         testAndAssert("http://wiki.server.com/xwiki/bin/view/Main/WebHome", "wikiid");
     }
@@ -129,7 +129,7 @@ public void extractWhenNoExecutionContext() throws Exception
     {
         testAndAssert("http://domain.server.com/xwiki/bin/view/Main/WebHome", "domain");
 
-        verify(this.wikiDescriptorManager, never()).getByAlias(any());
+        verify(this.wikiDescriptorManager, never()).getIdByAlias(any());
         verify(this.wikiDescriptorManager, never()).getById(any());
     }
 
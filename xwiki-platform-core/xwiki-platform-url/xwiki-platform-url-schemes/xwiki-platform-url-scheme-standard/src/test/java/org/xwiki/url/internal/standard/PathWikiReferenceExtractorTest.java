@@ -62,7 +62,7 @@ public void extractWhenWikiDescriptor() throws Exception
         setUpConfiguration(WikiNotFoundBehavior.REDIRECT_TO_MAIN_WIKI);
 
         WikiDescriptorManager wikiDescriptorManager = mocker.getInstance(WikiDescriptorManager.class);
-        when(wikiDescriptorManager.getByAlias("someWiki")).thenReturn(new WikiDescriptor("wikiid", "someWiki"));
+        when(wikiDescriptorManager.getIdByAlias("someWiki")).thenReturn("wikiid");
 
         testAndAssert("http://localhost/xwiki/wiki/someWiki/view/Main/WebHome", "wikiid");
     }
@@ -80,7 +80,7 @@ public void extractWhenWikiDescriptorButEmptyServerName() throws Exception
         setUpConfiguration(WikiNotFoundBehavior.REDIRECT_TO_MAIN_WIKI);
 
         WikiDescriptorManager wikiDescriptorManager = mocker.getInstance(WikiDescriptorManager.class);
-        when(wikiDescriptorManager.getByAlias("someWiki")).thenReturn(new WikiDescriptor("", "someWiki"));
+        when(wikiDescriptorManager.getIdByAlias("someWiki")).thenReturn("");
 
         testAndAssert("http://localhost/xwiki/wiki/someWiki/view/Main/WebHome", "xwiki");
     }
@@ -91,7 +91,7 @@ public void extractWhenNoDescriptorMatchingAliasButDescriptorMatchingId() throws
         setUpConfiguration(WikiNotFoundBehavior.REDIRECT_TO_MAIN_WIKI);
 
         WikiDescriptorManager wikiDescriptorManager = mocker.getInstance(WikiDescriptorManager.class);
-        when(wikiDescriptorManager.getByAlias("someWiki")).thenReturn(null);
+        when(wikiDescriptorManager.getIdByAlias("someWiki")).thenReturn(null);
         when(wikiDescriptorManager.getById("someWiki")).thenReturn(new WikiDescriptor("dummy", "dummy"));
 
         testAndAssert("http://localhost/xwiki/wiki/someWiki/view/Main/WebHome", "somewiki");
@@ -116,7 +116,7 @@ public void extractWhenNoExecutionContext() throws Exception
     {
         testAndAssert("http://localhost/xwiki/wiki/someWiki/view/Main/WebHome", "somewiki");
 
-        verify(this.wikiDescriptorManager, never()).getByAlias(any());
+        verify(this.wikiDescriptorManager, never()).getIdByAlias(any());
         verify(this.wikiDescriptorManager, never()).getById(any());
     }
 
@@ -61,6 +61,22 @@
      */
     WikiDescriptor getByAlias(String wikiAlias) throws WikiManagerException;
 
+    /**
+     * Get the identifier of a wiki from one of its aliases, without loading the whole descriptor when possible.
+     *
+     * @param wikiAlias Alias of the wiki to retrieve
+     * @return The identifier of the wiki associated with that alias, null if none exist for this alias
+     * @throws WikiManagerException if problems occur
+     * @since 13.4RC1
+     */
+    @Unstable
+    default String getIdByAlias(String wikiAlias) throws WikiManagerException
+    {
+        WikiDescriptor descriptor = getByAlias(wikiAlias);
+
+        return descriptor != null ? descriptor.getId() : null;
+    }
+
     /**
      * Get a wiki from its Id.
      *
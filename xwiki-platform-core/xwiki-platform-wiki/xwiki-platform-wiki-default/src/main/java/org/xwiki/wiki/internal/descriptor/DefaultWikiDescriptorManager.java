@@ -21,8 +21,6 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -39,6 +37,7 @@
 import org.xwiki.wiki.internal.descriptor.builder.WikiDescriptorBuilderException;
 import org.xwiki.wiki.internal.descriptor.document.WikiDescriptorDocumentHelper;
 import org.xwiki.wiki.internal.manager.WikiDescriptorCache;
+import org.xwiki.wiki.internal.manager.WikiDescriptorIndex;
 import org.xwiki.wiki.manager.WikiManagerException;
 
 import com.xpn.xwiki.XWikiContext;
@@ -62,6 +61,9 @@ public class DefaultWikiDescriptorManager implements WikiDescriptorManager
     @Inject
     private WikiDescriptorCache cache;
 
+    @Inject
+    private WikiDescriptorIndex index;
+
     @Inject
     private Provider<WikiDescriptorDocumentHelper> descriptorDocumentHelperProvider;
 
@@ -71,11 +73,9 @@ public class DefaultWikiDescriptorManager implements WikiDescriptorManager
     @Override
     public Collection<WikiDescriptor> getAll() throws WikiManagerException
     {
-        // Note: Ideally to improve performance we could imagine loading all XWikiServerClasses at initialization time
-        // (in initialize()) and thereafter only use the cache. The problem with this approach is that our Cache will
-        // need to be unbounded which is not the case right now. This would mean being able to put all descriptors in
-        // the cache and thus it might not scale if there were a very large number of wikis.
-        // Note that the full list of ids is cached since it takes a lot less memory that descriptors.
+        // Note: The full list of ids is always in memory (see WikiDescriptorIndex) since it takes a lot less memory
+        // than descriptors. The descriptors themselves are only cached for the most used wikis since keeping them all
+        // in memory might not scale if there were a very large number of wikis.
 
         Collection<String> wikiIds = getAllIds();
 
@@ -97,39 +97,7 @@ public Collection<WikiDescriptor> getAll() throws WikiManagerException
     @Override
     public Collection<String> getAllIds() throws WikiManagerException
     {
-        Collection<String> wikiIds = this.cache.getWikiIds();
-
-        if (wikiIds == null) {
-            List<String> documentNames;
-            try {
-                documentNames = this.descriptorDocumentHelperProvider.get().getAllXWikiServerClassDocumentNames();
-            } catch (Exception e) {
-                throw new WikiManagerException("Failed to get wiki ids", e);
-            }
-
-            wikiIds = new HashSet<String>(documentNames.size());
-
-            boolean foundMainWiki = false;
-
-            XWikiContext xcontext = this.xcontextProvider.get();
-
-            for (String documentName : documentNames) {
-                String wikId = this.descriptorDocumentHelperProvider.get().getWikiIdFromDocumentFullname(documentName);
-
-                wikiIds.add(wikId);
-
-                foundMainWiki |= xcontext.isMainWiki(wikId);
-            }
-
-            // Make sure we always return a descriptor for main wiki, even a virtual one
-            if (!foundMainWiki) {
-                wikiIds.add(getMainWikiId());
-            }
-
-            this.cache.setWikiIds(Collections.unmodifiableCollection(wikiIds));
-        }
-
-        return wikiIds;
+        return this.index.getWikiIds();
     }
 
     @Override
@@ -137,21 +105,19 @@ public WikiDescriptor getByAlias(String wikiAlias) throws WikiManagerException
     {
         WikiDescriptor descriptor = cache.getFromAlias(wikiAlias);
 
-        // If not found in the cache then query the wiki and add to the cache if found.
+        // If not found in the cache then resolve the alias using the index and add to the cache if found.
         //
-        // Note that an alternative implementation would have been to find all Wiki Descriptors at startup but this
-        // would have meant keeping them all in memory at once. Since we want to be able to scale to any number of
-        // subwikis we only cache the most used one. This allows inactive wikis to not take up any memory for example.
-        // Note that In order for performance to be maximum it also means we need to have a cache size at least as
-        // large as the max # of wikis being used at once.
+        // Note that only the aliases are all kept in memory. Since we want to be able to scale to any number of
+        // subwikis we only cache the most used descriptors. This allows inactive wikis to not take up any memory for
+        // example. Note that In order for performance to be maximum it also means we need to have a cache size at
+        // least as large as the max # of wikis being used at once.
         if (descriptor == null) {
-            XWikiDocument document = descriptorDocumentHelperProvider.get().findXWikiServerClassDocument(wikiAlias);
-            if (document != null) {
-                // Build the descriptor
-                descriptor = buildDescriptorFromDocument(document);
+            String wikiId = this.index.getWikiId(wikiAlias);
+            if (wikiId != null) {
+                descriptor = getDescriptorById(wikiId);
             }
 
-            if (descriptor == null) {
+            if (descriptor == null || descriptor == DefaultWikiDescriptor.VOID) {
                 // Cache the fact that no descriptor is available for this alias
                 cache.addFromAlias(wikiAlias, DefaultWikiDescriptor.VOID);
             }
@@ -160,21 +126,42 @@ public WikiDescriptor getByAlias(String wikiAlias) throws WikiManagerException
         return descriptor != DefaultWikiDescriptor.VOID && descriptor != null ? descriptor.clone() : null;
     }
 
+    @Override
+    public String getIdByAlias(String wikiAlias) throws WikiManagerException
+    {
+        WikiDescriptor descriptor = cache.getFromAlias(wikiAlias);
+
+        if (descriptor != null) {
+            return descriptor != DefaultWikiDescriptor.VOID ? descriptor.getId() : null;
+        }
+
+        return this.index.getWikiId(wikiAlias);
+    }
+
     @Override
     public WikiDescriptor getById(String wikiId) throws WikiManagerException
+    {
+        WikiDescriptor descriptor = getDescriptorById(wikiId);
+
+        return descriptor != DefaultWikiDescriptor.VOID && descriptor != null ? descriptor.clone() : null;
+    }
+
+    private WikiDescriptor getDescriptorById(String wikiId) throws WikiManagerException
     {
         WikiDescriptor descriptor = cache.getFromId(wikiId);
 
         if (descriptor == null) {
-            // Try to load a page named XWiki.XWikiServer<wikiId>
-            XWikiDocument document = descriptorDocumentHelperProvider.get().getDocumentFromWikiId(wikiId);
-
-            if (!document.isNew()) {
-                // Build the descriptor
-                descriptor = buildDescriptorFromDocument(document);
-            } else if (getMainWikiId().equals(wikiId)) {
-                // Return a "virtual" descriptor if main wiki does not yet have a descriptor document
-                descriptor = new WikiDescriptor(wikiId, "localhost");
+            if (getMainWikiId().equals(wikiId) || this.index.exists(wikiId)) {
+                // Try to load a page named XWiki.XWikiServer<wikiId>
+                XWikiDocument document = descriptorDocumentHelperProvider.get().getDocumentFromWikiId(wikiId);
+
+                if (!document.isNew()) {
+                    // Build the descriptor
+                    descriptor = buildDescriptorFromDocument(document);
+                } else if (getMainWikiId().equals(wikiId)) {
+                    // Return a "virtual" descriptor if main wiki does not yet have a descriptor document
+                    descriptor = new WikiDescriptor(wikiId, "localhost");
+                }
             }
 
             if (descriptor == null) {
@@ -183,13 +170,13 @@ public WikiDescriptor getById(String wikiId) throws WikiManagerException
             }
         }
 
-        return descriptor != DefaultWikiDescriptor.VOID && descriptor != null ? descriptor.clone() : null;
+        return descriptor;
     }
 
     @Override
     public boolean exists(String wikiId) throws WikiManagerException
     {
-        return getAllIds().contains(wikiId);
+        return this.index.exists(wikiId);
     }
 
     @Override
@@ -20,7 +20,9 @@
 package org.xwiki.wiki.internal.descriptor.document;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -181,6 +183,37 @@ public List<String> getAllXWikiServerClassDocumentNames() throws WikiManagerExce
         }
     }
 
+    @Override
+    public Map<String, List<String>> getAllWikiAliases() throws WikiManagerException
+    {
+        WikiDescriptorManager wikiDescriptorManager = wikiDescriptorManagerProvider.get();
+
+        List<Object[]> rows;
+        try {
+            Query query = this.queryManager.createQuery(
+                    "select doc.fullName, descriptor.server from Document doc, doc.object(XWiki.XWikiServerClass) as "
+                            + "descriptor where doc.name like 'XWikiServer%' "
+                            + "and doc.fullName <> 'XWiki.XWikiServerClassTemplate'",
+                    Query.XWQL);
+            query.setWiki(wikiDescriptorManager.getMainWikiId());
+            query.addFilter(componentManager.<QueryFilter>getInstance(QueryFilter.class, "unique"));
+            rows = query.execute();
+        } catch (Exception e) {
+            throw new WikiManagerException("Failed to load the aliases of the XWiki.XWikiServerClass documents", e);
+        }
+
+        Map<String, List<String>> aliases = new HashMap<>(rows.size());
+        for (Object[] row : rows) {
+            List<String> wikiAliases =
+                aliases.computeIfAbsent(getWikiIdFromDocumentFullname((String) row[0]), k -> new ArrayList<>());
+            if (StringUtils.isNotEmpty((String) row[1])) {
+                wikiAliases.add((String) row[1]);
+            }
+        }
+
+        return aliases;
+    }
+
     private XWikiDocument getDocument(DocumentReference reference) throws WikiManagerException
     {
         XWikiContext context = xcontextProvider.get();
@@ -20,6 +20,7 @@
 package org.xwiki.wiki.internal.descriptor.document;
 
 import java.util.List;
+import java.util.Map;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
@@ -85,4 +86,13 @@
      * @throws WikiManagerException if problems occur
      */
     List<String> getAllXWikiServerClassDocumentNames() throws WikiManagerException;
+
+    /**
+     * Load the aliases of all the wikis using a single query.
+     * 
+     * @return the aliases of each wiki indexed by wiki identifier
+     * @throws WikiManagerException if problems occur
+     * @since 13.4RC1
+     */
+    Map<String, List<String>> getAllWikiAliases() throws WikiManagerException;
 }
@@ -38,12 +38,14 @@
 import org.xwiki.wiki.internal.descriptor.builder.WikiDescriptorBuilder;
 import org.xwiki.wiki.internal.descriptor.document.WikiDescriptorDocumentHelper;
 import org.xwiki.wiki.internal.manager.WikiDescriptorCache;
+import org.xwiki.wiki.internal.manager.WikiDescriptorIndex;
 
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
 /**
- * Used to refresh the Wiki Descriptor Cache.
+ * Used to refresh the Wiki Descriptor Cache and Index. Since document events are also received from the other
+ * cluster members, this keeps the index in sync across the cluster.
  *
  * @version $Id$
  * @since 5.3M2
@@ -65,6 +67,9 @@ public class WikiDescriptorListener implements EventListener
     @Inject
     private WikiDescriptorCache cache;
 
+    @Inject
+    private WikiDescriptorIndex index;
+
     @Inject
     private WikiDescriptorDocumentHelper wikiDescriptorDocumentHelper;
 
@@ -97,7 +102,7 @@ public void onEvent(Event event, Object source, Object data)
             DefaultWikiDescriptor descriptor = this.builder.buildDescriptorObject(serverClassObjects, document);
             if (descriptor != null) {
                 this.cache.add(descriptor);
-                this.cache.setWikiIds(null);
+                this.index.set(descriptor);
             }
         }
     }
@@ -111,8 +116,8 @@ private void removeExistingDescriptor(XWikiDocument document)
             DefaultWikiDescriptor existingDescriptor = this.cache.getFromId(wikiId);
             if (existingDescriptor != null) {
                 this.cache.remove(wikiId, existingDescriptor.getAliases());
-                this.cache.setWikiIds(null);
             }
+            this.index.remove(wikiId);
         }
     }
 }
@@ -155,7 +155,9 @@ public DefaultWikiDescriptor getFromAlias(String wikiAlias)
     /**
      * @param wikiIds the full list of wikis identifiers
      * @since 6.2M1
+     * @deprecated since 13.4RC1, the full list of wikis identifiers is maintained by {@link WikiDescriptorIndex}
      */
+    @Deprecated
     public void setWikiIds(Collection<String> wikiIds)
     {
         this.wikiIds = wikiIds;
@@ -164,7 +166,9 @@ public void setWikiIds(Collection<String> wikiIds)
     /**
      * @return the full list of wikis identifiers
      * @since 6.2M1
+     * @deprecated since 13.4RC1, the full list of wikis identifiers is maintained by {@link WikiDescriptorIndex}
      */
+    @Deprecated
     public Collection<String> getWikiIds()
     {
         return this.wikiIds;
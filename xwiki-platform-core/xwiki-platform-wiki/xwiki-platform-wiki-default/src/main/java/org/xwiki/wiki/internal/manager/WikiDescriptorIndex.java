@@ -0,0 +1,188 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.wiki.internal.manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+import org.xwiki.wiki.internal.descriptor.DefaultWikiDescriptor;
+import org.xwiki.wiki.internal.descriptor.document.WikiDescriptorDocumentHelper;
+import org.xwiki.wiki.manager.WikiManagerException;
+
+/**
+ * Complete in-memory index of the wiki identifiers and aliases. Contrary to {@link WikiDescriptorCache} which only
+ * contains the most used descriptors, this index knows about every wiki so that resolving an alias or checking if a
+ * wiki exists never requires accessing the database once the index is loaded.
+ * <p>
+ * The index is loaded with a single query the first time it's needed and then kept up to date by the wiki descriptor
+ * listener (which also receives the events coming from other cluster members).
+ *
+ * @version $Id$
+ * @since 13.4RC1
+ */
+@Component(roles = WikiDescriptorIndex.class)
+@Singleton
+public class WikiDescriptorIndex
+{
+    /**
+     * An immutable state of the index.
+     *
+     * @version $Id$
+     */
+    private static final class Snapshot
+    {
+        private final Map<String, List<String>> aliasesById;
+
+        private final Map<String, String> idByAlias;
+
+        private final Collection<String> ids;
+
+        Snapshot(Map<String, List<String>> aliasesById)
+        {
+            this.aliasesById = aliasesById;
+            this.idByAlias = new HashMap<>(aliasesById.size());
+            for (Map.Entry<String, List<String>> entry : aliasesById.entrySet()) {
+                for (String alias : entry.getValue()) {
+                    // Several wikis declaring the same alias is a misconfiguration, only one of them is kept
+                    this.idByAlias.putIfAbsent(alias, entry.getKey());
+                }
+            }
+            this.ids = Collections.unmodifiableCollection(aliasesById.keySet());
+        }
+    }
+
+    @Inject
+    private Provider<WikiDescriptorDocumentHelper> descriptorDocumentHelperProvider;
+
+    @Inject
+    private Provider<WikiDescriptorManager> wikiDescriptorManagerProvider;
+
+    private volatile Snapshot snapshot;
+
+    private Snapshot getSnapshot() throws WikiManagerException
+    {
+        Snapshot currentSnapshot = this.snapshot;
+
+        if (currentSnapshot == null) {
+            currentSnapshot = load();
+        }
+
+        return currentSnapshot;
+    }
+
+    private synchronized Snapshot load() throws WikiManagerException
+    {
+        if (this.snapshot == null) {
+            Map<String, List<String>> aliases;
+            try {
+                aliases = this.descriptorDocumentHelperProvider.get().getAllWikiAliases();
+            } catch (Exception e) {
+                throw new WikiManagerException("Failed to load the wiki descriptors index", e);
+            }
+
+            // Make sure we always know about the main wiki, even a virtual one
+            aliases.putIfAbsent(this.wikiDescriptorManagerProvider.get().getMainWikiId(), Collections.emptyList());
+
+            this.snapshot = new Snapshot(aliases);
+        }
+
+        return this.snapshot;
+    }
+
+    /**
+     * @return the identifiers of all the wikis
+     * @throws WikiManagerException when failing to load the index
+     */
+    public Collection<String> getWikiIds() throws WikiManagerException
+    {
+        return getSnapshot().ids;
+    }
+
+    /**
+     * @param wikiId the identifier of the wiki
+     * @return true if a wiki with the passed identifier exists
+     * @throws WikiManagerException when failing to load the index
+     */
+    public boolean exists(String wikiId) throws WikiManagerException
+    {
+        return getSnapshot().aliasesById.containsKey(wikiId);
+    }
+
+    /**
+     * @param wikiAlias the alias of the wiki
+     * @return the identifier of the wiki associated to the passed alias or null if none could be found
+     * @throws WikiManagerException when failing to load the index
+     */
+    public String getWikiId(String wikiAlias) throws WikiManagerException
+    {
+        return getSnapshot().idByAlias.get(wikiAlias);
+    }
+
+    /**
+     * Add or update a wiki in the index.
+     *
+     * @param descriptor the descriptor of the wiki
+     */
+    public synchronized void set(DefaultWikiDescriptor descriptor)
+    {
+        if (this.snapshot != null) {
+            Map<String, List<String>> aliases = new HashMap<>(this.snapshot.aliasesById);
+            aliases.put(descriptor.getId(), new ArrayList<>(descriptor.getAliases()));
+
+            this.snapshot = new Snapshot(aliases);
+        }
+    }
+
+    /**
+     * Remove a wiki from the index.
+     *
+     * @param wikiId the identifier of the wiki
+     */
+    public synchronized void remove(String wikiId)
+    {
+        if (this.snapshot != null && this.snapshot.aliasesById.containsKey(wikiId)) {
+            Map<String, List<String>> aliases = new HashMap<>(this.snapshot.aliasesById);
+            aliases.remove(wikiId);
+
+            // Make sure we always know about the main wiki, even a virtual one
+            aliases.putIfAbsent(this.wikiDescriptorManagerProvider.get().getMainWikiId(), Collections.emptyList());
+
+            this.snapshot = new Snapshot(aliases);
+        }
+    }
+
+    /**
+     * Forget the index content. It will be loaded again the next time it's needed.
+     */
+    public synchronized void reset()
+    {
+        this.snapshot = null;
+    }
+}
@@ -23,7 +23,6 @@
 import java.util.Collection;
 import java.util.List;
 
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
@@ -33,6 +32,7 @@
 import org.xwiki.wiki.internal.descriptor.builder.WikiDescriptorBuilder;
 import org.xwiki.wiki.internal.descriptor.document.WikiDescriptorDocumentHelper;
 import org.xwiki.wiki.internal.manager.WikiDescriptorCache;
+import org.xwiki.wiki.internal.manager.WikiDescriptorIndex;
 import org.xwiki.wiki.manager.WikiManagerException;
 import org.xwiki.wiki.properties.WikiPropertyGroup;
 
@@ -70,6 +70,9 @@
     @MockComponent
     private WikiDescriptorCache cache;
 
+    @MockComponent
+    private WikiDescriptorIndex index;
+
     @MockComponent
     private WikiDescriptorDocumentHelper descriptorDocumentHelper;
 
@@ -79,13 +82,6 @@
     @InjectMockitoOldcore
     private MockitoOldcore oldcore;
 
-    @BeforeEach
-    void beforeEach()
-    {
-        // Cache is supposed to return null and not empty list by default
-        when(this.cache.getWikiIds()).thenReturn(null);
-    }
-
     @Test
     void getByIdWhenNotInCacheButExists() throws Exception
     {
@@ -93,6 +89,7 @@ void getByIdWhenNotInCacheButExists() throws Exception
         when(this.cache.getFromId("wikiid")).thenReturn(null);
 
         // But exists
+        when(this.index.exists("wikiid")).thenReturn(true);
         XWikiDocument document = mock(XWikiDocument.class);
         when(this.descriptorDocumentHelper.getDocumentFromWikiId("wikiid")).thenReturn(document);
         when(document.isNew()).thenReturn(false);
@@ -129,9 +126,20 @@ void getByIdWhenNotInCacheAndItDoesntExist() throws Exception
         XWikiDocument document = mock(XWikiDocument.class);
         when(this.descriptorDocumentHelper.getDocumentFromWikiId("wikiid")).thenReturn(document);
         when(document.isNew()).thenReturn(true);
+        when(this.index.exists("wikiid")).thenReturn(true);
+
+        assertNull(this.descriptorManager.getById("wikiid"));
+
+        verify(this.cache).addFromId(eq("wikiid"), same(DefaultWikiDescriptor.VOID));
+    }
 
+    @Test
+    void getByIdWhenNotInCacheAndNotInIndex() throws Exception
+    {
         assertNull(this.descriptorManager.getById("wikiid"));
 
+        // The index is complete so there is no need to look at the database
+        verify(this.descriptorDocumentHelper, never()).getDocumentFromWikiId("wikiid");
         verify(this.cache).addFromId(eq("wikiid"), same(DefaultWikiDescriptor.VOID));
     }
 
@@ -142,8 +150,10 @@ void getByAliasWhenNotInCacheButExists() throws Exception
         when(this.cache.getFromId("wikiid")).thenReturn(null);
 
         // But exists
+        when(this.index.getWikiId("wikialias")).thenReturn("wikiid");
+        when(this.index.exists("wikiid")).thenReturn(true);
         XWikiDocument document = mock(XWikiDocument.class);
-        when(this.descriptorDocumentHelper.findXWikiServerClassDocument("wikialias")).thenReturn(document);
+        when(this.descriptorDocumentHelper.getDocumentFromWikiId("wikiid")).thenReturn(document);
         when(document.isNew()).thenReturn(false);
 
         // Get all XWiki.XWikiServerClass XObjects to pass to the Wiki Descriptor Builder
@@ -177,6 +187,29 @@ void getByAliasWhenNotInCacheAndItDoesntExist() throws Exception
         assertNull(this.descriptorManager.getByAlias("wikialias"));
 
         verify(this.cache).addFromAlias(eq("wikialias"), same(DefaultWikiDescriptor.VOID));
+        verify(this.descriptorDocumentHelper, never()).findXWikiServerClassDocument(any());
+    }
+
+    @Test
+    void getIdByAlias() throws Exception
+    {
+        when(this.index.getWikiId("wikialias")).thenReturn("wikiid");
+
+        assertEquals("wikiid", this.descriptorManager.getIdByAlias("wikialias"));
+        assertNull(this.descriptorManager.getIdByAlias("otheralias"));
+
+        // Resolving the identifier should not require loading the descriptor
+        verify(this.descriptorDocumentHelper, never()).getDocumentFromWikiId(any());
+    }
+
+    @Test
+    void getIdByAliasWhenInCache() throws Exception
+    {
+        when(this.cache.getFromAlias("wikialias")).thenReturn(new DefaultWikiDescriptor("wikiid", "wikialias"));
+        when(this.cache.getFromAlias("otheralias")).thenReturn(DefaultWikiDescriptor.VOID);
+
+        assertEquals("wikiid", this.descriptorManager.getIdByAlias("wikialias"));
+        assertNull(this.descriptorManager.getIdByAlias("otheralias"));
     }
 
     @Test
@@ -189,15 +222,9 @@ void getAll() throws Exception
 
         DefaultWikiDescriptor descriptor3 = new DefaultWikiDescriptor("wikiid3", "wikialias3");
 
-        // Get documents
-        when(this.descriptorDocumentHelper.getAllXWikiServerClassDocumentNames()).thenReturn(
-            Arrays.asList("XWiki.XWikiServerWikiid1", "XWiki.XWikiServerWikiid2", "XWiki.XWikiServerWikiid3"));
-        when(this.descriptorDocumentHelper.getWikiIdFromDocumentFullname("XWiki.XWikiServerWikiid1"))
-            .thenReturn("wikiid1");
-        when(this.descriptorDocumentHelper.getWikiIdFromDocumentFullname("XWiki.XWikiServerWikiid2"))
-            .thenReturn("wikiid2");
-        when(this.descriptorDocumentHelper.getWikiIdFromDocumentFullname("XWiki.XWikiServerWikiid3"))
-            .thenReturn("wikiid3");
+        // Get wikis
+        when(this.index.getWikiIds()).thenReturn(Arrays.asList("wikiid1", "wikiid2", "wikiid3", "xwiki"));
+        when(this.index.exists(any())).thenReturn(true);
         when(this.cache.getFromId("wikiid3")).thenReturn(descriptor3);
         when(this.descriptorDocumentHelper.getDocumentFromWikiId("wikiid1")).thenReturn(document1);
         when(this.descriptorDocumentHelper.getDocumentFromWikiId("wikiid2")).thenReturn(document2);
@@ -231,7 +258,7 @@ void getAll() throws Exception
     @Test
     void exists() throws Exception
     {
-        when(this.cache.getWikiIds()).thenReturn(Arrays.asList("wikiid1"));
+        when(this.index.exists("wikiid1")).thenReturn(true);
 
         // When the wiki exists
         assertTrue(this.descriptorManager.exists("wikiid1"));
@@ -34,6 +34,7 @@
 import org.xwiki.wiki.internal.descriptor.builder.WikiDescriptorBuilder;
 import org.xwiki.wiki.internal.descriptor.document.WikiDescriptorDocumentHelper;
 import org.xwiki.wiki.internal.manager.WikiDescriptorCache;
+import org.xwiki.wiki.internal.manager.WikiDescriptorIndex;
 
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
@@ -60,6 +61,8 @@
 
     private WikiDescriptorCache cache;
 
+    private WikiDescriptorIndex index;
+
     private WikiDescriptorDocumentHelper wikiDescriptorDocumentHelper;
 
     @Before
@@ -67,6 +70,7 @@ public void setUp() throws Exception
     {
         builder = mocker.getInstance(WikiDescriptorBuilder.class);
         cache = mocker.getInstance(WikiDescriptorCache.class);
+        index = mocker.getInstance(WikiDescriptorIndex.class);
         wikiDescriptorDocumentHelper = mocker.getInstance(WikiDescriptorDocumentHelper.class);
     }
 
@@ -98,6 +102,7 @@ public void onDocumentDeletedEvent() throws Exception
         // Verify
         verify(cache).remove(descriptor.getId(), descriptor.getAliases());
         verify(cache, never()).add(any(DefaultWikiDescriptor.class));
+        verify(index).remove("subwikia");
     }
 
     @Test
@@ -137,6 +142,8 @@ public void onDocumentUpdatedEvent() throws Exception
         // Verify
         verify(cache).remove(descriptor.getId(), descriptor.getAliases());
         verify(cache).add(newDescriptor);
+        verify(index).remove("subwikia");
+        verify(index).set(newDescriptor);
     }
 
 }
@@ -0,0 +1,113 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.wiki.internal.manager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+import org.xwiki.wiki.internal.descriptor.DefaultWikiDescriptor;
+import org.xwiki.wiki.internal.descriptor.document.WikiDescriptorDocumentHelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link WikiDescriptorIndex}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class WikiDescriptorIndexTest
+{
+    @InjectMockComponents
+    private WikiDescriptorIndex index;
+
+    @MockComponent
+    private WikiDescriptorDocumentHelper documentHelper;
+
+    @MockComponent
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.wikiDescriptorManager.getMainWikiId()).thenReturn("xwiki");
+
+        Map<String, List<String>> aliases = new HashMap<>();
+        aliases.put("wiki1", Arrays.asList("alias1", "alias1bis"));
+        aliases.put("wiki2", Arrays.asList("alias2"));
+        when(this.documentHelper.getAllWikiAliases()).thenReturn(aliases);
+    }
+
+    @Test
+    void load() throws Exception
+    {
+        assertEquals(new HashSet<>(Arrays.asList("xwiki", "wiki1", "wiki2")),
+            new HashSet<>(this.index.getWikiIds()));
+        assertEquals("wiki1", this.index.getWikiId("alias1"));
+        assertEquals("wiki1", this.index.getWikiId("alias1bis"));
+        assertEquals("wiki2", this.index.getWikiId("alias2"));
+        assertNull(this.index.getWikiId("unknown"));
+        assertTrue(this.index.exists("xwiki"));
+        assertFalse(this.index.exists("unknown"));
+
+        // Loaded only once
+        verify(this.documentHelper, times(1)).getAllWikiAliases();
+    }
+
+    @Test
+    void setAndRemove() throws Exception
+    {
+        // Make sure the index is loaded
+        this.index.getWikiIds();
+
+        DefaultWikiDescriptor descriptor = new DefaultWikiDescriptor("wiki3", "alias3");
+        this.index.set(descriptor);
+
+        assertTrue(this.index.exists("wiki3"));
+        assertEquals("wiki3", this.index.getWikiId("alias3"));
+
+        this.index.set(new DefaultWikiDescriptor("wiki1", "newalias1"));
+
+        assertNull(this.index.getWikiId("alias1"));
+        assertEquals("wiki1", this.index.getWikiId("newalias1"));
+
+        this.index.remove("wiki2");
+
+        assertFalse(this.index.exists("wiki2"));
+        assertNull(this.index.getWikiId("alias2"));
+
+        verify(this.documentHelper, times(1)).getAllWikiAliases();
+    }
+}
@@ -51,6 +51,11 @@ public class XarEntry extends LocalDocumentReference
      */
     private String entryType;
 
+    /**
+     * @see #getChecksum()
+     */
+    private long checksum = -1;
+
     /**
      * @param reference the reference of the document
      */
@@ -126,6 +131,22 @@ public XarEntry(LocalDocumentReference reference, String name, int defaultAction
         this.entryType = entryType;
     }
 
+    /**
+     * @param reference the reference of the document
+     * @param name the name of the entry (ZIP style)
+     * @param defaultAction the default action associated to a XAR entry (not used at the moment)
+     * @param entryType the type of the entry
+     * @param checksum the CRC-32 of the entry content or -1 if unknown
+     * @since 13.4RC1
+     */
+    public XarEntry(LocalDocumentReference reference, String name, int defaultAction, String entryType,
+        long checksum)
+    {
+        this(reference, name, defaultAction, entryType);
+
+        this.checksum = checksum;
+    }
+
     /**
      * @return the name of the entry in the ZIP (XAR) package
      */
@@ -143,6 +164,15 @@ public String getEntryType()
         return this.entryType;
     }
 
+    /**
+     * @return the CRC-32 of the entry content (as stored in the ZIP package) or -1 if unknown
+     * @since 13.4RC1
+     */
+    public long getChecksum()
+    {
+        return this.checksum;
+    }
+
     /**
      * @return the name of the document
      */
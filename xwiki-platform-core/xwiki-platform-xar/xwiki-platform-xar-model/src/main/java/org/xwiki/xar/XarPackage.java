@@ -197,7 +197,7 @@ public void read(InputStream xarStream) throws IOException, XarException
         try {
             for (ZipArchiveEntry entry = zis.getNextZipEntry(); entry != null; entry = zis.getNextZipEntry()) {
                 if (!entry.isDirectory() && zis.canReadEntryData(entry)) {
-                    readEntry(zis, entry.getName());
+                    readEntry(zis, entry.getName(), entry.getCrc());
                 }
             }
         } finally {
@@ -223,7 +223,7 @@ public void read(ZipFile zipFile) throws IOException, XarException
                 InputStream stream = zipFile.getInputStream(entry);
 
                 try {
-                    readEntry(stream, entry.getName());
+                    readEntry(stream, entry.getName(), entry.getCrc());
                 } finally {
                     stream.close();
                 }
@@ -256,13 +256,13 @@ private void read(File directory, String rootDirectory) throws IOException, XarE
                 try (FileInputStream stream = new FileInputStream(file)) {
                     String entryName = file.getPath();
                     entryName = entryName.substring(rootDirectory.length(), entryName.length());
-                    readEntry(stream, entryName);
+                    readEntry(stream, entryName, -1);
                 }
             }
         }
     }
 
-    private void readEntry(InputStream stream, String entryName) throws XarException, IOException
+    private void readEntry(InputStream stream, String entryName, long checksum) throws XarException, IOException
     {
         if (entryName.equals(XarModel.PATH_PACKAGE)) {
             readDescriptor(stream);
@@ -275,7 +275,7 @@ private void readEntry(InputStream stream, String entryName) throws XarException
             String entryType = getEntryType(reference);
 
             // Create entry
-            XarEntry xarEntry = new XarEntry(reference, entryName, defaultAction, entryType);
+            XarEntry xarEntry = new XarEntry(reference, entryName, defaultAction, entryType, checksum);
 
             // Register entry
             putEntry(xarEntry);
@@ -658,8 +658,11 @@ private String getEntryType(LocalDocumentReference reference)
 
     private void updateEntry(XarEntry packageFile)
     {
-        if (this.entries.containsKey(packageFile)) {
-            this.entries.put(packageFile, packageFile);
+        XarEntry entry = this.entries.get(packageFile);
+        if (entry != null) {
+            // Keep the checksum of the entry content
+            this.entries.put(packageFile, new XarEntry(packageFile, packageFile.getEntryName(),
+                packageFile.getDefaultAction(), packageFile.getEntryType(), entry.getChecksum()));
         }
     }
 
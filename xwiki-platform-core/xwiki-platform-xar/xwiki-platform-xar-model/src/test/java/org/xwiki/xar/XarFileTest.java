@@ -25,6 +25,7 @@
 import java.util.Iterator;
 import java.util.Locale;
 
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.extension.ExtensionId;
@@ -33,6 +34,7 @@
 import org.xwiki.xar.internal.model.XarModel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 /**
  * Validate {@link XarFile}.
@@ -95,4 +97,17 @@ void XarFile() throws XarException, IOException
                 packageFilesIterator.next());
         }
     }
+
+    @Test
+    void checksum() throws XarException, IOException
+    {
+        File xarFile = extensionPackager.getExtensionFile(new ExtensionId("xar1", "1.0"));
+
+        try (XarFile file = new XarFile(xarFile); ZipFile zipFile = new ZipFile(xarFile)) {
+            for (XarEntry entry : file.getEntries()) {
+                assertNotEquals(-1, entry.getChecksum());
+                assertEquals(zipFile.getEntry(entry.getEntryName()).getCrc(), entry.getChecksum());
+            }
+        }
+    }
 }